@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.util.Arrays;
+
+import types.ArrayStack;
+
+/**
+ * Compara a política de redimensionamento original de {@link ArrayStack}
+ * (dobrar quando cheia, encolher para metade quando a ocupação chega a 1/4,
+ * sempre a partir de 8) com a pré-alocação e com uma histerese mais larga, numa
+ * carga que oscila à volta de uma fronteira de redimensionamento.
+ *
+ * Uso: {@code java -cp bin benchmarks.ArrayStackResizeBenchmark [ciclos]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class ArrayStackResizeBenchmark {
+	private static final Object ITEM = new Object();
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		System.out.printf("%-26s %6s %7s %12s %14s %10s%n", "policy", "base", "amp", "resizes", "copies", "ns/op");
+		// a garrafa enche e esvazia; a fronteira de uma fronteira DFS oscila
+		int[][] loads = { { 0, 5 }, { 3, 6 }, { 60, 10 }, { 1000, 300 } };
+		for (int[] load : loads) {
+			for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+				boolean print = k == 1;
+				legacy(load[0], load[1], cycles, print);
+				policy("default", new ArrayStack<>(), load[0], load[1], cycles, print);
+				policy("presized", new ArrayStack<>(load[0] + load[1]), load[0], load[1], cycles, print);
+				policy("hysteresis(grow 2, 1/8)", new ArrayStack<>(8, 2, 8), load[0], load[1], cycles, print);
+			}
+		}
+	}
+
+	private static void policy(String name, ArrayStack<Object> stack, int base, int amplitude, int cycles,
+			boolean print) {
+		long start = System.nanoTime();
+		for (int i = 0; i < base; i++) {
+			stack.push(ITEM);
+		}
+		for (int c = 0; c < cycles; c++) {
+			for (int i = 0; i < amplitude; i++) {
+				stack.push(ITEM);
+			}
+			for (int i = 0; i < amplitude; i++) {
+				stack.pop();
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		sink += stack.size();
+		if (print) {
+			report(name, base, amplitude, stack.resizes(), stack.copiedElements(), nanos, cycles);
+		}
+	}
+
+	private static void legacy(int base, int amplitude, int cycles, boolean print) {
+		LegacyStack stack = new LegacyStack();
+		long start = System.nanoTime();
+		for (int i = 0; i < base; i++) {
+			stack.push(ITEM);
+		}
+		for (int c = 0; c < cycles; c++) {
+			for (int i = 0; i < amplitude; i++) {
+				stack.push(ITEM);
+			}
+			for (int i = 0; i < amplitude; i++) {
+				stack.pop();
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		sink += stack.size;
+		if (print) {
+			report("original", base, amplitude, stack.resizes, stack.copies, nanos, cycles);
+		}
+	}
+
+	private static void report(String name, int base, int amplitude, long resizes, long copies, long nanos,
+			int cycles) {
+		double ops = 2.0 * amplitude * cycles + base;
+		System.out.printf("%-26s %6d %7d %12d %14d %10.2f%n", name, base, amplitude, resizes, copies, nanos / ops);
+	}
+
+	/**
+	 * A política de ArrayStack antes de ser configurável, com contadores.
+	 */
+	private static final class LegacyStack {
+		private Object[] data = new Object[8];
+		private int size;
+		private long resizes;
+		private long copies;
+
+		void push(Object e) {
+			if (size == data.length) {
+				resize(Math.max(1, size * 2)); // o original falhava ao crescer de 0
+			}
+			data[size++] = e;
+		}
+
+		void pop() {
+			data[--size] = null;
+			if (size == data.length / 4) {
+				resize(data.length / 2);
+			}
+		}
+
+		private void resize(int capacity) {
+			data = Arrays.copyOf(data, capacity);
+			resizes++;
+			copies += size;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+import types.BatchEnvironment;
+import types.Game;
+import types.Palette;
+import types.Table;
+
+/**
+ * Compara jogadas ao acaso feitas num {@link BatchEnvironment} com as mesmas
+ * jogadas feitas em objetos {@link Game}, um por mesa. As mesas terminadas são
+ * reiniciadas com uma nova semente.
+ *
+ * Uso: {@code java -cp bin benchmarks.BatchEnvironmentBenchmark [mesas] [passos]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BatchEnvironmentBenchmark {
+	private static final int SYMBOLS = 6;
+	private static final int CAPACITY = 4;
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+		int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		System.out.printf("%-6s %16s %16s%n", "round", "batch moves/s", "Game moves/s");
+		for (int round = 1; round <= 3; round++) {
+			System.out.printf("%-6d %16.0f %16.0f%n", round, batch(n, steps), games(n, steps));
+		}
+	}
+
+	private static double batch(int n, int steps) {
+		BatchEnvironment env = new BatchEnvironment(n, SYMBOLS, CAPACITY);
+		int[] seeds = new int[n];
+		for (int e = 0; e < n; e++) {
+			seeds[e] = e;
+		}
+		env.reset(seeds);
+		int next = n;
+		SplittableRandom rd = new SplittableRandom(1);
+		int[] actions = new int[2 * n];
+		long start = System.nanoTime();
+		for (int s = 0; s < steps; s++) {
+			for (int k = 0; k < actions.length; k++) {
+				actions[k] = rd.nextInt(env.bottles());
+			}
+			env.step(actions);
+			boolean[] done = env.done();
+			for (int e = 0; e < n; e++) {
+				if (done[e]) {
+					env.reset(e, next++);
+				}
+			}
+		}
+		return (double) n * steps / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private static double games(int n, int steps) {
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		Game[] games = new Game[n];
+		for (int e = 0; e < n; e++) {
+			games[e] = new Game(palette, SYMBOLS, e, CAPACITY);
+		}
+		int next = n;
+		int bottles = games[0].getNumberBottles();
+		SplittableRandom rd = new SplittableRandom(1);
+		long start = System.nanoTime();
+		for (int s = 0; s < steps; s++) {
+			for (int e = 0; e < n; e++) {
+				int i = rd.nextInt(bottles);
+				int j = rd.nextInt(bottles);
+				if (games[e].isValid(i, j) && !games[e].cell(i, 0).equals(Table.EMPTY)) {
+					games[e].play(i, j);
+				}
+				if (games[e].isRoundFinished()) {
+					games[e] = new Game(palette, SYMBOLS, next++, CAPACITY);
+				}
+			}
+		}
+		return (double) n * steps / ((System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import types.BeamSolver;
+import types.Filling;
+import types.Heuristic;
+import types.Palette;
+import types.Table;
+
+/**
+ * Mede como a solução do {@link BeamSolver} melhora com o prazo: para cada
+ * configuração e prazo, a média das jogadas das soluções das mesas com as
+ * sementes 1 a n, a largura do último feixe e quantas mesas ficaram sem
+ * solução.
+ *
+ * Uso: {@code java -cp bin benchmarks.BeamSolverBenchmark [mesas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BeamSolverBenchmark {
+	private static final int[][] CONFIGS = { { 8, 4 }, { 16, 4 }, { 16, 8 }, { 32, 4 } };
+	private static final long[] BUDGETS_MS = { 1, 10, 100, 1000 };
+
+	public static void main(String[] args) {
+		int tables = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		BeamSolver solver = new BeamSolver(Heuristic.SEGMENTS);
+		solver.solve(new Table(Filling.values(), 8, 0, 4), 1_000_000_000L); // aquecimento
+		System.out.printf("%-8s %9s %10s %10s %8s %9s %8s%n", "symbols", "capacity", "budget ms", "moves", "width",
+				"optimal", "failed");
+		for (int[] config : CONFIGS) {
+			for (long budget : BUDGETS_MS) {
+				long moves = 0;
+				long width = 0;
+				int optimal = 0;
+				int failed = 0;
+				for (int seed = 1; seed <= tables; seed++) {
+					BeamSolver.Search search = solver.start(new Table(palette, config[0], seed, config[1]));
+					int[][] solution = search.improve(budget * 1_000_000L, Long.MAX_VALUE);
+					if (solution == null) {
+						failed++;
+						continue;
+					}
+					moves += solution.length;
+					width += search.width();
+					optimal += search.optimal() ? 1 : 0;
+				}
+				int solved = Math.max(1, tables - failed);
+				System.out.printf("%-8d %9d %10d %10.1f %8d %9d %8d%n", config[0], config[1], budget,
+						moves / (double) solved, width / solved, optimal, failed);
+			}
+		}
+	}
+}
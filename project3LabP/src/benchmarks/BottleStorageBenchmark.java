@@ -0,0 +1,109 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+import types.Bottle;
+import types.BottleStorage;
+import types.Filling;
+
+/**
+ * Compara as estratégias de armazenamento de {@link Bottle}: débito de
+ * transferências de goles entre garrafas e memória ocupada por garrafa, para
+ * várias capacidades.
+ *
+ * Uso: {@code java -cp bin benchmarks.BottleStorageBenchmark [segundos] [estratégia]}
+ *
+ * Correndo todas as estratégias na mesma JVM as chamadas a
+ * {@link BottleStorage} ficam megamórficas; para números limpos indicar uma
+ * estratégia de cada vez.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BottleStorageBenchmark {
+	private static final int[] CAPACITIES = { 4, 8, 16 };
+	private static final int BOTTLES = 64;
+	private static final int MEMORY_BOTTLES = 100_000;
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+		BottleStorage.Kind[] kinds = args.length > 1 ? new BottleStorage.Kind[] { BottleStorage.Kind.valueOf(args[1]) }
+				: BottleStorage.Kind.values();
+		System.out.printf("%-14s %9s %16s %16s%n", "storage", "capacity", "Mmoves/s", "bytes/bottle");
+		for (int capacity : CAPACITIES) {
+			for (BottleStorage.Kind kind : kinds) {
+				if (kind == BottleStorage.Kind.PACKED_LONG && capacity * 3 > Long.SIZE) {
+					continue;
+				}
+				throughput(kind, capacity, seconds / 2); // aquecimento
+				double mops = throughput(kind, capacity, seconds);
+				double bytes = bytesPerBottle(kind, capacity);
+				System.out.printf("%-14s %9d %16.2f %16.1f%n", kind, capacity, mops, bytes);
+			}
+		}
+	}
+
+	/**
+	 * Mede quantos milhões de jogadas por segundo se conseguem fazer entre
+	 * garrafas escolhidas ao acaso. Cada jogada consulta o topo, tenta verter um
+	 * gole e verifica se o destino tem um só tipo de conteúdo.
+	 */
+	private static double throughput(BottleStorage.Kind kind, int capacity, double seconds) {
+		Bottle[] bottles = fill(kind, capacity, BOTTLES, 7);
+		SplittableRandom rd = new SplittableRandom(42);
+		long deadline = System.nanoTime() + (long) (seconds * 1e9);
+		long moves = 0;
+		long single = 0;
+		long start = System.nanoTime();
+		while (System.nanoTime() < deadline) {
+			for (int k = 0; k < 4096; k++) {
+				Bottle from = bottles[rd.nextInt(BOTTLES)];
+				Bottle to = bottles[rd.nextInt(BOTTLES)];
+				if (!from.isEmpty() && from != to && to.receive(from.top())) {
+					from.pourOut();
+				}
+				if (to.isSingleFilling()) {
+					single++;
+				}
+			}
+			moves += 4096;
+		}
+		sink += single;
+		return moves / ((System.nanoTime() - start) / 1e3);
+	}
+
+	/**
+	 * Estima a memória ocupada por uma garrafa cheia medindo o heap antes e
+	 * depois de criar muitas garrafas.
+	 */
+	private static double bytesPerBottle(BottleStorage.Kind kind, int capacity) {
+		long before = usedMemory();
+		Bottle[] bottles = fill(kind, capacity, MEMORY_BOTTLES, 1);
+		long after = usedMemory();
+		sink += bottles.length;
+		return (after - before) / (double) MEMORY_BOTTLES - 4; // sem a referência no array
+	}
+
+	private static Bottle[] fill(BottleStorage.Kind kind, int capacity, int n, int seed) {
+		SplittableRandom rd = new SplittableRandom(seed);
+		Filling[] values = Filling.values();
+		Bottle[] bottles = new Bottle[n];
+		for (int i = 0; i < n; i++) {
+			Filling[] content = new Filling[capacity];
+			for (int j = 0; j < capacity; j++) {
+				content[j] = values[rd.nextInt(values.length)];
+			}
+			bottles[i] = new Bottle(content, kind);
+		}
+		return bottles;
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import types.BreadthFirstSolver;
+import types.BreadthFirstSolver.Mode;
+import types.Filling;
+import types.Table;
+
+/**
+ * Compara as posições expandidas pelo {@link BreadthFirstSolver} a avançar só a
+ * partir da mesa e nos dois sentidos, nas mesas geradas com as sementes 1 a n
+ * de algumas configurações. Os dois modos encontram soluções com o mesmo
+ * número de jogadas.
+ *
+ * Uso: {@code java -cp bin benchmarks.BreadthFirstSolverBenchmark [mesas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BreadthFirstSolverBenchmark {
+	private static final int[][] CONFIGS = { { 4, 4 }, { 6, 4 }, { 5, 5 }, { 7, 4 } };
+	private static final int STATE_LIMIT = 4_000_000;
+
+	public static void main(String[] args) {
+		int tables = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		System.out.printf("%-8s %9s %14s %12s %12s %8s %8s %9s %8s%n", "symbols", "capacity", "mode", "forward",
+				"backward", "moves", "meet", "solve s", "failed");
+		for (int[] config : CONFIGS) {
+			run(config[0], config[1], Mode.FORWARD, tables);
+			run(config[0], config[1], Mode.BIDIRECTIONAL, tables);
+		}
+	}
+
+	private static void run(int symbols, int capacity, Mode mode, int tables) {
+		BreadthFirstSolver solver = new BreadthFirstSolver(mode, STATE_LIMIT);
+		long forward = 0;
+		long backward = 0;
+		long moves = 0;
+		long meet = 0;
+		int failed = 0;
+		long start = System.nanoTime();
+		for (int seed = 1; seed <= tables; seed++) {
+			int[][] solution = solver.solve(new Table(Filling.values(), symbols, seed, capacity));
+			forward += solver.expandedForward();
+			backward += solver.expandedBackward();
+			if (solution == null) {
+				failed++;
+			}
+			else {
+				moves += solution.length;
+				meet += solver.meetingDepth();
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-8d %9d %14s %12d %12d %8d %8d %9.2f %8d%n", symbols, capacity, mode, forward, backward,
+				moves, meet, seconds, failed);
+	}
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import types.Leaderboard;
+
+/**
+ * Mede quantas atualizações por segundo a {@link Leaderboard} aceita de várias
+ * threads e quanto demora uma consulta de posição, com jogadores e pontuações
+ * ao acaso em algumas configurações.
+ *
+ * Uso: {@code java -cp bin benchmarks.LeaderboardBenchmark [jogadores] [atualizações]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class LeaderboardBenchmark {
+	private static final int CONFIGS = 8;
+	private static final int QUERIES = 100_000;
+
+	public static void main(String[] args) {
+		int players = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int updates = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+		String[] names = new String[players];
+		for (int p = 0; p < players; p++) {
+			names[p] = "jogador" + p;
+		}
+		Leaderboard board = new Leaderboard();
+		System.out.printf("%-6s %14s %14s%n", "round", "updates/s", "rank us");
+		for (int round = 1; round <= 3; round++) {
+			long start = System.nanoTime();
+			IntStream.range(0, updates).parallel().forEach(k -> {
+				SplittableRandom rd = new SplittableRandom(k);
+				board.submit(names[rd.nextInt(players)], 2 + rd.nextInt(CONFIGS), 4, rd.nextInt(100) * 100,
+						rd.nextInt(60));
+			});
+			double seconds = (System.nanoTime() - start) / 1e9;
+			SplittableRandom rd = new SplittableRandom(round);
+			long ranks = 0;
+			start = System.nanoTime();
+			for (int q = 0; q < QUERIES; q++) {
+				ranks += board.rank(names[rd.nextInt(players)], 2 + rd.nextInt(CONFIGS), 4);
+			}
+			double micros = (System.nanoTime() - start) / 1e3 / QUERIES;
+			System.out.printf("%-6d %14.0f %14.2f%s%n", round, updates / seconds, micros, ranks == 0 ? "?" : "");
+		}
+	}
+}
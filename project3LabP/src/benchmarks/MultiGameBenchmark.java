@@ -0,0 +1,82 @@
+package benchmarks;
+
+import types.Filling;
+import types.Game;
+import types.MultiGame;
+
+/**
+ * Mede a memória que cada mesa a mais ocupa num {@link MultiGame}, comparada
+ * com um {@link Game} por mesa, e quantas jogadas por segundo várias threads
+ * conseguem fazer em mesas diferentes.
+ *
+ * Uso: {@code java -cp bin benchmarks.MultiGameBenchmark [mesas] [threads] [jogadas por thread]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class MultiGameBenchmark {
+	private static final int SYMBOLS = 8;
+	private static final int CAPACITY = 4;
+
+	public static void main(String[] args) throws InterruptedException {
+		int boards = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int moves = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+		int[] seeds = new int[boards];
+		for (int b = 0; b < boards; b++) {
+			seeds[b] = b + 1;
+		}
+
+		long before = used();
+		Game[] games = new Game[boards];
+		for (int b = 0; b < boards; b++) {
+			games[b] = new Game(Filling.values(), SYMBOLS, seeds[b], CAPACITY);
+		}
+		long gameBytes = used() - before;
+		games = null;
+
+		before = used();
+		MultiGame multi = new MultiGame(Filling.values(), SYMBOLS, seeds, CAPACITY);
+		long multiBytes = used() - before;
+		System.out.printf("%-10s %12s%n", "mode", "bytes/board");
+		System.out.printf("%-10s %12d%n", "game", gameBytes / boards);
+		System.out.printf("%-10s %12d%n", "multi", multiBytes / boards);
+
+		System.out.printf("%n%-10s %12s%n", "threads", "moves/s");
+		for (int t = 1; t <= threads; t *= 2) {
+			System.out.printf("%-10d %12.0f%n", t, throughput(multi, t, moves));
+		}
+	}
+
+	// cada thread tenta jogadas ao calhas nas suas mesas
+	private static double throughput(MultiGame multi, int threads, int moves) throws InterruptedException {
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+		for (int t = 0; t < threads; t++) {
+			int first = t;
+			workers[t] = new Thread(() -> {
+				long state = first + 1;
+				int n = multi.getNumberBottles(0);
+				for (int k = 0; k < moves; k++) {
+					state ^= state << 13;
+					state ^= state >>> 7;
+					state ^= state << 17;
+					int board = first + (int) Long.remainderUnsigned(state, multi.boards() / threads) * threads;
+					multi.play(board, (int) ((state >>> 20) % n), (int) ((state >>> 40) % n));
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		return (double) threads * moves / ((System.nanoTime() - start) / 1e9);
+	}
+
+	private static long used() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int k = 0; k < 3; k++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+import types.Palette;
+import types.PersistentTable;
+import types.Table;
+
+/**
+ * Guarda milhares de versões de uma mesa, uma por gole vertido ao acaso, e compara a
+ * memória e o tempo por versão de {@link PersistentTable} com os de copiar a
+ * mesa inteira com {@link Table#copy()} em cada jogada.
+ *
+ * Uso: {@code java -cp bin benchmarks.PersistentTableBenchmark [versões]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class PersistentTableBenchmark {
+	private static final int[][] CONFIGS = { { 8, 4 }, { 32, 8 }, { 256, 16 } };
+
+	public static void main(String[] args) {
+		int versions = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		System.out.printf("%-8s %9s %8s %16s %14s %16s %14s%n", "symbols", "capacity", "bottles",
+				"persistent B/v", "persistent ns", "copy B/v", "copy ns");
+		for (int[] config : CONFIGS) {
+			Table table = new Table(palette, config[0], 1, config[1], Table.Generator.LEGACY, Table.Layout.BUFFER);
+			int[] moves = walk(table, versions);
+			for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+				double[] persistent = persistent(table, moves);
+				double[] copies = copies(table, moves);
+				if (k == 1) {
+					System.out.printf("%-8d %9d %8d %16.0f %14.0f %16.0f %14.0f%n", config[0], config[1],
+							table.getNumberBottles(), persistent[0], persistent[1], copies[0], copies[1]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Uma sequência de goles vertidos ao acaso, {i, j} de cada um; {-1, -1} volta
+	 * à mesa inicial quando já não há para onde verter.
+	 */
+	private static int[] walk(Table table, int versions) {
+		Table current = table.copy();
+		SplittableRandom rd = new SplittableRandom(3);
+		int n = current.getNumberBottles();
+		int[] moves = new int[2 * versions];
+		int misses = 0;
+		for (int v = 0; v < versions;) {
+			int i = rd.nextInt(n);
+			int j = current.findTarget(i);
+			if (j >= 0) {
+				current.pourFromTo(i, j);
+				moves[2 * v] = i;
+				moves[2 * v++ + 1] = j;
+				misses = 0;
+			}
+			else if (++misses == 10 * n) {
+				current = table.copy();
+				moves[2 * v] = -1;
+				moves[2 * v++ + 1] = -1;
+			}
+		}
+		return moves;
+	}
+
+	private static double[] persistent(Table table, int[] moves) {
+		int versions = moves.length / 2;
+		PersistentTable[] history = new PersistentTable[versions];
+		long before = used();
+		long start = System.nanoTime();
+		PersistentTable initial = PersistentTable.of(table);
+		PersistentTable current = initial;
+		for (int v = 0; v < versions; v++) {
+			current = moves[2 * v] < 0 ? initial : current.pourFromTo(moves[2 * v], moves[2 * v + 1]);
+			history[v] = current;
+		}
+		long nanos = System.nanoTime() - start;
+		long bytes = used() - before;
+		return new double[] { bytes / (double) versions, nanos / (double) versions, history.length };
+	}
+
+	private static double[] copies(Table table, int[] moves) {
+		int versions = moves.length / 2;
+		Table[] history = new Table[versions];
+		long before = used();
+		long start = System.nanoTime();
+		Table current = table;
+		for (int v = 0; v < versions; v++) {
+			current = (moves[2 * v] < 0 ? table : current).copy();
+			if (moves[2 * v] >= 0) {
+				current.pourFromTo(moves[2 * v], moves[2 * v + 1]);
+			}
+			history[v] = current;
+		}
+		long nanos = System.nanoTime() - start;
+		long bytes = used() - before;
+		return new double[] { bytes / (double) versions, nanos / (double) versions, history.length };
+	}
+
+	private static long used() {
+		for (int k = 0; k < 3; k++) {
+			System.gc();
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
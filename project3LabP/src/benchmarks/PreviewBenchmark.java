@@ -0,0 +1,50 @@
+package benchmarks;
+
+import types.Game;
+import types.Palette;
+
+/**
+ * Mede quanto demora antever todas as jogadas de um jogo com
+ * {@link Game#preview(int, int, Game.Preview)}, como uma interface faria a
+ * cada movimento do rato.
+ *
+ * Uso: {@code java -cp bin benchmarks.PreviewBenchmark [repetições]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class PreviewBenchmark {
+	private static final int[][] CONFIGS = { { 8, 4 }, { 32, 8 }, { 256, 16 } };
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		int repeats = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		System.out.printf("%-8s %9s %8s %12s %16s%n", "symbols", "capacity", "bottles", "ns/preview",
+				"us/all moves");
+		for (int[] config : CONFIGS) {
+			Game game = new Game(palette, config[0], 1, config[1]);
+			int n = game.getNumberBottles();
+			Game.Preview preview = new Game.Preview();
+			for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+				long valid = 0;
+				long start = System.nanoTime();
+				for (int r = 0; r < repeats; r++) {
+					for (int i = 0; i < n; i++) {
+						for (int j = 0; j < n; j++) {
+							if (game.preview(i, j, preview).valid()) {
+								valid += preview.sips();
+							}
+						}
+					}
+				}
+				long nanos = System.nanoTime() - start;
+				sink += valid;
+				if (k == 1) {
+					System.out.printf("%-8d %9d %8d %12.1f %16.1f%n", config[0], config[1], n,
+							nanos / (double) repeats / n / n, nanos / 1e3 / repeats);
+				}
+			}
+		}
+	}
+}
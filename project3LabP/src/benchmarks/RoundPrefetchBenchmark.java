@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.function.Predicate;
+
+import types.Filling;
+import types.Game;
+import types.PatternDatabase;
+import types.Solver;
+import types.Table;
+
+/**
+ * Mede quanto demora {@link Game#startNewRound()} quando cada mesa tem de ser
+ * resolvida antes de ser aceite, gerando as mesas no momento ou numa thread
+ * própria com {@link Game#prefetchRounds(int, Predicate)}. Entre rondas o
+ * jogador pensa durante alguns milissegundos.
+ *
+ * Uso: {@code java -cp bin benchmarks.RoundPrefetchBenchmark [rondas] [ms a pensar]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class RoundPrefetchBenchmark {
+	private static final int SYMBOLS = 7;
+	private static final int CAPACITY = 4;
+
+	public static void main(String[] args) throws InterruptedException {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		long think = args.length > 1 ? Long.parseLong(args[1]) : 20;
+		PatternDatabase pdb = PatternDatabase.build(SYMBOLS, CAPACITY, SYMBOLS + Table.DIFFICULTY);
+		// cada thread usa o seu solver
+		ThreadLocal<Solver> solvers = ThreadLocal.withInitial(() -> new Solver(pdb));
+		Predicate<Table> solvable = table -> solvers.get().solve(table) != null;
+
+		System.out.printf("%-10s %12s %12s%n", "mode", "mean us", "max us");
+		for (int depth : new int[] { 0, 2 }) {
+			Game game = new Game(Filling.values(), SYMBOLS, 1, CAPACITY);
+			game.prefetchRounds(1, solvable);
+			game.stopPrefetching();
+			if (depth > 0) {
+				game.prefetchRounds(depth, solvable);
+			}
+			long total = 0;
+			long max = 0;
+			for (int round = 0; round < rounds; round++) {
+				Thread.sleep(think);
+				long start = System.nanoTime();
+				game.startNewRound();
+				long nanos = System.nanoTime() - start;
+				total += nanos;
+				max = Math.max(max, nanos);
+			}
+			game.stopPrefetching();
+			System.out.printf("%-10s %12.1f %12.1f%n", depth == 0 ? "inline" : "prefetch", total / 1e3 / rounds,
+					max / 1e3);
+		}
+	}
+}
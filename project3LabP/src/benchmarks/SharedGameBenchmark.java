@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.util.function.IntBinaryOperator;
+
+import types.Filling;
+import types.Game;
+import types.Palette;
+import types.SharedGame;
+
+/**
+ * Mede quantas jogadas por segundo várias threads conseguem fazer ao calhas na
+ * mesma mesa, com um {@link Game} bloqueado inteiro em cada jogada e com um
+ * {@link SharedGame}, que só bloqueia as duas garrafas da jogada.
+ *
+ * Uso: {@code java -cp bin benchmarks.SharedGameBenchmark [símbolos] [threads] [jogadas por thread]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SharedGameBenchmark {
+	private static final int CAPACITY = 4;
+
+	public static void main(String[] args) throws InterruptedException {
+		int symbols = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int moves = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+		Palette palette = Palette.emoji(symbols);
+
+		System.out.printf("%-10s %-8s %12s%n", "mode", "threads", "moves/s");
+		for (int t = 1; t <= threads; t *= 2) {
+			Game game = new Game(palette, symbols, 1, CAPACITY);
+			int n = game.getNumberBottles();
+			IntBinaryOperator locked = (i, j) -> {
+				synchronized (game) {
+					if (game.isRoundFinished()) {
+						game.startNewRound();
+					}
+					game.play(i, j);
+				}
+				return 0;
+			};
+			System.out.printf("%-10s %-8d %12.0f%n", "locked", t, throughput(locked, n, t, moves));
+
+			SharedGame shared = new SharedGame(palette, symbols, 1, CAPACITY);
+			IntBinaryOperator perBottle = (i, j) -> {
+				if (!shared.play(i, j) && shared.isRoundFinished()) {
+					shared.startNewRound();
+				}
+				return 0;
+			};
+			System.out.printf("%-10s %-8d %12.0f%n", "shared", t, throughput(perBottle, n, t, moves));
+		}
+	}
+
+	private static double throughput(IntBinaryOperator play, int n, int threads, int moves)
+			throws InterruptedException {
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+		for (int t = 0; t < threads; t++) {
+			long seed = t + 1;
+			workers[t] = new Thread(() -> {
+				long state = seed;
+				for (int k = 0; k < moves; k++) {
+					state ^= state << 13;
+					state ^= state >>> 7;
+					state ^= state << 17;
+					play.applyAsInt((int) Long.remainderUnsigned(state, n), (int) Long.remainderUnsigned(state >>> 32, n));
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		return (double) threads * moves / ((System.nanoTime() - start) / 1e9);
+	}
+}
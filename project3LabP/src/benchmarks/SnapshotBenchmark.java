@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import types.Game;
+import types.Palette;
+import types.Table;
+
+/**
+ * Mede quantos pares snapshot e restore por segundo fazem {@link Table} e
+ * {@link Game}, reutilizando o mesmo snapshot, e quantos bytes alocam por par
+ * (deve ser 0).
+ *
+ * Uso: {@code java -cp bin benchmarks.SnapshotBenchmark [pares]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SnapshotBenchmark {
+	private static final int[][] CONFIGS = { { 8, 4 }, { 32, 8 }, { 256, 16 } };
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		System.out.printf("%-8s %9s %8s %8s %14s %12s%n", "symbols", "capacity", "layout", "object", "pairs/s",
+				"bytes/pair");
+		for (int[] config : CONFIGS) {
+			for (Table.Layout layout : Table.Layout.values()) {
+				for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+					Table table = new Table(palette, config[0], 1, config[1], Table.Generator.LEGACY, layout);
+					Table.Snapshot snapshot = table.snapshot();
+					long bytes = threads.getCurrentThreadAllocatedBytes();
+					long start = System.nanoTime();
+					for (int p = 0; p < pairs; p++) {
+						table.snapshot(snapshot);
+						table.pourFromTo(0, table.getNumberBottles() - 1);
+						table.restore(snapshot);
+					}
+					double seconds = (System.nanoTime() - start) / 1e9;
+					bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+					sink += table.size(0);
+					if (k == 1) {
+						System.out.printf("%-8d %9d %8s %8s %14.0f %12.1f%n", config[0], config[1], layout, "Table",
+								pairs / seconds, bytes / (double) pairs);
+					}
+				}
+			}
+			if (config[1] <= 8) {
+				for (int k = 0; k < 2; k++) {
+					Game game = new Game(palette, config[0], 1, config[1]);
+					Game.Snapshot snapshot = game.snapshot();
+					long bytes = threads.getCurrentThreadAllocatedBytes();
+					long start = System.nanoTime();
+					for (int p = 0; p < pairs; p++) {
+						game.snapshot(snapshot);
+						game.restore(snapshot);
+					}
+					double seconds = (System.nanoTime() - start) / 1e9;
+					bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+					if (k == 1) {
+						System.out.printf("%-8d %9d %8s %8s %14.0f %12.1f%n", config[0], config[1],
+								Table.Layout.DEFAULT, "Game", pairs / seconds, bytes / (double) pairs);
+					}
+				}
+			}
+		}
+	}
+}
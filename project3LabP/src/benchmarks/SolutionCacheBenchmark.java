@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import types.Filling;
+import types.PatternDatabase;
+import types.SolutionCache;
+import types.Solver;
+import types.Table;
+
+/**
+ * Compara resolver as mesas das sementes 1 a n com o {@link Solver} e obtê-las
+ * de uma {@link SolutionCache} reaberta, como depois de um reinício.
+ *
+ * Uso: {@code java -cp bin benchmarks.SolutionCacheBenchmark [mesas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SolutionCacheBenchmark {
+	private static final int SYMBOLS = 7;
+	private static final int CAPACITY = 4;
+
+	public static void main(String[] args) throws IOException {
+		int tables = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		Path dir = Files.createTempDirectory("solutions");
+		Solver solver = new Solver(PatternDatabase.build(SYMBOLS, CAPACITY, SYMBOLS + Table.DIFFICULTY));
+
+		long start = System.nanoTime();
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			for (int seed = 1; seed <= tables; seed++) {
+				cache.solve(new Table(Filling.values(), SYMBOLS, seed, CAPACITY), solver::solve);
+			}
+			System.out.printf("solve and store: %8.1f us/table, %d bytes%n",
+					(System.nanoTime() - start) / 1e3 / tables, cache.bytes());
+		}
+
+		start = System.nanoTime();
+		long moves = 0;
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			double open = (System.nanoTime() - start) / 1e3;
+			for (int round = 0; round < 5; round++) {
+				start = System.nanoTime();
+				for (int seed = 1; seed <= tables; seed++) {
+					moves += cache.get(new Table(Filling.values(), SYMBOLS, seed, CAPACITY)).length;
+				}
+			}
+			System.out.printf("reopen:          %8.1f us%n", open);
+			System.out.printf("cached lookup:   %8.1f us/table (%d moves)%n",
+					(System.nanoTime() - start) / 1e3 / tables, moves / 5);
+		}
+	}
+}
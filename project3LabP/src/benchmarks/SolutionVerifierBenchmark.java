@@ -0,0 +1,66 @@
+package benchmarks;
+
+import types.Game;
+import types.Heuristic;
+import types.Palette;
+import types.SolutionVerifier;
+import types.SolutionVerifier.Submission;
+import types.SolutionVerifier.Verdict;
+import types.Solver;
+import types.Table;
+
+/**
+ * Mede quantas jogadas por segundo o {@link SolutionVerifier} repete. As
+ * submissões são as soluções do {@link Solver} para as sementes 1 a n, cada uma
+ * repetida várias vezes no lote. O tempo inclui gerar a mesa de cada submissão.
+ *
+ * Uso: {@code java -cp bin benchmarks.SolutionVerifierBenchmark [sementes] [cópias]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SolutionVerifierBenchmark {
+	private static final int SYMBOLS = 6;
+	private static final int CAPACITY = 4;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int copies = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		Solver solver = new Solver(Heuristic.SEGMENTS);
+		Submission[] distinct = new Submission[seeds];
+		long moves = 0;
+		for (int seed = 1; seed <= seeds; seed++) {
+			int[][] solution = solver.solve(new Table(palette, SYMBOLS, seed, CAPACITY));
+			int[] flat = new int[2 * solution.length];
+			int m = 0;
+			for (int[] move : solution) {
+				flat[m++] = move[0];
+				flat[m++] = move[1];
+			}
+			distinct[seed - 1] = new Submission(seed, SYMBOLS, CAPACITY, flat, Game.bonus(solution.length),
+					solution.length);
+			moves += flat.length / 2;
+		}
+		Submission[] batch = new Submission[seeds * copies];
+		for (int k = 0; k < batch.length; k++) {
+			batch[k] = distinct[k % seeds];
+		}
+		moves *= copies;
+		SolutionVerifier verifier = new SolutionVerifier();
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.printf("%-6s %12s %10s %14s %16s%n", "round", "submissions", "seconds", "moves/s", "moves/s/core");
+		for (int round = 1; round <= ROUNDS; round++) {
+			long start = System.nanoTime();
+			Verdict[] verdicts = verifier.verifyAll(batch);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			for (Verdict verdict : verdicts) {
+				if (verdict != Verdict.ACCEPTED) {
+					throw new IllegalStateException("Submissão rejeitada: " + verdict);
+				}
+			}
+			System.out.printf("%-6d %12d %10.3f %14.0f %16.0f%n", round, batch.length, seconds, moves / seconds,
+					moves / seconds / cores);
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import types.Filling;
+import types.Heuristic;
+import types.PatternDatabase;
+import types.Solver;
+import types.Table;
+
+/**
+ * Compara os nós expandidos pelo {@link Solver} com a heurística
+ * {@link Heuristic#SEGMENTS} e com uma {@link PatternDatabase}, nas mesas
+ * geradas com as sementes 1 a n de algumas configurações. As duas heurísticas
+ * são admissíveis, por isso as soluções têm o mesmo número de jogadas.
+ *
+ * Uso: {@code java -cp bin benchmarks.SolverBenchmark [mesas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SolverBenchmark {
+	private static final int[][] CONFIGS = { { 6, 4 }, { 8, 4 }, { 5, 5 }, { 6, 5 } };
+	private static final long NODE_LIMIT = 5_000_000L;
+
+	public static void main(String[] args) {
+		int tables = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		System.out.printf("%-8s %9s %10s %9s %14s %10s %8s%n", "symbols", "capacity", "heuristic", "build s",
+				"expanded", "solve s", "failed");
+		for (int[] config : CONFIGS) {
+			int symbols = config[0];
+			int capacity = config[1];
+			long start = System.nanoTime();
+			PatternDatabase pdb = PatternDatabase.build(symbols, capacity, symbols + Table.DIFFICULTY);
+			double build = (System.nanoTime() - start) / 1e9;
+			run(symbols, capacity, "segments", Heuristic.SEGMENTS, 0, tables);
+			run(symbols, capacity, "pattern", pdb, build, tables);
+		}
+	}
+
+	private static void run(int symbols, int capacity, String name, Heuristic heuristic, double build, int tables) {
+		Solver solver = new Solver(heuristic, NODE_LIMIT);
+		long expanded = 0;
+		int failed = 0;
+		long start = System.nanoTime();
+		for (int seed = 1; seed <= tables; seed++) {
+			if (solver.solve(new Table(Filling.values(), symbols, seed, capacity)) == null) {
+				failed++;
+			}
+			expanded += solver.expanded();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-8d %9d %10s %9.2f %14d %10.2f %8d%n", symbols, capacity, name, build, expanded,
+				seconds, failed);
+	}
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.stream.IntStream;
+
+import types.Palette;
+import types.Table;
+
+/**
+ * Mede quantas mesas por segundo cada {@link Table.Generator} consegue gerar,
+ * numa thread e em paralelo com uma mesa (e um gerador) por semente.
+ *
+ * Uso: {@code java -cp bin benchmarks.TableGenerationBenchmark [mesas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class TableGenerationBenchmark {
+	private static final int[][] CONFIGS = { { 8, 4 }, { 32, 8 }, { 128, 16 } };
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		int tables = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		System.out.printf("%-11s %8s %9s %16s %16s%n", "generator", "symbols", "capacity", "tables/s (1)",
+				"tables/s (all)");
+		for (int[] config : CONFIGS) {
+			int n = tables * 32 / (config[0] * config[1]);
+			for (Table.Generator generator : Table.Generator.values()) {
+				for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+					double serial = run(palette, config[0], config[1], generator, n, false);
+					double parallel = run(palette, config[0], config[1], generator, n, true);
+					if (k == 1) {
+						System.out.printf("%-11s %8d %9d %16.0f %16.0f%n", generator, config[0], config[1], serial,
+								parallel);
+					}
+				}
+			}
+		}
+	}
+
+	private static double run(Palette palette, int symbols, int capacity, Table.Generator generator, int n,
+			boolean parallel) {
+		long start = System.nanoTime();
+		IntStream seeds = IntStream.range(0, n);
+		long sum = (parallel ? seeds.parallel() : seeds)
+				.mapToLong(seed -> new Table(palette, symbols, seed, capacity, generator).codeAt(0, 0)).sum();
+		sink += sum;
+		return n / ((System.nanoTime() - start) / 1e9);
+	}
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+import types.Palette;
+import types.Table;
+
+/**
+ * Compara as duas formas de guardar uma {@link Table}: o custo de uma jogada
+ * (procurar um destino, verter um gole e ver se a ronda acabou), de percorrer
+ * todos os goles da mesa e de a copiar com {@link Table#copy()}.
+ *
+ * Uso: {@code java -cp bin benchmarks.TableLayoutBenchmark [jogadas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class TableLayoutBenchmark {
+	private static final int[][] CONFIGS = { { 8, 4 }, { 32, 8 }, { 256, 16 } };
+	private static final int COPIES = 20_000;
+	private static final int SCANS = 20_000;
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		int moves = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		System.out.printf("%-8s %9s %8s %10s %12s %12s%n", "symbols", "capacity", "layout", "ns/move",
+				"ns/cell", "ns/copy");
+		for (int[] config : CONFIGS) {
+			for (Table.Layout layout : Table.Layout.values()) {
+				for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+					Table table = new Table(palette, config[0], 1, config[1], Table.Generator.LEGACY, layout);
+					double move = play(table, moves);
+					double cell = scan(table);
+					double copy = copy(table);
+					if (k == 1) {
+						System.out.printf("%-8d %9d %8s %10.1f %12.2f %12.0f%n", config[0], config[1], layout, move,
+								cell, copy);
+					}
+				}
+			}
+		}
+	}
+
+	private static double play(Table table, int moves) {
+		SplittableRandom rd = new SplittableRandom(42);
+		int n = table.getNumberBottles();
+		long finished = 0;
+		long start = System.nanoTime();
+		for (int m = 0; m < moves; m++) {
+			int i = rd.nextInt(n);
+			int j = table.findTarget(i);
+			if (j >= 0) {
+				table.pourFromTo(i, j);
+			}
+			if (table.areAllFilled()) {
+				finished++;
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		sink += finished;
+		return nanos / (double) moves;
+	}
+
+	/**
+	 * Soma os códigos de todos os goles e devolve o custo médio por gole.
+	 */
+	private static double scan(Table table) {
+		long sum = 0;
+		long cells = 0;
+		long start = System.nanoTime();
+		for (int s = 0; s < SCANS; s++) {
+			for (int i = 0; i < table.getNumberBottles(); i++) {
+				int size = table.size(i);
+				for (int level = 0; level < size; level++) {
+					sum += table.codeAt(i, level);
+				}
+				cells += size;
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		sink += sum;
+		return nanos / (double) cells;
+	}
+
+	private static double copy(Table table) {
+		long start = System.nanoTime();
+		for (int c = 0; c < COPIES; c++) {
+			sink += table.copy().getNumberBottles();
+		}
+		return (System.nanoTime() - start) / (double) COPIES;
+	}
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+import types.Bottle;
+import types.Game;
+import types.Palette;
+import types.Table;
+import types.TerminalRenderer;
+
+/**
+ * Mede o custo por jogada de {@link Table} quando o número de garrafas cresce
+ * 10 a 100 vezes: cada jogada procura um destino com
+ * {@link Table#findTarget(int)}, verte um gole e pergunta se a ronda acabou. Mede
+ * também quanto ocupa um ecrã de {@link TerminalRenderer} com a janela de 80
+ * colunas.
+ *
+ * Uso: {@code java -cp bin benchmarks.TableScaleBenchmark [jogadas]}
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class TableScaleBenchmark {
+	private static final int[] SYMBOLS = { 8, 80, 256 };
+	private static final int[] CAPACITIES = { 4, 32 };
+
+	private static volatile long sink;
+
+	public static void main(String[] args) {
+		int moves = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		System.out.printf("%-8s %9s %8s %12s %12s %14s%n", "symbols", "capacity", "bottles", "ns/move", "ns/add",
+				"frame bytes");
+		for (int capacity : CAPACITIES) {
+			for (int symbols : SYMBOLS) {
+				for (int k = 0; k < 2; k++) { // a primeira passagem é aquecimento
+					Table table = new Table(palette, symbols, 1, capacity);
+					double add = add(table, capacity, symbols * 3);
+					double move = play(table, moves);
+					if (k == 1) {
+						System.out.printf("%-8d %9d %8d %12.1f %12.1f %14d%n", symbols, capacity,
+								table.getNumberBottles(), move, add, frameBytes(palette, symbols, capacity));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Junta extra garrafas vazias e devolve o custo médio de cada uma.
+	 */
+	private static double add(Table table, int capacity, int extra) {
+		long start = System.nanoTime();
+		for (int i = 0; i < extra; i++) {
+			table.addBottle(new Bottle(capacity, table.getPalette()));
+		}
+		return (System.nanoTime() - start) / (double) extra;
+	}
+
+	private static double play(Table table, int moves) {
+		SplittableRandom rd = new SplittableRandom(42);
+		int n = table.getNumberBottles();
+		long finished = 0;
+		long start = System.nanoTime();
+		for (int m = 0; m < moves; m++) {
+			int i = rd.nextInt(n);
+			int j = table.findTarget(i);
+			if (j >= 0) {
+				table.pourFromTo(i, j);
+			}
+			if (table.areAllFilled()) {
+				finished++;
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		sink += finished;
+		return nanos / (double) moves;
+	}
+
+	private static int frameBytes(Palette palette, int symbols, int capacity) {
+		PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+		TerminalRenderer renderer = new TerminalRenderer(out, true, 80);
+		renderer.frame(new Game(palette, symbols, 1, capacity), 1);
+		return renderer.lastFrameBytes();
+	}
+}
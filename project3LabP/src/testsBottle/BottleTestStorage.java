@@ -0,0 +1,87 @@
+package testsBottle;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.jupiter.api.Test;
+
+class BottleTestStorage {
+
+	private static final Filling[] SEQUENCE = { Filling.SUN, Filling.SUN, Filling.LOVE, Filling.SMILE, Filling.SMILE,
+			Filling.SMILE, Filling.EVIL };
+
+	@Test
+	void test1() {
+		for (BottleStorage.Kind kind : BottleStorage.Kind.values()) {
+			Bottle bottleTest = new Bottle(SEQUENCE, kind);
+			Bottle reference = new Bottle(SEQUENCE, BottleStorage.Kind.JAVA_STACK);
+
+			while (!reference.isEmpty()) {
+				assertEquals(reference.toString(), bottleTest.toString(), kind.name());
+				assertEquals(reference.top(), bottleTest.top(), kind.name());
+				assertEquals(reference.isSingleFilling(), bottleTest.isSingleFilling(), kind.name());
+				reference.pourOut();
+				bottleTest.pourOut();
+			}
+			assertEquals(reference.toString(), bottleTest.toString(), kind.name());
+		}
+	}
+
+	@Test
+	void test2() {
+		for (BottleStorage.Kind kind : BottleStorage.Kind.values()) {
+			Bottle bottleTest = new Bottle(4, kind);
+
+			assertEquals(true, bottleTest.receive(Filling.LOVE), kind.name());
+			assertEquals(false, bottleTest.receive(Filling.ANGEL), kind.name());
+			assertEquals(true, bottleTest.receive(Filling.LOVE), kind.name());
+			assertEquals(2, bottleTest.spaceAvailable(), kind.name());
+			assertEquals(Filling.LOVE, bottleTest.getContent()[1], kind.name());
+
+			int count = 0;
+			for (Filling filling : bottleTest) {
+				assertEquals(Filling.LOVE, filling, kind.name());
+				count++;
+			}
+			assertEquals(2, count, kind.name());
+		}
+	}
+
+	@Test
+	void test3() {
+		assertThrows(IllegalArgumentException.class, () -> new Bottle(30, BottleStorage.Kind.PACKED_LONG));
+	}
+
+	@Test
+	void test4() throws Exception {
+		// a propriedade não distingue maiúsculas e um valor inválido não impede o jogo
+		assertEquals("PACKED_LONG", defaultWith("packed_long"));
+		assertEquals("FIXED_ARRAY", defaultWith(" Fixed_Array "));
+		assertEquals("JAVA_STACK", defaultWith("nenhuma"));
+	}
+
+	/**
+	 * Lê Kind.DEFAULT numa cópia nova das classes, com a propriedade dada
+	 */
+	private static String defaultWith(String value) throws Exception {
+		String old = System.setProperty(BottleStorage.PROPERTY, value);
+		URL classes = BottleStorage.class.getProtectionDomain().getCodeSource().getLocation();
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, ClassLoader.getPlatformClassLoader())) {
+			Class<?> kind = Class.forName("types.BottleStorage$Kind", true, loader);
+			return ((Enum<?>) kind.getField("DEFAULT").get(null)).name();
+		}
+		finally {
+			if (old == null) {
+				System.clearProperty(BottleStorage.PROPERTY);
+			}
+			else {
+				System.setProperty(BottleStorage.PROPERTY, old);
+			}
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package testsCache;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.junit.jupiter.api.Test;
+
+class SolutionCacheTest {
+
+	private static final PatternDatabase PDB = PatternDatabase.build(6, 4, 9);
+
+	@Test
+	void test1() throws IOException {
+		Path dir = Files.createTempDirectory("solutions");
+		int[] calls = new int[1];
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			for (int seed = 1; seed <= 10; seed++) {
+				cache.solve(new Table(Filling.values(), 6, seed, 4), table -> {
+					calls[0]++;
+					return new Solver(PDB).solve(table);
+				});
+			}
+			assertEquals(10, calls[0]);
+			assertEquals(10, cache.size());
+		}
+		// depois de reabrir, as soluções vêm da cache e são válidas
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			assertEquals(10, cache.size());
+			for (int seed = 1; seed <= 10; seed++) {
+				int[][] moves = cache.solve(new Table(Filling.values(), 6, seed, 4), table -> {
+					calls[0]++;
+					return null;
+				});
+				play(seed, moves);
+			}
+			assertEquals(10, calls[0]);
+		}
+	}
+
+	@Test
+	void test2() throws IOException {
+		// a mesma posição com as garrafas por outra ordem usa a mesma solução
+		Path dir = Files.createTempDirectory("solutions");
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			Game game = new Game(Filling.values(), 6, 7, 4);
+			Table table = new Table(Filling.values(), 6, 7, 4);
+			cache.put(table, new Solver(PDB).solve(table));
+			int[][] moves = new Solver(PDB).solve(table);
+			game.play(moves[0][0], moves[0][1]);
+			table.pourFromTo(moves[0][0], moves[0][1]);
+			while (!table.isEmpty(moves[0][0]) && !table.isFull(moves[0][1])
+					&& table.top(moves[0][0]) == table.top(moves[0][1])) {
+				table.pourFromTo(moves[0][0], moves[0][1]);
+			}
+			assertNull(cache.get(table));
+			cache.put(table, new Solver(PDB).solve(table));
+			int[][] rest = cache.get(table);
+			assertEquals(moves.length - 1, rest.length);
+			for (int[] move : rest) {
+				assertTrue(game.isValid(move[0], move[1]));
+				game.play(move[0], move[1]);
+			}
+			assertTrue(game.isRoundFinished());
+		}
+	}
+
+	@Test
+	void test3() throws IOException {
+		// um registo cortado a meio e um índice perdido são recuperados
+		Path dir = Files.createTempDirectory("solutions");
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			for (int seed = 1; seed <= 5; seed++) {
+				Table table = new Table(Filling.values(), 6, seed, 4);
+				cache.put(table, new Solver(PDB).solve(table));
+			}
+		}
+		Path log = dir.resolve(SolutionCache.LOG);
+		long size = Files.size(log);
+		Files.write(log, new byte[] { 0, 0, 1, 0, 7, 7, 7 }, StandardOpenOption.APPEND);
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			assertEquals(5, cache.size());
+			assertEquals(size, cache.bytes());
+		}
+		assertEquals(size, Files.size(log));
+
+		Files.delete(dir.resolve(SolutionCache.INDEX));
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			assertEquals(5, cache.size());
+			for (int seed = 1; seed <= 5; seed++) {
+				play(seed, cache.get(new Table(Filling.values(), 6, seed, 4)));
+			}
+		}
+	}
+
+	@Test
+	void test4() throws IOException {
+		// com pouco espaço ficam as soluções mais recentes
+		Path dir = Files.createTempDirectory("solutions");
+		try (SolutionCache cache = SolutionCache.open(dir, 2_000)) {
+			for (int seed = 1; seed <= 20; seed++) {
+				Table table = new Table(Filling.values(), 6, seed, 4);
+				cache.put(table, new Solver(PDB).solve(table));
+				assertTrue(cache.bytes() <= 2_000);
+			}
+			assertTrue(cache.size() < 20);
+			assertNotNull(cache.get(new Table(Filling.values(), 6, 20, 4)));
+			assertNull(cache.get(new Table(Filling.values(), 6, 1, 4)));
+		}
+		try (SolutionCache cache = SolutionCache.open(dir, 2_000)) {
+			play(20, cache.get(new Table(Filling.values(), 6, 20, 4)));
+		}
+	}
+
+	@Test
+	void test5() throws IOException {
+		// o índice cresce e é reconstruído no mesmo ficheiro, sem o substituir
+		Path dir = Files.createTempDirectory("solutions");
+		Path index = dir.resolve(SolutionCache.INDEX);
+		int n = 3_000;
+		Object file;
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			file = fileKey(index);
+			long before = Files.size(index);
+			for (int seed = 1; seed <= n; seed++) {
+				cache.put(new Table(Filling.values(), 6, seed, 4), new int[][] { { seed % 9, 0 } });
+			}
+			assertTrue(Files.size(index) > before);
+			assertEquals(file, fileKey(index));
+		}
+		int size;
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			size = cache.size();
+			assertTrue(size > 2_048);
+			assertNotNull(cache.get(new Table(Filling.values(), 6, 1, 4)));
+			assertNotNull(cache.get(new Table(Filling.values(), 6, n, 4)));
+		}
+		// um índice estragado é reconstruído por cima
+		try (SeekableByteChannel channel = Files.newByteChannel(index, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }));
+		}
+		try (SolutionCache cache = SolutionCache.open(dir, SolutionCache.DEFAULT_MAX_BYTES)) {
+			assertEquals(size, cache.size());
+			assertNotNull(cache.get(new Table(Filling.values(), 6, n, 4)));
+			assertEquals(file, fileKey(index));
+		}
+	}
+
+	private static Object fileKey(Path file) throws IOException {
+		return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+	}
+
+	private static void play(int seed, int[][] moves) {
+		Game game = new Game(Filling.values(), 6, seed, 4);
+		for (int[] move : moves) {
+			assertTrue(game.isValid(move[0], move[1]));
+			game.play(move[0], move[1]);
+		}
+		assertTrue(game.isRoundFinished());
+	}
+}
@@ -0,0 +1,68 @@
+package testsEndgame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class EndgameDatabaseTest {
+
+	private static final EndgameDatabase DB = EndgameDatabase.build(3, 3, 3);
+
+	@Test
+	void test1() {
+		for (int seed = 1; seed <= 20; seed++) {
+			// o jogo começa com a mesma mesa, a menos que ela já esteja resolvida
+			int distance = DB.distance(new Table(Filling.values(), 3, seed, 3));
+			if (distance == 0) {
+				continue;
+			}
+			Game game = new Game(Filling.values(), 3, seed, 3);
+
+			int moves = 0;
+			int[] move;
+			while ((move = game.hint(DB)) != null) {
+				game.play(move[0], move[1]);
+				moves++;
+			}
+			assertEquals(distance, moves);
+			assertTrue(game.isRoundFinished());
+		}
+	}
+
+	@Test
+	void test2() throws IOException {
+		Path file = Files.createTempFile("endgame", ".db");
+		try {
+			DB.save(file);
+			EndgameDatabase mapped = EndgameDatabase.open(file);
+			assertEquals(DB.size(), mapped.size());
+			assertEquals(3, mapped.empties());
+			for (int seed = 1; seed <= 20; seed++) {
+				Table table = new Table(Filling.values(), 3, seed, 3);
+				assertEquals(DB.distance(table), mapped.distance(table));
+			}
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void test3() {
+		Table other = new Table(Filling.values(), 3, 1, 4);
+		assertEquals(EndgameDatabase.UNKNOWN, DB.distance(other));
+		assertNull(DB.bestMove(other));
+
+		assertThrows(IllegalArgumentException.class, () -> EndgameDatabase.build(8, 8, 3));
+		assertThrows(IllegalStateException.class, () -> EndgameDatabase.build(3, 4, 3, 1000));
+	}
+}
@@ -0,0 +1,103 @@
+package testsEnvironment;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BatchEnvironmentTest {
+	private static final Palette PALETTE = Palette.emoji(Palette.MAX_SYMBOLS);
+
+	private static void assertSameTable(Game game, BatchEnvironment env, int e) {
+		byte[] cells = env.observation();
+		for (int b = 0; b < env.bottles(); b++) {
+			for (int level = 0; level < env.capacity(); level++) {
+				int code = cells[(e * env.bottles() + b) * env.capacity() + level];
+				String cell = code == BatchEnvironment.EMPTY ? Table.EMPTY : PALETTE.symbol(code);
+				assertEquals(game.cell(b, level), cell);
+			}
+		}
+	}
+
+	@Test
+	void test1() {
+		// jogadas ao acaso, comparadas com um Game por mesa
+		int n = 16;
+		BatchEnvironment env = new BatchEnvironment(n, 3, 3);
+		Game[] games = new Game[n];
+		int[] seeds = new int[n];
+		for (int e = 0; e < n; e++) {
+			seeds[e] = e + 1;
+			games[e] = new Game(PALETTE, 3, seeds[e], 3);
+		}
+		env.reset(seeds);
+		Random rd = new Random(3);
+		int[] actions = new int[2 * n];
+		for (int step = 0; step < 2000; step++) {
+			for (int k = 0; k < actions.length; k++) {
+				actions[k] = rd.nextInt(env.bottles() + 1);
+			}
+			env.step(actions);
+			for (int e = 0; e < n; e++) {
+				Game game = games[e];
+				int i = actions[2 * e];
+				int j = actions[2 * e + 1];
+				if (game.isRoundFinished()) {
+					assertTrue(env.done()[e]);
+					continue;
+				}
+				boolean valid = game.isValid(i, j) && !game.cell(i, 0).equals(Table.EMPTY);
+				int before = game.score();
+				if (valid) {
+					game.play(i, j);
+				}
+				assertEquals(valid, env.valid()[e]);
+				assertEquals(game.score() - before, env.rewards()[e]);
+				assertEquals(game.jogadas(), env.jogadas()[e]);
+				assertEquals(game.isRoundFinished(), env.done()[e]);
+				assertSameTable(game, env, e);
+			}
+		}
+	}
+
+	@Test
+	void test2() {
+		BatchEnvironment env = new BatchEnvironment(2, 4, 4);
+		boolean[] mask = new boolean[2 * env.bottles() * env.bottles()];
+		env.validMoves(mask);
+		for (boolean m : mask) {
+			assertFalse(m);
+		}
+		env.reset(new int[] { 1, 2 });
+		env.validMoves(mask);
+		Game game = new Game(PALETTE, 4, 2, 4);
+		for (int i = 0; i < env.bottles(); i++) {
+			for (int j = 0; j < env.bottles(); j++) {
+				boolean valid = game.isValid(i, j) && !game.cell(i, 0).equals(Table.EMPTY);
+				assertEquals(valid, mask[(env.bottles() + i) * env.bottles() + j]);
+			}
+		}
+	}
+
+	@Test
+	void test3() {
+		// a solução do solver termina a ronda com os pontos do jogo
+		BatchEnvironment env = new BatchEnvironment(1, 4, 4);
+		env.reset(0, 9);
+		int[][] moves = new Solver(Heuristic.SEGMENTS).solve(new Table(PALETTE, 4, 9, 4));
+		int total = 0;
+		for (int[] move : moves) {
+			assertFalse(env.done()[0]);
+			env.step(move);
+			assertTrue(env.valid()[0]);
+			total += env.rewards()[0];
+		}
+		assertTrue(env.done()[0]);
+		assertEquals(Game.bonus(moves.length), total);
+	}
+}
@@ -0,0 +1,69 @@
+package testsGame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FinalScoringGameEvents {
+
+	private static List<RecordedEvent> record(Runnable action) throws Exception {
+		Path file = Files.createTempFile("game", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("types.RoundStart");
+			recording.enable("types.Move").withThreshold(Duration.ZERO);
+			recording.enable("types.Help").withThreshold(Duration.ZERO);
+			recording.start();
+			action.run();
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void test1() throws Exception {
+		// o início da ronda regista a pontuação dada ao construtor
+		List<RecordedEvent> events = record(() -> new Game(Filling.values(), 3, 1, 4, 1500));
+		List<RecordedEvent> starts = events.stream()
+				.filter(e -> e.getEventType().getName().equals("types.RoundStart")).toList();
+		assertEquals(1, starts.size());
+		assertEquals(1500, starts.get(0).getInt("score"));
+	}
+
+	@Test
+	void test2() throws Exception {
+		// as jogadas e as ajudas começam a ser medidas antes de mexer na mesa
+		List<RecordedEvent> events = record(() -> {
+			Game game = new Game(Filling.values(), 3, 1, 4, 1500);
+			game.provideHelp();
+			int n = game.getNumberBottles();
+			for (int i = 0; i < n; i++) {
+				game.play(i, n - 1);
+			}
+		});
+		List<RecordedEvent> moves = events.stream().filter(e -> e.getEventType().getName().equals("types.Move"))
+				.toList();
+		List<RecordedEvent> helps = events.stream().filter(e -> e.getEventType().getName().equals("types.Help"))
+				.toList();
+		assertFalse(moves.isEmpty());
+		assertEquals(1, helps.size());
+		assertTrue(helps.get(0).getEndTime().isAfter(helps.get(0).getStartTime()));
+		assertTrue(moves.stream().anyMatch(e -> e.getEndTime().isAfter(e.getStartTime())));
+	}
+}
@@ -0,0 +1,165 @@
+package testsGame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+class FinalScoringGamePrefetch {
+
+	@Test
+	void test1() {
+		// as rondas geradas noutra thread são as mesmas, mesmo com ajudas pelo meio
+		Game game = new Game(Filling.values(), 3, 1, 4, 300);
+		Game expected = new Game(Filling.values(), 3, 1, 4, 300);
+		game.prefetchRounds(2, null);
+		for (int round = 0; round < 20; round++) {
+			if (round == 5) {
+				game.provideHelp();
+				expected.provideHelp();
+			}
+			game.startNewRound();
+			expected.startNewRound();
+			assertEquals(expected.toString(), game.toString());
+		}
+		game.stopPrefetching();
+		for (int round = 0; round < 5; round++) {
+			game.startNewRound();
+			expected.startNewRound();
+			assertEquals(expected.toString(), game.toString());
+		}
+	}
+
+	@Test
+	void test2() {
+		// o critério de aceitação é o mesmo com e sem a thread
+		Predicate<Table> accept = table -> table.topCode(0) == 0;
+		Game game = new Game(Filling.values(), 4, 2, 3);
+		Game expected = new Game(Filling.values(), 4, 2, 3);
+		game.recordHistory(true);
+		game.prefetchRounds(3, accept);
+		expected.prefetchRounds(1, accept);
+		expected.stopPrefetching();
+		for (int round = 0; round < 10; round++) {
+			game.startNewRound();
+			expected.startNewRound();
+			assertEquals(expected.toString(), game.toString());
+			assertEquals(0, game.history().get(0).topCode(0));
+		}
+		game.stopPrefetching();
+	}
+
+	@Test
+	void test3() {
+		// repor um snapshot de outra ronda recomeça a sequência nesse ponto
+		Game game = new Game(Filling.values(), 3, 5, 4);
+		Game expected = new Game(Filling.values(), 3, 5, 4);
+		game.prefetchRounds(2, null);
+		game.startNewRound();
+		Game.Snapshot snapshot = game.snapshot();
+		expected.startNewRound();
+		for (int round = 0; round < 4; round++) {
+			game.startNewRound();
+		}
+		game.restore(snapshot);
+		assertEquals(expected.toString(), game.toString());
+		for (int round = 0; round < 5; round++) {
+			game.startNewRound();
+			expected.startNewRound();
+			assertEquals(expected.toString(), game.toString());
+			assertTrue(!game.isRoundFinished());
+		}
+		game.stopPrefetching();
+	}
+
+	@Test
+	void test4() {
+		// uma ajuda muda as garrafas das mesas seguintes e o critério tem de as ver
+		Predicate<Table> accept = table -> (table.topCode(0) + table.getNumberBottles()) % 2 == 0;
+		Game game = new Game(Filling.values(), 4, 7, 4, 1000);
+		Game expected = new Game(Filling.values(), 4, 7, 4, 1000);
+		game.prefetchRounds(3, accept);
+		expected.prefetchRounds(1, accept);
+		expected.stopPrefetching();
+		Game.Snapshot beforeHelp = game.snapshot();
+		game.provideHelp();
+		expected.provideHelp();
+		for (int round = 0; round < 10; round++) {
+			if (round == 5) {
+				game.provideHelp();
+				expected.provideHelp();
+			}
+			game.startNewRound();
+			expected.startNewRound();
+			assertEquals(expected.toString(), game.toString());
+		}
+		// voltar a antes da ajuda volta às mesas sem a garrafa a mais
+		game.restore(beforeHelp);
+		Game fresh = new Game(Filling.values(), 4, 7, 4, 1000);
+		fresh.prefetchRounds(1, accept);
+		fresh.stopPrefetching();
+		for (int round = 0; round < 5; round++) {
+			game.startNewRound();
+			fresh.startNewRound();
+			assertEquals(fresh.toString(), game.toString());
+		}
+		game.stopPrefetching();
+	}
+
+	@Test
+	void test5() throws InterruptedException {
+		// close pára a thread e o jogo continua a gerar as mesas no momento
+		Set<Thread> before = prefetchThreads();
+		Game game = new Game(Filling.values(), 3, 1, 4);
+		Game expected = new Game(Filling.values(), 3, 1, 4);
+		game.prefetchRounds(2, null);
+		Thread thread = newThread(before);
+		game.close();
+		thread.join(10_000);
+		assertFalse(thread.isAlive());
+		for (int round = 0; round < 5; round++) {
+			game.startNewRound();
+			expected.startNewRound();
+			assertEquals(expected.toString(), game.toString());
+		}
+	}
+
+	@Test
+	void test6() throws InterruptedException {
+		// um jogo esquecido sem close não deixa a thread presa
+		Set<Thread> before = prefetchThreads();
+		Game game = new Game(Filling.values(), 3, 1, 4);
+		game.prefetchRounds(1, null);
+		Thread thread = newThread(before);
+		game = null;
+		for (int k = 0; k < 100 && thread.isAlive(); k++) {
+			System.gc();
+			thread.join(100);
+		}
+		assertFalse(thread.isAlive());
+	}
+
+	private static Set<Thread> prefetchThreads() {
+		Set<Thread> threads = new HashSet<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().equals("round-prefetch") && thread.isAlive()) {
+				threads.add(thread);
+			}
+		}
+		return threads;
+	}
+
+	private static Thread newThread(Set<Thread> before) {
+		Set<Thread> now = prefetchThreads();
+		now.removeAll(before);
+		assertEquals(1, now.size());
+		return now.iterator().next();
+	}
+}
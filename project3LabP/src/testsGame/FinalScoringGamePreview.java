@@ -0,0 +1,100 @@
+package testsGame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.EmptyStackException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FinalScoringGamePreview {
+
+	private static int top(Game game, int i, Table table) {
+		return i < 0 || i >= game.getNumberBottles() || table.isEmpty(i) ? -1 : table.topCode(i);
+	}
+
+	/**
+	 * Compara a antevisão de todas as jogadas com o que play faz, repondo o jogo
+	 * depois de cada uma.
+	 */
+	private static void checkAll(Game game, Table shadow) {
+		int n = game.getNumberBottles();
+		Game.Snapshot snapshot = game.snapshot();
+		Table.Snapshot tableSnapshot = shadow.snapshot();
+		Game.Preview preview = new Game.Preview();
+		String before = game.toString();
+		for (int i = -1; i <= n; i++) {
+			for (int j = -1; j <= n; j++) {
+				game.preview(i, j, preview);
+				assertEquals(before, game.toString());
+				int jogadas = game.jogadas();
+				int score = game.score();
+				int sizeFrom = i >= 0 && i < n ? shadow.size(i) : 0;
+				try {
+					game.play(i, j);
+					replay(shadow, i, j);
+				}
+				catch (EmptyStackException e) {
+					assertEquals(false, preview.valid());
+					continue;
+				}
+				assertEquals(game.jogadas() != jogadas, preview.valid());
+				if (preview.valid()) {
+					assertEquals(sizeFrom - shadow.size(i), preview.sips());
+					assertEquals(top(game, i, shadow), preview.fromTop());
+					assertEquals(top(game, j, shadow), preview.toTop());
+					assertEquals(game.isRoundFinished(), preview.finishes());
+				}
+				assertEquals(game.score() - score, preview.scoreChange());
+				game.restore(snapshot);
+				shadow.restore(tableSnapshot);
+			}
+		}
+	}
+
+	/**
+	 * Faz na mesa a mesma jogada que Game.play.
+	 */
+	private static void replay(Table table, int i, int j) {
+		int n = table.getNumberBottles();
+		if (i < 0 || j < 0 || i >= n || j >= n || i == j || table.isEmpty(i)) {
+			return;
+		}
+		while (!table.isFull(j) && !table.isEmpty(i) && (table.isEmpty(j) || table.topCode(i) == table.topCode(j))) {
+			table.pourFromTo(i, j);
+		}
+	}
+
+	@Test
+	void test1() {
+		for (int seed = 1; seed <= 5; seed++) {
+			Game game = new Game(Filling.values(), 4, seed, 3);
+			Table shadow = new Table(Filling.values(), 4, seed, 3);
+			Random rd = new Random(seed);
+			for (int step = 0; step < 40; step++) {
+				checkAll(game, shadow);
+				int n = game.getNumberBottles();
+				int i = rd.nextInt(n);
+				int j = rd.nextInt(n);
+				if (game.isValid(i, j) && !shadow.isEmpty(i)) {
+					game.play(i, j);
+					replay(shadow, i, j);
+				}
+			}
+		}
+	}
+
+	@Test
+	void test2() {
+		// a jogada que termina a ronda soma os pontos do jogo
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		Game game = new Game(palette, 3, 5, 3);
+		int[][] moves = new Solver(Heuristic.SEGMENTS).solve(new Table(palette, 3, 5, 3));
+		for (int m = 0; m < moves.length; m++) {
+			Game.Preview preview = game.preview(moves[m][0], moves[m][1]);
+			assertEquals(m == moves.length - 1, preview.finishes());
+			assertEquals(m == moves.length - 1 ? Game.bonus(moves.length) : 0, preview.scoreChange());
+			game.play(moves[m][0], moves[m][1]);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package testsGame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class FinalScoringGameSnapshot {
+
+	@Test
+	void test1() {
+		Game game = new Game(Filling.values(), 3, 1, 4, 300);
+		game.recordHistory(true);
+		Game.Snapshot snapshot = game.snapshot();
+		String before = game.toString();
+		int versions = game.history().size();
+
+		game.play(2, 3);
+		game.play(0, 3);
+		game.provideHelp();
+		game.restore(snapshot);
+
+		assertEquals(before, game.toString());
+		assertEquals(300, game.score());
+		assertEquals(0, game.jogadas());
+		assertEquals(versions, game.history().size());
+	}
+
+	@Test
+	void test2() {
+		// antever uma jogada e voltar atrás, reutilizando o snapshot
+		Game game = new Game(Filling.values(), 4, 3, 4);
+		game.recordHistory(true);
+		Game.Snapshot snapshot = new Game.Snapshot();
+		for (int i = 0; i < game.getNumberBottles(); i++) {
+			for (int j = 0; j < game.getNumberBottles(); j++) {
+				if (game.isValid(i, j) && !game.cell(i, 0).equals(Table.EMPTY)) {
+					String before = game.toString();
+					game.snapshot(snapshot);
+					game.play(i, j);
+					assertEquals(1, game.jogadas());
+					game.restore(snapshot);
+					assertEquals(before, game.toString());
+					assertEquals(0, game.jogadas());
+					assertEquals(1, game.history().size());
+				}
+			}
+		}
+	}
+}
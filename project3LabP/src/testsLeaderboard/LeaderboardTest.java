@@ -0,0 +1,98 @@
+package testsLeaderboard;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class LeaderboardTest {
+
+	@Test
+	void test1() {
+		Leaderboard board = new Leaderboard();
+		assertTrue(board.submit("ana", 3, 4, 1000, 8));
+		assertTrue(board.submit("rui", 3, 4, 1000, 6));
+		assertTrue(board.submit("eva", 3, 4, 500, 12));
+		assertTrue(board.submit("ivo", 3, 4, 1000, 8));
+		assertFalse(board.submit("rui", 3, 4, 1000, 9));
+		assertTrue(board.submit("eva", 3, 4, 1200, 20));
+		assertTrue(board.submit("eva", 5, 4, 200, 20));
+
+		assertEquals(1, board.rank("eva", 3, 4));
+		assertEquals(2, board.rank("rui", 3, 4));
+		assertEquals(3, board.rank("ana", 3, 4));
+		assertEquals(3, board.rank("ivo", 3, 4));
+		assertEquals(0, board.rank("zé", 3, 4));
+		assertEquals(1, board.rank("eva", 5, 4));
+		assertEquals(4, board.players(3, 4));
+
+		List<Leaderboard.Entry> top = board.top(3, 4, 3);
+		assertEquals(3, top.size());
+		assertEquals("eva", top.get(0).player());
+		assertEquals(1200, top.get(0).score());
+		assertEquals(20, top.get(0).jogadas());
+		assertEquals("rui", top.get(1).player());
+		assertEquals("ana", top.get(2).player());
+	}
+
+	@Test
+	void test2() {
+		// cada jogador submete resultados de várias threads; fica o melhor
+		Leaderboard board = new Leaderboard();
+		IntStream.range(0, 40_000).parallel().forEach(k -> board.submit("p" + k % 1000, 4, 4, k % 37 * 100, k % 11));
+		assertEquals(1000, board.players(4, 4));
+		for (int p = 0; p < 1000; p += 97) {
+			int best = -1;
+			int jogadas = 0;
+			for (int k = p; k < 40_000; k += 1000) {
+				if (k % 37 * 100 > best || k % 37 * 100 == best && k % 11 < jogadas) {
+					best = k % 37 * 100;
+					jogadas = k % 11;
+				}
+			}
+			long better = 0;
+			for (Leaderboard.Entry entry : board.top(4, 4, 1000)) {
+				if (entry.score() > best || entry.score() == best && entry.jogadas() < jogadas) {
+					better++;
+				}
+			}
+			assertEquals(better + 1, board.rank("p" + p, 4, 4));
+		}
+	}
+
+	@Test
+	void test3() throws IOException {
+		Path dir = Files.createTempDirectory("leaderboard");
+		try {
+			Leaderboard board = new Leaderboard();
+			board.submit("ana", 3, 4, 1000, 8);
+			board.submit("rui", 3, 4, 700, 6);
+			board.submit("rui", 2, 2, 200, 30);
+			Path file = dir.resolve("ranking.bin");
+			board.save(file);
+			Leaderboard loaded = Leaderboard.load(file);
+			assertEquals(board.top(3, 4, 10).toString(), loaded.top(3, 4, 10).toString());
+			assertEquals(board.top(2, 2, 10).toString(), loaded.top(2, 2, 10).toString());
+			assertEquals(2, loaded.rank("rui", 3, 4));
+
+			Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+			assertThrows(IOException.class, () -> Leaderboard.load(file));
+		}
+		finally {
+			for (Path p : Files.list(dir).toArray(Path[]::new)) {
+				Files.delete(p);
+			}
+			Files.delete(dir);
+		}
+	}
+}
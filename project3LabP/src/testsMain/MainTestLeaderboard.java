@@ -0,0 +1,65 @@
+package testsMain;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MainTestLeaderboard {
+
+	private static int round(int symbols, int capacity, StringBuilder session) {
+		int[][] moves = new Solver(Heuristic.SEGMENTS).solve(new Table(Palette.emoji(32), symbols, 1, capacity));
+		session.append(symbols).append('\n').append(capacity).append('\n');
+		for (int[] move : moves) {
+			session.append(move[0]).append(' ').append(move[1]).append('\n');
+		}
+		return moves.length;
+	}
+
+	@Test
+	void test1() throws Exception {
+		// duas rondas com configurações diferentes: cada uma só conta os seus pontos
+		StringBuilder session = new StringBuilder();
+		int first = round(3, 4, session);
+		session.append("Yes\n");
+		int second = round(4, 3, session);
+		session.append("No\n");
+
+		Path file = Files.createTempFile("leaderboard", ".bin");
+		Files.delete(file);
+		InputStream in = System.in;
+		PrintStream out = System.out;
+		System.setProperty(Leaderboard.PROPERTY, file.toString());
+		try {
+			System.setIn(new ByteArrayInputStream(session.toString().getBytes(StandardCharsets.UTF_8)));
+			System.setOut(new PrintStream(OutputStream.nullOutputStream(), true, StandardCharsets.UTF_8));
+			Main.main(new String[0]);
+		}
+		finally {
+			System.setIn(in);
+			System.setOut(out);
+			System.clearProperty(Leaderboard.PROPERTY);
+		}
+
+		Leaderboard board = Leaderboard.load(file);
+		Files.deleteIfExists(file);
+		List<Leaderboard.Entry> top = board.top(3, 4, 1);
+		assertEquals(1, top.size());
+		assertEquals(Game.bonus(first), top.get(0).score());
+		assertEquals(first, top.get(0).jogadas());
+		top = board.top(4, 3, 1);
+		assertEquals(1, top.size());
+		assertEquals(Game.bonus(second), top.get(0).score());
+		assertEquals(second, top.get(0).jogadas());
+	}
+}
@@ -0,0 +1,110 @@
+package testsMultiGame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class MultiGameTest {
+
+	private static final int SYMBOLS = 4;
+	private static final int CAPACITY = 4;
+
+	@Test
+	void test1() {
+		// cada mesa começa como o jogo com a mesma semente
+		int[] seeds = { 1, 2, 3, 4, 5 };
+		MultiGame multi = new MultiGame(Filling.values(), SYMBOLS, seeds, CAPACITY);
+		assertEquals(seeds.length, multi.boards());
+		assertEquals(CAPACITY, multi.getSizeBottles());
+		for (int b = 0; b < seeds.length; b++) {
+			Game game = new Game(Filling.values(), SYMBOLS, seeds[b], CAPACITY);
+			assertEquals(game.getNumberBottles(), multi.getNumberBottles(b));
+			String expected = game.toString();
+			assertEquals(expected.substring(expected.indexOf(Game.EOL) + Game.EOL.length()), multi.toString(b));
+		}
+		assertEquals(0, multi.score());
+		assertFalse(multi.isAllFinished());
+	}
+
+	@Test
+	void test2() {
+		// resolver todas as mesas soma os pontos de cada jogo
+		int[] seeds = { 1, 2, 3, 4, 5, 6 };
+		MultiGame multi = new MultiGame(Filling.values(), SYMBOLS, seeds, CAPACITY);
+		Solver solver = new Solver(Heuristic.SEGMENTS);
+		int expected = 0;
+		for (int b = 0; b < seeds.length; b++) {
+			Game game = new Game(Filling.values(), SYMBOLS, seeds[b], CAPACITY);
+			int[][] moves = solver.solve(new Table(Filling.values(), SYMBOLS, seeds[b], CAPACITY));
+			for (int[] move : moves) {
+				assertTrue(multi.isValid(b, move[0], move[1]));
+				assertTrue(multi.play(b, move[0], move[1]));
+				game.play(move[0], move[1]);
+			}
+			assertTrue(multi.isRoundFinished(b));
+			assertEquals(moves.length, multi.jogadas(b));
+			expected += game.score();
+			assertEquals(expected, multi.score());
+			assertEquals(b + 1, multi.finished());
+		}
+		assertTrue(multi.isAllFinished());
+		// uma mesa terminada não aceita mais jogadas
+		assertFalse(multi.play(0, 0, 1));
+		assertEquals(expected, multi.score());
+	}
+
+	@Test
+	void test3() {
+		// jogadas inválidas não contam
+		MultiGame multi = new MultiGame(Filling.values(), SYMBOLS, new int[] { 7, 8 }, CAPACITY);
+		int n = multi.getNumberBottles(0);
+		assertFalse(multi.play(0, 0, 0));
+		assertFalse(multi.play(0, -1, 0));
+		assertFalse(multi.play(0, 0, n));
+		// a última garrafa começa vazia
+		assertFalse(multi.play(0, n - 1, 0));
+		assertEquals(0, multi.jogadas(0));
+		assertTrue(multi.play(1, 0, n - 1));
+		assertEquals(0, multi.jogadas(0));
+		assertEquals(1, multi.jogadas(1));
+	}
+
+	@Test
+	void test4() throws InterruptedException {
+		// cada thread resolve as suas mesas ao mesmo tempo que as outras
+		int threads = 4;
+		int[] seeds = new int[threads * 5];
+		for (int b = 0; b < seeds.length; b++) {
+			seeds[b] = b + 1;
+		}
+		MultiGame multi = new MultiGame(Filling.values(), SYMBOLS, seeds, CAPACITY);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int first = t;
+			workers[t] = new Thread(() -> {
+				Solver solver = new Solver(Heuristic.SEGMENTS);
+				for (int b = first; b < seeds.length; b += threads) {
+					int[][] moves = solver.solve(new Table(Filling.values(), SYMBOLS, seeds[b], CAPACITY));
+					for (int[] move : moves) {
+						multi.play(b, move[0], move[1]);
+					}
+				}
+			});
+			workers[t].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		int expected = 0;
+		for (int b = 0; b < seeds.length; b++) {
+			assertTrue(multi.isRoundFinished(b));
+			expected += Game.bonus(multi.jogadas(b));
+		}
+		assertTrue(multi.isAllFinished());
+		assertEquals(expected, multi.score());
+	}
+}
@@ -0,0 +1,67 @@
+package testsRenderer;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class TerminalRendererTest {
+
+	public String EOL = Table.EOL;
+
+	@Test
+	void test1() {
+		Game game = new Game(Filling.values(), 3, 1, 4);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TerminalRenderer renderer = new TerminalRenderer(new PrintStream(bytes, true, StandardCharsets.UTF_8), false);
+
+		renderer.frame(game, 1);
+
+		String expected = EOL
+				+ "----------------------------------" + EOL
+				+ "              Ronda 1 " + EOL
+				+ "----------------------------------" + EOL
+				+ "0     1     2     3     4     5     " + EOL
+				+ game.toString() + EOL
+				+ "Escolha sua jogada (no formato 'i j', onde i e j são os índices das garrafas):" + EOL;
+
+		assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void test2() {
+		Game game = new Game(Filling.values(), 3, 1, 4);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TerminalRenderer renderer = new TerminalRenderer(new PrintStream(bytes, true, StandardCharsets.UTF_8), false);
+
+		renderer.frame(game, 1);
+		int full = renderer.lastFrameBytes();
+		game.play(2, 3);
+		renderer.move(game, 1, 2, 3);
+
+		assertEquals(full, renderer.lastFrameBytes());
+		assertEquals(2 * full, bytes.size());
+	}
+
+	@Test
+	void test3() {
+		Game game = new Game(Filling.values(), 7, 1, 8);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		TerminalRenderer renderer = new TerminalRenderer(new PrintStream(bytes, true, StandardCharsets.UTF_8), true);
+
+		renderer.frame(game, 1);
+		int full = renderer.lastFrameBytes();
+		game.play(0, 8);
+		renderer.move(game, 1, 0, 8);
+
+		assertTrue(renderer.lastFrameBytes() < 400, "diff com " + renderer.lastFrameBytes() + " bytes");
+		assertTrue(renderer.lastFrameBytes() * 2 < full);
+		assertTrue(bytes.toString(StandardCharsets.UTF_8).endsWith("\u001b[19;1H\u001b[J"));
+	}
+}
@@ -0,0 +1,86 @@
+package testsScanner;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+class SeedScannerTest {
+
+	@Test
+	void test1() {
+		long next = -7;
+		for (int k = 0; k < 4; k++) {
+			long[] range = SeedScanner.shard(-7, 10, k, 4);
+			assertEquals(next, range[0]);
+			assertEquals(k == 0 ? 5 : 4, range[1] - range[0]);
+			next = range[1];
+		}
+		assertEquals(10, next);
+		assertThrows(IllegalArgumentException.class, () -> SeedScanner.shard(0, 10, 4, 4));
+	}
+
+	@Test
+	void test2() throws IOException {
+		Path dir = Files.createTempDirectory("scanner");
+		try {
+			SeedScanner scanner = new SeedScanner(4, 4, SeedScanner.DEFAULT_NODE_LIMIT, false);
+			Path all = dir.resolve("all.bin");
+			assertEquals(300, scanner.scan(all, 0, 300));
+
+			Path[] parts = new Path[3];
+			for (int k = 0; k < 3; k++) {
+				long[] range = SeedScanner.shard(0, 300, k, 3);
+				parts[k] = dir.resolve("part" + k + ".bin");
+				scanner.scan(parts[k], range[0], range[1]);
+			}
+			Path merged = dir.resolve("merged.bin");
+			SeedScanner.merge(merged, parts[2], parts[0], parts[1]);
+			assertArrayEquals(Files.readAllBytes(all), Files.readAllBytes(merged));
+
+			// o primeiro registo é a solução mínima da mesa da semente 0
+			byte[] bytes = Files.readAllBytes(all);
+			int[][] moves = new Solver(Heuristic.SEGMENTS)
+					.solve(new Table(Palette.emoji(4), 4, 0, 4, Table.Generator.LEGACY));
+			assertEquals(moves.length, bytes[32]);
+		}
+		finally {
+			for (Path file : Files.list(dir).toArray(Path[]::new)) {
+				Files.delete(file);
+			}
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	void test3() throws IOException {
+		Path file = Files.createTempFile("scanner", ".bin");
+		try {
+			SeedScanner scanner = new SeedScanner(4, 4, SeedScanner.DEFAULT_NODE_LIMIT, false);
+			Files.delete(file);
+			scanner.scan(file, 100, 200);
+			byte[] expected = Files.readAllBytes(file);
+
+			// uma interrupção a meio de um registo
+			try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+				raf.setLength(32 + 2 * 41 + 1);
+			}
+			assertEquals(59, scanner.scan(file, 100, 200));
+			assertArrayEquals(expected, Files.readAllBytes(file));
+			assertEquals(0, scanner.scan(file, 100, 200));
+
+			assertThrows(IOException.class, () -> scanner.scan(file, 100, 300));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
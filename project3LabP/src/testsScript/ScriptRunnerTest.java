@@ -0,0 +1,68 @@
+package testsScript;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ScriptRunnerTest {
+
+	private ScriptRunner run(String session) throws IOException {
+		ScriptRunner runner = new ScriptRunner(Palette.FILLINGS, 1, 2, 8, 8);
+		runner.run(new ByteArrayInputStream(session.getBytes(StandardCharsets.UTF_8)));
+		return runner;
+	}
+
+	@Test
+	void test1() throws IOException {
+		ScriptRunner runner = run("3\n4\n2 3\n");
+
+		Game expected = new Game(Filling.values(), 3, 1, 4, 0);
+		expected.play(2, 3);
+
+		assertEquals(expected.toString(), runner.game().toString());
+		assertEquals(1, runner.moves());
+		assertEquals(0, runner.invalid());
+	}
+
+	@Test
+	void test2() throws IOException {
+		ScriptRunner runner = run("1 x 3 20\n0 0\n9 1\n4 5\nlixo\n2 3");
+
+		assertEquals(8, runner.game().getSizeBottles());
+		assertEquals(4, runner.moves());
+		assertEquals(4, runner.invalid());
+		assertEquals(1, runner.game().jogadas());
+	}
+
+	@Test
+	void test3() throws IOException {
+		ScriptRunner runner = run("3 4 AJUDA");
+
+		assertEquals(6, runner.game().getNumberBottles());
+		assertEquals(1, runner.invalid());
+		assertTrue(runner.toString().startsWith("Score: 0"));
+	}
+
+	@Test
+	void test4() throws IOException {
+		ScriptTokenizer tokens = new ScriptTokenizer(
+				new ByteArrayInputStream("  -12\t99999999999 ajudaME - 7".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(ScriptTokenizer.NUMBER, tokens.next());
+		assertEquals(-12, tokens.number());
+		assertEquals(ScriptTokenizer.WORD, tokens.next());
+		assertEquals(ScriptTokenizer.WORD, tokens.next());
+		assertTrue(tokens.wordContains("AJUDA"));
+		assertEquals(ScriptTokenizer.WORD, tokens.next());
+		assertEquals(ScriptTokenizer.NUMBER, tokens.next());
+		assertEquals(7, tokens.number());
+		assertEquals(ScriptTokenizer.EOF, tokens.next());
+	}
+}
@@ -0,0 +1,135 @@
+package testsSharedGame;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SharedGameTest {
+
+	@Test
+	void test1() {
+		// sozinho, joga como o jogo com a mesma semente
+		for (int seed = 1; seed <= 20; seed++) {
+			Game game = new Game(Filling.values(), 4, seed, 4);
+			SharedGame shared = new SharedGame(Filling.values(), 4, seed, 4);
+			assertEquals(game.toString(), shared.toString());
+			Random random = new Random(seed);
+			int n = game.getNumberBottles();
+			for (int k = 0; k < 2000 && !game.isRoundFinished(); k++) {
+				int i = random.nextInt(n);
+				int j = random.nextInt(n);
+				// aqui verter uma garrafa vazia ou para uma cheia não é válido
+				boolean valid = game.isValid(i, j) && !game.cell(i, 0).equals(Table.EMPTY)
+						&& game.cell(j, game.getSizeBottles() - 1).equals(Table.EMPTY);
+				assertEquals(valid, shared.isValid(i, j));
+				assertEquals(valid, shared.play(i, j));
+				if (valid) {
+					game.play(i, j);
+				}
+				assertEquals(game.toString(), shared.toString());
+			}
+		}
+	}
+
+	@Test
+	void test2() {
+		// o bónus conta uma só vez e a ronda seguinte é a do jogo
+		Game game = new Game(Filling.values(), 4, 3, 4);
+		SharedGame shared = new SharedGame(Filling.values(), 4, 3, 4);
+		int[][] moves = new Solver(Heuristic.SEGMENTS).solve(new Table(Filling.values(), 4, 3, 4));
+		for (int[] move : moves) {
+			assertTrue(shared.play(move[0], move[1]));
+			game.play(move[0], move[1]);
+		}
+		assertTrue(shared.isRoundFinished());
+		assertEquals(moves.length, shared.jogadas());
+		assertEquals(game.score(), shared.score());
+		assertFalse(shared.play(moves[0][1], moves[0][0]));
+		assertEquals(game.score(), shared.score());
+
+		game.startNewRound();
+		shared.startNewRound();
+		assertEquals(0, shared.jogadas());
+		assertEquals(game.toString(), shared.toString());
+	}
+
+	@Test
+	void test3() throws Exception {
+		// muitas threads a jogar ao calhas na mesma mesa
+		int threads = 8;
+		for (int seed = 1; seed <= 20; seed++) {
+			SharedGame shared = new SharedGame(Filling.values(), 3, seed, 2);
+			int n = shared.getNumberBottles();
+			int[] before = counts(shared);
+			AtomicInteger played = new AtomicInteger();
+			CyclicBarrier start = new CyclicBarrier(threads);
+			Thread[] workers = new Thread[threads];
+			Throwable[] failure = new Throwable[1];
+			for (int t = 0; t < threads; t++) {
+				Random random = new Random(seed * 31 + t);
+				workers[t] = new Thread(() -> {
+					try {
+						start.await();
+						for (int k = 0; k < 20_000 && !shared.isRoundFinished(); k++) {
+							if (shared.play(random.nextInt(n), random.nextInt(n))) {
+								played.incrementAndGet();
+							}
+						}
+					}
+					catch (Throwable e) {
+						failure[0] = e;
+					}
+				});
+				workers[t].start();
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+			assertNull(failure[0]);
+			// nenhum gole se perdeu nem apareceu
+			assertArrayEquals(before, counts(shared));
+			assertEquals(played.get(), shared.jogadas());
+			assertEquals(unsolved(shared) == 0, shared.isRoundFinished());
+			assertEquals(shared.isRoundFinished() ? Game.bonus(shared.jogadas()) : 0, shared.score());
+		}
+	}
+
+	private static int[] counts(SharedGame shared) {
+		Filling[] fillings = Filling.values();
+		int[] counts = new int[fillings.length];
+		for (int i = 0; i < shared.getNumberBottles(); i++) {
+			for (int level = 0; level < shared.getSizeBottles(); level++) {
+				for (int code = 0; code < fillings.length; code++) {
+					if (shared.cell(i, level).equals(fillings[code].toString())) {
+						counts[code]++;
+					}
+				}
+			}
+		}
+		return counts;
+	}
+
+	private static int unsolved(SharedGame shared) {
+		int unsolved = 0;
+		for (int i = 0; i < shared.getNumberBottles(); i++) {
+			String base = shared.cell(i, 0);
+			for (int level = 1; level < shared.getSizeBottles(); level++) {
+				if (!shared.cell(i, level).equals(base)) {
+					unsolved++;
+					break;
+				}
+			}
+		}
+		return unsolved;
+	}
+}
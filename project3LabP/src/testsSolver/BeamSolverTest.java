@@ -0,0 +1,80 @@
+package testsSolver;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BeamSolverTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void test1() {
+		// sem prazo a pesquisa acaba com uma solução mínima
+		EndgameDatabase db = EndgameDatabase.build(3, 4, 3);
+		BeamSolver solver = new BeamSolver(Heuristic.SEGMENTS);
+		for (int seed = 1; seed <= 30; seed++) {
+			Table table = new Table(Filling.values(), 3, seed, 4);
+			BeamSolver.Search search = solver.start(table);
+			int[][] moves = search.improve(60 * SECOND, Long.MAX_VALUE);
+			assertTrue(search.finished());
+			assertTrue(search.optimal());
+			assertEquals(db.distance(table), moves.length);
+		}
+	}
+
+	@Test
+	void test2() {
+		// cada melhoria dá uma solução válida e nunca mais longa
+		BeamSolver solver = new BeamSolver(Heuristic.SEGMENTS);
+		for (int seed = 1; seed <= 10; seed++) {
+			BeamSolver.Search search = solver.start(new Table(Filling.values(), 8, seed, 4));
+			int[][] first = search.improve(SECOND, 1);
+			assertNotNull(first);
+			play(8, seed, first);
+			int[][] better = search.improve(SECOND, 20_000);
+			assertTrue(better.length <= first.length);
+			play(8, seed, better);
+		}
+	}
+
+	@Test
+	void test3() {
+		// a pesquisa respeita o limite de posições e o cancelamento
+		Table table = new Table(Filling.values(), 8, 1, 4);
+		BeamSolver.Search search = new BeamSolver(Heuristic.SEGMENTS, 200).start(table);
+		search.improve(60 * SECOND, Long.MAX_VALUE);
+		assertTrue(search.finished());
+		assertTrue(!search.optimal());
+
+		BeamSolver.Search cancelled = new BeamSolver(Heuristic.SEGMENTS).start(table);
+		cancelled.cancel();
+		assertNull(cancelled.improve(60 * SECOND, Long.MAX_VALUE));
+		assertEquals(0, cancelled.expanded());
+	}
+
+	@Test
+	void test4() {
+		Game game = new Game(Filling.values(), 6, 3, 4);
+		BeamSolver solver = new BeamSolver(Heuristic.SEGMENTS);
+		int[] move;
+		while ((move = game.hint(solver, SECOND / 10)) != null) {
+			assertTrue(game.isValid(move[0], move[1]));
+			game.play(move[0], move[1]);
+		}
+		assertTrue(game.isRoundFinished());
+	}
+
+	private static void play(int symbols, int seed, int[][] moves) {
+		Game game = new Game(Filling.values(), symbols, seed, 4);
+		for (int[] move : moves) {
+			assertTrue(game.isValid(move[0], move[1]));
+			game.play(move[0], move[1]);
+		}
+		assertTrue(game.isRoundFinished());
+	}
+}
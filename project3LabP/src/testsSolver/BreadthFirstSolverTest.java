@@ -0,0 +1,62 @@
+package testsSolver;
+
+import types.*;
+import types.BreadthFirstSolver.Mode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BreadthFirstSolverTest {
+
+	@Test
+	void test1() {
+		EndgameDatabase db = EndgameDatabase.build(3, 4, 3);
+		BreadthFirstSolver forward = new BreadthFirstSolver(Mode.FORWARD, BreadthFirstSolver.DEFAULT_STATE_LIMIT);
+		BreadthFirstSolver bidirectional = new BreadthFirstSolver();
+		for (int seed = 1; seed <= 30; seed++) {
+			Table table = new Table(Filling.values(), 3, seed, 4);
+			int distance = db.distance(table);
+			assertEquals(distance, forward.solve(table).length);
+			assertEquals(distance, forward.meetingDepth());
+			assertEquals(0, forward.expandedBackward());
+			assertEquals(distance, bidirectional.solve(table).length);
+			assertTrue(bidirectional.meetingDepth() <= distance);
+		}
+	}
+
+	@Test
+	void test2() {
+		BreadthFirstSolver solver = new BreadthFirstSolver();
+		PatternDatabase pdb = PatternDatabase.build(6, 4, 9);
+		for (int seed = 1; seed <= 10; seed++) {
+			Table table = new Table(Filling.values(), 6, seed, 4);
+			int[][] moves = solver.solve(table);
+			assertNotNull(moves);
+			assertEquals(new Solver(pdb).solve(table).length, moves.length);
+			Game game = new Game(Filling.values(), 6, seed, 4);
+			for (int[] move : moves) {
+				assertTrue(game.isValid(move[0], move[1]));
+				game.play(move[0], move[1]);
+			}
+			assertTrue(game.isRoundFinished());
+		}
+	}
+
+	@Test
+	void test3() {
+		// as garrafas resolvidas, por qualquer ordem, já não precisam de jogadas
+		Table table = new Table(Filling.values(), 3, 1, 4);
+		int[][] moves = new BreadthFirstSolver().solve(table);
+		for (int[] move : moves) {
+			table.pourFromTo(move[0], move[1]);
+			while (!table.isEmpty(move[0]) && !table.isFull(move[1])
+					&& table.top(move[0]) == table.top(move[1])) {
+				table.pourFromTo(move[0], move[1]);
+			}
+		}
+		assertTrue(table.areAllFilled());
+		assertEquals(0, new BreadthFirstSolver().solve(table).length);
+	}
+}
@@ -0,0 +1,78 @@
+package testsSolver;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class SolverTest {
+
+	@Test
+	void test1() {
+		EndgameDatabase db = EndgameDatabase.build(3, 4, 3);
+		PatternDatabase pdb = PatternDatabase.build(3, 4, 6);
+		for (int seed = 1; seed <= 30; seed++) {
+			Table table = new Table(Filling.values(), 3, seed, 4);
+			int distance = db.distance(table);
+			assertEquals(distance, new Solver(Heuristic.SEGMENTS).solve(table).length);
+			assertEquals(distance, new Solver(pdb).solve(table).length);
+		}
+	}
+
+	@Test
+	void test2() {
+		PatternDatabase pdb = PatternDatabase.build(6, 4, 9);
+		Solver solver = new Solver(pdb);
+		for (int seed = 1; seed <= 10; seed++) {
+			int[][] moves = solver.solve(new Table(Filling.values(), 6, seed, 4));
+			assertNotNull(moves);
+			Game game = new Game(Filling.values(), 6, seed, 4);
+			for (int[] move : moves) {
+				assertTrue(game.isValid(move[0], move[1]));
+				game.play(move[0], move[1]);
+			}
+			assertTrue(game.isRoundFinished());
+		}
+	}
+
+	@Test
+	void test3() {
+		PatternDatabase pdb = PatternDatabase.build(8, 4, 11);
+		byte[] cells = new byte[11 * 4];
+		int[] sizes = new int[11];
+		for (int b = 0; b < 8; b++) {
+			sizes[b] = 4;
+			for (int level = 0; level < 4; level++) {
+				cells[b * 4 + level] = (byte) b;
+			}
+		}
+		assertEquals(0, pdb.estimate(cells, sizes, 4));
+		assertEquals(0, Heuristic.SEGMENTS.estimate(cells, sizes, 4));
+
+		// trocar os topos das garrafas 0 e 1 obriga a pelo menos três jogadas
+		cells[3] = 1;
+		cells[7] = 0;
+		assertTrue(pdb.estimate(cells, sizes, 4) >= 2);
+		assertTrue(pdb.estimate(cells, sizes, 4) <= 3);
+	}
+
+	@Test
+	void test4() {
+		// a base de dados de padrões expande menos nós do que SEGMENTS
+		PatternDatabase pdb = PatternDatabase.build(8, 4, 11);
+		Solver segments = new Solver(Heuristic.SEGMENTS);
+		Solver patterns = new Solver(pdb);
+		long segmentsExpanded = 0;
+		long patternsExpanded = 0;
+		for (int seed = 1; seed <= 10; seed++) {
+			Table table = new Table(Filling.values(), 8, seed, 4);
+			assertEquals(segments.solve(table).length, patterns.solve(table).length);
+			assertTrue(patterns.expanded() <= segments.expanded());
+			segmentsExpanded += segments.expanded();
+			patternsExpanded += patterns.expanded();
+		}
+		assertTrue(patternsExpanded < segmentsExpanded);
+	}
+}
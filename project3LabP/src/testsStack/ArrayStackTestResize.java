@@ -0,0 +1,76 @@
+package testsStack;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class ArrayStackTestResize {
+
+	@Test
+	void test1() {
+		ArrayStack<Filling> stack = new ArrayStack<>(5);
+		for (int k = 0; k < 100; k++) {
+			for (int i = 0; i < 5; i++) {
+				stack.push(Filling.SUN);
+			}
+			stack.popAll();
+		}
+
+		assertEquals(0, stack.resizes());
+		assertEquals(5, stack.capacity());
+	}
+
+	@Test
+	void test2() {
+		ArrayStack<Filling> stack = new ArrayStack<>(1);
+		stack.push(Filling.SUN);
+		stack.pop();
+		stack.push(Filling.LOVE);
+		stack.push(Filling.SMILE);
+
+		assertEquals(2, stack.size());
+		assertEquals(Filling.SMILE, stack.peek());
+	}
+
+	@Test
+	void test3() {
+		ArrayStack<Filling> stack = new ArrayStack<>(0);
+		stack.ensureCapacity(10);
+		assertEquals(10, stack.capacity());
+
+		stack.push(Filling.ANGEL);
+		stack.trimToSize();
+		assertEquals(1, stack.capacity());
+
+		stack.pop();
+		stack.push(Filling.EVIL);
+		assertEquals(Filling.EVIL, stack.peek());
+		assertEquals(2, stack.resizes());
+	}
+
+	@Test
+	void test4() {
+		ArrayStack<Filling> stack = new ArrayStack<>(4, 2, 8);
+		for (int i = 0; i < 64; i++) {
+			stack.push(Filling.SAD);
+		}
+		long resizes = stack.resizes();
+		for (int k = 0; k < 100; k++) {
+			for (int i = 0; i < 24; i++) {
+				stack.pop();
+			}
+			for (int i = 0; i < 24; i++) {
+				stack.push(Filling.SAD);
+			}
+		}
+
+		assertEquals(resizes, stack.resizes());
+	}
+
+	@Test
+	void test5() {
+		assertThrows(IllegalArgumentException.class, () -> new ArrayStack<Filling>(4, 2, 2));
+	}
+}
@@ -0,0 +1,77 @@
+package testsStack;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ByteStackTest {
+
+	@Test
+	void test1() {
+		ByteStack stack = new FixedByteStack(4);
+		stack.push((byte) 1);
+		stack.pushN((byte) 3, 3);
+
+		assertEquals(4, stack.size());
+		assertEquals(3, stack.peek());
+		assertEquals(1, stack.get(0));
+		assertEquals(3, stack.topRun());
+
+		assertThrows(IllegalStateException.class, () -> stack.push((byte) 2));
+	}
+
+	@Test
+	void test2() {
+		ByteStack stack = new ByteArrayStack(1);
+		for (int i = 0; i < 100; i++) {
+			stack.push((byte) (i / 10));
+		}
+
+		assertEquals(100, stack.size());
+		assertEquals(10, stack.topRun());
+
+		stack.popN(95);
+		assertEquals(5, stack.size());
+		assertEquals(5, stack.topRun());
+		assertEquals(0, stack.peek());
+	}
+
+	@Test
+	void test3() {
+		ByteStack stack = new FixedByteStack(5);
+		stack.push((byte) 7);
+		stack.push((byte) 8);
+		stack.push((byte) 9);
+
+		ByteStack.Cursor cursor = stack.cursor();
+		assertEquals(9, cursor.next());
+		assertEquals(8, cursor.next());
+		assertEquals(7, cursor.next());
+		assertFalse(cursor.hasNext());
+
+		assertTrue(cursor == stack.cursor());
+		assertTrue(stack.cursor().hasNext());
+	}
+
+	@Test
+	void test4() {
+		// a pilha fixa e a que cresce são irmãs: uma fixa nunca cresce
+		assertFalse(FixedByteStack.class.isAssignableFrom(ByteArrayStack.class));
+		AbstractByteStack stack = new ByteArrayStack(2);
+		stack.pushN((byte) 100, 20);
+		stack.push((byte) -1);
+
+		assertEquals(21, stack.size());
+		assertEquals(1, stack.topRun());
+		assertEquals(100, stack.get(19));
+		assertTrue(stack.capacity() >= 21);
+
+		stack.clear();
+		assertTrue(stack.isEmpty());
+		assertEquals(0, stack.topRun());
+	}
+}
@@ -0,0 +1,49 @@
+package testsStack;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class IntStackTest {
+
+	@Test
+	void test1() {
+		IntStack stack = new FixedIntStack(4);
+		stack.push(1000);
+		stack.pushN(-3, 3);
+
+		assertEquals(4, stack.size());
+		assertEquals(-3, stack.peek());
+		assertEquals(1000, stack.get(0));
+		assertEquals(3, stack.topRun());
+
+		assertThrows(IllegalStateException.class, () -> stack.push(2));
+	}
+
+	@Test
+	void test2() {
+		// a pilha fixa e a que cresce são irmãs: uma fixa nunca cresce
+		assertFalse(FixedIntStack.class.isAssignableFrom(IntArrayStack.class));
+		AbstractIntStack stack = new IntArrayStack(2);
+		stack.pushN(1000, 20);
+		stack.push(-1);
+
+		assertEquals(21, stack.size());
+		assertEquals(1, stack.topRun());
+		assertEquals(1000, stack.get(19));
+		assertTrue(stack.capacity() >= 21);
+
+		IntStack.Cursor cursor = stack.cursor();
+		assertEquals(-1, cursor.next());
+		assertEquals(1000, cursor.next());
+		assertTrue(cursor == stack.cursor());
+
+		stack.popN(21);
+		assertTrue(stack.isEmpty());
+		assertEquals(0, stack.topRun());
+	}
+}
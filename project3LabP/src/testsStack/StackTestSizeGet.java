@@ -0,0 +1,51 @@
+package testsStack;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class StackTestSizeGet {
+
+	@Test
+	void test1() {
+		Stack<Filling> stack = new ArrayStack<>();
+		assertEquals(0, stack.size());
+
+		for (int i = 0; i < 20; i++) {
+			stack.push(Filling.values()[i % 8]);
+		}
+		stack.pop();
+
+		assertEquals(19, stack.size());
+		assertEquals(Filling.SMILE, stack.get(0));
+		assertEquals(Filling.BLIINK, stack.get(12));
+		assertEquals(Filling.FURIOUS, stack.get(18));
+	}
+
+	@Test
+	void test2() {
+		Stack<Filling> stack = new LinkedStack<>();
+		assertEquals(0, stack.size());
+
+		for (int i = 0; i < 20; i++) {
+			stack.push(Filling.values()[i % 8]);
+		}
+		stack.pop();
+
+		assertEquals(19, stack.size());
+		assertEquals(Filling.SMILE, stack.get(0));
+		assertEquals(Filling.BLIINK, stack.get(12));
+		assertEquals(Filling.FURIOUS, stack.get(18));
+	}
+
+	@Test
+	void test3() {
+		Stack<Filling> stack = new LinkedStack<>();
+		stack.push(Filling.SUN);
+		stack.push(Filling.LOVE);
+		stack.popAll();
+
+		assertEquals(0, stack.size());
+	}
+}
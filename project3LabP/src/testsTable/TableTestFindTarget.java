@@ -0,0 +1,65 @@
+package testsTable;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TableTestFindTarget {
+
+	@Test
+	void test1() {
+		Table tableTeste = new Table(Filling.values(), 3, 1, 4);
+
+		// o topo da garrafa 0 é 😃 e nenhuma outra garrafa não cheia o tem
+		assertEquals(3, tableTeste.findTarget(0));
+		assertEquals(-1, tableTeste.findTarget(3));
+
+		tableTeste.pourFromTo(0, 3);
+		// a garrafa 0 fica com 😒 no topo, tal como a 1 que está cheia, e a 3 só
+		// com 😃, logo os destinos são as vazias
+		assertEquals(4, tableTeste.findTarget(3));
+		assertEquals(4, tableTeste.findTarget(0));
+		assertEquals(Filling.SMILE, tableTeste.top(3));
+	}
+
+	@Test
+	void test2() {
+		Table tableTeste = new Table(Palette.emoji(40), 40, 1, 4);
+		for (int i = 0; i < 200; i++) {
+			tableTeste.addBottle(new Bottle(4, tableTeste.getPalette()));
+		}
+		assertEquals(243, tableTeste.getNumberBottles());
+		assertTrue(tableTeste.isEmpty(242));
+
+		int[] codes = { 39, 39, 39 };
+		tableTeste.addBottle(new Bottle(codes, 4, tableTeste.getPalette()));
+		assertFalse(tableTeste.isFull(243));
+		assertEquals(243, tableTeste.findTarget(findTop(tableTeste, 39)));
+	}
+
+	@Test
+	void test3() {
+		Table tableTeste = new Table(Filling.values(), 1, 1, 3);
+		for (int i = 0; i < 100; i++) {
+			tableTeste.addBottle(new Bottle(3));
+		}
+		assertTrue(tableTeste.areAllFilled());
+
+		tableTeste.pourFromTo(0, 70);
+		assertFalse(tableTeste.areAllFilled());
+		tableTeste.pourFromTo(70, 0);
+		assertTrue(tableTeste.areAllFilled());
+	}
+
+	private static int findTop(Table table, int code) {
+		for (int i = 0; i < 40; i++) {
+			if (!table.isEmpty(i) && table.topCode(i) == code) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
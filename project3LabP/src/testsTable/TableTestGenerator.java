@@ -0,0 +1,83 @@
+package testsTable;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.jupiter.api.Test;
+
+class TableTestGenerator {
+
+	@Test
+	void test1() {
+		for (Table.Generator generator : Table.Generator.values()) {
+			Table tableTeste = new Table(Palette.FILLINGS, 5, 3, 4, generator);
+			int[] counter = new int[5];
+			for (int i = 0; i < tableTeste.getNumberBottles(); i++) {
+				for (int level = 0; level < tableTeste.size(i); level++) {
+					counter[tableTeste.codeAt(i, level)]++;
+				}
+			}
+			for (int count : counter) {
+				assertEquals(4, count);
+			}
+			assertEquals(0, tableTeste.size(5));
+		}
+	}
+
+	@Test
+	void test2() {
+		for (Table.Generator generator : Table.Generator.values()) {
+			String first = new Table(Palette.FILLINGS, 7, 42, 4, generator).toString();
+			assertEquals(first, new Table(Palette.FILLINGS, 7, 42, 4, generator).toString());
+			assertNotEquals(first, new Table(Palette.FILLINGS, 7, 43, 4, generator).toString());
+		}
+		assertEquals(new Table(Filling.values(), 7, 1, 4).toString(),
+				new Table(Palette.FILLINGS, 7, 1, 4, Table.Generator.LEGACY).toString());
+	}
+
+	@Test
+	void test3() {
+		// depois de uma ajuda as garrafas a mais ficam vazias
+		Table tableTeste = new Table(Filling.values(), 3, 1, 4);
+		tableTeste.addBottle(new Bottle(4));
+		tableTeste.regenerateTable();
+
+		assertEquals(7, tableTeste.getNumberBottles());
+		for (int i = 3; i < 7; i++) {
+			assertEquals(0, tableTeste.size(i));
+		}
+	}
+
+	@Test
+	void test4() throws Exception {
+		// a propriedade não distingue maiúsculas e um valor inválido não impede o jogo
+		assertEquals("SPLITTABLE", defaultWith("splittable"));
+		assertEquals("L64X128", defaultWith("l64x128"));
+		assertEquals("LEGACY", defaultWith("xoroshiro"));
+	}
+
+	/**
+	 * Lê o valor por omissão numa cópia nova das classes, com a propriedade dada
+	 */
+	private static String defaultWith(String value) throws Exception {
+		String old = System.setProperty(Table.PROPERTY, value);
+		URL classes = Table.class.getProtectionDomain().getCodeSource().getLocation();
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, ClassLoader.getPlatformClassLoader())) {
+			Class<?> type = Class.forName("types.Table$Generator", true, loader);
+			return ((Enum<?>) type.getField("DEFAULT").get(null)).name();
+		}
+		finally {
+			if (old == null) {
+				System.clearProperty(Table.PROPERTY);
+			}
+			else {
+				System.setProperty(Table.PROPERTY, old);
+			}
+		}
+	}
+}
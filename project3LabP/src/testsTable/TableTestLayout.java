@@ -0,0 +1,127 @@
+package testsTable;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.EmptyStackException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TableTestLayout {
+
+	private static Table table(Table.Layout layout, int symbols, int seed, int capacity) {
+		return new Table(Palette.FILLINGS, symbols, seed, capacity, Table.Generator.LEGACY, layout);
+	}
+
+	private static void assertSame(Table expected, Table actual) {
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(expected.getNumberBottles(), actual.getNumberBottles());
+		assertEquals(expected.areAllFilled(), actual.areAllFilled());
+		for (int i = 0; i < expected.getNumberBottles(); i++) {
+			assertEquals(expected.size(i), actual.size(i));
+			assertEquals(expected.isEmpty(i), actual.isEmpty(i));
+			assertEquals(expected.isFull(i), actual.isFull(i));
+			assertEquals(expected.singleFilling(i), actual.singleFilling(i));
+			assertEquals(expected.findTarget(i), actual.findTarget(i));
+			if (!expected.isEmpty(i)) {
+				assertEquals(expected.top(i), actual.top(i));
+			}
+		}
+	}
+
+	@Test
+	void test1() {
+		// as mesmas jogadas ao acaso nas duas formas deixam mesas iguais
+		Random rd = new Random(11);
+		Table bottles = table(Table.Layout.BOTTLES, 5, 8, 4);
+		Table buffer = table(Table.Layout.BUFFER, 5, 8, 4);
+		assertSame(bottles, buffer);
+		for (int step = 0; step < 3000; step++) {
+			int n = bottles.getNumberBottles();
+			int i = rd.nextInt(n);
+			int j = rd.nextInt(n);
+			if (step % 500 == 499) {
+				bottles.addBottle(new Bottle(4, Palette.FILLINGS));
+				buffer.addBottle(new Bottle(4, Palette.FILLINGS));
+			}
+			else if (step % 1000 == 0) {
+				bottles.regenerateTable();
+				buffer.regenerateTable();
+			}
+			else if (!bottles.isEmpty(i)) {
+				bottles.pourFromTo(i, j);
+				buffer.pourFromTo(i, j);
+			}
+			assertSame(bottles, buffer);
+		}
+	}
+
+	@Test
+	void test2() {
+		// garrafas de outras capacidades e paletas são copiadas para o buffer
+		Table bottles = table(Table.Layout.BOTTLES, 3, 2, 3);
+		Table buffer = table(Table.Layout.BUFFER, 3, 2, 3);
+		Filling[] content = { Filling.SMILE, Filling.SMILE, null, null, null };
+		bottles.addBottle(new Bottle(content));
+		buffer.addBottle(new Bottle(content));
+		bottles.addBottle(new Bottle(2));
+		buffer.addBottle(new Bottle(2));
+		assertSame(bottles, buffer);
+		assertEquals(5, buffer.getSizeBottles() + 2);
+		assertThrows(EmptyStackException.class, () -> buffer.pourFromTo(7, 0));
+		assertThrows(IllegalArgumentException.class,
+				() -> new Table(Palette.FILLINGS, 3, 1, 300, Table.Generator.LEGACY, Table.Layout.BUFFER));
+	}
+
+	@Test
+	void test3() {
+		for (Table.Layout layout : Table.Layout.values()) {
+			Table original = table(layout, 4, 5, 4);
+			String before = original.toString();
+			Table copy = original.copy();
+			assertSame(original, copy);
+			int i = 0;
+			while (copy.findTarget(i) < 0) {
+				i++;
+			}
+			copy.pourFromTo(i, copy.findTarget(i));
+			assertEquals(before, original.toString());
+			assertNotEquals(before, copy.toString());
+			copy.regenerateTable();
+			assertEquals(before, original.toString());
+		}
+	}
+
+	@Test
+	void test4() throws Exception {
+		// a propriedade não distingue maiúsculas e um valor inválido não impede o jogo
+		assertEquals("BUFFER", defaultWith("buffer"));
+		assertEquals("BOTTLES", defaultWith("array"));
+	}
+
+	/**
+	 * Lê Layout.DEFAULT numa cópia nova das classes, com a propriedade dada
+	 */
+	private static String defaultWith(String value) throws Exception {
+		String old = System.setProperty(Table.LAYOUT_PROPERTY, value);
+		URL classes = Table.class.getProtectionDomain().getCodeSource().getLocation();
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { classes }, ClassLoader.getPlatformClassLoader())) {
+			Class<?> layout = Class.forName("types.Table$Layout", true, loader);
+			return ((Enum<?>) layout.getField("DEFAULT").get(null)).name();
+		}
+		finally {
+			if (old == null) {
+				System.clearProperty(Table.LAYOUT_PROPERTY);
+			}
+			else {
+				System.setProperty(Table.LAYOUT_PROPERTY, old);
+			}
+		}
+	}
+}
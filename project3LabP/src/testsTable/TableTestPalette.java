@@ -0,0 +1,83 @@
+package testsTable;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TableTestPalette {
+
+	@Test
+	void test1() {
+		Palette palette = Palette.emoji(32);
+		Table tableTeste = new Table(palette, 20, 1, 6);
+
+		assertEquals(23, tableTeste.getNumberBottles());
+		int[] counter = new int[palette.size()];
+		for (int i = 0; i < tableTeste.getNumberBottles(); i++) {
+			for (int level = 0; level < 6; level++) {
+				String cell = tableTeste.cell(i, level);
+				if (!cell.equals(Table.EMPTY)) {
+					counter[palette.code(cell)]++;
+				}
+			}
+		}
+		for (int code = 0; code < 20; code++) {
+			assertEquals(6, counter[code]);
+		}
+	}
+
+	@Test
+	void test2() {
+		Table fillings = new Table(Filling.values(), 7, 1, 7);
+		Table palette = new Table(Palette.emoji(32), 7, 1, 7);
+
+		assertEquals(fillings.toString(), palette.toString());
+	}
+
+	@Test
+	void test3() {
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		for (BottleStorage.Kind kind : new BottleStorage.Kind[] { BottleStorage.Kind.JAVA_STACK,
+				BottleStorage.Kind.FIXED_ARRAY, BottleStorage.Kind.LINKED_STACK }) {
+			Bottle bottle = new Bottle(4, palette, kind);
+			assertTrue(bottle.receiveCode(200));
+			assertTrue(bottle.receiveCode(200));
+			assertEquals(200, bottle.topCode());
+			assertEquals(2, bottle.topRun());
+			assertEquals(palette.symbol(200) + Table.EOL, bottle.toString().substring(bottle.toString().length()
+					- palette.symbol(200).length() - Table.EOL.length()));
+		}
+
+		Bottle packed = new Bottle(12, Palette.emoji(32), BottleStorage.Kind.PACKED_LONG);
+		assertTrue(packed.receiveCode(31));
+		assertEquals(31, packed.topCode());
+		assertThrows(IllegalStateException.class, () -> packed.top());
+	}
+
+	@Test
+	void test4() {
+		Table tableTeste = new Table(Palette.emoji(10), 3, 1, 4);
+		Filling[] vec = { Filling.ANGEL, Filling.ANGEL };
+		tableTeste.addBottle(new Bottle(vec));
+
+		assertEquals(Filling.ANGEL, tableTeste.top(6));
+		assertEquals(Palette.emoji(10).code(Filling.ANGEL), tableTeste.topCode(6));
+	}
+
+	@Test
+	void test5() {
+		// os goles que não são Filling só se leem pelo código
+		for (Table.Layout layout : Table.Layout.values()) {
+			Table tableTeste = new Table(Palette.emoji(32), 32, 1, 4, Table.Generator.LEGACY, layout);
+			int i = 0;
+			while (tableTeste.topCode(i) < Filling.values().length) {
+				i++;
+			}
+			int bottle = i;
+			assertThrows(IllegalStateException.class, () -> tableTeste.top(bottle), layout.name());
+		}
+	}
+}
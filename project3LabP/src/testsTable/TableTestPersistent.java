@@ -0,0 +1,118 @@
+package testsTable;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EmptyStackException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TableTestPersistent {
+
+	@Test
+	void test1() {
+		// o histórico do jogo tem, em cada passo, a mesa do jogo nesse passo
+		Game game = new Game(Filling.values(), 5, 3, 4, 1000);
+		game.recordHistory(true);
+		Table replay = new Table(Filling.values(), 5, 3, 4);
+		Random rd = new Random(5);
+		int n = game.getNumberBottles();
+		for (int step = 0; step < 300; step++) {
+			int i = rd.nextInt(n + 1);
+			int j = rd.nextInt(n + 1);
+			if (step == 100) {
+				game.provideHelp();
+				replay.addBottle(new Bottle(4, replay.getPalette()));
+				n++;
+			}
+			else if (game.isValid(i, j) && !replay.isEmpty(i)) {
+				game.play(i, j);
+				while (!replay.isFull(j) && !replay.isEmpty(i)
+						&& (replay.isEmpty(j) || replay.topCode(i) == replay.topCode(j))) {
+					replay.pourFromTo(i, j);
+				}
+			}
+			else {
+				continue;
+			}
+			List<PersistentTable> history = game.history();
+			PersistentTable last = history.get(history.size() - 1);
+			PersistentTable expected = PersistentTable.of(replay);
+			assertEquals(replay.toString(), last.toString());
+			assertEquals(expected, last);
+			assertEquals(expected.hashCode(), last.hashCode());
+			assertEquals(replay.areAllFilled(), last.areAllFilled());
+		}
+		assertEquals(game.jogadas() + 2, game.history().size());
+	}
+
+	@Test
+	void test2() {
+		Table table = new Table(Filling.values(), 4, 7, 3);
+		PersistentTable first = PersistentTable.of(table);
+		String before = first.toString();
+		int i = 0;
+		while (table.findTarget(i) < 0) {
+			i++;
+		}
+		int j = table.findTarget(i);
+		PersistentTable second = first.pourFromTo(i, j);
+		table.pourFromTo(i, j);
+		assertEquals(before, first.toString());
+		assertEquals(table.toString(), second.toString());
+		assertNotEquals(first, second);
+
+		// voltar a verter para trás dá uma mesa igual à primeira
+		PersistentTable back = second.pourFromTo(j, i);
+		if (back != second) {
+			assertEquals(first, back);
+			assertEquals(first.hashCode(), back.hashCode());
+		}
+		assertSame(first, first.move(i, i));
+		assertSame(first, first.move(-1, 0));
+	}
+
+	@Test
+	void test3() {
+		PersistentTable table = PersistentTable.of(new Table(Filling.values(), 2, 1, 2));
+		PersistentTable bigger = table.addBottle();
+		PersistentTable help = bigger;
+		assertEquals(table.getNumberBottles() + 1, bigger.getNumberBottles());
+		assertEquals(0, bigger.size(table.getNumberBottles()));
+		assertThrows(EmptyStackException.class, () -> help.pourFromTo(table.getNumberBottles(), 0));
+		for (int k = 0; k < 40; k++) {
+			bigger = bigger.addBottle();
+		}
+		assertEquals(table.getNumberBottles() + 41, bigger.getNumberBottles());
+		assertEquals(Table.EMPTY, bigger.cell(bigger.getNumberBottles() - 1, 0));
+	}
+
+	@Test
+	void test4() {
+		// por omissão não há histórico; ligado a meio, começa na mesa atual
+		Game game = new Game(Filling.values(), 3, 1, 4);
+		game.play(2, 3);
+		game.provideHelp();
+		assertEquals(0, game.history().size());
+
+		game.recordHistory(true);
+		assertEquals(1, game.history().size());
+		assertTrue(game.toString().contains(game.history().get(0).toString()));
+		game.play(0, game.getNumberBottles() - 1);
+		assertEquals(2, game.history().size());
+		game.startNewRound();
+		assertEquals(1, game.history().size());
+
+		game.recordHistory(false);
+		assertEquals(0, game.history().size());
+		game.play(0, game.getNumberBottles() - 1);
+		assertEquals(0, game.history().size());
+	}
+}
@@ -0,0 +1,70 @@
+package testsTable;
+
+import types.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class TableTestSnapshot {
+
+	private static void pourAll(Table table) {
+		for (int i = 0; i < table.getNumberBottles(); i++) {
+			int j = table.findTarget(i);
+			if (j >= 0) {
+				table.pourFromTo(i, j);
+			}
+		}
+	}
+
+	@Test
+	void test1() {
+		for (Table.Layout layout : Table.Layout.values()) {
+			Table table = new Table(Palette.FILLINGS, 5, 2, 4, Table.Generator.LEGACY, layout);
+			Table.Snapshot snapshot = table.snapshot();
+			String before = table.toString();
+			pourAll(table);
+			table.addBottle(new Bottle(4, Palette.FILLINGS));
+			table.restore(snapshot);
+			assertEquals(before, table.toString());
+			assertEquals(8, table.getNumberBottles());
+
+			// o gerador continua de onde estava quando se guardou
+			Table other = new Table(Palette.FILLINGS, 5, 2, 4, Table.Generator.LEGACY, layout);
+			table.regenerateTable();
+			table.restore(snapshot);
+			table.regenerateTable();
+			other.regenerateTable();
+			assertEquals(other.toString(), table.toString());
+		}
+	}
+
+	@Test
+	void test2() {
+		// repor numa mesa de outra semente e capacidade
+		for (Table.Generator generator : Table.Generator.values()) {
+			Table original = new Table(Palette.FILLINGS, 4, 9, 3, generator);
+			original.regenerateTable();
+			Table.Snapshot snapshot = original.snapshot();
+			Table table = new Table(Palette.FILLINGS, 6, 1, 5, generator);
+			table.restore(snapshot);
+			assertEquals(original.toString(), table.toString());
+			assertEquals(original.areAllFilled(), table.areAllFilled());
+			original.regenerateTable();
+			table.regenerateTable();
+			assertEquals(original.toString(), table.toString());
+		}
+	}
+
+	@Test
+	void test3() {
+		Table table = new Table(Palette.FILLINGS, 3, 4, 4);
+		Table.Snapshot snapshot = new Table.Snapshot();
+		assertSame(snapshot, table.snapshot(snapshot));
+		assertEquals(6, snapshot.bottles());
+		Table other = new Table(Palette.emoji(10), 3, 4, 4);
+		assertThrows(IllegalArgumentException.class, () -> other.restore(snapshot));
+	}
+}
@@ -0,0 +1,107 @@
+package testsVerifier;
+
+import types.*;
+import types.SolutionVerifier.Submission;
+import types.SolutionVerifier.Verdict;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.EmptyStackException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SolutionVerifierTest {
+
+	/**
+	 * Joga as jogadas num Game e devolve o veredicto que o verificador deve dar.
+	 */
+	private static Verdict expected(int seed, int symbols, int capacity, int[] moves, int score, int jogadas) {
+		Game game = new Game(Palette.emoji(Palette.MAX_SYMBOLS), symbols, seed, capacity);
+		try {
+			for (int m = 0; m + 1 < moves.length; m += 2) {
+				game.play(moves[m], moves[m + 1]);
+			}
+		}
+		catch (EmptyStackException e) {
+			return Verdict.BAD_MOVE;
+		}
+		if (!game.isRoundFinished()) {
+			return Verdict.NOT_FINISHED;
+		}
+		if (game.jogadas() != jogadas) {
+			return Verdict.WRONG_MOVES;
+		}
+		return game.score() == score ? Verdict.ACCEPTED : Verdict.WRONG_SCORE;
+	}
+
+	private static int[] flatten(int[][] moves) {
+		int[] flat = new int[2 * moves.length];
+		for (int m = 0; m < moves.length; m++) {
+			flat[2 * m] = moves[m][0];
+			flat[2 * m + 1] = moves[m][1];
+		}
+		return flat;
+	}
+
+	@Test
+	void test1() {
+		SolutionVerifier verifier = new SolutionVerifier();
+		Solver solver = new Solver(Heuristic.SEGMENTS);
+		for (int seed = 1; seed <= 20; seed++) {
+			int[] moves = flatten(solver.solve(new Table(Palette.emoji(Palette.MAX_SYMBOLS), 4, seed, 4)));
+			int n = moves.length / 2;
+			int score = Game.bonus(n);
+			assertEquals(Verdict.ACCEPTED, verifier.verify(new Submission(seed, 4, 4, moves, score, n)));
+			assertEquals(Verdict.WRONG_SCORE, verifier.verify(new Submission(seed, 4, 4, moves, score + 1, n)));
+			assertEquals(Verdict.WRONG_MOVES, verifier.verify(new Submission(seed, 4, 4, moves, score, n + 1)));
+			int[] partial = java.util.Arrays.copyOf(moves, moves.length - 2);
+			assertEquals(Verdict.NOT_FINISHED, verifier.verify(new Submission(seed, 4, 4, partial, 0, n - 1)));
+		}
+	}
+
+	@Test
+	void test2() {
+		// jogadas ao acaso, incluindo inválidas e entre garrafas vazias
+		Random rd = new Random(7);
+		Submission[] batch = new Submission[500];
+		Verdict[] expected = new Verdict[batch.length];
+		for (int k = 0; k < batch.length; k++) {
+			int symbols = 2 + rd.nextInt(3);
+			int capacity = 2 + rd.nextInt(3);
+			int[] moves = new int[2 * rd.nextInt(200)];
+			for (int m = 0; m < moves.length; m++) {
+				moves[m] = rd.nextInt(symbols + Table.DIFFICULTY + 1) - (rd.nextInt(50) == 0 ? 1 : 0);
+			}
+			int score = rd.nextInt(3) * 200;
+			int jogadas = rd.nextInt(100);
+			batch[k] = new Submission(k, symbols, capacity, moves, score, jogadas);
+			expected[k] = expected(k, symbols, capacity, moves, score, jogadas);
+		}
+		Verdict[] verdicts = new SolutionVerifier().verifyAll(batch);
+		for (int k = 0; k < batch.length; k++) {
+			assertEquals(expected[k], verdicts[k]);
+		}
+	}
+
+	@Test
+	void test3() {
+		// depois de terminada, cada jogada válida volta a somar pontos, como no Game
+		Palette palette = Palette.emoji(Palette.MAX_SYMBOLS);
+		int[] moves = flatten(new Solver(Heuristic.SEGMENTS).solve(new Table(palette, 3, 5, 3)));
+		Game game = new Game(palette, 3, 5, 3);
+		for (int m = 0; m < moves.length; m += 2) {
+			game.play(moves[m], moves[m + 1]);
+		}
+		int full = game.cell(0, 0).equals(Table.EMPTY) ? 1 : 0;
+		int empty = 0;
+		while (!game.cell(empty, 0).equals(Table.EMPTY)) {
+			empty++;
+		}
+		int[] extra = java.util.Arrays.copyOf(moves, moves.length + 2);
+		extra[moves.length] = full;
+		extra[moves.length + 1] = empty;
+		int n = moves.length / 2;
+		int score = Game.bonus(n) + Game.bonus(n + 1);
+		assertEquals(Verdict.ACCEPTED, expected(5, 3, 3, extra, score, n + 1));
+		assertEquals(Verdict.ACCEPTED, new SolutionVerifier().verify(new Submission(5, 3, 3, extra, score, n + 1)));
+	}
+}
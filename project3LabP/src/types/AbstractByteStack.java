@@ -0,0 +1,148 @@
+package types;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Base das pilhas de bytes guardadas num único array. O que acontece quando o
+ * array fica cheio é decidido por cada subclasse: {@link FixedByteStack} lança
+ * uma exceção e {@link ByteArrayStack} cresce; nenhuma das duas é subclasse da
+ * outra, para que uma pilha declarada com capacidade fixa nunca cresça.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public abstract class AbstractByteStack implements ByteStack {
+
+    /**
+     * Array utilizado para guardar os elementos na pilha
+     */
+    protected byte[] data;
+
+    /**
+     * Número de elementos na pilha
+     */
+    protected int size;
+
+    private final ReverseCursor cursor = new ReverseCursor();
+
+    /**
+     * Criar uma pilha vazia com a capacidade dada
+     *
+     * @param capacity O número de elementos que a pilha guarda sem crescer
+     */
+    protected AbstractByteStack(int capacity) {
+        data = new byte[capacity];
+    }
+
+    /**
+     * A capacidade atual da pilha
+     *
+     * @return O número de elementos que a pilha guarda sem crescer
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void push(byte e) {
+        if (size == data.length) {
+            grow(size + 1);
+        }
+        data[size++] = e;
+    }
+
+    @Override
+    public void pushN(byte e, int n) {
+        if (size + n > data.length) {
+            grow(size + n);
+        }
+        Arrays.fill(data, size, size + n, e);
+        size += n;
+    }
+
+    @Override
+    public byte peek() {
+        return data[size - 1];
+    }
+
+    @Override
+    public byte get(int i) {
+        return data[i];
+    }
+
+    @Override
+    public void pop() {
+        size--;
+    }
+
+    @Override
+    public void popN(int n) {
+        size -= n;
+    }
+
+    @Override
+    public int topRun() {
+        if (size == 0) {
+            return 0;
+        }
+        byte top = data[size - 1];
+        int i = size - 2;
+        while (i >= 0 && data[i] == top) {
+            i--;
+        }
+        return size - 1 - i;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Garantir espaço para minCapacity elementos, chamado quando o array não
+     * chega
+     *
+     * @param minCapacity O número de elementos que a pilha tem de guardar
+     */
+    protected abstract void grow(int minCapacity);
+
+    @Override
+    public ByteStack.Cursor cursor() {
+        cursor.i = size - 1;
+        return cursor;
+    }
+
+    private class ReverseCursor implements ByteStack.Cursor {
+        private int i;
+
+        @Override
+        public boolean hasNext() {
+            return i >= 0;
+        }
+
+        @Override
+        public byte next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return data[i--];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = size - 1; i >= 0; i--) {
+            sb.append(data[i]);
+            sb.append(", ");
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
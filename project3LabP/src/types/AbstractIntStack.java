@@ -0,0 +1,148 @@
+package types;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Base das pilhas de inteiros guardadas num único array. O que acontece quando o
+ * array fica cheio é decidido por cada subclasse: {@link FixedIntStack} lança
+ * uma exceção e {@link IntArrayStack} cresce; nenhuma das duas é subclasse da
+ * outra, para que uma pilha declarada com capacidade fixa nunca cresça.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public abstract class AbstractIntStack implements IntStack {
+
+    /**
+     * Array utilizado para guardar os elementos na pilha
+     */
+    protected int[] data;
+
+    /**
+     * Número de elementos na pilha
+     */
+    protected int size;
+
+    private final ReverseCursor cursor = new ReverseCursor();
+
+    /**
+     * Criar uma pilha vazia com a capacidade dada
+     *
+     * @param capacity O número de elementos que a pilha guarda sem crescer
+     */
+    protected AbstractIntStack(int capacity) {
+        data = new int[capacity];
+    }
+
+    /**
+     * A capacidade atual da pilha
+     *
+     * @return O número de elementos que a pilha guarda sem crescer
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void push(int e) {
+        if (size == data.length) {
+            grow(size + 1);
+        }
+        data[size++] = e;
+    }
+
+    @Override
+    public void pushN(int e, int n) {
+        if (size + n > data.length) {
+            grow(size + n);
+        }
+        Arrays.fill(data, size, size + n, e);
+        size += n;
+    }
+
+    @Override
+    public int peek() {
+        return data[size - 1];
+    }
+
+    @Override
+    public int get(int i) {
+        return data[i];
+    }
+
+    @Override
+    public void pop() {
+        size--;
+    }
+
+    @Override
+    public void popN(int n) {
+        size -= n;
+    }
+
+    @Override
+    public int topRun() {
+        if (size == 0) {
+            return 0;
+        }
+        int top = data[size - 1];
+        int i = size - 2;
+        while (i >= 0 && data[i] == top) {
+            i--;
+        }
+        return size - 1 - i;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Garantir espaço para minCapacity elementos, chamado quando o array não
+     * chega
+     *
+     * @param minCapacity O número de elementos que a pilha tem de guardar
+     */
+    protected abstract void grow(int minCapacity);
+
+    @Override
+    public IntStack.Cursor cursor() {
+        cursor.i = size - 1;
+        return cursor;
+    }
+
+    private class ReverseCursor implements IntStack.Cursor {
+        private int i;
+
+        @Override
+        public boolean hasNext() {
+            return i >= 0;
+        }
+
+        @Override
+        public int next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return data[i--];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('[');
+        for (int i = size - 1; i >= 0; i--) {
+            sb.append(data[i]);
+            sb.append(", ");
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
@@ -29,12 +29,83 @@ public class ArrayStack<E> implements Stack<E> {
      */
     private static final int DEFAULT_CAPACITY = 8;
 
+    /**
+     * O fator de crescimento por omissão
+     */
+    private static final int DEFAULT_GROW_FACTOR = 2;
+
+    /**
+     * A fração de ocupação abaixo da qual a pilha encolhe, por omissão
+     */
+    private static final int DEFAULT_SHRINK_THRESHOLD = 4;
+
+    /**
+     * A pilha nunca encolhe abaixo desta capacidade (pelo menos 1)
+     */
+    private final int minCapacity;
+
+    /**
+     * Quando cheia, a capacidade é multiplicada por este fator
+     */
+    private final int growFactor;
+
+    /**
+     * A pilha encolhe quando tem no máximo 1/shrinkThreshold da capacidade
+     * ocupada, dividindo a capacidade por growFactor
+     */
+    private final int shrinkThreshold;
+
+    /**
+     * Número de arrays alocados por redimensionamento
+     */
+    private long resizes;
+
+    /**
+     * Número de elementos copiados por redimensionamento
+     */
+    private long copies;
+
     /**
      * Criar uma pilha vazia
      */
-    @SuppressWarnings("unchecked")
     public ArrayStack() {
-        data = (E[]) new Object[DEFAULT_CAPACITY];
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Criar uma pilha vazia que guarda initialCapacity elementos sem
+     * redimensionar e que nunca encolhe abaixo dessa capacidade
+     * 
+     * @param initialCapacity A capacidade inicial da pilha
+     * @requires initialCapacity >= 0
+     */
+    public ArrayStack(int initialCapacity) {
+        this(initialCapacity, DEFAULT_GROW_FACTOR, DEFAULT_SHRINK_THRESHOLD);
+    }
+
+    /**
+     * Criar uma pilha vazia com uma política de redimensionamento própria. Quando
+     * cheia a capacidade é multiplicada por growFactor; quando a ocupação desce
+     * a 1/shrinkThreshold a capacidade é dividida por growFactor, sem descer
+     * abaixo de initialCapacity. Como shrinkThreshold é maior que growFactor,
+     * depois de encolher a pilha fica com folga nos dois sentidos, o que evita
+     * redimensionamentos sucessivos quando o tamanho oscila.
+     * 
+     * @param initialCapacity A capacidade inicial e mínima da pilha
+     * @param growFactor      O fator de crescimento
+     * @param shrinkThreshold O inverso da ocupação que faz encolher a pilha
+     * @throws IllegalArgumentException se initialCapacity < 0, growFactor < 2
+     *                                  ou shrinkThreshold <= growFactor
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayStack(int initialCapacity, int growFactor, int shrinkThreshold) {
+        if (initialCapacity < 0 || growFactor < 2 || shrinkThreshold <= growFactor) {
+            throw new IllegalArgumentException("Política de redimensionamento inválida");
+        }
+        this.minCapacity = Math.max(1, initialCapacity);
+        this.growFactor = growFactor;
+        this.shrinkThreshold = shrinkThreshold;
+        data = (E[]) new Object[initialCapacity];
     }
 
     @Override
@@ -50,7 +121,7 @@ public class ArrayStack<E> implements Stack<E> {
     @Override
     public void push(E e) {
         if (size == data.length) {
-            resize(size * 2);
+            resize(Math.max(size + 1, size * growFactor));
         }
         data[size++] = e;
     }
@@ -58,11 +129,69 @@ public class ArrayStack<E> implements Stack<E> {
     @Override
     public void pop() {
         data[--size] = null;
-        if (size == data.length / 4) {
-            resize(data.length / 2);
+        if (data.length > minCapacity && size <= data.length / shrinkThreshold) {
+            resize(Math.max(minCapacity, data.length / growFactor));
         }
     }
 
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(int i) {
+        return data[i];
+    }
+
+    /**
+     * A capacidade atual da pilha
+     * 
+     * @return O número de elementos que a pilha guarda sem redimensionar
+     */
+    public int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Garantir que a pilha guarda pelo menos minCapacity elementos sem
+     * redimensionar
+     * 
+     * @param minCapacity O número de elementos a garantir
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > data.length) {
+            resize(minCapacity);
+        }
+    }
+
+    /**
+     * Reduzir a capacidade da pilha ao número de elementos que tem
+     */
+    public void trimToSize() {
+        if (size < data.length) {
+            resize(size);
+        }
+    }
+
+    /**
+     * Quantos arrays foram alocados por redimensionamentos desde a criação
+     * 
+     * @return O número de redimensionamentos
+     */
+    public long resizes() {
+        return resizes;
+    }
+
+    /**
+     * Quantos elementos foram copiados por redimensionamentos desde a criação
+     * 
+     * @return O número de elementos copiados
+     */
+    public long copiedElements() {
+        return copies;
+    }
+
     /**
      * Redimensionar o array
      * 
@@ -70,6 +199,8 @@ public class ArrayStack<E> implements Stack<E> {
      */
     private void resize(int capacity) {
         data = Arrays.copyOf(data, capacity);
+        resizes++;
+        copies += size;
     }
 
     @Override
@@ -0,0 +1,269 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Vários jogos da mesma configuração, jogados em lote, para treinar agentes.
+ * As mesas estão todas nos mesmos arrays de primitivos, e {@link #step(int[])}
+ * faz uma jogada em cada mesa e escreve as recompensas, o fim de cada ronda e
+ * as mesas em arrays criados uma só vez, sem criar objetos.
+ *
+ * As jogadas e as recompensas são as de {@link Game#play(int, int)} e
+ * {@link Game#updateScore()}: uma jogada inválida não conta nem muda a mesa, e
+ * a jogada que termina a ronda recebe {@link Game#bonus(int)} pontos. Ao
+ * contrário do jogo, uma jogada entre duas garrafas vazias é só inválida, e uma
+ * mesa terminada ignora as jogadas até ser reiniciada.
+ *
+ * Os goles da garrafa b da mesa e estão em
+ * {@code observation()[(e * bottles() + b) * capacity() + level]}, a partir da
+ * base, e as posições vazias têm {@link #EMPTY}. Um ambiente não pode ser usado
+ * por várias threads ao mesmo tempo.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BatchEnvironment {
+
+	/**
+	 * O valor das posições vazias nas observações.
+	 */
+	public static final byte EMPTY = -1;
+
+	private static final Palette PALETTE = Palette.emoji(Palette.MAX_SYMBOLS);
+
+	private final int n;
+	private final int symbols;
+	private final int capacity;
+	private final int bottles;
+	private final byte[] cells;
+	private final int[] sizes;
+	private final int[] unsolved;
+	private final int[] jogadas;
+	private final int[] rewards;
+	private final boolean[] valid;
+	private final boolean[] done;
+
+	/**
+	 * Constrói n mesas com symbols símbolos e garrafas de capacidade capacity,
+	 * que só podem ser jogadas depois de {@link #reset(int[])}.
+	 *
+	 * @param n        o número de mesas
+	 * @param symbols  o número de símbolos usados
+	 * @param capacity a capacidade das garrafas
+	 * @requires {@code n >= 1 && 2 <= symbols <= Palette.MAX_SYMBOLS && capacity >= 1}
+	 */
+	public BatchEnvironment(int n, int symbols, int capacity) {
+		this.n = n;
+		this.symbols = symbols;
+		this.capacity = capacity;
+		this.bottles = symbols + Table.DIFFICULTY;
+		this.cells = new byte[n * bottles * capacity];
+		this.sizes = new int[n * bottles];
+		this.unsolved = new int[n];
+		this.jogadas = new int[n];
+		this.rewards = new int[n];
+		this.valid = new boolean[n];
+		this.done = new boolean[n];
+		Arrays.fill(cells, EMPTY);
+		Arrays.fill(done, true);
+	}
+
+	/**
+	 * Recomeça todas as mesas, cada uma com a mesa do jogo
+	 * {@code new Game(palette, symbols, seeds[e], capacity)}.
+	 *
+	 * @param seeds a semente de cada mesa
+	 * @requires {@code seeds.length == size()}
+	 */
+	public void reset(int[] seeds) {
+		for (int e = 0; e < n; e++) {
+			reset(e, seeds[e]);
+		}
+	}
+
+	/**
+	 * Recomeça a mesa e com a mesa do jogo
+	 * {@code new Game(palette, symbols, seed, capacity)}.
+	 *
+	 * @param e    a mesa
+	 * @param seed a semente
+	 */
+	public void reset(int e, int seed) {
+		Table table = new Table(PALETTE, symbols, seed, capacity);
+		while (table.areAllFilled()) {
+			table.regenerateTable();
+		}
+		unsolved[e] = 0;
+		for (int b = 0; b < bottles; b++) {
+			int g = e * bottles + b;
+			int size = table.size(b);
+			sizes[g] = size;
+			for (int level = 0; level < capacity; level++) {
+				cells[g * capacity + level] = level < size ? (byte) table.codeAt(b, level) : EMPTY;
+			}
+			if (!solved(g)) {
+				unsolved[e]++;
+			}
+		}
+		jogadas[e] = 0;
+		rewards[e] = 0;
+		valid[e] = false;
+		done[e] = false;
+	}
+
+	/**
+	 * Faz uma jogada em cada mesa por terminar: na mesa e verte a garrafa
+	 * {@code actions[2 * e]} para a garrafa {@code actions[2 * e + 1]}.
+	 *
+	 * @param actions os índices das jogadas, aos pares
+	 * @requires {@code actions.length == 2 * size()}
+	 */
+	public void step(int[] actions) {
+		for (int e = 0; e < n; e++) {
+			rewards[e] = 0;
+			valid[e] = !done[e] && isValid(e, actions[2 * e], actions[2 * e + 1]);
+			if (valid[e]) {
+				int from = e * bottles + actions[2 * e];
+				int to = e * bottles + actions[2 * e + 1];
+				pour(e, from, to, Math.min(run(from), capacity - sizes[to]));
+				jogadas[e]++;
+				if (unsolved[e] == 0) {
+					rewards[e] = Game.bonus(jogadas[e]);
+					done[e] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Escreve em mask as jogadas válidas de todas as mesas: a jogada i, j da mesa
+	 * e está em {@code mask[(e * bottles() + i) * bottles() + j]}. As mesas
+	 * terminadas não têm jogadas válidas.
+	 *
+	 * @param mask o array a preencher
+	 * @requires {@code mask.length >= size() * bottles() * bottles()}
+	 */
+	public void validMoves(boolean[] mask) {
+		for (int e = 0; e < n; e++) {
+			int base = e * bottles * bottles;
+			for (int i = 0; i < bottles; i++) {
+				for (int j = 0; j < bottles; j++) {
+					mask[base + i * bottles + j] = !done[e] && isValid(e, i, j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Como {@link Game#isValid(int, int)}, exceto que verter uma garrafa vazia
+	 * nunca é válido.
+	 */
+	private boolean isValid(int e, int i, int j) {
+		if (i < 0 || i >= bottles || j < 0 || j >= bottles || i == j) {
+			return false;
+		}
+		int from = e * bottles + i;
+		int to = e * bottles + j;
+		return sizes[from] > 0 && (sizes[to] == 0 || top(from) == top(to));
+	}
+
+	private void pour(int e, int from, int to, int k) {
+		int before = (solved(from) ? 1 : 0) + (solved(to) ? 1 : 0);
+		byte code = cells[from * capacity + sizes[from] - 1];
+		for (int m = 0; m < k; m++) {
+			cells[to * capacity + sizes[to]++] = code;
+			cells[from * capacity + --sizes[from]] = EMPTY;
+		}
+		unsolved[e] += before - (solved(from) ? 1 : 0) - (solved(to) ? 1 : 0);
+	}
+
+	private byte top(int g) {
+		return cells[g * capacity + sizes[g] - 1];
+	}
+
+	private int run(int g) {
+		int start = g * capacity;
+		int top = sizes[g] - 1;
+		int level = top - 1;
+		while (level >= 0 && cells[start + level] == cells[start + top]) {
+			level--;
+		}
+		return top - level;
+	}
+
+	private boolean solved(int g) {
+		return sizes[g] == 0 || sizes[g] == capacity && run(g) == capacity;
+	}
+
+	/**
+	 * O número de mesas.
+	 *
+	 * @return o número de mesas
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * O número de garrafas de cada mesa.
+	 *
+	 * @return o número de garrafas
+	 */
+	public int bottles() {
+		return bottles;
+	}
+
+	/**
+	 * A capacidade das garrafas.
+	 *
+	 * @return a capacidade
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * As mesas, atualizadas em cada jogada. O array é o do ambiente e não deve ser
+	 * alterado.
+	 *
+	 * @return os goles de todas as garrafas de todas as mesas
+	 */
+	public byte[] observation() {
+		return cells;
+	}
+
+	/**
+	 * Os pontos ganhos por cada mesa na última jogada.
+	 *
+	 * @return as recompensas, no array do ambiente
+	 */
+	public int[] rewards() {
+		return rewards;
+	}
+
+	/**
+	 * Se a última jogada de cada mesa foi válida.
+	 *
+	 * @return as jogadas válidas, no array do ambiente
+	 */
+	public boolean[] valid() {
+		return valid;
+	}
+
+	/**
+	 * Se cada mesa está terminada, ou ainda não foi iniciada.
+	 *
+	 * @return as mesas terminadas, no array do ambiente
+	 */
+	public boolean[] done() {
+		return done;
+	}
+
+	/**
+	 * O número de jogadas válidas de cada mesa desde que foi reiniciada.
+	 *
+	 * @return as jogadas, no array do ambiente
+	 */
+	public int[] jogadas() {
+		return jogadas;
+	}
+}
@@ -0,0 +1,573 @@
+package types;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Procura soluções com poucas jogadas dentro de um prazo, por pesquisa em feixe
+ * guiada por uma {@link Heuristic}: em cada nível só as width posições com
+ * menor estimativa são expandidas. Uma {@link Search} começa com um feixe de
+ * largura 1, que encontra depressa uma solução, e duplica a largura de cada vez
+ * que termina, guardando a melhor solução encontrada; pode ser continuada mais
+ * tarde e pára quando um feixe não deixou de fora nenhuma posição, porque então
+ * a solução é mínima.
+ *
+ * As posições de um feixe estão seguidas em arrays de primitivos, com a jogada
+ * e o índice da posição anterior, e a pesquisa desiste do feixe em vez de
+ * guardar mais do que o número de posições configurado. O prazo, o limite de
+ * nós e o cancelamento são verificados a cada {@value #CHECK_EVERY} nós.
+ *
+ * As jogadas são as de {@link Game#play(int, int)}. Uma pesquisa não pode ser
+ * continuada por várias threads ao mesmo tempo, mas pode ser cancelada a partir
+ * de outra.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BeamSolver {
+
+	/**
+	 * Número de posições guardadas por omissão em cada feixe.
+	 */
+	public static final int DEFAULT_MAX_STATES = 1_000_000;
+
+	private static final int CHECK_EVERY = 1024;
+
+	private final Heuristic heuristic;
+	private final int maxStates;
+
+	/**
+	 * Constrói um solver que usa a heurística dada e guarda no máximo
+	 * {@link #DEFAULT_MAX_STATES} posições.
+	 *
+	 * @param heuristic a estimativa das jogadas que faltam
+	 */
+	public BeamSolver(Heuristic heuristic) {
+		this(heuristic, DEFAULT_MAX_STATES);
+	}
+
+	/**
+	 * Constrói um solver que usa a heurística dada e guarda no máximo maxStates
+	 * posições em cada feixe.
+	 *
+	 * @param heuristic a estimativa das jogadas que faltam
+	 * @param maxStates o número máximo de posições guardadas
+	 */
+	public BeamSolver(Heuristic heuristic, int maxStates) {
+		this.heuristic = heuristic;
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Procura uma solução para a mesa durante no máximo nanos nanossegundos.
+	 *
+	 * @param table a mesa, que não é alterada
+	 * @param nanos o prazo
+	 * @return a melhor solução encontrada, vazia se a mesa já está resolvida, ou
+	 *         null se nenhuma foi encontrada
+	 */
+	public int[][] solve(Table table, long nanos) {
+		return start(table).improve(nanos, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Começa uma pesquisa para a mesa como está agora; as alterações seguintes da
+	 * mesa não a afetam.
+	 *
+	 * @param table a mesa
+	 * @return a pesquisa, que só avança com {@link Search#improve(long, long)}
+	 * @throws IllegalArgumentException se as garrafas não tiverem todas a mesma
+	 *                                  capacidade
+	 */
+	public Search start(Table table) {
+		return new Search(table);
+	}
+
+	/**
+	 * Uma pesquisa de uma mesa, que guarda a melhor solução encontrada até agora.
+	 */
+	public final class Search {
+		private final int bottles;
+		private final int capacity;
+		private final byte[] startCells;
+		private final byte[] startSizes;
+		private final long[] zobrist;
+
+		private int width = 1;
+		private int[][] best;
+		private boolean finished;
+		private boolean optimal;
+		private volatile boolean cancelled;
+		private long expanded;
+
+		// o feixe em curso
+		private byte[] cells;
+		private byte[] sizes;
+		private int[] parents;
+		private int[] moves; // i << 16 | j
+		private int[] estimates;
+		private long[] hashes;
+		private int count;
+		private int levelStart;
+		private int levelEnd;
+		private int depth;
+		private boolean active;
+		private long[] seen;
+		private int seenCount;
+		private long[] order = new long[0];
+		private final byte[] stateCells;
+		private final int[] stateSizes;
+		private long deadline;
+		private long nodeLimit;
+		private boolean pruned;
+
+		private Search(Table table) {
+			bottles = table.getNumberBottles();
+			capacity = table.getSizeBottles();
+			startCells = new byte[bottles * capacity];
+			startSizes = new byte[bottles];
+			for (int b = 0; b < bottles; b++) {
+				if (table.capacity(b) != capacity) {
+					throw new IllegalArgumentException("As garrafas têm de ter todas a mesma capacidade");
+				}
+				startSizes[b] = (byte) table.size(b);
+				for (int level = 0; level < table.size(b); level++) {
+					startCells[b * capacity + level] = (byte) table.codeAt(b, level);
+				}
+			}
+			zobrist = new long[capacity * 256];
+			SplittableRandom rd = new SplittableRandom(bottles * 31L + capacity);
+			for (int k = 0; k < zobrist.length; k++) {
+				zobrist[k] = rd.nextLong();
+			}
+			stateCells = new byte[bottles * capacity];
+			stateSizes = new int[bottles];
+		}
+
+		/**
+		 * Continua a pesquisa durante no máximo nanos nanossegundos ou nodes nós
+		 * expandidos, o que acontecer primeiro, ou até ser cancelada ou a thread
+		 * ser interrompida.
+		 *
+		 * @param nanos o prazo
+		 * @param nodes o número máximo de nós expandidos
+		 * @return a melhor solução encontrada até agora, vazia se a mesa já está
+		 *         resolvida, ou null se nenhuma foi encontrada
+		 */
+		public int[][] improve(long nanos, long nodes) {
+			deadline = System.nanoTime() + nanos;
+			nodeLimit = nodes > Long.MAX_VALUE - expanded ? Long.MAX_VALUE : expanded + nodes;
+			while (!finished && !stopped()) {
+				int result = beam();
+				if (result < 0) {
+					break;
+				}
+				// sem posições deixadas de fora o feixe é uma pesquisa em largura
+				optimal = result == 1 && !pruned;
+				// se o feixe encheu a memória, um mais largo também a encheria
+				finished = optimal || result == 0;
+				if (!finished) {
+					width = (int) Math.min(maxStates, 2L * width);
+				}
+			}
+			if (!active) {
+				release();
+			}
+			return best();
+		}
+
+		/**
+		 * A melhor solução encontrada até agora.
+		 *
+		 * @return as jogadas {i, j} por ordem, vazio se a mesa já está resolvida, ou
+		 *         null se nenhuma foi encontrada
+		 */
+		public int[][] best() {
+			return best == null ? null : best.clone();
+		}
+
+		/**
+		 * Diz se a pesquisa terminou: a melhor solução é mínima, não há solução, ou
+		 * um feixe mais largo não cabe na memória.
+		 *
+		 * @return true se continuar a pesquisa não adianta
+		 */
+		public boolean finished() {
+			return finished;
+		}
+
+		/**
+		 * Diz se a melhor solução é mínima.
+		 *
+		 * @return true se a solução é mínima
+		 */
+		public boolean optimal() {
+			return optimal && best != null;
+		}
+
+		/**
+		 * A largura do feixe em curso.
+		 *
+		 * @return a largura
+		 */
+		public int width() {
+			return width;
+		}
+
+		/**
+		 * Quantos nós foram expandidos desde o início da pesquisa.
+		 *
+		 * @return o número de nós expandidos
+		 */
+		public long expanded() {
+			return expanded;
+		}
+
+		/**
+		 * Pede à pesquisa que pare assim que possível; pode ser chamado a partir de
+		 * outra thread.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		private boolean stopped() {
+			return cancelled || Thread.currentThread().isInterrupted() || expanded >= nodeLimit
+					|| System.nanoTime() - deadline >= 0;
+		}
+
+		/**
+		 * Faz, ou continua, uma pesquisa em feixe com a largura atual. Um nível
+		 * interrompido é repetido quando a pesquisa for continuada.
+		 *
+		 * @return 1 se terminou, 0 se encheu a memória, -1 se parou a meio
+		 */
+		private int beam() {
+			if (!active) {
+				pruned = false;
+				allocate();
+				System.arraycopy(startCells, 0, stateCells, 0, startCells.length);
+				for (int b = 0; b < bottles; b++) {
+					stateSizes[b] = startSizes[b] & 0xFF;
+				}
+				mark(hash());
+				add(-1, -1);
+				hashes[0] = hash();
+				if (estimates[0] == 0 && solved(0)) {
+					best = new int[0][];
+					return 1;
+				}
+				levelStart = 0;
+				levelEnd = 1;
+				depth = 0;
+				active = true;
+			}
+			for (; levelStart < levelEnd; depth++) {
+				if (best != null && depth + 1 >= best.length) {
+					// nenhuma posição deste nível dá uma solução mais curta
+					active = false;
+					return 1;
+				}
+				for (int id = levelStart; id < levelEnd; id++) {
+					if (++expanded % CHECK_EVERY == 0 && stopped()) {
+						count = levelEnd;
+						return -1;
+					}
+					int found = expand(id);
+					if (found != -1) {
+						active = false;
+						if (found == -2) {
+							return 0;
+						}
+						best = path(found);
+						return 1;
+					}
+				}
+				int kept = select(levelEnd, count);
+				levelStart = levelEnd;
+				levelEnd = levelEnd + kept;
+				count = levelEnd;
+			}
+			active = false;
+			return 1;
+		}
+
+		/**
+		 * Junta a este nível as posições a uma jogada de id que não estão em
+		 * níveis anteriores.
+		 *
+		 * @return o índice de uma posição resolvida, -1, ou -2 se a memória encheu
+		 */
+		private int expand(int id) {
+			for (int b = 0; b < bottles; b++) {
+				stateSizes[b] = sizes[id * bottles + b];
+			}
+			System.arraycopy(cells, id * bottles * capacity, stateCells, 0, bottles * capacity);
+			long hash = hashes[id];
+			for (int i = 0; i < bottles; i++) {
+				int sizeFrom = stateSizes[i];
+				if (sizeFrom == 0) {
+					continue;
+				}
+				int code = stateCells[i * capacity + sizeFrom - 1] & 0xFF;
+				int run = run(i);
+				for (int j = 0; j < bottles; j++) {
+					int sizeTo = stateSizes[j];
+					if (i == j || sizeTo == capacity
+							|| sizeTo > 0 && (stateCells[j * capacity + sizeTo - 1] & 0xFF) != code
+							|| sizeTo == 0 && run == sizeFrom) {
+						continue;
+					}
+					int k = Math.min(run, capacity - sizeTo);
+					long before = bottleHash(i) + bottleHash(j);
+					pour(i, j, k);
+					long next = hash - before + bottleHash(i) + bottleHash(j);
+					if (!seen(next)) {
+						if (count == parents.length && !grow()) {
+							return -2;
+						}
+						int child = add(id, i << 16 | j);
+						hashes[child] = next;
+						if (estimates[child] == 0 && solved(child)) {
+							return child;
+						}
+					}
+					pour(j, i, k);
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Deixa entre from e to só as width posições distintas com menor
+		 * estimativa e, com estimativas iguais, mais garrafas vazias, pela ordem em
+		 * que foram encontradas, e devolve quantas ficaram.
+		 */
+		private int select(int from, int to) {
+			int n = to - from;
+			if (order.length < n) {
+				order = new long[n];
+			}
+			for (int k = 0; k < n; k++) {
+				order[k] = (long) estimates[from + k] << 40 | (long) (bottles - empties(from + k)) << 24 | k;
+			}
+			Arrays.sort(order, 0, n);
+			int kept = 0;
+			int k = 0;
+			for (; k < n && kept < width; k++) {
+				if (mark(hashes[from + (int) (order[k] & 0xFFFFFF)])) {
+					order[kept++] = order[k] & 0xFFFFFF;
+				}
+			}
+			for (; k < n && !pruned; k++) {
+				pruned = !seen(hashes[from + (int) (order[k] & 0xFFFFFF)]);
+			}
+			Arrays.sort(order, 0, kept);
+			for (k = 0; k < kept; k++) {
+				copy(from + (int) order[k], from + k);
+			}
+			return kept;
+		}
+
+		private int empties(int id) {
+			int empties = 0;
+			for (int b = 0; b < bottles; b++) {
+				empties += sizes[id * bottles + b] == 0 ? 1 : 0;
+			}
+			return empties;
+		}
+
+		private void copy(int source, int target) {
+			if (source == target) {
+				return;
+			}
+			System.arraycopy(cells, source * bottles * capacity, cells, target * bottles * capacity,
+					bottles * capacity);
+			System.arraycopy(sizes, source * bottles, sizes, target * bottles, bottles);
+			parents[target] = parents[source];
+			moves[target] = moves[source];
+			estimates[target] = estimates[source];
+			hashes[target] = hashes[source];
+		}
+
+		/**
+		 * Guarda a posição de stateCells e stateSizes.
+		 */
+		private int add(int parent, int move) {
+			int id = count++;
+			System.arraycopy(stateCells, 0, cells, id * bottles * capacity, bottles * capacity);
+			for (int b = 0; b < bottles; b++) {
+				sizes[id * bottles + b] = (byte) stateSizes[b];
+			}
+			parents[id] = parent;
+			moves[id] = move;
+			estimates[id] = heuristic.estimate(stateCells, stateSizes, capacity);
+			return id;
+		}
+
+		private void pour(int from, int to, int k) {
+			byte code = stateCells[from * capacity + stateSizes[from] - 1];
+			for (int n = 0; n < k; n++) {
+				stateCells[to * capacity + stateSizes[to]++] = code;
+				stateSizes[from]--;
+			}
+		}
+
+		private int run(int b) {
+			int start = b * capacity;
+			int top = stateSizes[b] - 1;
+			int level = top - 1;
+			while (level >= 0 && stateCells[start + level] == stateCells[start + top]) {
+				level--;
+			}
+			return top - level;
+		}
+
+		private boolean solved(int id) {
+			int base = id * bottles * capacity;
+			for (int b = 0; b < bottles; b++) {
+				int size = sizes[id * bottles + b] & 0xFF;
+				if (size == 0) {
+					continue;
+				}
+				if (size != capacity) {
+					return false;
+				}
+				for (int level = 1; level < size; level++) {
+					if (cells[base + b * capacity + level] != cells[base + b * capacity]) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * O hash da posição de stateCells e stateSizes, que não depende da ordem
+		 * das garrafas.
+		 */
+		private long hash() {
+			long h = 0;
+			for (int b = 0; b < bottles; b++) {
+				h += bottleHash(b);
+			}
+			return h;
+		}
+
+		private long bottleHash(int b) {
+			long h = stateSizes[b];
+			for (int level = 0; level < stateSizes[b]; level++) {
+				h ^= zobrist[level * 256 + (stateCells[b * capacity + level] & 0xFF)];
+			}
+			h *= 0x9E3779B97F4A7C15L;
+			return h ^ h >>> 29;
+		}
+
+		private boolean seen(long hash) {
+			long key = hash == 0 ? 1 : hash;
+			int mask = seen.length - 1;
+			for (int slot = (int) (key ^ key >>> 32) & mask; seen[slot] != 0; slot = slot + 1 & mask) {
+				if (seen[slot] == key) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Regista uma posição como já guardada neste feixe.
+		 *
+		 * @return false se já tinha sido vista
+		 */
+		private boolean mark(long hash) {
+			long key = hash == 0 ? 1 : hash;
+			int mask = seen.length - 1;
+			int slot = (int) (key ^ key >>> 32) & mask;
+			while (seen[slot] != 0) {
+				if (seen[slot] == key) {
+					return false;
+				}
+				slot = slot + 1 & mask;
+			}
+			seen[slot] = key;
+			if (2 * ++seenCount > seen.length) {
+				rehash();
+			}
+			return true;
+		}
+
+		private void rehash() {
+			long[] old = seen;
+			seen = new long[old.length * 2];
+			int mask = seen.length - 1;
+			for (long key : old) {
+				if (key != 0) {
+					int slot = (int) (key ^ key >>> 32) & mask;
+					while (seen[slot] != 0) {
+						slot = slot + 1 & mask;
+					}
+					seen[slot] = key;
+				}
+			}
+		}
+
+		private int[][] path(int id) {
+			int length = 0;
+			for (int k = id; parents[k] >= 0; k = parents[k]) {
+				length++;
+			}
+			int[][] path = new int[length][];
+			for (int k = id; parents[k] >= 0; k = parents[k]) {
+				path[--length] = new int[] { moves[k] >>> 16, moves[k] & 0xFFFF };
+			}
+			return path;
+		}
+
+		/**
+		 * Reserva os arrays do feixe, que crescem com {@link #grow()}.
+		 */
+		private void allocate() {
+			int states = Math.min(maxStates, 1 << 10);
+			cells = new byte[states * bottles * capacity];
+			sizes = new byte[states * bottles];
+			parents = new int[states];
+			moves = new int[states];
+			estimates = new int[states];
+			hashes = new long[states];
+			seen = new long[1 << 11];
+			seenCount = 0;
+			count = 0;
+		}
+
+		/**
+		 * Duplica os arrays do feixe, sem passar de maxStates posições.
+		 *
+		 * @return false se o feixe já tem maxStates posições
+		 */
+		private boolean grow() {
+			int states = (int) Math.min(maxStates, 2L * parents.length);
+			if (states == parents.length) {
+				return false;
+			}
+			cells = Arrays.copyOf(cells, states * bottles * capacity);
+			sizes = Arrays.copyOf(sizes, states * bottles);
+			parents = Arrays.copyOf(parents, states);
+			moves = Arrays.copyOf(moves, states);
+			estimates = Arrays.copyOf(estimates, states);
+			hashes = Arrays.copyOf(hashes, states);
+			return true;
+		}
+
+		/**
+		 * Liberta os arrays do feixe quando não há nenhum a meio.
+		 */
+		private void release() {
+			cells = null;
+			sizes = null;
+			parents = null;
+			moves = null;
+			estimates = null;
+			hashes = null;
+			seen = null;
+		}
+	}
+}
@@ -2,10 +2,14 @@ package types;
 
 import java.util.EmptyStackException;
 import java.util.Iterator;
-import java.util.Stack; //remover no caso de optar por uma classe de AED.
+import java.util.NoSuchElementException;
 
 /**
- * Esta classe implementa a interface Iterable para representar uma garrafa.
+ * Esta classe implementa a interface Iterable para representar uma garrafa. O
+ * conteúdo é guardado numa {@link BottleStorage}, escolhida na construção ou,
+ * por omissão, pela propriedade {@value BottleStorage#PROPERTY}. Os goles são
+ * guardados pelo seu código numa {@link Palette}, por omissão a dos
+ * {@link Filling}.
  * 
  * @author Rodrigo Frutuoso 61865
  */
@@ -14,8 +18,9 @@ public class Bottle implements Iterable<Filling> {
 	public static final String EMPTY = "⬜";
 	public static final String EOL = System.lineSeparator();
 
-	private Stack<Filling> contents;
+	private final BottleStorage contents;
 	private final int capacity;
+	private final Palette palette;
 
 	/**
 	 * Constrói uma garrafa vazia com tamanho default
@@ -30,8 +35,59 @@ public class Bottle implements Iterable<Filling> {
 	 * @param capacity da garrafa
 	 */
 	public Bottle(int capacity) {
+		this(capacity, BottleStorage.Kind.DEFAULT);
+	}
+
+	/**
+	 * Constrói uma garrafa vazia com a capacidade e a estratégia de armazenamento
+	 * dadas
+	 * 
+	 * @param capacity da garrafa
+	 * @param storage  a estratégia de armazenamento do conteúdo
+	 */
+	public Bottle(int capacity, BottleStorage.Kind storage) {
+		this(capacity, Palette.FILLINGS, storage);
+	}
+
+	/**
+	 * Constrói uma garrafa vazia com a capacidade dada para símbolos da paleta
+	 * dada
+	 * 
+	 * @param capacity da garrafa
+	 * @param palette  a paleta dos símbolos da garrafa
+	 */
+	public Bottle(int capacity, Palette palette) {
+		this(capacity, palette, BottleStorage.Kind.DEFAULT);
+	}
+
+	/**
+	 * Constrói uma garrafa vazia com a capacidade, a paleta e a estratégia de
+	 * armazenamento dadas
+	 * 
+	 * @param capacity da garrafa
+	 * @param palette  a paleta dos símbolos da garrafa
+	 * @param storage  a estratégia de armazenamento do conteúdo
+	 */
+	public Bottle(int capacity, Palette palette, BottleStorage.Kind storage) {
 		this.capacity = capacity;
-		this.contents = new Stack<>();
+		this.palette = palette;
+		this.contents = storage.create(capacity, palette.size());
+	}
+
+	/**
+	 * Constrói uma garrafa com a capacidade dada e os goles com os códigos dados,
+	 * da base para o topo
+	 * 
+	 * @param codes    os códigos dos goles, sendo o primeiro a base da garrafa
+	 * @param capacity da garrafa
+	 * @param palette  a paleta dos símbolos da garrafa
+	 * @requires {@code codes.length <= capacity}
+	 */
+	public Bottle(int[] codes, int capacity, Palette palette) {
+		this(capacity, palette);
+		for (int code : codes) {
+			this.contents.push(code);
+		}
 	}
 
 	/**
@@ -41,10 +97,22 @@ public class Bottle implements Iterable<Filling> {
 	 * @param content o vetor de fillings para criar a garrafa
 	 */
 	public Bottle(Filling[] content) {
-		this(content.length);
+		this(content, BottleStorage.Kind.DEFAULT);
+	}
+
+	/**
+	 * Constrói uma garrafa com a capacidade do vetor content fornecido e a
+	 * estratégia de armazenamento dada. O primeiro filling do vetor é colocado no
+	 * topo da garrafa.
+	 * 
+	 * @param content o vetor de fillings para criar a garrafa
+	 * @param storage a estratégia de armazenamento do conteúdo
+	 */
+	public Bottle(Filling[] content, BottleStorage.Kind storage) {
+		this(content.length, storage);
 		for (int i = this.capacity - 1; i >= 0; i--) {
 			if (content[i] != null) {
-				this.contents.push(content[i]);
+				this.contents.push(palette.code(content[i]));
 			}
 		}
 
@@ -72,15 +140,69 @@ public class Bottle implements Iterable<Filling> {
 	 * Obtém o gole está no topo
 	 * 
 	 * @return o gole que está no topo da garrafa
-	 * @throws EmptyStackException se a garrafa estiver vazia
+	 * @throws EmptyStackException   se a garrafa estiver vazia
+	 * @throws IllegalStateException se o gole não é um {@link Filling}, numa
+	 *                               paleta maior; nesse caso usar
+	 *                               {@link #topCode()}
 	 */
 	public Filling top() {
+		if (isEmpty()) {
+			throw new EmptyStackException();
+		}
+		return palette.filling(topCode());
+	}
+
+	/**
+	 * Obtém o código do gole que está no topo
+	 * 
+	 * @return o código do gole que está no topo da garrafa
+	 * @throws EmptyStackException se a garrafa estiver vazia
+	 */
+	public int topCode() {
 		if (isEmpty()) {
 			throw new EmptyStackException();
 		}
 		return contents.peek();
 	}
 
+	/**
+	 * Diz quantos goles iguais ao do topo estão seguidos no topo da garrafa
+	 * 
+	 * @return o número de goles seguidos do topo, 0 se a garrafa estiver vazia
+	 */
+	public int topRun() {
+		return contents.topRun();
+	}
+
+	/**
+	 * Obtém o código do gole na posição level, a contar da base
+	 * 
+	 * @param level a posição do gole
+	 * @return o código do gole
+	 * @requires {@code 0 <= level < size()}
+	 */
+	public int codeAt(int level) {
+		return contents.get(level);
+	}
+
+	/**
+	 * Diz quantos goles tem a garrafa
+	 * 
+	 * @return o número de goles
+	 */
+	public int size() {
+		return contents.size();
+	}
+
+	/**
+	 * Obtém a paleta dos símbolos da garrafa
+	 * 
+	 * @return a paleta da garrafa
+	 */
+	public Palette palette() {
+		return palette;
+	}
+
 	/**
 	 * Diz quantos goles ainda pode receber a garrafa
 	 * 
@@ -90,6 +212,17 @@ public class Bottle implements Iterable<Filling> {
 		return capacity() - contents.size();
 	}
 
+	/**
+	 * Coloca um gole no topo, mesmo que seja diferente do que lá está; usado pela
+	 * {@link Table} para repor o conteúdo de uma garrafa
+	 * 
+	 * @param code o código do gole
+	 * @requires {@code !isFull()}
+	 */
+	void push(int code) {
+		contents.push(code);
+	}
+
 	/**
 	 * Executa a operação de retirar um único gole da garrafa
 	 */
@@ -107,8 +240,19 @@ public class Bottle implements Iterable<Filling> {
 	 * @return true se o gole foi adicionado com sucesso, false caso contrário
 	 */
 	public boolean receive(Filling s) {
-		if (!isFull() && (isEmpty() || s == contents.peek())) {
-			contents.push(s);
+		return receiveCode(palette.code(s));
+	}
+
+	/**
+	 * Executa a operação de adicionar o gole com o código dado ao topo da garrafa
+	 * e informa se a operação foi feita com sucesso.
+	 * 
+	 * @param code código do gole a ser adicionado no topo da garrafa
+	 * @return true se o gole foi adicionado com sucesso, false caso contrário
+	 */
+	public boolean receiveCode(int code) {
+		if (!isFull() && (isEmpty() || code == contents.peek())) {
+			contents.push(code);
 			return true;
 		}
 		return false;
@@ -129,25 +273,22 @@ public class Bottle implements Iterable<Filling> {
 	 * @return true se a garrafa contém apenas um tipo de gole, false caso contrário
 	 */
 	public boolean isSingleFilling() {
-		if (isEmpty()) {
-			return true;
-		}
-		Filling first = contents.peek();
-		for (Filling filling : contents) {
-			if (filling != first) {
-				return false;
-			}
-		}
-		return true;
+		return contents.topRun() == contents.size();
 	}
 
 	/**
 	 * Devolve uma cópia do conteúdo da garrafa
 	 * 
 	 * @return array com o conteúdo da garrafa
+	 * @throws IllegalStateException se algum gole não é um {@link Filling}, numa
+	 *                               paleta maior
 	 */
 	public Filling[] getContent() {
-		return contents.toArray(new Filling[0]);
+		Filling[] content = new Filling[contents.size()];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = palette.filling(contents.get(i));
+		}
+		return content;
 	}
 
 	/**
@@ -163,18 +304,33 @@ public class Bottle implements Iterable<Filling> {
 				sb.append(EMPTY + EOL);
 			} 
 			else {
-				sb.append(contents.get(i) + EOL);
+				sb.append(palette.symbol(contents.get(i)) + EOL);
 			}
 		}
 		return sb.toString();
 	}
 
 	/**
-	 * Retorna um iterador sobre o conteúdo da garrafa.
+	 * Retorna um iterador sobre o conteúdo da garrafa, da base para o topo.
 	 * 
-	 * @return um iterador sobre os fillings da garrafa
+	 * @return um iterador sobre os fillings da garrafa; o seu next lança
+	 *         IllegalStateException se o gole não é um {@link Filling}, numa
+	 *         paleta maior
 	 */
 	public Iterator<Filling> iterator() {
-		return contents.iterator();
+		return new Iterator<Filling>() {
+			private int i = 0;
+
+			public boolean hasNext() {
+				return i < contents.size();
+			}
+
+			public Filling next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return palette.filling(contents.get(i++));
+			}
+		};
 	}
 }
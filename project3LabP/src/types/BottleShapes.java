@@ -0,0 +1,182 @@
+package types;
+
+/**
+ * Os conteúdos possíveis de uma garrafa, numerados para que uma posição caiba
+ * num long. Uma garrafa com size goles de códigos c0 (a base) até c(size-1) tem
+ * o valor offset[size] + soma de ci * symbols^i, de modo que todos os conteúdos
+ * cabem em {@link #bits} bits. As tabelas dizem, para cada valor, o tamanho, o
+ * topo e a sequência do topo.
+ *
+ * Uma posição junta os valores das garrafas por ordem crescente, porque as
+ * garrafas são indistinguíveis.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class BottleShapes {
+	final int symbols;
+	final int capacity;
+	final int bottles;
+	final int shapes;
+	final int bits;
+	final int[] offset;
+	final int[] power;
+	final byte[] size;
+	final byte[] top;
+	final byte[] run;
+
+	BottleShapes(int symbols, int capacity, int bottles) {
+		if (symbols < 1 || symbols > Palette.MAX_SYMBOLS || capacity < 1 || bottles < symbols) {
+			throw new IllegalArgumentException("Configuração inválida");
+		}
+		this.symbols = symbols;
+		this.capacity = capacity;
+		this.bottles = bottles;
+		offset = new int[capacity + 2];
+		power = new int[capacity + 1];
+		long total = 0;
+		long p = 1;
+		for (int k = 0; k <= capacity; k++) {
+			offset[k] = (int) total;
+			power[k] = (int) p;
+			total += p;
+			p *= symbols;
+			if (total > 1 << 24) {
+				throw new IllegalArgumentException("Garrafas com demasiados conteúdos possíveis");
+			}
+		}
+		offset[capacity + 1] = (int) total;
+		shapes = (int) total;
+		bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(shapes - 1));
+		if (bits * bottles > 63) {
+			throw new IllegalArgumentException("Uma posição com " + bottles + " garrafas não cabe num long");
+		}
+		size = new byte[shapes];
+		top = new byte[shapes];
+		run = new byte[shapes];
+		for (int s = 0; s <= capacity; s++) {
+			for (int v = offset[s]; v < offset[s + 1]; v++) {
+				size[v] = (byte) s;
+				if (s > 0) {
+					int rest = v - offset[s];
+					int t = rest / power[s - 1];
+					int r = 1;
+					while (r < s && rest / power[s - 1 - r] % symbols == t) {
+						r++;
+					}
+					top[v] = (byte) t;
+					run[v] = (byte) r;
+				}
+			}
+		}
+	}
+
+	int value(int[] codes, int n) {
+		int v = 0;
+		for (int level = 0; level < n; level++) {
+			v += codes[level] * power[level];
+		}
+		return offset[n] + v;
+	}
+
+	/**
+	 * Calcula em next a posição depois de verter de i para j, tal como
+	 * {@link Game#play(int, int)}.
+	 *
+	 * @return false se a jogada não é válida ou não muda nada
+	 */
+	boolean move(int[] state, int i, int j, int[] next) {
+		int from = state[i];
+		int to = state[j];
+		if (i == j || size[from] == 0 || size[to] == capacity || size[to] > 0 && top[to] != top[from]) {
+			return false;
+		}
+		int k = Math.min(run[from], capacity - size[to]);
+		System.arraycopy(state, 0, next, 0, state.length);
+		next[i] = pop(from, k);
+		next[j] = push(to, top[from], k);
+		return true;
+	}
+
+	/**
+	 * O valor da garrafa v depois de lhe tirar k goles do topo.
+	 */
+	int pop(int v, int k) {
+		int n = size[v];
+		return offset[n - k] + (v - offset[n]) % power[n - k];
+	}
+
+	/**
+	 * O valor da garrafa v depois de lhe pôr k goles de código code.
+	 */
+	int push(int v, int code, int k) {
+		int n = size[v];
+		int rest = v - offset[n];
+		for (int level = n; level < n + k; level++) {
+			rest += code * power[level];
+		}
+		return offset[n + k] + rest;
+	}
+
+	boolean take(int v, int[] remaining) {
+		int rest = v - offset[size[v]];
+		for (int level = 0; level < size[v]; level++) {
+			remaining[rest % symbols]--;
+			rest /= symbols;
+		}
+		for (int count : remaining) {
+			if (count < 0) {
+				give(v, remaining);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void give(int v, int[] remaining) {
+		int rest = v - offset[size[v]];
+		for (int level = 0; level < size[v]; level++) {
+			remaining[rest % symbols]++;
+			rest /= symbols;
+		}
+	}
+
+	boolean solved(long key) {
+		long mask = (1L << bits) - 1;
+		for (int b = 0; b < bottles; b++) {
+			int v = (int) (key & mask);
+			key >>>= bits;
+			if (size[v] != 0 && (size[v] != capacity || run[v] != capacity)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Junta os valores num long, por ordem crescente; values fica ordenado.
+	 */
+	long pack(int[] values) {
+		for (int i = 1; i < values.length; i++) {
+			int v = values[i];
+			int j = i - 1;
+			while (j >= 0 && values[j] > v) {
+				values[j + 1] = values[j];
+				j--;
+			}
+			values[j + 1] = v;
+		}
+		long key = 0;
+		for (int v : values) {
+			key = key << bits | v;
+		}
+		return key;
+	}
+
+	void unpack(long key, int[] values) {
+		long mask = (1L << bits) - 1;
+		for (int i = values.length - 1; i >= 0; i--) {
+			values[i] = (int) (key & mask);
+			key >>>= bits;
+		}
+	}
+}
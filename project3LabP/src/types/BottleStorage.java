@@ -0,0 +1,119 @@
+package types;
+
+/**
+ * Armazenamento do conteúdo de uma garrafa. Os goles são guardados pelo seu
+ * código numa {@link Palette} (entre 0 e 255), da base (posição 0) para o topo,
+ * para que as implementações com tipos primitivos não precisem de boxing.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public interface BottleStorage {
+
+	/**
+	 * Nome da propriedade de sistema que escolhe a estratégia usada por omissão,
+	 * por exemplo {@code -Dtypes.bottle.storage=PACKED_LONG}.
+	 */
+	String PROPERTY = "types.bottle.storage";
+
+	/**
+	 * Coloca um gole no topo
+	 *
+	 * @param code o código do gole
+	 */
+	void push(int code);
+
+	/**
+	 * Retira o gole do topo
+	 *
+	 * @requires {@code size() > 0}
+	 */
+	void pop();
+
+	/**
+	 * Obtém o código do gole do topo
+	 *
+	 * @return o código do gole do topo
+	 * @requires {@code size() > 0}
+	 */
+	int peek();
+
+	/**
+	 * Obtém o código do gole na posição i, a contar da base
+	 *
+	 * @param i a posição do gole
+	 * @return o código do gole
+	 * @requires {@code 0 <= i < size()}
+	 */
+	int get(int i);
+
+	/**
+	 * Diz quantos goles estão guardados
+	 *
+	 * @return o número de goles
+	 */
+	int size();
+
+	/**
+	 * Diz quantos goles iguais ao do topo estão seguidos no topo
+	 *
+	 * @return o comprimento da sequência do topo, 0 se estiver vazio
+	 */
+	default int topRun() {
+		int size = size();
+		if (size == 0) {
+			return 0;
+		}
+		int top = peek();
+		int i = size - 2;
+		while (i >= 0 && get(i) == top) {
+			i--;
+		}
+		return size - 1 - i;
+	}
+
+	/**
+	 * As estratégias de armazenamento disponíveis.
+	 */
+	enum Kind {
+		/** {@link java.util.Stack}, o comportamento original */
+		JAVA_STACK,
+		/** {@link ArrayStack} do projeto, com a capacidade da garrafa */
+		ARRAY_STACK,
+		/** {@link LinkedStack} do projeto */
+		LINKED_STACK,
+		/** {@link FixedByteStack} com a capacidade da garrafa */
+		FIXED_ARRAY,
+		/** Um único long com os códigos compactados em bits */
+		PACKED_LONG;
+
+		/**
+		 * A estratégia escolhida pela propriedade {@value BottleStorage#PROPERTY},
+		 * sem distinguir maiúsculas de minúsculas, ou {@link #JAVA_STACK} se não
+		 * estiver definida ou não for válida.
+		 */
+		public static final Kind DEFAULT = SystemProperties.enumValue(PROPERTY, values(), JAVA_STACK);
+
+		/**
+		 * Cria um armazenamento vazio desta estratégia
+		 *
+		 * @param capacity o número máximo de goles
+		 * @param symbols  o número de códigos diferentes que podem ser guardados
+		 * @return o armazenamento criado
+		 * @throws IllegalArgumentException se a capacidade não couber na estratégia
+		 */
+		public BottleStorage create(int capacity, int symbols) {
+			switch (this) {
+			case ARRAY_STACK:
+				return new GenericStorage(new ArrayStack<>(capacity));
+			case LINKED_STACK:
+				return new GenericStorage(new LinkedStack<>());
+			case FIXED_ARRAY:
+				return new FixedArrayStorage(capacity);
+			case PACKED_LONG:
+				return new PackedLongStorage(capacity, symbols);
+			default:
+				return new JavaStackStorage();
+			}
+		}
+	}
+}
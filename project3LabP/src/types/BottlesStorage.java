@@ -0,0 +1,114 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Armazenamento de uma mesa com um objeto {@link Bottle} por garrafa, o
+ * {@link Table.Layout#BOTTLES}. As garrafas dadas a {@link #add(int, Bottle)}
+ * passam a ser da mesa.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class BottlesStorage implements TableStorage {
+
+	private final Palette palette;
+	private Bottle[] table = new Bottle[0];
+
+	/**
+	 * Constrói um armazenamento sem garrafas
+	 *
+	 * @param palette a paleta dos símbolos das garrafas
+	 */
+	BottlesStorage(Palette palette) {
+		this.palette = palette;
+	}
+
+	@Override
+	public TableStorage copy(int count) {
+		BottlesStorage copy = new BottlesStorage(palette);
+		copy.table = new Bottle[table.length];
+		for (int i = 0; i < count; i++) {
+			Bottle bottle = table[i];
+			int[] codes = new int[bottle.size()];
+			for (int k = 0; k < codes.length; k++) {
+				codes[k] = bottle.codeAt(k);
+			}
+			copy.table[i] = new Bottle(codes, bottle.capacity(), palette);
+		}
+		return copy;
+	}
+
+	@Override
+	public void allocate(int n) {
+		table = Arrays.copyOf(table, n);
+	}
+
+	@Override
+	public void fit(int capacity) {
+	}
+
+	@Override
+	public void fill(int i, int[] codes, int capacity) {
+		table[i] = new Bottle(codes, capacity, palette);
+	}
+
+	@Override
+	public void add(int i, Bottle bottle) {
+		table[i] = bottle;
+	}
+
+	@Override
+	public void restore(int i, byte[] codes, int from, int size, int capacity) {
+		Bottle bottle = table[i];
+		if (bottle == null || bottle.capacity() != capacity) {
+			bottle = table[i] = new Bottle(capacity, palette);
+		}
+		// só se reescreve a partir do primeiro gole diferente
+		int same = 0;
+		int limit = Math.min(size, bottle.size());
+		while (same < limit && bottle.codeAt(same) == (codes[from + same] & 0xFF)) {
+			same++;
+		}
+		while (bottle.size() > same) {
+			bottle.pourOut();
+		}
+		for (int level = same; level < size; level++) {
+			bottle.push(codes[from + level] & 0xFF);
+		}
+	}
+
+	@Override
+	public void copyCodes(int i, byte[] into, int at) {
+		Bottle bottle = table[i];
+		for (int level = 0; level < bottle.size(); level++) {
+			into[at + level] = (byte) bottle.codeAt(level);
+		}
+	}
+
+	@Override
+	public void pour(int i, int j) {
+		if (table[j].receiveCode(table[i].topCode())) {
+			table[i].pourOut();
+		}
+	}
+
+	@Override
+	public int size(int i) {
+		return table[i].size();
+	}
+
+	@Override
+	public int capacity(int i) {
+		return table[i].capacity();
+	}
+
+	@Override
+	public int codeAt(int i, int level) {
+		return table[i].codeAt(level);
+	}
+
+	@Override
+	public int topRun(int i) {
+		return table[i].topRun();
+	}
+}
@@ -0,0 +1,487 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Procura a solução com menos jogadas de uma mesa por pesquisa em largura,
+ * sem heurística. No modo {@link Mode#BIDIRECTIONAL} a pesquisa avança a partir
+ * da mesa e recua a partir da mesa resolvida, desfazendo jogadas, até as duas
+ * se encontrarem numa posição; como cada lado só precisa de chegar a meio, são
+ * expandidas muito menos posições do que no modo {@link Mode#FORWARD}.
+ *
+ * As garrafas são indistinguíveis, por isso cada posição é guardada com as
+ * garrafas ordenadas, e a mesa resolvida, com uma garrafa cheia por cada
+ * capacidade goles de um símbolo, é uma só posição. As posições de cada lado
+ * estão seguidas num array de bytes, pela ordem em que foram encontradas, com
+ * uma tabela de dispersão de índices, de modo que a pesquisa não cria objetos
+ * por posição.
+ *
+ * As jogadas são as de {@link Game#play(int, int)}. Um solver não pode ser
+ * usado por várias threads ao mesmo tempo.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class BreadthFirstSolver {
+
+	/**
+	 * Os sentidos em que a pesquisa avança.
+	 */
+	public enum Mode {
+		/** Só a partir da mesa, até à mesa resolvida */
+		FORWARD,
+		/** A partir da mesa e da mesa resolvida, até se encontrarem */
+		BIDIRECTIONAL
+	}
+
+	/**
+	 * Número de posições guardadas a partir do qual a pesquisa desiste, por
+	 * omissão.
+	 */
+	public static final int DEFAULT_STATE_LIMIT = 2_000_000;
+
+	/**
+	 * A maior capacidade das garrafas, para que o número de goles caiba num byte.
+	 */
+	public static final int MAX_CAPACITY = 0xFF;
+
+	/**
+	 * As posições encontradas por um dos lados da pesquisa. A posição id ocupa
+	 * {@code width} bytes a partir de {@code id * width}: cada garrafa tem o
+	 * número de goles seguido dos códigos, da base para o topo.
+	 */
+	private static final class Side {
+		private int width;
+		private byte[] states = new byte[0];
+		private int[] parents = new int[0];
+		private int[] hashes = new int[0];
+		private int[] slots = new int[0]; // id + 1, ou 0 se vazia
+		private int count;
+		private int levelStart;
+		private int levelEnd;
+		private long expanded;
+
+		void clear(int width) {
+			this.width = width;
+			if (slots.length == 0) {
+				slots = new int[1 << 10];
+				parents = new int[1 << 9];
+				hashes = new int[1 << 9];
+			}
+			else {
+				Arrays.fill(slots, 0);
+			}
+			if (states.length < parents.length * width) {
+				states = new byte[parents.length * width];
+			}
+			count = 0;
+			levelStart = 0;
+			levelEnd = 0;
+			expanded = 0;
+		}
+
+		int find(byte[] state, int hash) {
+			int mask = slots.length - 1;
+			for (int s = hash & mask;; s = s + 1 & mask) {
+				int id = slots[s] - 1;
+				if (id < 0) {
+					return -1;
+				}
+				if (hashes[id] == hash
+						&& Arrays.equals(states, id * width, id * width + width, state, 0, width)) {
+					return id;
+				}
+			}
+		}
+
+		int add(byte[] state, int hash, int parent) {
+			if (count == parents.length) {
+				int grown = count * 2;
+				parents = Arrays.copyOf(parents, grown);
+				hashes = Arrays.copyOf(hashes, grown);
+				states = Arrays.copyOf(states, grown * width);
+			}
+			if (2 * (count + 1) > slots.length) {
+				slots = new int[slots.length * 2];
+				for (int id = 0; id < count; id++) {
+					insert(id);
+				}
+			}
+			System.arraycopy(state, 0, states, count * width, width);
+			parents[count] = parent;
+			hashes[count] = hash;
+			insert(count);
+			return count++;
+		}
+
+		private void insert(int id) {
+			int mask = slots.length - 1;
+			int s = hashes[id] & mask;
+			while (slots[s] != 0) {
+				s = s + 1 & mask;
+			}
+			slots[s] = id + 1;
+		}
+
+		int frontier() {
+			return levelEnd - levelStart;
+		}
+	}
+
+	private final Mode mode;
+	private final int stateLimit;
+	private final Side forward = new Side();
+	private final Side backward = new Side();
+
+	private int bottles;
+	private int capacity;
+	private int row;
+	private int width;
+	private byte[] current;
+	private byte[] next;
+	private byte[] canonical;
+	private int[] order;
+	private int meetForward;
+	private int meetBackward;
+	private int meetingDepth;
+
+	/**
+	 * Constrói um solver bidirecional que desiste depois de guardar
+	 * {@link #DEFAULT_STATE_LIMIT} posições.
+	 */
+	public BreadthFirstSolver() {
+		this(Mode.BIDIRECTIONAL, DEFAULT_STATE_LIMIT);
+	}
+
+	/**
+	 * Constrói um solver que avança nos sentidos de mode e desiste depois de
+	 * guardar stateLimit posições, somando os dois lados.
+	 *
+	 * @param mode       os sentidos da pesquisa
+	 * @param stateLimit o número máximo de posições guardadas por pesquisa
+	 */
+	public BreadthFirstSolver(Mode mode, int stateLimit) {
+		this.mode = mode;
+		this.stateLimit = stateLimit;
+	}
+
+	/**
+	 * Procura uma solução mínima para a mesa, sem a alterar.
+	 *
+	 * @param table a mesa
+	 * @return as jogadas {i, j} por ordem, vazio se a mesa já está resolvida, ou
+	 *         null se não há solução ou o limite de posições foi atingido
+	 * @throws IllegalArgumentException se as garrafas não tiverem todas a mesma
+	 *                                  capacidade ou tiverem mais de
+	 *                                  {@value #MAX_CAPACITY} posições
+	 */
+	public int[][] solve(Table table) {
+		byte[] start = load(table);
+		forward.clear(width);
+		backward.clear(width);
+		meetingDepth = 0;
+		byte[] goal = goal(start);
+		if (goal == null) {
+			return null;
+		}
+		System.arraycopy(start, 0, current, 0, width);
+		canonicalize(current);
+		forward.add(canonical, hash(canonical), -1);
+		forward.levelEnd = 1;
+		backward.add(goal, hash(goal), -1);
+		backward.levelEnd = 1;
+		if (backward.find(canonical, hash(canonical)) == 0) {
+			return new int[0][];
+		}
+		while (true) {
+			boolean forwards = mode == Mode.FORWARD || forward.frontier() <= backward.frontier();
+			Side side = forwards ? forward : backward;
+			if (side.frontier() == 0) {
+				return null;
+			}
+			int found = expand(side, forwards ? backward : forward, forwards);
+			if (found == 1) {
+				return moves(start);
+			}
+			if (found < 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Quantas posições foram expandidas a partir da mesa na última pesquisa.
+	 *
+	 * @return o número de posições expandidas
+	 */
+	public long expandedForward() {
+		return forward.expanded;
+	}
+
+	/**
+	 * Quantas posições foram expandidas a partir da mesa resolvida na última
+	 * pesquisa; 0 no modo {@link Mode#FORWARD}.
+	 *
+	 * @return o número de posições expandidas
+	 */
+	public long expandedBackward() {
+		return backward.expanded;
+	}
+
+	/**
+	 * A quantas jogadas da mesa se encontraram os dois lados da última pesquisa
+	 * com solução; no modo {@link Mode#FORWARD} é o número de jogadas da solução.
+	 *
+	 * @return o número de jogadas da mesa até à posição de encontro
+	 */
+	public int meetingDepth() {
+		return meetingDepth;
+	}
+
+	/**
+	 * Expande um nível de side, procurando cada posição nova em other.
+	 *
+	 * @return 1 se os lados se encontraram, -1 se o limite de posições foi
+	 *         atingido, 0 se não
+	 */
+	private int expand(Side side, Side other, boolean forwards) {
+		int end = side.levelEnd;
+		for (int id = side.levelStart; id < end; id++) {
+			System.arraycopy(side.states, id * width, current, 0, width);
+			side.expanded++;
+			for (int i = 0; i < bottles; i++) {
+				for (int j = 0; j < bottles; j++) {
+					int found = forwards ? visitMove(side, other, id, i, j) : visitUndo(side, other, id, i, j);
+					if (found != 0) {
+						if (found == 1) {
+							meetForward = forwards ? side.count - 1 : other.find(canonical, hash(canonical));
+							meetBackward = forwards ? other.find(canonical, hash(canonical)) : side.count - 1;
+						}
+						return found;
+					}
+				}
+			}
+		}
+		side.levelStart = end;
+		side.levelEnd = side.count;
+		return 0;
+	}
+
+	/**
+	 * Guarda em side a posição depois da jogada i, j a partir de current.
+	 */
+	private int visitMove(Side side, Side other, int parent, int i, int j) {
+		return move(current, i, j, next) ? visit(side, other, parent) : 0;
+	}
+
+	/**
+	 * Guarda em side todas as posições a partir das quais a jogada j, i dá
+	 * current: as que têm mais k goles do topo de i na garrafa j.
+	 */
+	private int visitUndo(Side side, Side other, int parent, int i, int j) {
+		int sizeFrom = current[i * row] & 0xFF;
+		int sizeTo = current[j * row] & 0xFF;
+		if (i == j || sizeFrom == 0 || sizeTo == capacity) {
+			return 0;
+		}
+		byte code = current[i * row + sizeFrom];
+		int run = run(current, i);
+		// a jogada j, i verteu exatamente k goles se j não tinha mais code por baixo
+		// ou se i ficou cheia
+		boolean exact = sizeTo == 0 || current[j * row + sizeTo] != code || sizeFrom == capacity;
+		for (int k = 1; k <= run && k <= capacity - sizeTo; k++) {
+			// antes da jogada i tinha code no topo, ou estava vazia
+			if (!exact || k == run && k != sizeFrom) {
+				continue;
+			}
+			System.arraycopy(current, 0, next, 0, width);
+			pour(next, i, j, k);
+			int found = visit(side, other, parent);
+			if (found != 0) {
+				return found;
+			}
+		}
+		return 0;
+	}
+
+	private int visit(Side side, Side other, int parent) {
+		canonicalize(next);
+		int hash = hash(canonical);
+		if (side.find(canonical, hash) >= 0) {
+			return 0;
+		}
+		if (forward.count + backward.count >= stateLimit) {
+			return -1;
+		}
+		side.add(canonical, hash, parent);
+		return other.find(canonical, hash) >= 0 ? 1 : 0;
+	}
+
+	/**
+	 * Calcula em to a posição depois de verter de i para j, tal como
+	 * {@link Game#play(int, int)}.
+	 *
+	 * @return false se a jogada não é válida
+	 */
+	private boolean move(byte[] from, int i, int j, byte[] to) {
+		int sizeFrom = from[i * row] & 0xFF;
+		int sizeTo = from[j * row] & 0xFF;
+		if (i == j || sizeFrom == 0 || sizeTo == capacity
+				|| sizeTo > 0 && from[j * row + sizeTo] != from[i * row + sizeFrom]) {
+			return false;
+		}
+		System.arraycopy(from, 0, to, 0, width);
+		pour(to, i, j, Math.min(run(from, i), capacity - sizeTo));
+		return true;
+	}
+
+	private void pour(byte[] state, int from, int to, int k) {
+		int sizeFrom = state[from * row] & 0xFF;
+		int sizeTo = state[to * row] & 0xFF;
+		byte code = state[from * row + sizeFrom];
+		for (int n = 0; n < k; n++) {
+			state[from * row + sizeFrom - n] = 0;
+			state[to * row + sizeTo + 1 + n] = code;
+		}
+		state[from * row] = (byte) (sizeFrom - k);
+		state[to * row] = (byte) (sizeTo + k);
+	}
+
+	private int run(byte[] state, int b) {
+		int size = state[b * row] & 0xFF;
+		int top = b * row + size;
+		int n = 1;
+		while (n < size && state[top - n] == state[top]) {
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Escreve em canonical a posição state com as garrafas ordenadas.
+	 */
+	private void canonicalize(byte[] state) {
+		for (int b = 0; b < bottles; b++) {
+			int k = b - 1;
+			while (k >= 0 && Arrays.compareUnsigned(state, order[k] * row, order[k] * row + row, state, b * row,
+					b * row + row) > 0) {
+				order[k + 1] = order[k];
+				k--;
+			}
+			order[k + 1] = b;
+		}
+		for (int b = 0; b < bottles; b++) {
+			System.arraycopy(state, order[b] * row, canonical, b * row, row);
+		}
+	}
+
+	private int hash(byte[] state) {
+		int h = 1;
+		for (int k = 0; k < width; k++) {
+			h = 31 * h + state[k];
+		}
+		h *= 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * Copia a mesa para uma posição, não ordenada.
+	 */
+	private byte[] load(Table table) {
+		bottles = table.getNumberBottles();
+		capacity = table.getSizeBottles();
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Uma garrafa tem no máximo " + MAX_CAPACITY + " goles");
+		}
+		row = capacity + 1;
+		width = bottles * row;
+		current = new byte[width];
+		next = new byte[width];
+		canonical = new byte[width];
+		order = new int[bottles];
+		byte[] start = new byte[width];
+		for (int b = 0; b < bottles; b++) {
+			if (table.capacity(b) != capacity) {
+				throw new IllegalArgumentException("As garrafas têm de ter todas a mesma capacidade");
+			}
+			int size = table.size(b);
+			start[b * row] = (byte) size;
+			for (int level = 0; level < size; level++) {
+				start[b * row + 1 + level] = (byte) table.codeAt(b, level);
+			}
+		}
+		return start;
+	}
+
+	/**
+	 * A mesa resolvida com os goles de start, já ordenada, ou null se os goles de
+	 * algum símbolo não enchem garrafas inteiras ou não há garrafas que cheguem.
+	 */
+	private byte[] goal(byte[] start) {
+		int[] counts = new int[Palette.MAX_SYMBOLS];
+		for (int b = 0; b < bottles; b++) {
+			for (int level = 0; level < (start[b * row] & 0xFF); level++) {
+				counts[start[b * row + 1 + level] & 0xFF]++;
+			}
+		}
+		byte[] goal = new byte[width];
+		int b = 0;
+		for (int code = 0; code < counts.length; code++) {
+			if (counts[code] % capacity != 0) {
+				return null;
+			}
+			for (int n = 0; n < counts[code] / capacity; n++, b++) {
+				if (b == bottles) {
+					return null;
+				}
+				goal[b * row] = (byte) capacity;
+				Arrays.fill(goal, b * row + 1, b * row + row, (byte) code);
+			}
+		}
+		canonicalize(goal);
+		return canonical.clone();
+	}
+
+	/**
+	 * As jogadas da mesa até à posição de encontro e desta até à mesa resolvida,
+	 * pelos índices das garrafas da mesa.
+	 */
+	private int[][] moves(byte[] start) {
+		int forwardDepth = 0;
+		for (int id = meetForward; forward.parents[id] >= 0; id = forward.parents[id]) {
+			forwardDepth++;
+		}
+		int backwardDepth = 0;
+		for (int id = meetBackward; backward.parents[id] >= 0; id = backward.parents[id]) {
+			backwardDepth++;
+		}
+		meetingDepth = forwardDepth;
+		int[] path = new int[forwardDepth + backwardDepth + 1];
+		for (int id = meetForward, k = forwardDepth; k >= 0; id = forward.parents[id], k--) {
+			path[k] = id;
+		}
+		for (int id = backward.parents[meetBackward], k = forwardDepth + 1; id >= 0; id = backward.parents[id], k++) {
+			path[k] = id;
+		}
+		int[][] moves = new int[path.length - 1][];
+		System.arraycopy(start, 0, current, 0, width);
+		for (int m = 0; m < moves.length; m++) {
+			Side side = m + 1 <= forwardDepth ? forward : backward;
+			int target = path[m + 1] * width;
+			search: for (int i = 0; i < bottles; i++) {
+				for (int j = 0; j < bottles; j++) {
+					if (move(current, i, j, next)) {
+						canonicalize(next);
+						if (Arrays.equals(canonical, 0, width, side.states, target, target + width)) {
+							moves[m] = new int[] { i, j };
+							break search;
+						}
+					}
+				}
+			}
+			byte[] swap = current;
+			current = next;
+			next = swap;
+		}
+		return moves;
+	}
+}
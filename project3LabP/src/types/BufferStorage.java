@@ -0,0 +1,137 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Armazenamento de uma mesa sem objetos {@link Bottle}, o
+ * {@link Table.Layout#BUFFER}: os goles de todas as garrafas estão num só
+ * {@code byte[]}, com stride posições por garrafa, e o número de goles e a
+ * capacidade de cada uma em arrays paralelos. Percorrer as garrafas lê memória
+ * contígua e copiar a mesa é uma cópia de arrays. As garrafas dadas a
+ * {@link #add(int, Bottle)} são copiadas para o buffer.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class BufferStorage implements TableStorage {
+
+	// os goles da garrafa i em cells[i * stride ...]
+	private byte[] cells = new byte[0];
+	private byte[] levels = new byte[0];
+	private byte[] capacities = new byte[0];
+	private int stride;
+
+	/**
+	 * Constrói um armazenamento sem garrafas, para garrafas de capacidade
+	 * capacity
+	 *
+	 * @param capacity a capacidade das garrafas
+	 * @throws IllegalArgumentException se a capacidade for maior do que 255
+	 */
+	BufferStorage(int capacity) {
+		check(capacity);
+		this.stride = capacity;
+	}
+
+	@Override
+	public TableStorage copy(int count) {
+		BufferStorage copy = new BufferStorage(stride);
+		copy.cells = Arrays.copyOf(cells, cells.length);
+		copy.levels = Arrays.copyOf(levels, levels.length);
+		copy.capacities = Arrays.copyOf(capacities, capacities.length);
+		return copy;
+	}
+
+	@Override
+	public void allocate(int n) {
+		cells = Arrays.copyOf(cells, n * stride);
+		levels = Arrays.copyOf(levels, n);
+		capacities = Arrays.copyOf(capacities, n);
+	}
+
+	/**
+	 * Passa a guardar cada garrafa em capacity posições, se forem mais do que
+	 * as atuais.
+	 */
+	@Override
+	public void fit(int capacity) {
+		check(capacity);
+		if (capacity > stride) {
+			byte[] wider = new byte[levels.length * capacity];
+			for (int i = 0; i < levels.length; i++) {
+				System.arraycopy(cells, i * stride, wider, i * capacity, stride);
+			}
+			cells = wider;
+			stride = capacity;
+		}
+	}
+
+	private static void check(int capacity) {
+		if (capacity > 0xFF) {
+			throw new IllegalArgumentException("Uma garrafa guardada num buffer tem no máximo 255 goles");
+		}
+	}
+
+	@Override
+	public void fill(int i, int[] codes, int capacity) {
+		for (int k = 0; k < codes.length; k++) {
+			cells[i * stride + k] = (byte) codes[k];
+		}
+		levels[i] = (byte) codes.length;
+		capacities[i] = (byte) capacity;
+	}
+
+	@Override
+	public void add(int i, Bottle bottle) {
+		int size = bottle.size();
+		for (int k = 0; k < size; k++) {
+			cells[i * stride + k] = (byte) bottle.codeAt(k);
+		}
+		levels[i] = (byte) size;
+		capacities[i] = (byte) bottle.capacity();
+	}
+
+	@Override
+	public void restore(int i, byte[] codes, int from, int size, int capacity) {
+		System.arraycopy(codes, from, cells, i * stride, size);
+		levels[i] = (byte) size;
+		capacities[i] = (byte) capacity;
+	}
+
+	@Override
+	public void copyCodes(int i, byte[] into, int at) {
+		System.arraycopy(cells, i * stride, into, at, levels[i] & 0xFF);
+	}
+
+	@Override
+	public void pour(int i, int j) {
+		cells[j * stride + (levels[j] & 0xFF)] = cells[i * stride + (levels[i] & 0xFF) - 1];
+		levels[j]++;
+		levels[i]--;
+	}
+
+	@Override
+	public int size(int i) {
+		return levels[i] & 0xFF;
+	}
+
+	@Override
+	public int capacity(int i) {
+		return capacities[i] & 0xFF;
+	}
+
+	@Override
+	public int codeAt(int i, int level) {
+		return cells[i * stride + level] & 0xFF;
+	}
+
+	@Override
+	public int topRun(int i) {
+		int start = i * stride;
+		int top = (levels[i] & 0xFF) - 1;
+		int level = top - 1;
+		while (level >= 0 && cells[start + level] == cells[start + top]) {
+			level--;
+		}
+		return top - level;
+	}
+}
@@ -0,0 +1,73 @@
+package types;
+
+/**
+ * Pilha de bytes, sem boxing. Os elementos podem ser consultados por posição a
+ * partir da base e percorridos do topo para a base com um {@link Cursor}
+ * reutilizável.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public interface ByteStack extends PrimitiveStack {
+
+    /**
+     * Inserir um elemento no topo da pilha
+     *
+     * @param e O elemento a inserir
+     */
+    void push(byte e);
+
+    /**
+     * Inserir n cópias de um elemento no topo da pilha
+     *
+     * @param e O elemento a inserir
+     * @param n O número de cópias
+     * @requires n >= 0
+     */
+    void pushN(byte e, int n);
+
+    /**
+     * O elemento no topo da pilha
+     *
+     * @return O elemento no topo da pilha
+     * @requires !isEmpty()
+     */
+    byte peek();
+
+    /**
+     * O elemento na posição i, a contar da base da pilha
+     *
+     * @param i A posição do elemento, sendo 0 a base e size() - 1 o topo
+     * @return O elemento na posição i
+     * @requires 0 <= i < size()
+     */
+    byte get(int i);
+
+    /**
+     * Um cursor que percorre a pilha do topo para a base. O cursor é sempre o
+     * mesmo objeto, pelo que não deve ser usado em dois percursos ao mesmo tempo.
+     *
+     * @return O cursor da pilha, posicionado no topo
+     */
+    Cursor cursor();
+
+    /**
+     * Percurso de uma pilha de bytes do topo para a base, sem criar objetos.
+     */
+    interface Cursor {
+
+        /**
+         * Há mais elementos a percorrer?
+         *
+         * @return true se ainda há elementos, false caso contrário
+         */
+        boolean hasNext();
+
+        /**
+         * O próximo elemento do percurso
+         *
+         * @return O próximo elemento
+         * @requires hasNext()
+         */
+        byte next();
+    }
+}
@@ -0,0 +1,425 @@
+package types;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Base de dados exata de finais para configurações pequenas: para cada posição
+ * que se pode atingir a partir de uma mesa gerada com symbols símbolos, garrafas
+ * de capacidade capacity e empties garrafas vazias, guarda o número mínimo de
+ * jogadas até a mesa ficar resolvida.
+ *
+ * Uma posição é representada por um long: cada garrafa é um número entre 0 e o
+ * número de conteúdos possíveis de uma garrafa e as garrafas, que são
+ * indistinguíveis, são ordenadas antes de serem juntas. As posições são
+ * enumeradas por pesquisa em largura a partir de todas as mesas iniciais e as
+ * distâncias calculadas por análise retrógrada, nível a nível, usando todos os
+ * processadores. O ficheiro guarda as posições ordenadas e uma distância de um
+ * byte por posição, e é lido com um mapeamento em memória.
+ *
+ * As jogadas são as de {@link Game#play(int, int)}: verter do topo de i para j
+ * enquanto a jogada for válida e j não estiver cheia.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class EndgameDatabase {
+
+	/**
+	 * Distância devolvida para posições que não estão na base de dados ou a partir
+	 * das quais não é possível resolver a mesa.
+	 */
+	public static final int UNKNOWN = -1;
+
+	/**
+	 * Número máximo de posições por omissão, para limitar a memória da construção
+	 * a cerca de 1 GB.
+	 */
+	public static final int DEFAULT_MAX_STATES = 50_000_000;
+
+	private static final int MAGIC = 0x57424442; // "WBDB"
+	private static final int VERSION = 1;
+	private static final int HEADER = 32;
+	private static final int NONE = 0xFF; // distância por conhecer, num byte
+	private static final int CHUNK = 4096;
+
+	private final BottleShapes shapes;
+	private final int empties;
+	private final int bottles;
+	private final int count;
+	private final LongBuffer keys;
+	private final ByteBuffer distances;
+
+	private EndgameDatabase(BottleShapes shapes, int empties, int count, LongBuffer keys, ByteBuffer distances) {
+		this.shapes = shapes;
+		this.empties = empties;
+		this.bottles = shapes.symbols + empties;
+		this.count = count;
+		this.keys = keys;
+		this.distances = distances;
+	}
+
+	/**
+	 * Constrói a base de dados de uma configuração, com no máximo
+	 * {@link #DEFAULT_MAX_STATES} posições.
+	 *
+	 * @param symbols  o número de símbolos usados
+	 * @param capacity a capacidade das garrafas
+	 * @param empties  o número de garrafas vazias na mesa inicial
+	 * @return a base de dados
+	 * @throws IllegalArgumentException se uma posição não cabe num long
+	 * @throws IllegalStateException    se houver mais posições do que o máximo
+	 */
+	public static EndgameDatabase build(int symbols, int capacity, int empties) {
+		return build(symbols, capacity, empties, DEFAULT_MAX_STATES);
+	}
+
+	/**
+	 * Constrói a base de dados de uma configuração.
+	 *
+	 * @param symbols   o número de símbolos usados
+	 * @param capacity  a capacidade das garrafas
+	 * @param empties   o número de garrafas vazias na mesa inicial
+	 * @param maxStates o número máximo de posições
+	 * @return a base de dados
+	 * @throws IllegalArgumentException se uma posição não cabe num long
+	 * @throws IllegalStateException    se houver mais posições do que maxStates
+	 */
+	public static EndgameDatabase build(int symbols, int capacity, int empties, int maxStates) {
+		BottleShapes shapes = new BottleShapes(symbols, capacity, symbols + empties);
+		long[] keys = reachable(shapes, empties, maxStates);
+		byte[] distances = retrograde(shapes, keys);
+		return new EndgameDatabase(shapes, empties, keys.length, LongBuffer.wrap(keys), ByteBuffer.wrap(distances));
+	}
+
+	/**
+	 * Abre uma base de dados gravada por {@link #save(Path)}, mapeando o ficheiro
+	 * em memória.
+	 *
+	 * @param file o ficheiro
+	 * @return a base de dados
+	 * @throws IOException se a leitura falhar ou o ficheiro não for uma base de
+	 *                     dados
+	 */
+	public static EndgameDatabase open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(file + " não é uma base de dados de finais");
+			}
+			MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+				throw new IOException(file + " não é uma base de dados de finais");
+			}
+			int symbols = map.getInt(8);
+			int capacity = map.getInt(12);
+			int empties = map.getInt(16);
+			int count = map.getInt(20);
+			if (channel.size() != HEADER + 9L * count) {
+				throw new IOException(file + " está truncado");
+			}
+			BottleShapes shapes = new BottleShapes(symbols, capacity, symbols + empties);
+			LongBuffer keys = map.slice(HEADER, 8 * count).asLongBuffer();
+			ByteBuffer distances = map.slice(HEADER + 8 * count, count);
+			return new EndgameDatabase(shapes, empties, count, keys, distances);
+		}
+	}
+
+	/**
+	 * Grava a base de dados em file.
+	 *
+	 * @param file o ficheiro
+	 * @throws IOException se a escrita falhar
+	 */
+	public void save(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(shapes.symbols).putInt(shapes.capacity).putInt(empties)
+					.putInt(count).putLong(0);
+			for (int i = 0; i < count; i++) {
+				if (buffer.remaining() < 8) {
+					drain(channel, buffer);
+				}
+				buffer.putLong(keys.get(i));
+			}
+			for (int i = 0; i < count; i++) {
+				if (!buffer.hasRemaining()) {
+					drain(channel, buffer);
+				}
+				buffer.put(distances.get(i));
+			}
+			drain(channel, buffer);
+		}
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * O número de símbolos da configuração
+	 *
+	 * @return o número de símbolos
+	 */
+	public int symbols() {
+		return shapes.symbols;
+	}
+
+	/**
+	 * A capacidade das garrafas da configuração
+	 *
+	 * @return a capacidade das garrafas
+	 */
+	public int capacity() {
+		return shapes.capacity;
+	}
+
+	/**
+	 * O número de garrafas vazias da mesa inicial da configuração
+	 *
+	 * @return o número de garrafas vazias
+	 */
+	public int empties() {
+		return empties;
+	}
+
+	/**
+	 * Quantas posições tem a base de dados
+	 *
+	 * @return o número de posições
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Diz quantas jogadas faltam, no mínimo, para resolver a mesa.
+	 *
+	 * @param table a mesa
+	 * @return o número de jogadas, ou {@link #UNKNOWN} se a mesa não é desta
+	 *         configuração ou não tem solução
+	 */
+	public int distance(Table table) {
+		int[] values = values(table);
+		return values == null ? UNKNOWN : distance(shapes.pack(values));
+	}
+
+	/**
+	 * Escolhe uma jogada que deixa a mesa o mais perto possível de resolvida.
+	 *
+	 * @param table a mesa
+	 * @return os índices {i, j} da jogada, ou null se a mesa já está resolvida,
+	 *         não é desta configuração ou não tem solução
+	 */
+	public int[] bestMove(Table table) {
+		int[] values = values(table);
+		if (values == null) {
+			return null;
+		}
+		int current = distance(shapes.pack(values.clone()));
+		if (current == 0 || current == UNKNOWN) {
+			return null;
+		}
+		int[] next = new int[bottles];
+		int[] best = null;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < bottles; i++) {
+			for (int j = 0; j < bottles; j++) {
+				if (shapes.move(values, i, j, next)) {
+					int d = distance(shapes.pack(next));
+					if (d != UNKNOWN && d < bestDistance) {
+						bestDistance = d;
+						best = new int[] { i, j };
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Os valores das garrafas da mesa, pela ordem da mesa, ou null se a mesa não
+	 * é desta configuração.
+	 */
+	private int[] values(Table table) {
+		if (table.getNumberBottles() != bottles || table.getSizeBottles() != shapes.capacity) {
+			return null;
+		}
+		int[] values = new int[bottles];
+		int[] codes = new int[shapes.capacity];
+		for (int i = 0; i < bottles; i++) {
+			int size = table.size(i);
+			for (int level = 0; level < size; level++) {
+				codes[level] = table.codeAt(i, level);
+				if (codes[level] >= shapes.symbols) {
+					return null;
+				}
+			}
+			values[i] = shapes.value(codes, size);
+		}
+		return values;
+	}
+
+	private int distance(long key) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long k = keys.get(mid);
+			if (k < key) {
+				low = mid + 1;
+			}
+			else if (k > key) {
+				high = mid - 1;
+			}
+			else {
+				int d = distances.get(mid) & 0xFF;
+				return d == NONE ? UNKNOWN : d;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Enumera, ordenadas, todas as posições atingíveis a partir das mesas
+	 * iniciais.
+	 */
+	private static long[] reachable(BottleShapes shapes, int empties, int maxStates) {
+		LongList deals = new LongList();
+		int[] values = new int[shapes.bottles];
+		int[] remaining = new int[shapes.symbols];
+		Arrays.fill(remaining, shapes.capacity);
+		deal(shapes, values, 0, remaining, deals);
+		long[] visited = deals.toSortedSet();
+		long[] frontier = visited;
+		while (frontier.length > 0) {
+			long[] current = frontier;
+			int chunks = (current.length + CHUNK - 1) / CHUNK;
+			long[][] parts = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+				LongList out = new LongList();
+				int[] state = new int[shapes.bottles];
+				int[] next = new int[shapes.bottles];
+				for (int k = c * CHUNK; k < Math.min(current.length, (c + 1) * CHUNK); k++) {
+					shapes.unpack(current[k], state);
+					for (int i = 0; i < shapes.bottles; i++) {
+						for (int j = 0; j < shapes.bottles; j++) {
+							if (shapes.move(state, i, j, next)) {
+								out.add(shapes.pack(next));
+							}
+						}
+					}
+				}
+				return out.toSortedSet();
+			}).toArray(long[][]::new);
+			frontier = LongList.minus(LongList.concat(parts).toSortedSet(), visited);
+			if ((long) visited.length + frontier.length > maxStates) {
+				throw new IllegalStateException("A configuração tem mais de " + maxStates + " posições");
+			}
+			visited = LongList.merge(visited, frontier);
+		}
+		return visited;
+	}
+
+	/**
+	 * Gera as mesas iniciais: symbols garrafas cheias, por ordem crescente de
+	 * valor, com capacity goles de cada símbolo, e as vazias, de valor 0.
+	 */
+	private static void deal(BottleShapes shapes, int[] values, int filled, int[] remaining, LongList out) {
+		if (filled == shapes.symbols) {
+			out.add(shapes.pack(values.clone()));
+			return;
+		}
+		int first = filled == 0 ? shapes.offset[shapes.capacity] : values[filled - 1];
+		for (int v = first; v < shapes.shapes; v++) {
+			if (shapes.take(v, remaining)) {
+				values[filled] = v;
+				deal(shapes, values, filled + 1, remaining, out);
+				shapes.give(v, remaining);
+			}
+		}
+	}
+
+	/**
+	 * Calcula a distância de cada posição à mesa resolvida: 0 para as resolvidas
+	 * e, no nível d, d para as posições com uma jogada para uma posição de nível
+	 * d - 1.
+	 */
+	private static byte[] retrograde(BottleShapes shapes, long[] keys) {
+		byte[] distances = new byte[keys.length];
+		int chunks = (keys.length + CHUNK - 1) / CHUNK;
+		IntStream.range(0, keys.length).parallel()
+				.forEach(k -> distances[k] = (byte) (shapes.solved(keys[k]) ? 0 : NONE));
+		for (int d = 1; d < NONE; d++) {
+			int level = d;
+			long found = IntStream.range(0, chunks).parallel().mapToLong(c -> {
+				int[] state = new int[shapes.bottles];
+				int[] next = new int[shapes.bottles];
+				long changed = 0;
+				for (int k = c * CHUNK; k < Math.min(keys.length, (c + 1) * CHUNK); k++) {
+					if ((distances[k] & 0xFF) != NONE) {
+						continue;
+					}
+					shapes.unpack(keys[k], state);
+					search: for (int i = 0; i < shapes.bottles; i++) {
+						for (int j = 0; j < shapes.bottles; j++) {
+							if (shapes.move(state, i, j, next)) {
+								int n = Arrays.binarySearch(keys, shapes.pack(next));
+								if ((distances[n] & 0xFF) == level - 1) {
+									distances[k] = (byte) level;
+									changed++;
+									break search;
+								}
+							}
+						}
+					}
+				}
+				return changed;
+			}).sum();
+			if (found == 0) {
+				break;
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Constrói a base de dados de uma configuração e grava-a num ficheiro.
+	 *
+	 * Uso: {@code java -cp bin types.EndgameDatabase símbolos capacidade vazias ficheiro}
+	 *
+	 * @param args os argumentos da linha de comandos
+	 * @throws IOException se a escrita falhar
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 4) {
+			System.err.println("Uso: java types.EndgameDatabase símbolos capacidade vazias ficheiro");
+			System.exit(2);
+		}
+		long start = System.nanoTime();
+		EndgameDatabase db = build(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+		double seconds = (System.nanoTime() - start) / 1e9;
+		db.save(Paths.get(args[3]));
+		int[] histogram = new int[NONE + 1];
+		for (int i = 0; i < db.count; i++) {
+			histogram[db.distances.get(i) & 0xFF]++;
+		}
+		System.out.printf("%d posições em %.2f s, %d bytes%n", db.count, seconds, HEADER + 9L * db.count);
+		for (int d = 0; d < NONE; d++) {
+			if (histogram[d] > 0) {
+				System.out.printf("%4d %12d%n", d, histogram[d]);
+			}
+		}
+		System.out.printf("sem solução %5d%n", histogram[NONE]);
+	}
+}
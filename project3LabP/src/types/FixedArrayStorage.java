@@ -0,0 +1,51 @@
+package types;
+
+/**
+ * Armazenamento de uma garrafa num {@link FixedByteStack} com a capacidade da
+ * garrafa, sem boxing nem redimensionamentos.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class FixedArrayStorage implements BottleStorage {
+
+	private final FixedByteStack contents;
+
+	/**
+	 * Constrói um armazenamento vazio
+	 *
+	 * @param capacity o número máximo de goles
+	 */
+	FixedArrayStorage(int capacity) {
+		this.contents = new FixedByteStack(capacity);
+	}
+
+	@Override
+	public void push(int code) {
+		contents.push((byte) code);
+	}
+
+	@Override
+	public void pop() {
+		contents.pop();
+	}
+
+	@Override
+	public int peek() {
+		return contents.peek() & 0xFF;
+	}
+
+	@Override
+	public int get(int i) {
+		return contents.get(i) & 0xFF;
+	}
+
+	@Override
+	public int size() {
+		return contents.size();
+	}
+
+	@Override
+	public int topRun() {
+		return contents.topRun();
+	}
+}
@@ -0,0 +1,31 @@
+package types;
+
+/**
+ * Implementação de uma pilha de bytes com capacidade fixa, guardada num único
+ * array. Inserir numa pilha cheia lança {@link IllegalStateException}; para uma
+ * pilha que cresce usar {@link ByteArrayStack}.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class FixedByteStack extends AbstractByteStack {
+
+    /**
+     * Criar uma pilha vazia com a capacidade dada
+     *
+     * @param capacity O número máximo de elementos da pilha
+     */
+    public FixedByteStack(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Nesta pilha a capacidade é fixa.
+     *
+     * @param minCapacity O número de elementos que a pilha tem de guardar
+     * @throws IllegalStateException sempre, porque a pilha está cheia
+     */
+    @Override
+    protected void grow(int minCapacity) {
+        throw new IllegalStateException("Pilha cheia: capacidade " + data.length);
+    }
+}
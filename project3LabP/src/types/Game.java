@@ -1,16 +1,143 @@
 package types;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
 /**
  * Esta classe constrói um jogo de uma mesa com garrafas.
  * 
+ * Com {@link #recordHistory(boolean)} o jogo guarda o histórico da ronda: uma
+ * {@link PersistentTable} com a mesa inicial e outra depois de cada jogada
+ * válida ou ajuda. As versões partilham as garrafas que não mudaram, por isso o
+ * histórico cresce com as jogadas e não com o tamanho da mesa. Por omissão não
+ * é guardado e as jogadas não criam objetos.
+ * 
+ * O estado do jogo pode ser guardado num {@link Snapshot} e reposto com
+ * {@link #restore(Snapshot)}. Para mostrar o resultado de uma jogada antes de
+ * a fazer, {@link #preview(int, int, Preview)} calcula-o sem alterar nem
+ * copiar a mesa.
+ * 
+ * Com {@link #prefetchRounds(int, Predicate)} as mesas das próximas rondas são
+ * geradas, e validadas, numa thread própria, e começar uma ronda só troca as
+ * garrafas pelas da próxima mesa; as mesas são as mesmas que sem ela. A
+ * thread pára com {@link #close()}, ou sozinha pouco depois de o jogo deixar de
+ * ser usado.
+ * 
  * @author Rodrigo Frutuoso 61865
  */
-public class Game {
+public class Game implements AutoCloseable {
 	public static final String EOL = System.lineSeparator();
 
+	/**
+	 * O estado de um jogo, guardado por {@link Game#snapshot(Snapshot)}: a mesa,
+	 * a pontuação, as jogadas e a posição no histórico da ronda. Pode ser
+	 * reutilizado sem criar objetos.
+	 */
+	public static final class Snapshot {
+		private final Table.Snapshot table = new Table.Snapshot();
+		private int score;
+		private int jogadas;
+		private int history; // versões no histórico
+		private PersistentTable version; // a última versão do histórico
+
+		/**
+		 * A pontuação guardada.
+		 * 
+		 * @return a pontuação
+		 */
+		public int score() {
+			return score;
+		}
+
+		/**
+		 * O número de jogadas guardado.
+		 * 
+		 * @return o número de jogadas
+		 */
+		public int jogadas() {
+			return jogadas;
+		}
+	}
+
+	/**
+	 * O resultado que uma jogada teria, calculado por
+	 * {@link Game#preview(int, int, Preview)}. Pode ser reutilizado.
+	 */
+	public static final class Preview {
+		private boolean valid;
+		private int sips;
+		private int fromTop;
+		private int toTop;
+		private boolean finishes;
+		private int scoreChange;
+
+		/**
+		 * Se a jogada seria feita: {@link Game#isValid(int, int)} e a garrafa de
+		 * onde se verte não está vazia.
+		 * 
+		 * @return true se a jogada é válida
+		 */
+		public boolean valid() {
+			return valid;
+		}
+
+		/**
+		 * Quantos goles seriam vertidos; pode ser 0 numa jogada válida para uma
+		 * garrafa cheia, que conta como jogada.
+		 * 
+		 * @return o número de goles
+		 */
+		public int sips() {
+			return sips;
+		}
+
+		/**
+		 * O código do gole que ficaria no topo da garrafa de onde se verte.
+		 * 
+		 * @return o código, ou -1 se ficasse vazia
+		 */
+		public int fromTop() {
+			return fromTop;
+		}
+
+		/**
+		 * O código do gole que ficaria no topo da garrafa para onde se verte.
+		 * 
+		 * @return o código, ou -1 se ficasse vazia
+		 */
+		public int toTop() {
+			return toTop;
+		}
+
+		/**
+		 * Se a ronda ficaria terminada depois da jogada.
+		 * 
+		 * @return true se a ronda ficaria terminada
+		 */
+		public boolean finishes() {
+			return finishes;
+		}
+
+		/**
+		 * Quantos pontos a jogada somaria, como em {@link Game#updateScore()}.
+		 * 
+		 * @return a variação da pontuação
+		 */
+		public int scoreChange() {
+			return scoreChange;
+		}
+	}
+
 	private int score;
 	private int jogadas;
 	private Table jogo;
+	private final List<PersistentTable> history = new ArrayList<>();
+	private boolean recordHistory;
+	private Predicate<Table> accept; // null: todas as mesas por terminar
+	private RoundPrefetcher prefetcher;
+	private int prefetchDepth;
 
 	/**
 	 * Constrói um jogo em que os conteúdos das garrafas na mesa são symbols.
@@ -21,10 +148,20 @@ public class Game {
 	 * @param capacity            o tamanho das garrafas
 	 */
 	public Game(Filling[] symbols, int numberOfUsedSymbols, int seed, int capacity) {
-		this.jogo = new Table(symbols, numberOfUsedSymbols, seed, capacity);
-			if(isRoundFinished()) {
-				startNewRound();//para ter a certeza que o jogo não começa terminado
-			}
+		this(Palette.of(symbols), numberOfUsedSymbols, seed, capacity);
+	}
+
+	/**
+	 * Constrói um jogo em que os conteúdos das garrafas na mesa são símbolos da
+	 * paleta dada.
+	 * 
+	 * @param palette             os símbolos dos conteúdos das garrafas
+	 * @param numberOfUsedSymbols o número de símbolos a serem usados
+	 * @param seed                a semente do gerador de aleatórios
+	 * @param capacity            o tamanho das garrafas
+	 */
+	public Game(Palette palette, int numberOfUsedSymbols, int seed, int capacity) {
+		this(palette, numberOfUsedSymbols, seed, capacity, 0);
 	}
 
 	/**
@@ -38,11 +175,28 @@ public class Game {
 	 * @param score               o score do utilizador
 	 */
 	public Game(Filling[] symbols, int numberOfUsedSymbols, int seed, int capacity, int score) {
-		this(symbols, numberOfUsedSymbols, seed, capacity);
-		this.score = score;
-		if(isRoundFinished()) {
-			startNewRound();//para ter a certeza que o jogo não começa terminado
-		}
+		this(Palette.of(symbols), numberOfUsedSymbols, seed, capacity, score);
+	}
+
+	/**
+	 * Constrói um jogo em que os conteúdos das garrafas na mesa são símbolos da
+	 * paleta dada, com um determinado score.
+	 * 
+	 * @param palette             os símbolos dos conteúdos das garrafas
+	 * @param numberOfUsedSymbols o número de símbolos a serem usados
+	 * @param seed                a semente do gerador de aleatórios
+	 * @param capacity            o tamanho das garrafas
+	 * @param score               o score do utilizador
+	 */
+	public Game(Palette palette, int numberOfUsedSymbols, int seed, int capacity, int score) {
+		this.jogo = new Table(palette, numberOfUsedSymbols, seed, capacity);
+		this.score = score; // antes de roundStarted, que o regista no evento
+			if(isRoundFinished()) {
+				startNewRound();//para ter a certeza que o jogo não começa terminado
+			}
+			else {
+				roundStarted(1);
+			}
 	}
 
     /**
@@ -51,8 +205,15 @@ public class Game {
      * @return uma nova garrafa
      */
 	public Bottle getNewBottle() {
-		Bottle newBottle = new Bottle(jogo.getSizeBottles());
-		jogo.addBottle(new Bottle(jogo.getSizeBottles()));
+		Bottle newBottle = new Bottle(jogo.getSizeBottles(), jogo.getPalette());
+		jogo.addBottle(new Bottle(jogo.getSizeBottles(), jogo.getPalette()));
+		if (!history.isEmpty()) {
+			history.add(history.get(history.size() - 1).addBottle());
+		}
+		if (prefetcher != null) {
+			// as mesas seguintes também têm a garrafa a mais
+			prefetchRounds(prefetchDepth, accept);
+		}
 		return newBottle;
 	}
 
@@ -64,13 +225,23 @@ public class Game {
 	 * @param j indice onde colocar o conteúdo da garrafa a mover
 	 */
 	public void play(int i, int j) {
-		if (isValid(i, j)) {
-			while (isValid(i, j)) {
+		GameEvents.Move event = GameEvents.active() ? GameEvents.beginMove() : null;
+		boolean valid = isValid(i, j);
+		int sips = 0;
+		if (valid) {
+			while (isValid(i, j) && !jogo.isFull(j)) {
 				jogo.pourFromTo(i, j);
+				sips++;
 			}
 			jogadas++;
+			if (!history.isEmpty()) {
+				history.add(history.get(history.size() - 1).move(i, j));
+			}
 			updateScore();
 		}
+		if (event != null) {
+			GameEvents.move(event, i, j, sips, valid);
+		}
 	}
 
 	/**
@@ -88,9 +259,76 @@ public class Game {
 	 */
 	public void startNewRound() {
 		jogadas = 0;
+		if (prefetcher != null) {
+			try {
+				RoundPrefetcher.Round round = prefetcher.take();
+				jogo.adopt(round.table);
+				roundStarted(round.attempts);
+				return;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				stopPrefetching();
+			}
+		}
+		int attempts = 0;
 		do {
 		jogo.regenerateTable();
-		}while(isRoundFinished());
+		attempts++;
+		}while(isRoundFinished() || accept != null && !accept.test(jogo));
+		roundStarted(attempts);
+	}
+
+	/**
+	 * Passa a gerar as mesas das próximas rondas numa thread própria, guardando
+	 * até depth mesas à espera, para que {@link #startNewRound()} não tenha de as
+	 * gerar. As mesas de cada ronda são as que seriam geradas sem isto.
+	 * 
+	 * @param depth  quantas mesas guardar à espera
+	 * @param accept as mesas por terminar que podem começar uma ronda, ou null
+	 *               para todas; é chamado noutra thread, não deve alterar a mesa
+	 *               nem guardar uma referência para este jogo
+	 * @requires {@code depth >= 1}
+	 */
+	public void prefetchRounds(int depth, Predicate<Table> accept) {
+		stopPrefetching();
+		this.accept = accept;
+		this.prefetchDepth = depth;
+		prefetcher = new RoundPrefetcher(this, jogo, depth, accept);
+	}
+
+	/**
+	 * Deixa de gerar as mesas das próximas rondas noutra thread. As rondas
+	 * seguintes continuam a usar o critério dado a
+	 * {@link #prefetchRounds(int, Predicate)}.
+	 */
+	public void stopPrefetching() {
+		if (prefetcher != null) {
+			prefetcher.stop();
+			prefetcher = null;
+		}
+	}
+
+	/**
+	 * Liberta os recursos do jogo: pára a thread de
+	 * {@link #prefetchRounds(int, Predicate)}, se houver. O jogo continua a poder
+	 * ser jogado, gerando as mesas no momento.
+	 */
+	@Override
+	public void close() {
+		stopPrefetching();
+	}
+
+	/**
+	 * Regista o início de uma ronda no histórico e no Java Flight Recorder.
+	 * 
+	 * @param attempts o número de mesas geradas até obter uma por terminar
+	 */
+	private void roundStarted(int attempts) {
+		startHistory();
+		if (GameEvents.active()) {
+			GameEvents.roundStart(getNumberBottles(), jogo.getSizeBottles(), attempts, score);
+		}
 	}
 
     /**
@@ -120,6 +358,27 @@ public class Game {
 		return jogo.getNumberBottles();
 	}
 
+	/**
+	 * Retorna a capacidade das garrafas da mesa.
+	 * 
+	 * @return a capacidade das garrafas
+	 */
+	public int getSizeBottles() {
+		return jogo.getSizeBottles();
+	}
+
+	/**
+	 * Obtém a representação do gole da garrafa i na posição level, a contar da
+	 * base, ou {@link Table#EMPTY} se essa posição estiver vazia.
+	 * 
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return a representação do gole nessa posição
+	 */
+	public String cell(int i, int level) {
+		return jogo.cell(i, level);
+	}
+
 	/**
      * Verifica se uma jogada é válida.
 	 * 
@@ -129,7 +388,33 @@ public class Game {
 	 */
 	public boolean isValid(int i, int j) {
 		return ((i >= 0 && i < getNumberBottles() && j >= 0 && j < getNumberBottles() && i != j)
-				&& (jogo.isEmpty(j) || !jogo.isEmpty(i) && jogo.top(i) == jogo.top(j)));
+				&& (jogo.isEmpty(j) || !jogo.isEmpty(i) && jogo.topCode(i) == jogo.topCode(j)));
+	}
+
+	/**
+	 * Pede à base de dados de finais a jogada que deixa a mesa mais perto de
+	 * resolvida.
+	 * 
+	 * @param db a base de dados da configuração deste jogo
+	 * @return os índices {i, j} da jogada, ou null se a mesa não está na base de
+	 *         dados ou já não tem solução
+	 */
+	public int[] hint(EndgameDatabase db) {
+		return db.bestMove(jogo);
+	}
+
+	/**
+	 * Procura durante no máximo nanos nanossegundos uma solução para a mesa e
+	 * devolve a primeira jogada da melhor encontrada.
+	 * 
+	 * @param solver o solver
+	 * @param nanos  o prazo
+	 * @return os índices {i, j} da jogada, ou null se a mesa já está resolvida ou
+	 *         nenhuma solução foi encontrada a tempo
+	 */
+	public int[] hint(BeamSolver solver, long nanos) {
+		int[][] moves = solver.solve(jogo, nanos);
+		return moves == null || moves.length == 0 ? null : moves[0];
 	}
 
 	/**
@@ -139,8 +424,12 @@ public class Game {
 	 * @requires {@code score>=100}
 	 */
 	public void provideHelp() {
+		GameEvents.Help event = GameEvents.active() ? GameEvents.beginHelp() : null;
 		getNewBottle();
 		score -= 100;
+		if (event != null) {
+			GameEvents.help(event, getNumberBottles(), score);
+		}
 	}
 
 	/**
@@ -148,20 +437,175 @@ public class Game {
 	 */
 	public void updateScore() {
 		if (isRoundFinished()) {
-			if (jogadas <= 10) {
-				score += 1000;
-			} 
-			else if (jogadas > 10 && jogadas <= 15) {
-				score += 500;
-			} 
-			else if ((jogadas > 15 && jogadas <= 25)) {
-				score += 200;
-			} 
-			else {
-				score += 0;
+			int before = score;
+			score += bonus(jogadas);
+			if (GameEvents.active()) {
+				GameEvents.roundFinish(jogadas, score - before, score);
 			}
+		}
+	}
+
+	/**
+	 * Calcula o resultado que {@link #play(int, int)} teria, sem alterar o jogo.
+	 * 
+	 * @param i indice do conteúdo da garrafa a mover
+	 * @param j indice onde colocar o conteúdo da garrafa a mover
+	 * @return o resultado da jogada
+	 */
+	public Preview preview(int i, int j) {
+		return preview(i, j, new Preview());
+	}
+
+	/**
+	 * Calcula o resultado que {@link #play(int, int)} teria, sem alterar nem
+	 * copiar a mesa, e escreve-o em into. Só consulta as duas garrafas da jogada,
+	 * por isso pode ser chamado para todas as jogadas possíveis de cada vez.
+	 * 
+	 * @param i    indice do conteúdo da garrafa a mover
+	 * @param j    indice onde colocar o conteúdo da garrafa a mover
+	 * @param into o resultado a reutilizar
+	 * @return into
+	 */
+	public Preview preview(int i, int j, Preview into) {
+		into.valid = isValid(i, j) && !jogo.isEmpty(i);
+		if (!into.valid) {
+			into.sips = 0;
+			into.fromTop = i >= 0 && i < getNumberBottles() && !jogo.isEmpty(i) ? jogo.topCode(i) : -1;
+			into.toTop = j >= 0 && j < getNumberBottles() && !jogo.isEmpty(j) ? jogo.topCode(j) : -1;
+			into.finishes = isRoundFinished();
+			into.scoreChange = 0;
+			return into;
+		}
+		int sizeFrom = jogo.size(i);
+		int sizeTo = jogo.size(j);
+		int sips = Math.min(jogo.topRun(i), jogo.capacity(j) - sizeTo);
+		into.sips = sips;
+		into.fromTop = sizeFrom == sips ? -1 : jogo.codeAt(i, sizeFrom - sips - 1);
+		into.toTop = sizeTo + sips == 0 ? -1 : jogo.topCode(i);
+		if (sips == 0) {
+			into.finishes = isRoundFinished();
+		}
+		else {
+			// i só fica resolvida se ficar vazia; j se ficar cheia só com o mesmo tipo
+			boolean fromSolved = sizeFrom == sips;
+			boolean toSolved = sizeTo + sips == jogo.capacity(j) && (sizeTo == 0 || jogo.singleFilling(j));
+			int unsolved = jogo.unsolvedBottles() + (jogo.isSolved(i) ? 1 : 0) + (jogo.isSolved(j) ? 1 : 0)
+					- (fromSolved ? 1 : 0) - (toSolved ? 1 : 0);
+			into.finishes = unsolved == 0;
+		}
+		into.scoreChange = into.finishes ? bonus(jogadas + 1) : 0;
+		return into;
+	}
 
+	/**
+	 * Guarda o estado deste jogo num snapshot novo.
+	 * 
+	 * @return o snapshot
+	 */
+	public Snapshot snapshot() {
+		return snapshot(new Snapshot());
+	}
+
+	/**
+	 * Guarda o estado deste jogo, substituindo o que o snapshot tinha.
+	 * 
+	 * @param into o snapshot a reutilizar
+	 * @return into
+	 */
+	public Snapshot snapshot(Snapshot into) {
+		jogo.snapshot(into.table);
+		into.score = score;
+		into.jogadas = jogadas;
+		into.history = history.size();
+		into.version = history.isEmpty() ? null : history.get(history.size() - 1);
+		return into;
+	}
+
+	/**
+	 * Repõe este jogo no estado guardado em snapshot, no lugar. Se o snapshot é
+	 * desta ronda o histórico volta ao ponto em que foi guardado; senão passa a
+	 * começar na mesa guardada.
+	 * 
+	 * @param snapshot o estado a repor
+	 * @throws IllegalArgumentException se o snapshot for de um jogo com outra
+	 *                                  paleta
+	 */
+	public void restore(Snapshot snapshot) {
+		boolean restart = prefetcher != null && (!jogo.sameRounds(snapshot.table)
+				|| snapshot.table.bottles() != jogo.getNumberBottles());
+		jogo.restore(snapshot.table);
+		if (restart) {
+			prefetchRounds(prefetchDepth, accept);
+		}
+		score = snapshot.score;
+		jogadas = snapshot.jogadas;
+		int n = snapshot.history;
+		if (n > 0 && n <= history.size() && history.get(n - 1) == snapshot.version) {
+			while (history.size() > n) {
+				history.remove(history.size() - 1);
+			}
+		}
+		else {
+			history.clear();
+			if (recordHistory && snapshot.version != null) {
+				history.add(snapshot.version);
+			}
+		}
+	}
+
+	/**
+	 * Passa a guardar, ou deixa de guardar, o histórico da ronda. Ao ligá-lo a
+	 * meio de uma ronda o histórico começa na mesa atual.
+	 * 
+	 * @param record true para guardar o histórico
+	 */
+	public void recordHistory(boolean record) {
+		if (record != recordHistory) {
+			recordHistory = record;
+			startHistory();
+		}
+	}
+
+	/**
+	 * Recomeça o histórico na mesa atual, se estiver a ser guardado.
+	 */
+	private void startHistory() {
+		history.clear();
+		if (recordHistory && jogo.getSizeBottles() <= PersistentTable.MAX_CAPACITY) {
+			history.add(PersistentTable.of(jogo));
+		}
+	}
+
+	/**
+	 * As versões da mesa desde o início da ronda: a mesa inicial e a mesa depois
+	 * de cada jogada válida ou ajuda, pela ordem em que aconteceram. Fica vazio
+	 * se o histórico não estiver a ser guardado, ver
+	 * {@link #recordHistory(boolean)}, ou se as garrafas tiverem mais de
+	 * {@value PersistentTable#MAX_CAPACITY} posições.
+	 * 
+	 * @return o histórico da ronda, só para leitura
+	 */
+	public List<PersistentTable> history() {
+		return Collections.unmodifiableList(history);
+	}
+
+	/**
+	 * Os pontos que se ganham ao terminar uma ronda com um dado número de jogadas.
+	 * 
+	 * @param jogadas o número de jogadas da ronda
+	 * @return os pontos ganhos
+	 */
+	public static int bonus(int jogadas) {
+		if (jogadas <= 10) {
+			return 1000;
+		} 
+		else if (jogadas <= 15) {
+			return 500;
+		} 
+		else if (jogadas <= 25) {
+			return 200;
 		}
+		return 0;
 	}
 
 	/**
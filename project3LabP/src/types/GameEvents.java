@@ -0,0 +1,247 @@
+package types;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Eventos do Java Flight Recorder emitidos pelo jogo. Os eventos só são criados
+ * depois de o Flight Recorder ter sido iniciado (com
+ * {@code -XX:StartFlightRecording} ou {@code jcmd JFR.start}), pelo que até lá
+ * as classes do JFR nem chegam a ser carregadas; os campos só são preenchidos
+ * quando {@code shouldCommit()} é verdadeiro. Com {@code -Dtypes.jfr=off} o
+ * jogo nunca emite eventos.
+ *
+ * As anotações {@code @Enabled} e {@code @Threshold} são apenas os valores por
+ * omissão e podem ser alteradas no ficheiro .jfc da gravação, por exemplo
+ * {@code types.Move#enabled=true}.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class GameEvents {
+
+	/**
+	 * Nome da propriedade de sistema que desliga os eventos com o valor "off".
+	 */
+	public static final String PROPERTY = "types.jfr";
+
+	private static final String CATEGORY = "Water Sort Puzzle";
+	private static final boolean DISABLED = "off".equals(System.getProperty(PROPERTY));
+
+	private GameEvents() {
+	}
+
+	/**
+	 * Diz se os eventos devem ser criados, ou seja, se o Flight Recorder já foi
+	 * iniciado e os eventos não foram desligados.
+	 *
+	 * @return true se os eventos devem ser criados
+	 */
+	public static boolean active() {
+		return !DISABLED && FlightRecorder.isInitialized();
+	}
+
+	/**
+	 * Regista o início de uma ronda.
+	 *
+	 * @param bottles  o número de garrafas da mesa
+	 * @param capacity a capacidade das garrafas
+	 * @param attempts o número de mesas geradas até obter uma por terminar
+	 * @param score    a pontuação no início da ronda
+	 */
+	static void roundStart(int bottles, int capacity, int attempts, int score) {
+		RoundStart event = new RoundStart();
+		if (event.shouldCommit()) {
+			event.bottles = bottles;
+			event.capacity = capacity;
+			event.attempts = attempts;
+			event.score = score;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Regista o fim de uma ronda.
+	 *
+	 * @param jogadas    o número de jogadas usadas
+	 * @param scoreDelta os pontos ganhos na ronda
+	 * @param score      a pontuação no fim da ronda
+	 */
+	static void roundFinish(int jogadas, int scoreDelta, int score) {
+		RoundFinish event = new RoundFinish();
+		if (event.shouldCommit()) {
+			event.jogadas = jogadas;
+			event.scoreDelta = scoreDelta;
+			event.score = score;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Começa a medir uma jogada, antes de verter.
+	 *
+	 * @return o evento já iniciado
+	 */
+	static Move beginMove() {
+		Move event = new Move();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Regista uma jogada começada com {@link #beginMove()}.
+	 *
+	 * @param event o evento da jogada
+	 * @param from  a garrafa de onde se verteu
+	 * @param to    a garrafa para onde se verteu
+	 * @param sips  o número de goles vertidos
+	 * @param valid se a jogada era válida
+	 */
+	static void move(Move event, int from, int to, int sips, boolean valid) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.from = from;
+			event.to = to;
+			event.sips = sips;
+			event.valid = valid;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Começa a medir um pedido de ajuda, antes de acrescentar a garrafa.
+	 *
+	 * @return o evento já iniciado
+	 */
+	static Help beginHelp() {
+		Help event = new Help();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Regista um pedido de ajuda começado com {@link #beginHelp()}.
+	 *
+	 * @param event   o evento da ajuda
+	 * @param bottles o número de garrafas depois da ajuda
+	 * @param score   a pontuação depois da penalização
+	 */
+	static void help(Help event, int bottles, int score) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.bottles = bottles;
+			event.score = score;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Início de uma ronda, depois de gerada uma mesa que não esteja terminada.
+	 */
+	@Name("types.RoundStart")
+	@Label("Round Start")
+	@Category({ CATEGORY, "Game" })
+	@Description("Uma nova ronda começou")
+	@StackTrace(false)
+	public static final class RoundStart extends Event {
+		@Label("Bottles")
+		public int bottles;
+
+		@Label("Capacity")
+		public int capacity;
+
+		@Label("Attempts")
+		@Description("Número de mesas geradas até obter uma que não estivesse terminada")
+		public int attempts;
+
+		@Label("Score")
+		public int score;
+	}
+
+	/**
+	 * Fim de uma ronda, com o número de jogadas usadas e os pontos ganhos.
+	 */
+	@Name("types.RoundFinish")
+	@Label("Round Finish")
+	@Category({ CATEGORY, "Game" })
+	@Description("A ronda foi terminada")
+	@StackTrace(false)
+	public static final class RoundFinish extends Event {
+		@Label("Moves")
+		public int jogadas;
+
+		@Label("Score Delta")
+		public int scoreDelta;
+
+		@Label("Score")
+		public int score;
+	}
+
+	/**
+	 * Uma chamada a {@link Game#play(int, int)}. Desligado por omissão por ser o
+	 * evento mais frequente.
+	 */
+	@Name("types.Move")
+	@Label("Move")
+	@Category({ CATEGORY, "Game" })
+	@Description("Uma jogada entre duas garrafas")
+	@Enabled(false)
+	@StackTrace(false)
+	public static final class Move extends Event {
+		@Label("From")
+		public int from;
+
+		@Label("To")
+		public int to;
+
+		@Label("Sips Moved")
+		public int sips;
+
+		@Label("Valid")
+		public boolean valid;
+	}
+
+	/**
+	 * Uma chamada a {@link Game#provideHelp()}.
+	 */
+	@Name("types.Help")
+	@Label("Help")
+	@Category({ CATEGORY, "Game" })
+	@Description("Foi adicionada uma garrafa de ajuda")
+	@StackTrace(false)
+	public static final class Help extends Event {
+		@Label("Bottles")
+		public int bottles;
+
+		@Label("Score")
+		public int score;
+	}
+
+	/**
+	 * Uma chamada a {@link Table#regenerateTable()}. A duração é a do próprio
+	 * evento e só é registada quando demora mais do que o limiar.
+	 */
+	@Name("types.TableGeneration")
+	@Label("Table Generation")
+	@Category({ CATEGORY, "Table" })
+	@Description("Foi gerada uma nova mesa")
+	@Threshold("1 ms")
+	@StackTrace(false)
+	public static final class TableGeneration extends Event {
+		@Label("Bottles")
+		public int bottles;
+
+		@Label("Capacity")
+		public int capacity;
+
+		@Label("Retries")
+		@Description("Sorteios rejeitados por o símbolo já ter sido usado capacity vezes")
+		public int retries;
+	}
+}
@@ -0,0 +1,47 @@
+package types;
+
+/**
+ * Armazenamento de uma garrafa numa das pilhas do projeto ({@link ArrayStack}
+ * ou {@link LinkedStack}). Os códigos são guardados como {@link Byte}, cujos
+ * valores estão todos em cache, pelo que inserir não cria objetos.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class GenericStorage implements BottleStorage {
+
+	private final Stack<Byte> contents;
+
+	/**
+	 * Constrói um armazenamento sobre a pilha dada
+	 *
+	 * @param contents a pilha vazia onde guardar os goles
+	 */
+	GenericStorage(Stack<Byte> contents) {
+		this.contents = contents;
+	}
+
+	@Override
+	public void push(int code) {
+		contents.push((byte) code);
+	}
+
+	@Override
+	public void pop() {
+		contents.pop();
+	}
+
+	@Override
+	public int peek() {
+		return contents.peek() & 0xFF;
+	}
+
+	@Override
+	public int get(int i) {
+		return contents.get(i) & 0xFF;
+	}
+
+	@Override
+	public int size() {
+		return contents.size();
+	}
+}
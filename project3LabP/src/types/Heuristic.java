@@ -0,0 +1,75 @@
+package types;
+
+/**
+ * Estimativa do número de jogadas que faltam para resolver uma mesa, usada pelo
+ * {@link Solver}. Uma estimativa admissível nunca é maior do que o número real
+ * de jogadas, e é isso que garante que o solver encontra soluções mínimas.
+ *
+ * A mesa é dada como o solver a guarda: os códigos da garrafa b estão em
+ * {@code cells[b * capacity]} até {@code cells[b * capacity + sizes[b] - 1]}, a
+ * partir da base. As implementações são chamadas uma vez por nó e não devem
+ * criar objetos.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public interface Heuristic {
+
+	/**
+	 * Conta, em cada garrafa, os blocos de goles iguais que estão por cima de
+	 * outro bloco, e, para cada símbolo, as garrafas com esse símbolo na base
+	 * menos uma. Cada um destes blocos tem de ser vertido pelo menos uma vez e
+	 * uma jogada só verte pela primeira vez um bloco, portanto a estimativa é
+	 * admissível.
+	 */
+	Heuristic SEGMENTS = Heuristic::segments;
+
+	/**
+	 * Estima quantas jogadas faltam para resolver a mesa.
+	 *
+	 * @param cells    os códigos dos goles de todas as garrafas
+	 * @param sizes    quantos goles tem cada garrafa
+	 * @param capacity a capacidade das garrafas
+	 * @return a estimativa, 0 se a mesa estiver resolvida
+	 */
+	int estimate(byte[] cells, int[] sizes, int capacity);
+
+	private static int segments(byte[] cells, int[] sizes, int capacity) {
+		int moves = 0;
+		long bases0 = 0; // símbolos já vistos na base de alguma garrafa
+		long bases1 = 0;
+		long bases2 = 0;
+		long bases3 = 0;
+		for (int b = 0; b < sizes.length; b++) {
+			int start = b * capacity;
+			int n = sizes[b];
+			if (n == 0) {
+				continue;
+			}
+			for (int level = 1; level < n; level++) {
+				if (cells[start + level] != cells[start + level - 1]) {
+					moves++;
+				}
+			}
+			int base = cells[start] & 0xFF;
+			long bit = 1L << base;
+			switch (base >>> 6) {
+			case 0:
+				moves += (bases0 & bit) != 0 ? 1 : 0;
+				bases0 |= bit;
+				break;
+			case 1:
+				moves += (bases1 & bit) != 0 ? 1 : 0;
+				bases1 |= bit;
+				break;
+			case 2:
+				moves += (bases2 & bit) != 0 ? 1 : 0;
+				bases2 |= bit;
+				break;
+			default:
+				moves += (bases3 & bit) != 0 ? 1 : 0;
+				bases3 |= bit;
+			}
+		}
+		return moves;
+	}
+}
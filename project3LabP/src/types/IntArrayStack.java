@@ -0,0 +1,39 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Implementação de uma pilha de inteiros que cresce quando fica cheia. Ao contrário
+ * de {@link ArrayStack} o array nunca encolhe, o que a torna adequada para
+ * fronteiras de pesquisa que enchem e esvaziam repetidamente.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class IntArrayStack extends AbstractIntStack {
+
+    /**
+     * A capacidade da pilha por omissão
+     */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * Criar uma pilha vazia
+     */
+    public IntArrayStack() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Criar uma pilha vazia com a capacidade inicial dada
+     *
+     * @param capacity O número de elementos que a pilha guarda sem crescer
+     */
+    public IntArrayStack(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    protected void grow(int minCapacity) {
+        data = Arrays.copyOf(data, Math.max(minCapacity, Math.max(2 * data.length, DEFAULT_CAPACITY)));
+    }
+}
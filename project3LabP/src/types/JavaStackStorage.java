@@ -0,0 +1,40 @@
+package types;
+
+import java.util.Stack;
+
+/**
+ * Armazenamento de uma garrafa num {@link java.util.Stack}, como na versão
+ * original. Os códigos são guardados como {@link Byte}, cujos valores estão
+ * todos em cache, pelo que inserir não cria objetos.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class JavaStackStorage implements BottleStorage {
+
+	private final Stack<Byte> contents = new Stack<>();
+
+	@Override
+	public void push(int code) {
+		contents.push((byte) code);
+	}
+
+	@Override
+	public void pop() {
+		contents.pop();
+	}
+
+	@Override
+	public int peek() {
+		return contents.peek() & 0xFF;
+	}
+
+	@Override
+	public int get(int i) {
+		return contents.get(i) & 0xFF;
+	}
+
+	@Override
+	public int size() {
+		return contents.size();
+	}
+}
@@ -0,0 +1,307 @@
+package types;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classificação dos jogadores por configuração (número de símbolos e
+ * capacidade), alimentada pelas pontuações dos jogos. De cada jogador fica só o
+ * melhor resultado: mais pontos e, com os mesmos pontos, menos jogadas.
+ *
+ * Pode ser atualizada e consultada por várias threads ao mesmo tempo. O melhor
+ * resultado de cada jogador está num {@link ConcurrentHashMap}, que só bloqueia
+ * a entrada desse jogador enquanto o atualiza; a ordenação está num
+ * {@link ConcurrentSkipListSet}, de onde se lêem os primeiros sem bloquear; e
+ * o número de jogadores com cada resultado está num {@link LongAdder}, para
+ * que a posição de um jogador se calcule somando só os resultados distintos
+ * melhores do que o dele. As consultas feitas durante uma atualização podem
+ * ainda não a ver.
+ *
+ * A classificação pode ser gravada num ficheiro compacto, de uma vez ou
+ * periodicamente, e lida de volta com {@link #load(Path)}.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class Leaderboard {
+
+	/**
+	 * Propriedade com o ficheiro onde {@link Main} guarda a classificação; sem
+	 * ela não há classificação.
+	 */
+	public static final String PROPERTY = "types.leaderboard";
+
+	/**
+	 * O resultado de um jogador numa configuração.
+	 */
+	public static final class Entry implements Comparable<Entry> {
+		private final String player;
+		private final long key;
+
+		private Entry(String player, long key) {
+			this.player = player;
+			this.key = key;
+		}
+
+		/**
+		 * O nome do jogador.
+		 *
+		 * @return o nome
+		 */
+		public String player() {
+			return player;
+		}
+
+		/**
+		 * A pontuação do jogador.
+		 *
+		 * @return a pontuação
+		 */
+		public int score() {
+			return (int) (key >> 32);
+		}
+
+		/**
+		 * O número de jogadas com que o jogador obteve a pontuação.
+		 *
+		 * @return o número de jogadas
+		 */
+		public int jogadas() {
+			return (int) (0xFFFFFFFFL - (key & 0xFFFFFFFFL));
+		}
+
+		/**
+		 * Os melhores resultados primeiro; com resultados iguais, pela ordem dos
+		 * nomes.
+		 */
+		@Override
+		public int compareTo(Entry other) {
+			int c = Long.compare(other.key, key);
+			return c != 0 ? c : player.compareTo(other.player);
+		}
+
+		@Override
+		public String toString() {
+			return player + " " + score() + " (" + jogadas() + " jogadas)";
+		}
+	}
+
+	private static final int MAGIC = 0x57424C42; // "WBLB"
+	private static final int VERSION = 1;
+
+	/**
+	 * A classificação de uma configuração.
+	 */
+	private static final class Board {
+		private final ConcurrentHashMap<String, Long> best = new ConcurrentHashMap<>();
+		private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>();
+		private final ConcurrentSkipListMap<Long, LongAdder> counts = new ConcurrentSkipListMap<>();
+
+		boolean submit(String player, long key) {
+			boolean[] improved = new boolean[1];
+			best.compute(player, (p, old) -> {
+				if (old != null && old >= key) {
+					return old;
+				}
+				if (old != null) {
+					ranking.remove(new Entry(p, old));
+					counts.get(old).decrement();
+				}
+				ranking.add(new Entry(p, key));
+				counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+				improved[0] = true;
+				return key;
+			});
+			return improved[0];
+		}
+	}
+
+	private final ConcurrentHashMap<Integer, Board> boards = new ConcurrentHashMap<>();
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Regista o resultado de um jogador, se for melhor do que o que ele já tem
+	 * nesta configuração.
+	 *
+	 * @param player   o nome do jogador
+	 * @param symbols  o número de símbolos usados
+	 * @param capacity a capacidade das garrafas
+	 * @param score    a pontuação
+	 * @param jogadas  o número de jogadas
+	 * @return true se o resultado passou a ser o melhor do jogador
+	 * @requires {@code jogadas >= 0}
+	 */
+	public boolean submit(String player, int symbols, int capacity, int score, int jogadas) {
+		return board(symbols, capacity).submit(player, key(score, jogadas));
+	}
+
+	/**
+	 * A posição de um jogador na classificação de uma configuração. Jogadores com
+	 * o mesmo resultado têm a mesma posição.
+	 *
+	 * @param player   o nome do jogador
+	 * @param symbols  o número de símbolos usados
+	 * @param capacity a capacidade das garrafas
+	 * @return a posição, a partir de 1, ou 0 se o jogador não tem resultados
+	 *         nesta configuração
+	 */
+	public long rank(String player, int symbols, int capacity) {
+		Board board = boards.get(config(symbols, capacity));
+		Long key = board == null ? null : board.best.get(player);
+		if (key == null) {
+			return 0;
+		}
+		long better = 0;
+		for (LongAdder count : board.counts.tailMap(key, false).values()) {
+			better += count.sum();
+		}
+		return better + 1;
+	}
+
+	/**
+	 * Os k melhores resultados de uma configuração.
+	 *
+	 * @param symbols  o número de símbolos usados
+	 * @param capacity a capacidade das garrafas
+	 * @param k        quantos resultados
+	 * @return até k resultados, do melhor para o pior
+	 */
+	public List<Entry> top(int symbols, int capacity, int k) {
+		List<Entry> top = new ArrayList<>(k);
+		Board board = boards.get(config(symbols, capacity));
+		if (board != null) {
+			for (Entry entry : board.ranking) {
+				if (top.size() == k) {
+					break;
+				}
+				top.add(entry);
+			}
+		}
+		return top;
+	}
+
+	/**
+	 * Quantos jogadores têm resultados numa configuração.
+	 *
+	 * @param symbols  o número de símbolos usados
+	 * @param capacity a capacidade das garrafas
+	 * @return o número de jogadores
+	 */
+	public int players(int symbols, int capacity) {
+		Board board = boards.get(config(symbols, capacity));
+		return board == null ? 0 : board.best.size();
+	}
+
+	/**
+	 * Grava a classificação em file. O ficheiro é escrito ao lado e só depois
+	 * substitui o anterior, por isso uma falha a meio não o estraga.
+	 *
+	 * @param file o ficheiro
+	 * @throws IOException se a escrita falhar
+	 */
+	public synchronized void save(Path file) throws IOException {
+		List<Map.Entry<Integer, Board>> list = new ArrayList<>(boards.entrySet());
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(list.size());
+			for (Map.Entry<Integer, Board> board : list) {
+				List<Entry> entries = new ArrayList<>(board.getValue().ranking);
+				out.writeInt(board.getKey());
+				out.writeInt(entries.size());
+				for (Entry entry : entries) {
+					out.writeUTF(entry.player);
+					out.writeLong(entry.key);
+				}
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Lê uma classificação gravada por {@link #save(Path)}.
+	 *
+	 * @param file o ficheiro
+	 * @return a classificação
+	 * @throws IOException se a leitura falhar ou o ficheiro não for uma
+	 *                     classificação
+	 */
+	public static Leaderboard load(Path file) throws IOException {
+		Leaderboard leaderboard = new Leaderboard();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException(file + " não é uma classificação");
+			}
+			int count = in.readInt();
+			for (int b = 0; b < count; b++) {
+				Board board = leaderboard.boards.computeIfAbsent(in.readInt(), c -> new Board());
+				int entries = in.readInt();
+				for (int e = 0; e < entries; e++) {
+					board.submit(in.readUTF(), in.readLong());
+				}
+			}
+		}
+		return leaderboard;
+	}
+
+	/**
+	 * Grava a classificação em file a cada period, numa thread própria, até a
+	 * tarefa devolvida ser cancelada. Os erros de escrita são mostrados e a
+	 * gravação seguinte tenta de novo.
+	 *
+	 * @param file   o ficheiro
+	 * @param period o intervalo entre gravações
+	 * @param unit   a unidade de period
+	 * @return a tarefa periódica
+	 */
+	public synchronized ScheduledFuture<?> saveEvery(Path file, long period, TimeUnit unit) {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "leaderboard-snapshot");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				save(file);
+			}
+			catch (IOException e) {
+				System.err.println("Não foi possível gravar a classificação: " + e.getMessage());
+			}
+		}, period, period, unit);
+	}
+
+	private Board board(int symbols, int capacity) {
+		return boards.computeIfAbsent(config(symbols, capacity), c -> new Board());
+	}
+
+	private static Integer config(int symbols, int capacity) {
+		return symbols << 16 | capacity;
+	}
+
+	/**
+	 * Mais pontos é melhor e, com os mesmos pontos, menos jogadas; a chave maior é
+	 * a melhor.
+	 */
+	private static long key(int score, int jogadas) {
+		return (long) score << 32 | 0xFFFFFFFFL - jogadas;
+	}
+}
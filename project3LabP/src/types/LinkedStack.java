@@ -26,6 +26,11 @@ public class LinkedStack<E> implements Stack<E> {
      */
     private Node first = null;
 
+    /**
+     * Número de elementos na pilha
+     */
+    private int size;
+
     @Override
     public boolean isEmpty() {
         return first == null;
@@ -37,6 +42,7 @@ public class LinkedStack<E> implements Stack<E> {
         first = new Node();
         first.item = item;
         first.next = oldfirst;
+        size++;
     }
 
     @Override
@@ -47,6 +53,21 @@ public class LinkedStack<E> implements Stack<E> {
     @Override
     public void pop() {
         first = first.next;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(int i) {
+        Node current = first;
+        for (int k = size - 1; k > i; k--) {
+            current = current.next;
+        }
+        return current.item;
     }
 
     @Override
@@ -0,0 +1,85 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Lista de longs que cresce para o dobro quando fica cheia, e operações sobre
+ * conjuntos de longs guardados em arrays ordenados sem repetições.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class LongList {
+	private long[] data = new long[64];
+	private int size;
+
+	void add(long x) {
+		if (size == data.length) {
+			data = Arrays.copyOf(data, size * 2);
+		}
+		data[size++] = x;
+	}
+
+	long[] toSortedSet() {
+		long[] sorted = Arrays.copyOf(data, size);
+		Arrays.parallelSort(sorted);
+		int n = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (n == 0 || sorted[i] != sorted[n - 1]) {
+				sorted[n++] = sorted[i];
+			}
+		}
+		return Arrays.copyOf(sorted, n);
+	}
+
+	static LongList concat(long[][] parts) {
+		LongList out = new LongList();
+		int total = 0;
+		for (long[] part : parts) {
+			total += part.length;
+		}
+		out.data = new long[Math.max(1, total)];
+		for (long[] part : parts) {
+			System.arraycopy(part, 0, out.data, out.size, part.length);
+			out.size += part.length;
+		}
+		return out;
+	}
+
+	/**
+	 * Os elementos de a que não estão em b.
+	 */
+	static long[] minus(long[] a, long[] b) {
+		long[] out = new long[a.length];
+		int n = 0;
+		int j = 0;
+		for (long x : a) {
+			while (j < b.length && b[j] < x) {
+				j++;
+			}
+			if (j == b.length || b[j] != x) {
+				out[n++] = x;
+			}
+		}
+		return Arrays.copyOf(out, n);
+	}
+
+	/**
+	 * A união de a e b, que não têm elementos em comum.
+	 */
+	static long[] merge(long[] a, long[] b) {
+		long[] out = new long[a.length + b.length];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < a.length && j < b.length) {
+			out[n++] = a[i] <= b[j] ? a[i++] : b[j++];
+		}
+		while (i < a.length) {
+			out[n++] = a[i++];
+		}
+		while (j < b.length) {
+			out[n++] = b[j++];
+		}
+		return out;
+	}
+}
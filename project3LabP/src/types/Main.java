@@ -1,13 +1,26 @@
 package types;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.EmptyStackException;
 import java.util.InputMismatchException;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Esta classe é responsável por iniciar e controlar o jogo "Water Sort Puzzle".
  * Permite ao jogador interagir com o jogo através de entrada pelo terminal.
  * 
+ * Com {@code --script [ficheiro|-] [--quiet]} joga uma sessão gravada, lida do
+ * ficheiro ou da entrada padrão, sem mostrar perguntas; no fim mostra um resumo,
+ * exceto com {@code --quiet}.
+ * 
+ * Com a propriedade {@value Leaderboard#PROPERTY} o resultado de cada ronda
+ * terminada entra na classificação guardada nesse ficheiro.
+ * 
  * @author Rodrigo Frutuoso 61865
  */
 public class Main {
@@ -15,21 +28,37 @@ public class Main {
 	private static final int DEFAULT_SEED = 1;
 	private static final int MINIMUM_NUMBER = 2;
 	private static final int MAXIMUM_NUMBER = 8;
+	private static final int MAXIMUM_SYMBOLS = 32;
+	private static final Palette PALETTE = Palette.emoji(MAXIMUM_SYMBOLS);
+	private static final long SNAPSHOT_SECONDS = 30;
 
 	private static Scanner sc;
 	private static Game game;
+	private static TerminalRenderer renderer;
+	private static int lastFrom = -1;
+	private static int lastTo = -1;
 	private static int numberOfUsedSymbols;
 	private static int capacity;
+	private static Leaderboard leaderboard;
+	private static Path leaderboardFile;
+	private static int roundStartScore;
 
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("--script")) {
+			script(args);
+			return;
+		}
 		Boolean restart = false;
 		int counterDeRondas = 1;
 		sc = new Scanner(System.in);
+		renderer = new TerminalRenderer(System.out);
+		openLeaderboard();
 		bemVindo();
 		settings();
 		sc.nextLine();
 
-		game = new Game(Filling.values(), numberOfUsedSymbols, DEFAULT_SEED, capacity, 0);
+		game = new Game(PALETTE, numberOfUsedSymbols, DEFAULT_SEED, capacity, 0);
+		roundStartScore = game.score();
 		do {
 			tabela(counterDeRondas);
 			play(sc);
@@ -37,12 +66,14 @@ public class Main {
 			if (game.isRoundFinished()) {
 				System.out.println("Bem jogado!!");
 				System.out.println(game.toString());
+				rank();
 				System.out.println("Quer jogar novamente? Yes/No");
 				String novamente = sc.next();
 				if (novamente.toUpperCase().contains("YES")) {
 					sc.nextLine();
 					settings();
-					game = new Game(Filling.values(), numberOfUsedSymbols, DEFAULT_SEED, capacity, game.score());;
+					game = new Game(PALETTE, numberOfUsedSymbols, DEFAULT_SEED, capacity, game.score());
+					roundStartScore = game.score();
 					sc.nextLine();
 				} 
 				else {
@@ -53,6 +84,76 @@ public class Main {
 		} while (!restart);
 
 		sc.close();
+		saveLeaderboard();
+	}
+
+	/**
+	 * Método que lê a classificação do ficheiro da propriedade
+	 * {@value Leaderboard#PROPERTY}, se existir, e a grava periodicamente.
+	 */
+	private static void openLeaderboard() {
+		String file = System.getProperty(Leaderboard.PROPERTY);
+		if (file == null) {
+			return;
+		}
+		leaderboardFile = Paths.get(file);
+		try {
+			leaderboard = Files.exists(leaderboardFile) ? Leaderboard.load(leaderboardFile) : new Leaderboard();
+		} 
+		catch (IOException e) {
+			System.err.println("Não foi possível ler a classificação: " + e.getMessage());
+			leaderboard = new Leaderboard();
+		}
+		leaderboard.saveEvery(leaderboardFile, SNAPSHOT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Método que regista o resultado da ronda terminada e mostra a posição do
+	 * jogador. Só contam os pontos ganhos nesta ronda, porque a pontuação do jogo
+	 * acumula as rondas anteriores, que podem ter sido noutra configuração.
+	 */
+	private static void rank() {
+		if (leaderboard != null) {
+			String player = System.getProperty("user.name");
+			leaderboard.submit(player, numberOfUsedSymbols, capacity, game.score() - roundStartScore, game.jogadas());
+			System.out.println("Posição na classificação: " + leaderboard.rank(player, numberOfUsedSymbols, capacity)
+					+ " de " + leaderboard.players(numberOfUsedSymbols, capacity));
+		}
+	}
+
+	/**
+	 * Método que grava a classificação antes de sair.
+	 */
+	private static void saveLeaderboard() {
+		if (leaderboard != null) {
+			try {
+				leaderboard.save(leaderboardFile);
+			} 
+			catch (IOException e) {
+				System.err.println("Não foi possível gravar a classificação: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Método que joga uma sessão gravada sem interação, com os argumentos
+	 * {@code --script [ficheiro|-] [--quiet]}.
+	 */
+	private static void script(String[] args) {
+		String path = args.length > 1 && !args[1].equals("--quiet") ? args[1] : "-";
+		boolean quiet = args[args.length - 1].equals("--quiet");
+		ScriptRunner runner = new ScriptRunner(PALETTE, DEFAULT_SEED, MINIMUM_NUMBER, MAXIMUM_SYMBOLS,
+				MAXIMUM_NUMBER);
+		try (InputStream in = path.equals("-") ? System.in : Files.newInputStream(Paths.get(path))) {
+			runner.run(in);
+		} 
+		catch (IOException e) {
+			System.err.println("Não foi possível ler a sessão: " + e.getMessage());
+			System.exit(1);
+		}
+		if (!quiet) {
+			System.out.print(runner);
+		}
 	}
 
 	/**
@@ -61,6 +162,8 @@ public class Main {
 	private static void play(Scanner sc) {
 		boolean found = false;
 		String input = "";
+		lastFrom = -1;
+		lastTo = -1;
 		do {
 			input = sc.nextLine();
 			if (input.toUpperCase().contains("AJUDA")) {
@@ -81,6 +184,8 @@ public class Main {
 					int j = Integer.parseInt(indices[1]);
 					if (game.isValid(i, j)) {
 						game.play(i, j);
+						lastFrom = i;
+						lastTo = j;
 						found = true;
 					} 
 					else {
@@ -152,35 +257,16 @@ public class Main {
 	}
 
 	/**
-	 * Método para exibir a tabela do jogo.
+	 * Método para exibir a tabela do jogo. Depois de uma jogada só é redesenhado
+	 * o que mudou, se o terminal o permitir.
 	 */
 	private static void tabela(int j) {
-		System.out.println();
-		for (int i = 0; i < game.getNumberBottles() * 5 + 4; i++) {
-			System.out.print("-");
-
-		}
-		System.out.println("");
-		for (int i = 0; i < game.getNumberBottles() * 5 / 2 - 2; i++) {
-			System.out.print(" ");
-		}
-		System.out.print(" Ronda " + j + " ");
-		System.out.println();
-
-		for (int k = 0; k < game.getNumberBottles() * 5 + 4; k++) {
-			System.out.print("-");
-		}
-		System.out.print(EOL);
-
-		for (int i = 0; i < game.getNumberBottles(); i++) {
-			System.out.print(i + "     ");
-		}
-		System.out.println();
-		System.out.println(game.toString());
-		if (game.score() >= 100) {
-			System.out.println("Se precisar de mais de uma garrafa escreva 'ajuda'");
+		if (lastFrom >= 0) {
+			renderer.move(game, j, lastFrom, lastTo);
+		} 
+		else {
+			renderer.frame(game, j);
 		}
-		System.out.println("Escolha sua jogada (no formato 'i j', onde i e j são os índices das garrafas):");
 	}
 
 	/**
@@ -189,7 +275,7 @@ public class Main {
 	 */
 	private static void settings() {
 		System.out.println("Insira a quantidade de garrafas, pelo menos " + MINIMUM_NUMBER + " , para jogar:");
-		numberOfUsedSymbols = getIntInput(MINIMUM_NUMBER, MAXIMUM_NUMBER, "quantidade de garrafas");
+		numberOfUsedSymbols = getIntInput(MINIMUM_NUMBER, MAXIMUM_SYMBOLS, "quantidade de garrafas");
 		sc.nextLine();
 		System.out.println("Insira a capacidade, pelo menos " + MINIMUM_NUMBER + ", para as garrafas:");
 		capacity = getIntInput(MINIMUM_NUMBER, MAXIMUM_NUMBER, "capacidade para as garrafas");
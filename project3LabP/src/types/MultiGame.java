@@ -0,0 +1,238 @@
+package types;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Um jogo com várias mesas ao mesmo tempo, por exemplo as mesas do dia: cada
+ * jogada é feita numa mesa, cada mesa tem as suas jogadas e a pontuação é a
+ * soma dos pontos ganhos em todas.
+ *
+ * As jogadas são as de {@link Game#play(int, int)} e cada mesa terminada ganha
+ * {@link Game#bonus(int)} pontos uma só vez. Ao contrário do jogo, verter uma
+ * garrafa vazia nunca é válido e uma mesa terminada ignora as jogadas.
+ *
+ * Várias threads podem jogar ao mesmo tempo: cada jogada bloqueia só a sua
+ * mesa, e as jogadas, a pontuação e o número de mesas terminadas são contadores
+ * atómicos que se lêem sem bloquear. As mesas são guardadas com
+ * {@link Table.Layout#BUFFER} quando a capacidade o permite, e cada mesa a mais
+ * só acrescenta a sua mesa e um contador de jogadas.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class MultiGame {
+	private final Table[] boards;
+	private final AtomicIntegerArray jogadas;
+	private final AtomicInteger score = new AtomicInteger();
+	private final AtomicInteger finished = new AtomicInteger();
+
+	/**
+	 * Constrói um jogo com uma mesa por semente, em que os conteúdos das
+	 * garrafas são symbols.
+	 *
+	 * @param symbols             os símbolos dos conteúdos das garrafas
+	 * @param numberOfUsedSymbols o número de símbolos a serem usados
+	 * @param seeds               a semente de cada mesa
+	 * @param capacity            o tamanho das garrafas
+	 */
+	public MultiGame(Filling[] symbols, int numberOfUsedSymbols, int[] seeds, int capacity) {
+		this(Palette.of(symbols), numberOfUsedSymbols, seeds, capacity);
+	}
+
+	/**
+	 * Constrói um jogo com uma mesa por semente, cada uma igual à mesa inicial
+	 * de {@code new Game(palette, numberOfUsedSymbols, seeds[b], capacity)}.
+	 *
+	 * @param palette             os símbolos dos conteúdos das garrafas
+	 * @param numberOfUsedSymbols o número de símbolos a serem usados
+	 * @param seeds               a semente de cada mesa
+	 * @param capacity            o tamanho das garrafas
+	 */
+	public MultiGame(Palette palette, int numberOfUsedSymbols, int[] seeds, int capacity) {
+		Table.Layout layout = capacity <= 0xFF ? Table.Layout.BUFFER : Table.Layout.BOTTLES;
+		boards = new Table[seeds.length];
+		for (int b = 0; b < seeds.length; b++) {
+			boards[b] = new Table(palette, numberOfUsedSymbols, seeds[b], capacity, Table.Generator.DEFAULT, layout);
+			while (boards[b].areAllFilled()) {
+				boards[b].regenerateTable();
+			}
+		}
+		jogadas = new AtomicIntegerArray(seeds.length);
+	}
+
+	/**
+	 * Efetua uma jogada na mesa board, vertendo a garrafa i para a garrafa j.
+	 *
+	 * @param board o índice da mesa
+	 * @param i     indice do conteúdo da garrafa a mover
+	 * @param j     indice onde colocar o conteúdo da garrafa a mover
+	 * @return true se a jogada foi feita
+	 */
+	public boolean play(int board, int i, int j) {
+		Table table = boards[board];
+		synchronized (table) {
+			if (table.areAllFilled() || !valid(table, i, j)) {
+				return false;
+			}
+			while (!table.isFull(j) && !table.isEmpty(i) && (table.isEmpty(j) || table.topCode(i) == table.topCode(j))) {
+				table.pourFromTo(i, j);
+			}
+			int n = jogadas.incrementAndGet(board);
+			if (table.areAllFilled()) {
+				score.addAndGet(Game.bonus(n));
+				finished.incrementAndGet();
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Verifica se uma jogada na mesa board é válida.
+	 *
+	 * @param board o índice da mesa
+	 * @param i     indice do conteúdo da garrafa a mover
+	 * @param j     indice onde colocar o conteúdo da garrafa a mover
+	 * @return true se a jogada for válida, false caso contrário
+	 */
+	public boolean isValid(int board, int i, int j) {
+		Table table = boards[board];
+		synchronized (table) {
+			return !table.areAllFilled() && valid(table, i, j);
+		}
+	}
+
+	private static boolean valid(Table table, int i, int j) {
+		int n = table.getNumberBottles();
+		return i >= 0 && i < n && j >= 0 && j < n && i != j && !table.isEmpty(i)
+				&& (table.isEmpty(j) || table.topCode(i) == table.topCode(j));
+	}
+
+	/**
+	 * Indica se a mesa board está terminada.
+	 *
+	 * @param board o índice da mesa
+	 * @return true se a mesa está terminada
+	 */
+	public boolean isRoundFinished(int board) {
+		Table table = boards[board];
+		synchronized (table) {
+			return table.areAllFilled();
+		}
+	}
+
+	/**
+	 * Indica se todas as mesas estão terminadas.
+	 *
+	 * @return true se todas as mesas estão terminadas
+	 */
+	public boolean isAllFinished() {
+		return finished.get() == boards.length;
+	}
+
+	/**
+	 * Quantas mesas estão terminadas.
+	 *
+	 * @return o número de mesas terminadas
+	 */
+	public int finished() {
+		return finished.get();
+	}
+
+	/**
+	 * O número de mesas do jogo.
+	 *
+	 * @return o número de mesas
+	 */
+	public int boards() {
+		return boards.length;
+	}
+
+	/**
+	 * Retorna o número de jogadas efetuadas na mesa board.
+	 *
+	 * @param board o índice da mesa
+	 * @return o número de jogadas
+	 */
+	public int jogadas(int board) {
+		return jogadas.get(board);
+	}
+
+	/**
+	 * Obtém a pontuação do jogo: a soma dos pontos das mesas terminadas.
+	 *
+	 * @return a pontuação
+	 */
+	public int score() {
+		return score.get();
+	}
+
+	/**
+	 * Retorna a quantidade de garrafas da mesa board.
+	 *
+	 * @param board o índice da mesa
+	 * @return a quantidade de garrafas
+	 */
+	public int getNumberBottles(int board) {
+		return boards[board].getNumberBottles();
+	}
+
+	/**
+	 * Retorna a capacidade das garrafas.
+	 *
+	 * @return a capacidade das garrafas
+	 */
+	public int getSizeBottles() {
+		return boards[0].getSizeBottles();
+	}
+
+	/**
+	 * Obtém a representação do gole da garrafa i da mesa board na posição level,
+	 * a contar da base.
+	 *
+	 * @param board o índice da mesa
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return a representação do gole, ou {@link Table#EMPTY}
+	 */
+	public String cell(int board, int i, int level) {
+		Table table = boards[board];
+		synchronized (table) {
+			return table.cell(i, level);
+		}
+	}
+
+	/**
+	 * Retorna uma descrição textual da mesa board, como
+	 * {@link Game#toString()}.
+	 *
+	 * @param board o índice da mesa
+	 * @return a descrição da mesa
+	 */
+	public String toString(int board) {
+		Table table = boards[board];
+		synchronized (table) {
+			StringBuilder sb = new StringBuilder(table.toString());
+			if (!table.areAllFilled()) {
+				sb.append("Status: The round is not finished." + Game.EOL);
+				sb.append(jogadas.get(board) + " moves have been used until now." + Game.EOL);
+			}
+			else {
+				sb.append("Status: This round is finished." + Game.EOL);
+				sb.append(jogadas.get(board) + " moves were used." + Game.EOL);
+			}
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Retorna uma descrição textual do jogo: a pontuação e todas as mesas.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Score: " + score.get() + Game.EOL);
+		for (int b = 0; b < boards.length; b++) {
+			sb.append("Board " + b + ":" + Game.EOL).append(toString(b));
+		}
+		return sb.toString();
+	}
+}
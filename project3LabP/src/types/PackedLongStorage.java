@@ -0,0 +1,59 @@
+package types;
+
+/**
+ * Armazenamento de uma garrafa num único long. Cada gole ocupa os bits
+ * necessários para o maior código da paleta (3 bits para os 8 {@link Filling},
+ * 5 bits para 32 símbolos), com a base nos bits menos significativos.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class PackedLongStorage implements BottleStorage {
+
+	private final int bits;
+	private final long mask;
+	private long cells;
+	private int size;
+
+	/**
+	 * Constrói um armazenamento vazio
+	 *
+	 * @param capacity o número máximo de goles
+	 * @param symbols  o número de códigos diferentes
+	 * @throws IllegalArgumentException se capacity goles não couberem num long
+	 */
+	PackedLongStorage(int capacity, int symbols) {
+		this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(symbols - 1));
+		if (capacity * bits > Long.SIZE) {
+			throw new IllegalArgumentException("Capacidade " + capacity + " não cabe num long com " + bits
+					+ " bits por gole");
+		}
+		this.mask = (1L << bits) - 1;
+	}
+
+	@Override
+	public void push(int code) {
+		cells |= (code & mask) << (size * bits);
+		size++;
+	}
+
+	@Override
+	public void pop() {
+		size--;
+		cells &= ~(mask << (size * bits));
+	}
+
+	@Override
+	public int peek() {
+		return get(size - 1);
+	}
+
+	@Override
+	public int get(int i) {
+		return (int) ((cells >>> (i * bits)) & mask);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
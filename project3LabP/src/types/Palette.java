@@ -0,0 +1,195 @@
+package types;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto ordenado de símbolos que podem encher as garrafas. Cada símbolo é
+ * identificado pelo seu código, a posição na paleta, e é isso que as garrafas
+ * guardam; a paleta só serve para desenhar os códigos e, quando foi construída a
+ * partir de {@link Filling}s, para os converter de volta.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class Palette {
+
+	/**
+	 * Número máximo de símbolos de uma paleta, para que os códigos caibam num
+	 * byte.
+	 */
+	public static final int MAX_SYMBOLS = 256;
+
+	/**
+	 * Os oito {@link Filling} pela ordem do enumerado.
+	 */
+	public static final Palette FILLINGS = of(Filling.values());
+
+	/**
+	 * Blocos de emojis com apresentação de emoji e duas colunas de largura, usados
+	 * depois dos {@link Filling} por {@link #emoji(int)}.
+	 */
+	private static final int[][] EMOJI_RANGES = { { 0x1F600, 0x1F64F }, { 0x1F400, 0x1F43E }, { 0x1F680, 0x1F6C5 },
+			{ 0x1F337, 0x1F37C } };
+
+	private final String[] reps;
+	private final Filling[] fillings;
+	private final int[] codeOfFilling;
+
+	private Palette(String[] reps, Filling[] fillings) {
+		if (reps.length == 0 || reps.length > MAX_SYMBOLS) {
+			throw new IllegalArgumentException("Uma paleta tem entre 1 e " + MAX_SYMBOLS + " símbolos");
+		}
+		this.reps = reps;
+		this.fillings = fillings;
+		this.codeOfFilling = new int[Filling.values().length];
+		Arrays.fill(codeOfFilling, -1);
+		for (int code = fillings.length - 1; code >= 0; code--) {
+			codeOfFilling[fillings[code].ordinal()] = code;
+		}
+	}
+
+	/**
+	 * Constrói a paleta dos fillings dados, pela ordem dada.
+	 *
+	 * @param fillings os símbolos da paleta
+	 * @return a paleta
+	 */
+	public static Palette of(Filling[] fillings) {
+		String[] reps = new String[fillings.length];
+		for (int i = 0; i < reps.length; i++) {
+			reps[i] = fillings[i].toString();
+		}
+		return new Palette(reps, fillings.clone());
+	}
+
+	/**
+	 * Constrói a paleta com as representações dadas.
+	 *
+	 * @param reps as representações dos símbolos
+	 * @return a paleta
+	 */
+	public static Palette of(String... reps) {
+		return new Palette(reps.clone(), new Filling[0]);
+	}
+
+	/**
+	 * Constrói uma paleta com n emojis: primeiro os {@link Filling}, pela ordem do
+	 * enumerado, e depois outros emojis sem repetições.
+	 *
+	 * @param n o número de símbolos
+	 * @return a paleta
+	 * @requires {@code 1 <= n <= MAX_SYMBOLS}
+	 */
+	public static Palette emoji(int n) {
+		Filling[] values = Filling.values();
+		Filling[] fillings = Arrays.copyOf(values, Math.min(n, values.length));
+		String[] reps = new String[n];
+		int count = 0;
+		for (Filling filling : fillings) {
+			reps[count++] = filling.toString();
+		}
+		for (int[] range : EMOJI_RANGES) {
+			for (int cp = range[0]; cp <= range[1] && count < n; cp++) {
+				String rep = new String(Character.toChars(cp));
+				if (!contains(fillings, rep)) {
+					reps[count++] = rep;
+				}
+			}
+		}
+		return new Palette(reps, fillings);
+	}
+
+	private static boolean contains(Filling[] fillings, String rep) {
+		for (Filling filling : fillings) {
+			if (filling.toString().equals(rep)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Diz quantos símbolos tem a paleta
+	 *
+	 * @return o número de símbolos
+	 */
+	public int size() {
+		return reps.length;
+	}
+
+	/**
+	 * Diz quantos bits são precisos para guardar um código desta paleta
+	 *
+	 * @return o número de bits por código, pelo menos 1
+	 */
+	public int bitsPerSymbol() {
+		return Math.max(1, 32 - Integer.numberOfLeadingZeros(reps.length - 1));
+	}
+
+	/**
+	 * Obtém a representação do símbolo com o código dado
+	 *
+	 * @param code o código do símbolo
+	 * @return a representação do símbolo
+	 */
+	public String symbol(int code) {
+		return reps[code];
+	}
+
+	/**
+	 * Obtém o filling com o código dado
+	 *
+	 * @param code o código do símbolo
+	 * @return o filling com esse código
+	 * @throws IllegalStateException se esse símbolo não é um Filling, o que
+	 *                               acontece nas paletas com mais símbolos do
+	 *                               que os Filling
+	 */
+	public Filling filling(int code) {
+		if (code >= fillings.length) {
+			throw new IllegalStateException("O símbolo " + reps[code] + " não é um Filling");
+		}
+		return fillings[code];
+	}
+
+	/**
+	 * Obtém o código do símbolo com a representação dada nesta paleta
+	 *
+	 * @param rep a representação do símbolo
+	 * @return o código do símbolo
+	 * @throws IllegalArgumentException se o símbolo não pertence à paleta
+	 */
+	public int code(String rep) {
+		for (int code = 0; code < reps.length; code++) {
+			if (reps[code].equals(rep)) {
+				return code;
+			}
+		}
+		throw new IllegalArgumentException(rep + " não pertence à paleta");
+	}
+
+	/**
+	 * Obtém o código do filling dado nesta paleta
+	 *
+	 * @param filling o filling
+	 * @return o código do filling
+	 * @throws IllegalArgumentException se o filling não pertence à paleta
+	 */
+	public int code(Filling filling) {
+		int code = codeOfFilling[filling.ordinal()];
+		if (code < 0) {
+			throw new IllegalArgumentException(filling + " não pertence à paleta");
+		}
+		return code;
+	}
+
+	/**
+	 * Duas paletas são iguais se tiverem os mesmos símbolos pela mesma ordem.
+	 */
+	public boolean equals(Object other) {
+		return other == this || other instanceof Palette && Arrays.equals(reps, ((Palette) other).reps);
+	}
+
+	public int hashCode() {
+		return Arrays.hashCode(reps);
+	}
+}
@@ -0,0 +1,180 @@
+package types;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Heurística de bases de dados de padrões para o {@link Solver}. A mesa é
+ * abstraída a um só símbolo: os goles desse símbolo ficam e todos os outros
+ * passam a ser um símbolo "qualquer". Na mesa abstrata cada jogada pode verter
+ * qualquer número de goles do bloco do topo, o que inclui as jogadas do jogo, e
+ * só as jogadas que vertem o símbolo escolhido contam. Assim a distância
+ * abstrata de cada símbolo é admissível e, como cada jogada verte um só
+ * símbolo, a soma das distâncias de todos os símbolos também é.
+ *
+ * Cada padrão tem um só símbolo, de propósito. Com dois códigos abstratos a
+ * tabela de 8 símbolos, capacidade 4 e 11 garrafas tem cerca de 23 mil
+ * posições e é construída em pouco tempo; padrões de pares de símbolos, que se
+ * somariam da mesma forma por serem grupos disjuntos, precisariam de três
+ * códigos e de muito mais posições.
+ *
+ * Por simetria a mesma tabela serve para todos os símbolos. É calculada uma
+ * vez, por pesquisa para trás a partir da única mesa abstrata resolvida, e
+ * guardada como um array ordenado de posições (cada uma num long, como em
+ * {@link EndgameDatabase}) e um byte de distância por posição. Cada consulta
+ * ordena as garrafas num array reutilizado e faz uma pesquisa binária, sem
+ * criar objetos; por isso uma base de dados não pode ser usada por várias
+ * threads ao mesmo tempo.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class PatternDatabase implements Heuristic {
+	private static final int CHUNK = 4096;
+	private static final int PATTERN = 0; // código abstrato do símbolo escolhido
+	private static final int ANY = 1; // código abstrato dos outros símbolos
+
+	private final int symbols;
+	private final BottleShapes shapes;
+	private final long[] keys;
+	private final byte[] distances;
+	private final int[] values;
+
+	private PatternDatabase(int symbols, BottleShapes shapes, long[] keys, byte[] distances) {
+		this.symbols = symbols;
+		this.shapes = shapes;
+		this.keys = keys;
+		this.distances = distances;
+		this.values = new int[shapes.bottles];
+	}
+
+	/**
+	 * Constrói a base de dados para mesas com symbols símbolos, garrafas de
+	 * capacidade capacity e bottles garrafas.
+	 *
+	 * @param symbols  o número de símbolos usados na mesa
+	 * @param capacity a capacidade das garrafas
+	 * @param bottles  o número de garrafas da mesa
+	 * @return a base de dados
+	 * @throws IllegalArgumentException se uma posição abstrata não cabe num long
+	 */
+	public static PatternDatabase build(int symbols, int capacity, int bottles) {
+		BottleShapes shapes = new BottleShapes(2, capacity, bottles);
+		if (symbols < 1 || symbols > bottles) {
+			throw new IllegalArgumentException("Configuração inválida");
+		}
+		int[] goal = new int[bottles];
+		goal[0] = shapes.offset[capacity];
+		for (int b = 1; b < symbols; b++) {
+			goal[b] = shapes.offset[capacity] + shapes.power[capacity] - 1;
+		}
+		long[] keys = new long[0];
+		byte[] distances = new byte[0];
+		long[] layer = { shapes.pack(goal) };
+		for (int d = 0; layer.length > 0; d++) {
+			// as jogadas que só vertem outros símbolos não contam
+			long[] frontier = layer;
+			while (frontier.length > 0) {
+				frontier = LongList.minus(LongList.minus(predecessors(shapes, frontier, ANY), keys), layer);
+				layer = LongList.merge(layer, frontier);
+			}
+			long[] merged = LongList.merge(keys, layer);
+			distances = mergeDistances(keys, distances, layer, (byte) Math.min(d, 0xFF), merged.length);
+			keys = merged;
+			layer = LongList.minus(predecessors(shapes, layer, PATTERN), keys);
+		}
+		return new PatternDatabase(symbols, shapes, keys, distances);
+	}
+
+	/**
+	 * As posições de onde se chega a alguma posição de frontier vertendo goles de
+	 * código code, ordenadas e sem repetições.
+	 */
+	private static long[] predecessors(BottleShapes shapes, long[] frontier, int code) {
+		int chunks = (frontier.length + CHUNK - 1) / CHUNK;
+		long[][] parts = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+			LongList out = new LongList();
+			int[] state = new int[shapes.bottles];
+			int[] previous = new int[shapes.bottles];
+			for (int n = c * CHUNK; n < Math.min(frontier.length, (c + 1) * CHUNK); n++) {
+				shapes.unpack(frontier[n], state);
+				for (int j = 0; j < state.length; j++) {
+					int to = state[j];
+					int size = shapes.size[to];
+					if (size == 0 || shapes.top[to] != code || j > 0 && state[j - 1] == to) {
+						continue;
+					}
+					int run = shapes.run[to];
+					// antes da jogada j estava vazia ou tinha o mesmo símbolo no topo
+					int most = run == size ? run : run - 1;
+					for (int k = 1; k <= most; k++) {
+						for (int i = 0; i < state.length; i++) {
+							if (i != j && shapes.size[state[i]] + k <= shapes.capacity) {
+								System.arraycopy(state, 0, previous, 0, state.length);
+								previous[i] = shapes.push(state[i], code, k);
+								previous[j] = shapes.pop(to, k);
+								out.add(shapes.pack(previous));
+							}
+						}
+					}
+				}
+			}
+			return out.toSortedSet();
+		}).toArray(long[][]::new);
+		return LongList.concat(parts).toSortedSet();
+	}
+
+	private static byte[] mergeDistances(long[] keys, byte[] distances, long[] layer, byte d, int length) {
+		byte[] out = new byte[length];
+		int i = 0;
+		int j = 0;
+		for (int n = 0; n < length; n++) {
+			if (j == layer.length || i < keys.length && keys[i] < layer[j]) {
+				out[n] = distances[i++];
+			}
+			else {
+				out[n] = d;
+				j++;
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Quantas posições abstratas tem a base de dados
+	 *
+	 * @return o número de posições
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Soma as distâncias abstratas de todos os símbolos, ou usa
+	 * {@link Heuristic#SEGMENTS} se for maior.
+	 *
+	 * @requires a mesa tem o número de garrafas, a capacidade e os símbolos desta
+	 *           base de dados
+	 */
+	@Override
+	public int estimate(byte[] cells, int[] sizes, int capacity) {
+		int sum = 0;
+		for (int code = 0; code < symbols; code++) {
+			for (int b = 0; b < sizes.length; b++) {
+				int start = b * capacity;
+				int n = sizes[b];
+				int v = 0;
+				for (int level = 0; level < n; level++) {
+					if ((cells[start + level] & 0xFF) != code) {
+						v += shapes.power[level];
+					}
+				}
+				values[b] = shapes.offset[n] + v;
+			}
+			int k = Arrays.binarySearch(keys, shapes.pack(values));
+			if (k >= 0) {
+				sum += distances[k] & 0xFF;
+			}
+		}
+		return Math.max(sum, SEGMENTS.estimate(cells, sizes, capacity));
+	}
+}
@@ -0,0 +1,348 @@
+package types;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * Uma versão imutável de uma mesa. Verter devolve uma nova versão que partilha
+ * com esta todas as garrafas que não mudaram: só as duas garrafas alteradas
+ * são copiadas. As garrafas estão em blocos de {@value #CHUNK} referências, e
+ * uma nova versão copia o array dos blocos e os blocos das garrafas alteradas,
+ * por isso guardar milhares de versões ocupa memória proporcional às jogadas e
+ * não ao tamanho da mesa.
+ *
+ * Cada garrafa é um {@code byte[]} com o número de goles na posição 0 e os
+ * códigos dos goles, da base para o topo, nas seguintes; o comprimento é a
+ * capacidade mais um. O hash da mesa é atualizado a cada versão e duas versões
+ * só são comparadas garrafa a garrafa quando os hashes são iguais, saltando as
+ * garrafas partilhadas.
+ *
+ * As jogadas seguem as regras de {@link Table} e {@link Game}.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class PersistentTable {
+	private static final int CHUNK_BITS = 5;
+	private static final int CHUNK = 1 << CHUNK_BITS;
+	private static final int MASK = CHUNK - 1;
+
+	/**
+	 * A maior capacidade de uma garrafa, para que o número de goles caiba num
+	 * byte.
+	 */
+	public static final int MAX_CAPACITY = 0xFF;
+
+	private final byte[][][] chunks;
+	private final int count;
+	private final int capacity;
+	private final Palette palette;
+	private final int unsolved;
+	private final int hash;
+
+	private PersistentTable(byte[][][] chunks, int count, int capacity, Palette palette, int unsolved, int hash) {
+		this.chunks = chunks;
+		this.count = count;
+		this.capacity = capacity;
+		this.palette = palette;
+		this.unsolved = unsolved;
+		this.hash = hash;
+	}
+
+	/**
+	 * Cria uma versão com o conteúdo atual de uma mesa.
+	 *
+	 * @param table a mesa
+	 * @return a versão imutável
+	 * @throws IllegalArgumentException se alguma garrafa tiver mais de
+	 *                                  {@value #MAX_CAPACITY} posições
+	 */
+	public static PersistentTable of(Table table) {
+		int count = table.getNumberBottles();
+		byte[][][] chunks = new byte[(count + MASK) >>> CHUNK_BITS][][];
+		int unsolved = 0;
+		int hash = 0;
+		for (int i = 0; i < count; i++) {
+			if ((i & MASK) == 0) {
+				chunks[i >>> CHUNK_BITS] = new byte[Math.min(CHUNK, count - i)][];
+			}
+			if (table.capacity(i) > MAX_CAPACITY) {
+				throw new IllegalArgumentException("Uma garrafa tem no máximo " + MAX_CAPACITY + " goles");
+			}
+			byte[] bottle = new byte[table.capacity(i) + 1];
+			bottle[0] = (byte) table.size(i);
+			for (int level = 0; level < table.size(i); level++) {
+				bottle[level + 1] = (byte) table.codeAt(i, level);
+			}
+			chunks[i >>> CHUNK_BITS][i & MASK] = bottle;
+			unsolved += solved(bottle) ? 0 : 1;
+			hash += hash(i, bottle);
+		}
+		return new PersistentTable(chunks, count, table.getSizeBottles(), table.getPalette(), unsolved, hash);
+	}
+
+	/**
+	 * Verte um gole da garrafa i para a garrafa j, como
+	 * {@link Table#pourFromTo(int, int)}.
+	 *
+	 * @param i o índice da garrafa de onde verter
+	 * @param j o índice da garrafa para onde verter
+	 * @return a nova versão, ou esta se o gole não couber em j
+	 * @throws EmptyStackException se a garrafa i estiver vazia
+	 */
+	public PersistentTable pourFromTo(int i, int j) {
+		byte code = (byte) topCode(i);
+		return accepts(bottle(j), code) ? pour(i, j, 1) : this;
+	}
+
+	/**
+	 * Faz a jogada i, j como {@link Game#play(int, int)}: verte goles enquanto o
+	 * topo de i for igual ao de j e j não estiver cheia.
+	 *
+	 * @param i o índice da garrafa de onde verter
+	 * @param j o índice da garrafa para onde verter
+	 * @return a nova versão, ou esta se a jogada não for válida ou não verter
+	 *         nada
+	 */
+	public PersistentTable move(int i, int j) {
+		if (i < 0 || i >= count || j < 0 || j >= count || i == j || isEmpty(i)) {
+			return this;
+		}
+		byte[] from = bottle(i);
+		byte[] to = bottle(j);
+		int size = from[0] & 0xFF;
+		byte code = from[size];
+		if (!accepts(to, code)) {
+			return this;
+		}
+		int run = 1;
+		while (run < size && from[size - run] == code) {
+			run++;
+		}
+		return pour(i, j, Math.min(run, to.length - 1 - (to[0] & 0xFF)));
+	}
+
+	/**
+	 * Junta uma garrafa vazia com a capacidade da mesa, como a ajuda do jogo.
+	 *
+	 * @return a nova versão
+	 */
+	public PersistentTable addBottle() {
+		byte[][][] next = Arrays.copyOf(chunks, (count + CHUNK) >>> CHUNK_BITS);
+		int c = count >>> CHUNK_BITS;
+		next[c] = next[c] == null ? new byte[1][] : Arrays.copyOf(next[c], (count & MASK) + 1);
+		byte[] bottle = new byte[capacity + 1];
+		next[c][count & MASK] = bottle;
+		return new PersistentTable(next, count + 1, capacity, palette, unsolved, hash + hash(count, bottle));
+	}
+
+	private static boolean accepts(byte[] to, byte code) {
+		int size = to[0] & 0xFF;
+		return size < to.length - 1 && (size == 0 || to[size] == code);
+	}
+
+	/**
+	 * Verte k goles de i para j, copiando só as duas garrafas e os seus blocos.
+	 */
+	private PersistentTable pour(int i, int j, int k) {
+		byte[] from = bottle(i);
+		byte[] to = bottle(j);
+		int sizeFrom = from[0] & 0xFF;
+		int sizeTo = to[0] & 0xFF;
+		byte code = from[sizeFrom];
+		byte[] newFrom = from.clone();
+		byte[] newTo = to.clone();
+		for (int n = 0; n < k; n++) {
+			newFrom[sizeFrom - n] = 0;
+			newTo[sizeTo + 1 + n] = code;
+		}
+		newFrom[0] = (byte) (sizeFrom - k);
+		newTo[0] = (byte) (sizeTo + k);
+		byte[][][] next = chunks.clone();
+		next[i >>> CHUNK_BITS] = next[i >>> CHUNK_BITS].clone();
+		if (j >>> CHUNK_BITS != i >>> CHUNK_BITS) {
+			next[j >>> CHUNK_BITS] = next[j >>> CHUNK_BITS].clone();
+		}
+		next[i >>> CHUNK_BITS][i & MASK] = newFrom;
+		next[j >>> CHUNK_BITS][j & MASK] = newTo;
+		int solvedBefore = (solved(from) ? 1 : 0) + (solved(to) ? 1 : 0);
+		int solvedAfter = (solved(newFrom) ? 1 : 0) + (solved(newTo) ? 1 : 0);
+		int h = hash - hash(i, from) - hash(j, to) + hash(i, newFrom) + hash(j, newTo);
+		return new PersistentTable(next, count, capacity, palette, unsolved + solvedBefore - solvedAfter, h);
+	}
+
+	private byte[] bottle(int i) {
+		return chunks[i >>> CHUNK_BITS][i & MASK];
+	}
+
+	private static boolean solved(byte[] bottle) {
+		int size = bottle[0] & 0xFF;
+		if (size == 0) {
+			return true;
+		}
+		if (size != bottle.length - 1) {
+			return false;
+		}
+		for (int level = 2; level <= size; level++) {
+			if (bottle[level] != bottle[1]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(int i, byte[] bottle) {
+		int h = Arrays.hashCode(bottle) * 31 + i;
+		h *= 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * Obtém a quantidade de garrafas na mesa.
+	 *
+	 * @return quantidade de garrafas
+	 */
+	public int getNumberBottles() {
+		return count;
+	}
+
+	/**
+	 * Obtém a capacidade das garrafas da mesa.
+	 *
+	 * @return a capacidade das garrafas
+	 */
+	public int getSizeBottles() {
+		return capacity;
+	}
+
+	/**
+	 * Diz quantos goles tem a garrafa com índice i
+	 *
+	 * @param i o índice da garrafa
+	 * @return o número de goles dessa garrafa
+	 */
+	public int size(int i) {
+		return bottle(i)[0] & 0xFF;
+	}
+
+	/**
+	 * Obtém o código do gole da garrafa i na posição level, a contar da base
+	 *
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return o código do gole nessa posição
+	 * @requires {@code 0 <= level < size(i)}
+	 */
+	public int codeAt(int i, int level) {
+		return bottle(i)[level + 1] & 0xFF;
+	}
+
+	/**
+	 * Diz qual o código do gole que se encontra no topo da garrafa no índice i
+	 *
+	 * @param i o índice da garrafa
+	 * @return o código do gole do topo
+	 * @throws EmptyStackException se a garrafa estiver vazia
+	 */
+	public int topCode(int i) {
+		byte[] bottle = bottle(i);
+		if (bottle[0] == 0) {
+			throw new EmptyStackException();
+		}
+		return bottle[bottle[0] & 0xFF] & 0xFF;
+	}
+
+	/**
+	 * Diz se a garrafa com índice i desta mesa está vazia
+	 *
+	 * @param i o índice da garrafa
+	 * @return true se essa garrafa está vazia, se não false
+	 */
+	public boolean isEmpty(int i) {
+		return bottle(i)[0] == 0;
+	}
+
+	/**
+	 * Diz se a garrafa com índice i desta mesa está cheia
+	 *
+	 * @param i o índice da garrafa
+	 * @return true se essa garrafa está cheia, se não false
+	 */
+	public boolean isFull(int i) {
+		byte[] bottle = bottle(i);
+		return (bottle[0] & 0xFF) == bottle.length - 1;
+	}
+
+	/**
+	 * Diz se todas as garrafas não vazias estão totalmente cheias com um só tipo de
+	 * conteúdo
+	 *
+	 * @return true todas as garrafas estão totalmente cheias com um só tipo, se não
+	 *         false
+	 */
+	public boolean areAllFilled() {
+		return unsolved == 0;
+	}
+
+	/**
+	 * Obtém a representação do gole da garrafa i na posição level, a contar da
+	 * base, ou {@link Table#EMPTY} se essa posição estiver vazia
+	 *
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return a representação do gole nessa posição
+	 */
+	public String cell(int i, int level) {
+		return level < size(i) ? palette.symbol(codeAt(i, level)) : Table.EMPTY;
+	}
+
+	/**
+	 * Diz se esta versão tem as mesmas garrafas, com os mesmos goles, que outra.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PersistentTable)) {
+			return false;
+		}
+		PersistentTable other = (PersistentTable) obj;
+		if (hash != other.hash || count != other.count || !palette.equals(other.palette)) {
+			return false;
+		}
+		for (int c = 0; c < chunks.length; c++) {
+			if (chunks[c] == other.chunks[c]) {
+				continue;
+			}
+			for (int k = 0; k < chunks[c].length; k++) {
+				byte[] a = chunks[c][k];
+				byte[] b = other.chunks[c][k];
+				if (a != b && !Arrays.equals(a, b)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Retorna uma descrição textual do conteúdo da mesa, como
+	 * {@link Table#toString()}.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int level = capacity - 1; level >= 0; level--) {
+			for (int i = 0; i < count; i++) {
+				sb.append(cell(i, level)).append("    ");
+			}
+			sb.append(Table.EOL);
+		}
+		return sb.toString();
+	}
+}
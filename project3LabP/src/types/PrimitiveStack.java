@@ -0,0 +1,54 @@
+package types;
+
+/**
+ * Operações comuns às pilhas de tipos primitivos ({@link ByteStack} e
+ * {@link IntStack}), que não dependem do tipo dos elementos.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public interface PrimitiveStack {
+
+    /**
+     * Número de elementos na pilha
+     *
+     * @return O número de elementos na pilha
+     */
+    int size();
+
+    /**
+     * Esta pilha está vazia?
+     *
+     * @return true se a pilha está vazia, false caso contrário
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Retirar o elemento no topo da pilha
+     *
+     * @requires !isEmpty()
+     */
+    void pop();
+
+    /**
+     * Retirar os n elementos do topo da pilha
+     *
+     * @param n O número de elementos a retirar
+     * @requires 0 <= n <= size()
+     */
+    void popN(int n);
+
+    /**
+     * Quantos elementos iguais ao do topo estão seguidos no topo da pilha
+     *
+     * @return O comprimento da sequência de elementos iguais no topo, 0 se a
+     *         pilha estiver vazia
+     */
+    int topRun();
+
+    /**
+     * Retirar todos os elementos da pilha
+     */
+    void clear();
+}
@@ -0,0 +1,124 @@
+package types;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Gera numa thread própria as próximas mesas de um jogo, pela mesma ordem em
+ * que {@link Game#startNewRound()} as geraria, e guarda até depth mesas à
+ * espera. A thread trabalha numa cópia da mesa do jogo, posta no mesmo ponto da
+ * sequência de mesas, por isso a sequência só depende da semente.
+ *
+ * A thread só guarda uma referência fraca para o dono: enquanto a fila está
+ * cheia vai verificando se o dono ainda existe e termina quando deixar de
+ * existir, mesmo que {@link #stop()} nunca seja chamado.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class RoundPrefetcher {
+
+	/**
+	 * Uma mesa gerada e o número de mesas geradas até ela ser aceite.
+	 */
+	static final class Round {
+		final Table.Snapshot table;
+		final int attempts;
+
+		private Round(Table.Snapshot table, int attempts) {
+			this.table = table;
+			this.attempts = attempts;
+		}
+	}
+
+	private static final Round FAILED = new Round(null, 0);
+	private static final long OWNER_CHECK_MILLIS = 500;
+
+	private final BlockingQueue<Round> rounds;
+	private final Thread thread;
+	private volatile RuntimeException failure;
+
+	/**
+	 * Começa a gerar as mesas que se seguem à mesa from.
+	 *
+	 * @param owner  quem usa as mesas; a thread termina quando deixar de existir
+	 * @param from   a mesa do jogo
+	 * @param depth  quantas mesas guardar à espera
+	 * @param accept as mesas por terminar que podem ser usadas, ou null para
+	 *               todas; não deve guardar uma referência para o dono
+	 */
+	RoundPrefetcher(Object owner, Table from, int depth, Predicate<Table> accept) {
+		Table cursor = from.copy();
+		Table.Snapshot start = from.snapshot();
+		WeakReference<Object> weakOwner = new WeakReference<>(owner);
+		rounds = new ArrayBlockingQueue<>(depth);
+		thread = new Thread(() -> run(weakOwner, cursor, start, accept), "round-prefetch");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void run(WeakReference<Object> owner, Table cursor, Table.Snapshot start, Predicate<Table> accept) {
+		try {
+			try {
+				cursor.restore(start);
+				while (owner.get() != null) {
+					int attempts = 0;
+					do {
+						cursor.regenerateTable();
+						attempts++;
+					} while (cursor.areAllFilled() || accept != null && !accept.test(cursor));
+					if (!offer(owner, new Round(cursor.snapshot(), attempts))) {
+						return;
+					}
+				}
+			}
+			catch (RuntimeException e) {
+				failure = e;
+				offer(owner, FAILED);
+			}
+		}
+		catch (InterruptedException e) {
+			// parada por stop()
+		}
+	}
+
+	/**
+	 * Põe round na fila, esperando que haja lugar enquanto o dono existir
+	 *
+	 * @return false se o dono deixou de existir
+	 */
+	private boolean offer(WeakReference<Object> owner, Round round) throws InterruptedException {
+		while (!rounds.offer(round, OWNER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (owner.get() == null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A próxima mesa, esperando que seja gerada se preciso.
+	 *
+	 * @return a mesa
+	 * @throws InterruptedException  se a thread for interrompida enquanto espera
+	 * @throws IllegalStateException se a geração falhou
+	 */
+	Round take() throws InterruptedException {
+		Round round = rounds.take();
+		if (round == FAILED) {
+			rounds.put(FAILED);
+			throw new IllegalStateException("A geração das próximas mesas falhou", failure);
+		}
+		return round;
+	}
+
+	/**
+	 * Pára a thread; as mesas à espera são descartadas.
+	 */
+	void stop() {
+		thread.interrupt();
+	}
+
+}
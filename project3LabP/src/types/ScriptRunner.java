@@ -0,0 +1,182 @@
+package types;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EmptyStackException;
+
+/**
+ * Joga uma sessão gravada sem pedir nada ao utilizador. A entrada tem o mesmo
+ * formato que o jogador escreve no modo interativo: o número de símbolos e a
+ * capacidade, depois as jogadas como pares de índices ou a palavra "ajuda" e,
+ * quando uma ronda termina, "yes" seguido de novas definições para continuar
+ * ou qualquer outra palavra para terminar. As jogadas inválidas são contadas e
+ * ignoradas, como no modo interativo.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class ScriptRunner {
+	public static final String EOL = System.lineSeparator();
+
+	private final Palette palette;
+	private final int seed;
+	private final int minimum;
+	private final int maxSymbols;
+	private final int maxCapacity;
+
+	private Game game;
+	private int score;
+	private long rounds;
+	private long moves;
+	private long invalid;
+	private long helps;
+	private long nanos;
+
+	/**
+	 * Constrói um runner que cria os jogos com a paleta e a semente dadas e
+	 * aceita definições a partir de minimum (acima do máximo usa o máximo).
+	 *
+	 * @param palette     os símbolos dos conteúdos das garrafas
+	 * @param seed        a semente do gerador de aleatórios
+	 * @param minimum     o valor mínimo das definições
+	 * @param maxSymbols  o número máximo de símbolos
+	 * @param maxCapacity a capacidade máxima das garrafas
+	 */
+	public ScriptRunner(Palette palette, int seed, int minimum, int maxSymbols, int maxCapacity) {
+		this.palette = palette;
+		this.seed = seed;
+		this.minimum = minimum;
+		this.maxSymbols = maxSymbols;
+		this.maxCapacity = maxCapacity;
+	}
+
+	/**
+	 * Joga a sessão lida de in até ao fim da entrada ou até o jogador não querer
+	 * jogar novamente.
+	 *
+	 * @param in de onde ler a sessão
+	 * @throws IOException se a leitura falhar
+	 */
+	public void run(InputStream in) throws IOException {
+		long start = System.nanoTime();
+		ScriptTokenizer tokens = new ScriptTokenizer(in);
+		boolean playing = settings(tokens);
+		while (playing) {
+			int type = tokens.next();
+			if (type == ScriptTokenizer.EOF) {
+				break;
+			}
+			if (type == ScriptTokenizer.WORD) {
+				if (tokens.wordContains("AJUDA") && game.score() >= 100) {
+					game.provideHelp();
+					helps++;
+				}
+				else {
+					invalid++;
+				}
+				continue;
+			}
+			int i = tokens.number();
+			if (tokens.next() != ScriptTokenizer.NUMBER) {
+				invalid++;
+				continue;
+			}
+			move(i, tokens.number());
+			if (game.isRoundFinished()) {
+				rounds++;
+				score = game.score();
+				playing = tokens.next() == ScriptTokenizer.WORD && tokens.wordContains("YES") && settings(tokens);
+			}
+		}
+		if (game != null) {
+			score = game.score();
+		}
+		nanos += System.nanoTime() - start;
+	}
+
+	private void move(int i, int j) {
+		moves++;
+		try {
+			if (game.isValid(i, j)) {
+				game.play(i, j);
+				return;
+			}
+		}
+		catch (EmptyStackException e) {
+			// as duas garrafas estão vazias, tal como no modo interativo
+		}
+		invalid++;
+	}
+
+	/**
+	 * Lê o número de símbolos e a capacidade e cria um novo jogo.
+	 *
+	 * @return false se a entrada terminou antes das definições
+	 */
+	private boolean settings(ScriptTokenizer tokens) throws IOException {
+		int numberOfUsedSymbols = setting(tokens, maxSymbols);
+		int capacity = numberOfUsedSymbols < 0 ? -1 : setting(tokens, maxCapacity);
+		if (capacity < 0) {
+			return false;
+		}
+		game = new Game(palette, numberOfUsedSymbols, seed, capacity, score);
+		return true;
+	}
+
+	private int setting(ScriptTokenizer tokens, int maximum) throws IOException {
+		int type;
+		while ((type = tokens.next()) != ScriptTokenizer.EOF) {
+			if (type == ScriptTokenizer.NUMBER && tokens.number() >= minimum) {
+				return Math.min(tokens.number(), maximum);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * O jogo atual, ou null se ainda não foram lidas definições.
+	 *
+	 * @return o jogo atual
+	 */
+	public Game game() {
+		return game;
+	}
+
+	/**
+	 * Quantos pares de índices foram lidos, válidos ou não.
+	 *
+	 * @return o número de jogadas lidas
+	 */
+	public long moves() {
+		return moves;
+	}
+
+	/**
+	 * Quantas jogadas ou palavras foram ignoradas por serem inválidas.
+	 *
+	 * @return o número de entradas inválidas
+	 */
+	public long invalid() {
+		return invalid;
+	}
+
+	/**
+	 * Quantas rondas foram terminadas.
+	 *
+	 * @return o número de rondas terminadas
+	 */
+	public long rounds() {
+		return rounds;
+	}
+
+	/**
+	 * Retorna um resumo da sessão: pontuação, rondas, jogadas e débito.
+	 */
+	public String toString() {
+		double seconds = nanos / 1e9;
+		return "Score: " + score + EOL
+				+ "Rounds finished: " + rounds + EOL
+				+ "Moves read: " + moves + " (" + invalid + " invalid, " + helps + " helps)" + EOL
+				+ "Moves in current round: " + (game == null ? 0 : game.jogadas()) + EOL
+				+ String.format("Time: %.3f s (%.0f moves/s)", seconds, seconds > 0 ? moves / seconds : 0) + EOL;
+	}
+}
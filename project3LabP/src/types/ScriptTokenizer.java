@@ -0,0 +1,124 @@
+package types;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Divide um InputStream em números inteiros e palavras, lendo bytes para um
+ * buffer próprio. Não cria objetos por token: os números são convertidos à
+ * medida que são lidos e as palavras só podem ser comparadas com padrões.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class ScriptTokenizer {
+	public static final int EOF = 0;
+	public static final int NUMBER = 1;
+	public static final int WORD = 2;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_WORD = 64;
+
+	private final InputStream in;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+
+	private final byte[] word = new byte[MAX_WORD];
+	private int wordLength;
+	private int number;
+
+	/**
+	 * Constrói um tokenizer que lê de in.
+	 *
+	 * @param in de onde ler
+	 */
+	public ScriptTokenizer(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Avança para o próximo token. Um token é uma sequência de caracteres sem
+	 * espaços; é um número se for só dígitos, com um '-' opcional à frente.
+	 *
+	 * @return {@link #NUMBER}, {@link #WORD} ou {@link #EOF}
+	 * @throws IOException se a leitura falhar
+	 */
+	public int next() throws IOException {
+		int b = read();
+		while (b >= 0 && b <= ' ') {
+			b = read();
+		}
+		if (b < 0) {
+			return EOF;
+		}
+		wordLength = 0;
+		boolean digits = true;
+		boolean negative = b == '-';
+		long value = 0;
+		do {
+			if (wordLength < MAX_WORD) {
+				word[wordLength] = (byte) b;
+			}
+			if (b >= '0' && b <= '9') {
+				value = Math.min(value * 10 + (b - '0'), Integer.MAX_VALUE + 1L);
+			}
+			else if (!(negative && wordLength == 0)) {
+				digits = false;
+			}
+			wordLength++;
+			b = read();
+		} while (b > ' ');
+		if (digits && wordLength > (negative ? 1 : 0) && value <= Integer.MAX_VALUE) {
+			number = (int) (negative ? -value : value);
+			return NUMBER;
+		}
+		return WORD;
+	}
+
+	/**
+	 * O valor do último token, se for um número.
+	 *
+	 * @return o número lido
+	 */
+	public int number() {
+		return number;
+	}
+
+	/**
+	 * Diz se a última palavra contém o padrão, sem distinguir maiúsculas de
+	 * minúsculas (apenas ASCII).
+	 *
+	 * @param upperCasePattern o padrão, em maiúsculas
+	 * @return true se a palavra contém o padrão
+	 */
+	public boolean wordContains(String upperCasePattern) {
+		int length = Math.min(wordLength, MAX_WORD);
+		int n = upperCasePattern.length();
+		for (int start = 0; start + n <= length; start++) {
+			int k = 0;
+			while (k < n && upper(word[start + k]) == upperCasePattern.charAt(k)) {
+				k++;
+			}
+			if (k == n) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int upper(byte b) {
+		return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+	}
+
+	private int read() throws IOException {
+		if (position == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position++] & 0xFF;
+	}
+}
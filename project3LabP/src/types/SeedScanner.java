@@ -0,0 +1,327 @@
+package types;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Percorre intervalos de sementes de uma configuração e regista, para cada
+ * mesa {@code new Table(palette, symbols, seed, capacity, Generator.LEGACY)},
+ * o número mínimo de jogadas para a resolver e a estimativa inicial da
+ * {@link Heuristic}. O gerador é sempre o mesmo, e não o escolhido pela
+ * propriedade {@value Table#PROPERTY}, para que o cabeçalho baste para saber de
+ * que mesas são os resultados e partes de máquinas diferentes se possam juntar.
+ *
+ * Cada semente ocupa dois bytes no ficheiro de resultados, pela ordem das
+ * sementes, depois de um cabeçalho com a configuração e o intervalo. As
+ * sementes são processadas em blocos, em paralelo, e cada bloco só é
+ * acrescentado ao ficheiro quando está completo; o tamanho do ficheiro é por
+ * isso o ponto de retoma, e voltar a correr o mesmo comando continua onde o
+ * anterior parou. Um intervalo pode ser dividido em partes contíguas e
+ * determinísticas, uma por máquina, cujos ficheiros se juntam com
+ * {@link #merge(Path, Path...)}.
+ *
+ * Uso:
+ * <pre>
+ * java -cp bin types.SeedScanner scan símbolos capacidade de até ficheiro [--shard k/n] [--estimate] [--nodes n]
+ * java -cp bin types.SeedScanner merge saída ficheiro...
+ * java -cp bin types.SeedScanner summary ficheiro
+ * </pre>
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SeedScanner {
+
+	/**
+	 * Valor do primeiro byte de um registo quando a mesa não foi resolvida, por
+	 * se ter atingido o limite de nós ou por só se pedir a estimativa.
+	 */
+	public static final int UNSOLVED = 0xFF;
+
+	/**
+	 * Número de nós do solver por semente, por omissão.
+	 */
+	public static final long DEFAULT_NODE_LIMIT = 100_000L;
+
+	private static final int MAGIC = 0x57425353; // "WBSS"
+	private static final int VERSION = 1;
+	private static final int HEADER = 32;
+	private static final int RECORD = 2;
+	private static final int BLOCK = 1 << 14;
+
+	private final int symbols;
+	private final int capacity;
+	private final boolean estimateOnly;
+	private final Palette palette;
+	private final ThreadLocal<Solver> solvers;
+
+	/**
+	 * Constrói um scanner para mesas com symbols símbolos e garrafas de
+	 * capacidade capacity.
+	 *
+	 * @param symbols      o número de símbolos usados
+	 * @param capacity     a capacidade das garrafas
+	 * @param nodeLimit    o número máximo de nós do solver por semente
+	 * @param estimateOnly se só se calcula a estimativa, sem resolver
+	 */
+	public SeedScanner(int symbols, int capacity, long nodeLimit, boolean estimateOnly) {
+		this.symbols = symbols;
+		this.capacity = capacity;
+		this.estimateOnly = estimateOnly;
+		this.palette = Palette.emoji(symbols);
+		this.solvers = ThreadLocal.withInitial(() -> new Solver(Heuristic.SEGMENTS, nodeLimit));
+	}
+
+	/**
+	 * Calcula a parte k de n do intervalo [from, to): partes contíguas, por
+	 * ordem, com tamanhos que diferem no máximo de uma semente.
+	 *
+	 * @param from a primeira semente
+	 * @param to   a semente a seguir à última
+	 * @param k    o número da parte, a partir de 0
+	 * @param n    o número de partes
+	 * @return a primeira semente da parte e a seguinte à última
+	 */
+	public static long[] shard(long from, long to, int k, int n) {
+		if (n < 1 || k < 0 || k >= n) {
+			throw new IllegalArgumentException("Parte " + k + "/" + n + " inválida");
+		}
+		long size = to - from;
+		return new long[] { from + size / n * k + Math.min(k, size % n),
+				from + size / n * (k + 1) + Math.min(k + 1, size % n) };
+	}
+
+	/**
+	 * Processa as sementes de [from, to) que ainda não estão em file e
+	 * acrescenta-as ao ficheiro, bloco a bloco.
+	 *
+	 * @param file o ficheiro de resultados, criado se não existir
+	 * @param from a primeira semente
+	 * @param to   a semente a seguir à última
+	 * @return quantas sementes foram processadas nesta chamada
+	 * @throws IOException se a escrita falhar ou file for de outro intervalo ou
+	 *                     configuração
+	 */
+	public long scan(Path file, long from, long to) throws IOException {
+		if (from < Integer.MIN_VALUE || to > Integer.MAX_VALUE + 1L || from > to) {
+			throw new IllegalArgumentException("As sementes são ints");
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			long done = resume(channel, file, from, to);
+			long next = from + done;
+			long processed = 0;
+			byte[] records = new byte[BLOCK * RECORD];
+			while (next < to) {
+				int n = (int) Math.min(BLOCK, to - next);
+				long first = next;
+				IntStream.range(0, n).parallel().forEach(k -> record((int) (first + k), records, k * RECORD));
+				ByteBuffer buffer = ByteBuffer.wrap(records, 0, n * RECORD);
+				channel.position(HEADER + (next - from) * RECORD);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+				next += n;
+				processed += n;
+			}
+			return processed;
+		}
+	}
+
+	/**
+	 * Escreve o cabeçalho de um ficheiro novo ou confirma o de um ficheiro
+	 * existente, descartando um registo incompleto no fim.
+	 *
+	 * @return quantas sementes já estão no ficheiro
+	 */
+	private long resume(FileChannel channel, Path file, long from, long to) throws IOException {
+		if (channel.size() == 0) {
+			channel.write(header(symbols, capacity, from, to), 0);
+			channel.force(true);
+			return 0;
+		}
+		long[] header = readHeader(channel, file);
+		if (header[0] != symbols || header[1] != capacity || header[2] != from || header[3] != to) {
+			throw new IOException(file + " tem resultados de outra configuração ou intervalo");
+		}
+		long done = Math.min((channel.size() - HEADER) / RECORD, to - from);
+		channel.truncate(HEADER + done * RECORD);
+		return done;
+	}
+
+	private void record(int seed, byte[] records, int at) {
+		Table table = new Table(palette, symbols, seed, capacity, Table.Generator.LEGACY);
+		Solver solver = solvers.get();
+		int length = UNSOLVED;
+		if (!estimateOnly) {
+			int[][] moves = solver.solve(table);
+			if (moves != null) {
+				length = Math.min(moves.length, UNSOLVED - 1);
+			}
+		}
+		records[at] = (byte) length;
+		records[at + 1] = (byte) Math.min(solver.estimate(table), 0xFF);
+	}
+
+	/**
+	 * Junta ficheiros de partes contíguas e completas da mesma configuração num
+	 * só ficheiro, pela ordem das sementes.
+	 *
+	 * @param out    o ficheiro a criar
+	 * @param inputs os ficheiros das partes, por qualquer ordem
+	 * @throws IOException se as partes não forem completas, contíguas e da mesma
+	 *                     configuração
+	 */
+	public static void merge(Path out, Path... inputs) throws IOException {
+		long[][] headers = new long[inputs.length][];
+		Integer[] order = new Integer[inputs.length];
+		for (int i = 0; i < inputs.length; i++) {
+			try (FileChannel channel = FileChannel.open(inputs[i], StandardOpenOption.READ)) {
+				headers[i] = readHeader(channel, inputs[i]);
+				if (channel.size() != HEADER + (headers[i][3] - headers[i][2]) * RECORD) {
+					throw new IOException(inputs[i] + " não está completo");
+				}
+			}
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingLong(i -> headers[i][2]));
+		for (int k = 1; k < order.length; k++) {
+			long[] previous = headers[order[k - 1]];
+			long[] current = headers[order[k]];
+			if (current[0] != previous[0] || current[1] != previous[1] || current[2] != previous[3]) {
+				throw new IOException(inputs[order[k]] + " não continua " + inputs[order[k - 1]]);
+			}
+		}
+		long[] first = headers[order[0]];
+		long last = headers[order[order.length - 1]][3];
+		try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(header((int) first[0], (int) first[1], first[2], last));
+			for (Integer i : order) {
+				try (FileChannel in = FileChannel.open(inputs[i], StandardOpenOption.READ)) {
+					long position = HEADER;
+					while (position < in.size()) {
+						position += in.transferTo(position, in.size() - position, channel);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resume um ficheiro de resultados: quantas sementes, quantas foram
+	 * resolvidas e a distribuição do número mínimo de jogadas.
+	 *
+	 * @param file o ficheiro de resultados
+	 * @return o resumo, uma linha por número de jogadas
+	 * @throws IOException se a leitura falhar
+	 */
+	public static String summary(Path file) throws IOException {
+		long[] lengths = new long[UNSOLVED + 1];
+		long[] header;
+		long count;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			header = readHeader(channel, file);
+			count = (channel.size() - HEADER) / RECORD;
+			ByteBuffer buffer = ByteBuffer.allocate(BLOCK * RECORD);
+			long position = HEADER;
+			while (position < HEADER + count * RECORD) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+				if (read <= 0) {
+					break;
+				}
+				for (int k = 0; k + 1 < read; k += RECORD) {
+					lengths[buffer.get(k) & 0xFF]++;
+				}
+				position += read - read % RECORD;
+			}
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("símbolos %d, capacidade %d, sementes [%d, %d): %d processadas%n", header[0],
+				header[1], header[2], header[3], count));
+		for (int length = 0; length < UNSOLVED; length++) {
+			if (lengths[length] > 0) {
+				sb.append(String.format("%4d %14d%n", length, lengths[length]));
+			}
+		}
+		sb.append(String.format("sem solução %9d%n", lengths[UNSOLVED]));
+		return sb.toString();
+	}
+
+	private static ByteBuffer header(int symbols, int capacity, long from, long to) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.putInt(MAGIC).putInt(VERSION).putInt(symbols).putInt(capacity).putLong(from).putLong(to).flip();
+		return header;
+	}
+
+	/**
+	 * Lê o cabeçalho: símbolos, capacidade, primeira semente e a seguinte à
+	 * última.
+	 */
+	private static long[] readHeader(FileChannel channel, Path file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+		}
+		if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException(file + " não é um ficheiro de resultados");
+		}
+		return new long[] { header.getInt(8), header.getInt(12), header.getLong(16), header.getLong(24) };
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length >= 6 && args[0].equals("scan")) {
+			long from = Long.parseLong(args[3]);
+			long to = Long.parseLong(args[4]);
+			long nodes = DEFAULT_NODE_LIMIT;
+			boolean estimate = false;
+			long[] range = { from, to };
+			for (int i = 6; i < args.length; i++) {
+				if (args[i].equals("--estimate")) {
+					estimate = true;
+				}
+				else if (args[i].equals("--nodes") && i + 1 < args.length) {
+					nodes = Long.parseLong(args[++i]);
+				}
+				else if (args[i].equals("--shard") && i + 1 < args.length) {
+					String[] kn = args[++i].split("/");
+					range = shard(from, to, Integer.parseInt(kn[0]), Integer.parseInt(kn[1]));
+				}
+			}
+			SeedScanner scanner = new SeedScanner(Integer.parseInt(args[1]), Integer.parseInt(args[2]), nodes,
+					estimate);
+			long start = System.nanoTime();
+			long processed = scanner.scan(Paths.get(args[5]), range[0], range[1]);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%d sementes em %.2f s (%.0f sementes/s)%n", processed, seconds,
+					seconds > 0 ? processed / seconds : 0);
+			System.out.print(summary(Paths.get(args[5])));
+		}
+		else if (args.length >= 3 && args[0].equals("merge")) {
+			Path[] inputs = new Path[args.length - 2];
+			for (int i = 0; i < inputs.length; i++) {
+				inputs[i] = Paths.get(args[i + 2]);
+			}
+			merge(Paths.get(args[1]), inputs);
+			System.out.print(summary(Paths.get(args[1])));
+		}
+		else if (args.length == 2 && args[0].equals("summary") && Files.exists(Paths.get(args[1]))) {
+			System.out.print(summary(Paths.get(args[1])));
+		}
+		else {
+			System.err.println("Uso: java types.SeedScanner scan símbolos capacidade de até ficheiro"
+					+ " [--shard k/n] [--estimate] [--nodes n]");
+			System.err.println("     java types.SeedScanner merge saída ficheiro...");
+			System.err.println("     java types.SeedScanner summary ficheiro");
+			System.exit(2);
+		}
+	}
+}
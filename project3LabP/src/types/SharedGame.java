@@ -0,0 +1,326 @@
+package types;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Um jogo em que vários jogadores jogam ao mesmo tempo na mesma mesa, cada um
+ * na sua thread.
+ *
+ * As jogadas são as de {@link Game#play(int, int)}, mas cada jogada bloqueia só
+ * as duas garrafas em que mexe, sempre pela ordem dos índices para que duas
+ * jogadas nunca fiquem à espera uma da outra. Jogadas em garrafas diferentes
+ * avançam em paralelo. Ao contrário do jogo, uma jogada que não verte nada,
+ * de uma garrafa vazia ou para uma cheia, nunca é válida, e uma ronda terminada
+ * ignora as jogadas até começar a seguinte.
+ *
+ * As jogadas da ronda e o número de garrafas por resolver estão juntos num só
+ * long atómico, que cada jogada atualiza com um compareAndSet enquanto tem as
+ * suas garrafas bloqueadas. Esse compareAndSet é o instante em que a jogada
+ * acontece: a jogada que leva as garrafas por resolver a 0 é a única que termina
+ * a ronda, sabe com quantas jogadas o fez e é ela que soma o bónus à pontuação.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SharedGame {
+	private static final long MOVE = 1L << 32;
+
+	private final Table jogo; // só gera as mesas de cada ronda
+	private final int capacity;
+	private final int bottles;
+	private final byte[] cells;
+	private final int[] sizes;
+	private final ReentrantLock[] locks;
+	// jogadas nos 32 bits de cima, garrafas por resolver nos de baixo
+	private final AtomicLong state = new AtomicLong();
+	private final AtomicInteger score = new AtomicInteger();
+
+	/**
+	 * Constrói um jogo partilhado em que os conteúdos das garrafas na mesa são
+	 * symbols.
+	 *
+	 * @param symbols             os símbolos dos conteúdos das garrafas
+	 * @param numberOfUsedSymbols o número de símbolos a serem usados
+	 * @param seed                a semente do gerador de aleatórios
+	 * @param capacity            o tamanho das garrafas
+	 */
+	public SharedGame(Filling[] symbols, int numberOfUsedSymbols, int seed, int capacity) {
+		this(Palette.of(symbols), numberOfUsedSymbols, seed, capacity);
+	}
+
+	/**
+	 * Constrói um jogo partilhado com as mesmas rondas de
+	 * {@code new Game(palette, numberOfUsedSymbols, seed, capacity)}.
+	 *
+	 * @param palette             os símbolos dos conteúdos das garrafas
+	 * @param numberOfUsedSymbols o número de símbolos a serem usados
+	 * @param seed                a semente do gerador de aleatórios
+	 * @param capacity            o tamanho das garrafas
+	 */
+	public SharedGame(Palette palette, int numberOfUsedSymbols, int seed, int capacity) {
+		this.jogo = new Table(palette, numberOfUsedSymbols, seed, capacity);
+		this.capacity = capacity;
+		this.bottles = jogo.getNumberBottles();
+		this.cells = new byte[bottles * capacity];
+		this.sizes = new int[bottles];
+		this.locks = new ReentrantLock[bottles];
+		for (int i = 0; i < bottles; i++) {
+			locks[i] = new ReentrantLock();
+		}
+		while (jogo.areAllFilled()) {
+			jogo.regenerateTable();
+		}
+		load();
+	}
+
+	/**
+	 * Efetua uma jogada, vertendo a garrafa i para a garrafa j.
+	 *
+	 * @param i indice do conteúdo da garrafa a mover
+	 * @param j indice onde colocar o conteúdo da garrafa a mover
+	 * @return true se a jogada foi feita
+	 */
+	public boolean play(int i, int j) {
+		if (!inRange(i, j)) {
+			return false;
+		}
+		ReentrantLock first = locks[Math.min(i, j)];
+		ReentrantLock second = locks[Math.max(i, j)];
+		first.lock();
+		second.lock();
+		try {
+			int amount = amount(i, j);
+			if (amount == 0) {
+				return false;
+			}
+			int from = sizes[i];
+			int to = sizes[j];
+			int before = (solved(i, from) ? 0 : 1) + (to == 0 ? 0 : 1);
+			int after = (from == amount ? 0 : 1) + (to + amount == capacity && run(j, to) + amount == capacity ? 0 : 1);
+			long current;
+			long next;
+			do {
+				current = state.get();
+				if ((int) current == 0) {
+					return false;
+				}
+				next = current + MOVE + after - before;
+			} while (!state.compareAndSet(current, next));
+			System.arraycopy(cells, i * capacity + from - amount, cells, j * capacity + to, amount);
+			sizes[i] = from - amount;
+			sizes[j] = to + amount;
+			if ((int) next == 0) {
+				// ainda com as garrafas bloqueadas, para startNewRound ver o bónus
+				score.addAndGet(Game.bonus((int) (next >>> 32)));
+			}
+			return true;
+		}
+		finally {
+			second.unlock();
+			first.unlock();
+		}
+	}
+
+	/**
+	 * Verifica se uma jogada é válida.
+	 *
+	 * @param i indice do conteúdo da garrafa a mover
+	 * @param j indice onde colocar o conteúdo da garrafa a mover
+	 * @return true se a jogada for válida, false caso contrário
+	 */
+	public boolean isValid(int i, int j) {
+		if (!inRange(i, j) || isRoundFinished()) {
+			return false;
+		}
+		ReentrantLock first = locks[Math.min(i, j)];
+		ReentrantLock second = locks[Math.max(i, j)];
+		first.lock();
+		second.lock();
+		try {
+			return amount(i, j) > 0;
+		}
+		finally {
+			second.unlock();
+			first.unlock();
+		}
+	}
+
+	private boolean inRange(int i, int j) {
+		return i >= 0 && i < bottles && j >= 0 && j < bottles && i != j;
+	}
+
+	/**
+	 * Quantos goles a jogada de i para j verte, ou 0 se não for válida; só com as
+	 * duas garrafas bloqueadas
+	 */
+	private int amount(int i, int j) {
+		int from = sizes[i];
+		int to = sizes[j];
+		if (from == 0 || to == capacity || to > 0 && cells[i * capacity + from - 1] != cells[j * capacity + to - 1]) {
+			return 0;
+		}
+		return Math.min(run(i, from), capacity - to);
+	}
+
+	/**
+	 * Quantos goles iguais ao do topo estão seguidos no topo da garrafa i com size
+	 * goles
+	 */
+	private int run(int i, int size) {
+		if (size == 0) {
+			return 0;
+		}
+		int base = i * capacity;
+		byte top = cells[base + size - 1];
+		int k = size - 1;
+		while (k > 0 && cells[base + k - 1] == top) {
+			k--;
+		}
+		return size - k;
+	}
+
+	private boolean solved(int i, int size) {
+		return size == 0 || size == capacity && run(i, size) == capacity;
+	}
+
+	/**
+	 * Indica se a ronda está acabada, ou seja, se todas as garrafas estão
+	 * totalmente cheias com um único conteúdo ou vazias.
+	 *
+	 * @return true se a ronda já acabou, caso contrário retorna false
+	 */
+	public boolean isRoundFinished() {
+		return (int) state.get() == 0;
+	}
+
+	/**
+	 * Gera uma nova mesa com novas garrafas, esperando pelas jogadas que estejam a
+	 * meio.
+	 */
+	public void startNewRound() {
+		lockAll();
+		try {
+			do {
+				jogo.regenerateTable();
+			} while (jogo.areAllFilled());
+			load();
+		}
+		finally {
+			unlockAll();
+		}
+	}
+
+	/**
+	 * Copia a mesa gerada para as garrafas do jogo e recomeça as jogadas
+	 */
+	private void load() {
+		for (int i = 0; i < bottles; i++) {
+			sizes[i] = jogo.size(i);
+			for (int level = 0; level < sizes[i]; level++) {
+				cells[i * capacity + level] = (byte) jogo.codeAt(i, level);
+			}
+		}
+		state.set(jogo.unsolvedBottles());
+	}
+
+	private void lockAll() {
+		for (ReentrantLock lock : locks) {
+			lock.lock();
+		}
+	}
+
+	private void unlockAll() {
+		for (int i = bottles - 1; i >= 0; i--) {
+			locks[i].unlock();
+		}
+	}
+
+	/**
+	 * Obtém a pontuação atual do jogo. O bónus de uma ronda conta a partir do
+	 * momento em que a jogada que a terminou retorna.
+	 *
+	 * @return a pontuação atual do jogo
+	 */
+	public int score() {
+		return score.get();
+	}
+
+	/**
+	 * Retorna o número de jogadas efetuadas na ronda até ao momento.
+	 *
+	 * @return o número de jogadas
+	 */
+	public int jogadas() {
+		return (int) (state.get() >>> 32);
+	}
+
+	/**
+	 * Retorna a quantidade de garrafas na mesa.
+	 *
+	 * @return a quantidade de garrafas
+	 */
+	public int getNumberBottles() {
+		return bottles;
+	}
+
+	/**
+	 * Retorna a capacidade das garrafas.
+	 *
+	 * @return a capacidade das garrafas
+	 */
+	public int getSizeBottles() {
+		return capacity;
+	}
+
+	/**
+	 * Obtém a representação do gole da garrafa i na posição level, a contar da
+	 * base.
+	 *
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return a representação do gole, ou {@link Table#EMPTY}
+	 */
+	public String cell(int i, int level) {
+		locks[i].lock();
+		try {
+			return level < sizes[i] ? jogo.getPalette().symbol(cells[i * capacity + level] & 0xFF) : Table.EMPTY;
+		}
+		finally {
+			locks[i].unlock();
+		}
+	}
+
+	/**
+	 * Retorna uma descrição textual do jogo, igual à de {@link Game#toString()},
+	 * tirada com todas as garrafas bloqueadas.
+	 */
+	@Override
+	public String toString() {
+		lockAll();
+		try {
+			long current = state.get();
+			int jogadas = (int) (current >>> 32);
+			StringBuilder sb = new StringBuilder("Score: " + score.get() + Game.EOL);
+			for (int level = capacity - 1; level >= 0; level--) {
+				for (int i = 0; i < bottles; i++) {
+					sb.append(level < sizes[i] ? jogo.getPalette().symbol(cells[i * capacity + level] & 0xFF)
+							: Table.EMPTY).append("    ");
+				}
+				sb.append(Game.EOL);
+			}
+			if ((int) current != 0) {
+				sb.append("Status: The round is not finished." + Game.EOL);
+				sb.append(jogadas + " moves have been used until now." + Game.EOL);
+			}
+			else {
+				sb.append("Status: This round is finished." + Game.EOL);
+				sb.append(jogadas + " moves were used." + Game.EOL);
+			}
+			return sb.toString();
+		}
+		finally {
+			unlockAll();
+		}
+	}
+}
@@ -0,0 +1,537 @@
+package types;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Cache persistente de soluções, partilhada entre reinícios e jogadores. A
+ * chave é a configuração (o tamanho da paleta e a capacidade das garrafas) e a
+ * posição com as garrafas ordenadas, porque garrafas iguais são
+ * indistinguíveis; como a mesma configuração e semente dão sempre a mesma mesa,
+ * a semente não é precisa. As jogadas são guardadas pelos índices das garrafas
+ * ordenadas e traduzidas para os da mesa de cada consulta.
+ *
+ * As soluções são acrescentadas a um registo ({@value #LOG}) e encontradas
+ * por um índice de dispersão ({@value #INDEX}) mapeado em memória, com a chave
+ * de 64 bits e a posição do registo; a posição guardada no registo é sempre
+ * comparada com a da consulta. Cada registo tem um CRC32, e ao abrir a cache os
+ * registos escritos depois da última atualização do índice são lidos de novo e
+ * um registo truncado por uma falha é cortado; um índice que não corresponda
+ * ao registo é reconstruído no mesmo ficheiro, que só cresce. Quando o registo passa do tamanho máximo é
+ * compactado, ficando só as soluções mais recentes de cada posição até metade
+ * do máximo, num ficheiro novo que substitui o anterior de uma vez.
+ *
+ * Os métodos são sincronizados, por isso a cache pode ser usada por várias
+ * threads; dois processos não podem usar a mesma pasta ao mesmo tempo.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public final class SolutionCache implements Closeable {
+
+	/**
+	 * O nome do ficheiro do registo.
+	 */
+	public static final String LOG = "solutions.log";
+
+	/**
+	 * O nome do ficheiro do índice.
+	 */
+	public static final String INDEX = "solutions.idx";
+
+	/**
+	 * O tamanho máximo do registo por omissão.
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+	private static final int LOG_MAGIC = 0x5742534C; // "WBSL"
+	private static final int INDEX_MAGIC = 0x57425349; // "WBSI"
+	private static final int VERSION = 1;
+	private static final int LOG_HEADER = 16; // magic, versão, geração
+	private static final int INDEX_HEADER = 32; // magic, versão, geração, fim do registo indexado, slots
+	private static final int SLOT = 16; // chave, posição no registo + 1
+	private static final int RECORD_HEADER = 8; // comprimento, CRC32
+	private static final int MIN_SLOTS = 1 << 12;
+
+	private final Path dir;
+	private final long maxBytes;
+	private FileChannel log;
+	private long generation;
+	private long end;
+	private FileChannel indexChannel;
+	private MappedByteBuffer index;
+	private int slots;
+	private int used;
+
+	private SolutionCache(Path dir, long maxBytes) {
+		this.dir = dir;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Abre, ou cria, a cache na pasta dir, recuperando o que uma falha tenha
+	 * deixado a meio.
+	 *
+	 * @param dir      a pasta
+	 * @param maxBytes o tamanho a partir do qual o registo é compactado
+	 * @return a cache
+	 * @throws IOException se a pasta não puder ser lida ou escrita
+	 */
+	public static SolutionCache open(Path dir, long maxBytes) throws IOException {
+		Files.createDirectories(dir);
+		SolutionCache cache = new SolutionCache(dir, maxBytes);
+		cache.openLog();
+		cache.openIndex();
+		return cache;
+	}
+
+	/**
+	 * Procura a solução da mesa na cache e, se não estiver lá, pede-a ao solver e
+	 * guarda-a.
+	 *
+	 * @param table  a mesa, que não é alterada
+	 * @param solver o solver, chamado só se a cache não tiver a solução
+	 * @return as jogadas {i, j} por ordem, ou null se o solver não encontrou
+	 *         solução
+	 * @throws IOException se a cache não puder ser lida ou escrita
+	 */
+	public int[][] solve(Table table, Function<Table, int[][]> solver) throws IOException {
+		int[][] moves = get(table);
+		if (moves == null) {
+			moves = solver.apply(table);
+			if (moves != null) {
+				put(table, moves);
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Procura a solução da mesa.
+	 *
+	 * @param table a mesa
+	 * @return as jogadas {i, j} por ordem, pelos índices das garrafas da mesa, ou
+	 *         null se a cache não tem a solução
+	 * @throws IOException se o registo não puder ser lido
+	 */
+	public synchronized int[][] get(Table table) throws IOException {
+		Key key = Key.of(table);
+		if (key == null) {
+			return null;
+		}
+		ByteBuffer record = find(key);
+		if (record == null) {
+			return null;
+		}
+		int[][] moves = new int[record.getInt()][];
+		for (int m = 0; m < moves.length; m++) {
+			moves[m] = new int[] { key.order[record.getChar()], key.order[record.getChar()] };
+		}
+		return moves;
+	}
+
+	/**
+	 * Guarda a solução da mesa, se a cache não tiver uma com menos ou as mesmas
+	 * jogadas.
+	 *
+	 * @param table a mesa
+	 * @param moves as jogadas {i, j} por ordem, pelos índices das garrafas da mesa
+	 * @throws IOException se o registo não puder ser escrito
+	 */
+	public synchronized void put(Table table, int[][] moves) throws IOException {
+		Key key = Key.of(table);
+		if (key == null) {
+			return;
+		}
+		ByteBuffer old = find(key);
+		if (old != null && old.getInt() <= moves.length) {
+			return;
+		}
+		int[] rank = new int[key.order.length];
+		for (int k = 0; k < rank.length; k++) {
+			rank[key.order[k]] = k;
+		}
+		ByteBuffer body = ByteBuffer.allocate(12 + key.state.length + 4 + 4 * moves.length);
+		body.putLong(key.hash).putInt(key.state.length).put(key.state).putInt(moves.length);
+		for (int[] move : moves) {
+			body.putChar((char) rank[move[0]]).putChar((char) rank[move[1]]);
+		}
+		long offset = append(body.array());
+		insert(key.hash, offset);
+		index.putLong(16, end);
+		if (end > maxBytes) {
+			compact();
+		}
+	}
+
+	/**
+	 * Reescreve o registo só com a solução mais recente de cada posição, até
+	 * metade do tamanho máximo, e reconstrói o índice.
+	 *
+	 * @throws IOException se os ficheiros não puderem ser escritos
+	 */
+	public synchronized void compact() throws IOException {
+		long[] offsets = new long[used];
+		int n = 0;
+		for (int s = 0; s < slots; s++) {
+			long offset = index.getLong(INDEX_HEADER + s * SLOT + 8) - 1;
+			if (offset >= 0) {
+				offsets[n++] = offset;
+			}
+		}
+		Arrays.sort(offsets, 0, n);
+		// as mais recentes primeiro, enquanto couberem
+		long budget = maxBytes / 2 - LOG_HEADER;
+		int first = n;
+		while (first > 0 && budget >= recordLength(offsets[first - 1])) {
+			budget -= recordLength(offsets[--first]);
+		}
+		Path temp = dir.resolve(LOG + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(out, logHeader(generation + 1), 0);
+			long position = LOG_HEADER;
+			for (int k = first; k < n; k++) {
+				long from = offsets[k];
+				long to = from + recordLength(from);
+				while (from < to) {
+					long copied = log.transferTo(from, to - from, out.position(position));
+					from += copied;
+					position += copied;
+				}
+			}
+			out.force(true);
+		}
+		log.close();
+		Files.move(temp, dir.resolve(LOG), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		openLog();
+		rebuildIndex(MIN_SLOTS);
+	}
+
+	/**
+	 * Quantas posições tem a cache.
+	 *
+	 * @return o número de posições
+	 */
+	public synchronized int size() {
+		return used;
+	}
+
+	/**
+	 * O tamanho do registo.
+	 *
+	 * @return o número de bytes do registo
+	 */
+	public synchronized long bytes() {
+		return end;
+	}
+
+	/**
+	 * Grava no disco o registo e o índice e fecha a cache.
+	 *
+	 * @throws IOException se a escrita falhar
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		log.force(true);
+		index.force();
+		log.close();
+		indexChannel.close();
+	}
+
+	/**
+	 * A chave de uma mesa: as garrafas ordenadas, cada uma com o número de goles
+	 * seguido dos códigos, e o índice na mesa de cada garrafa ordenada.
+	 */
+	private static final class Key {
+		private final byte[] state;
+		private final int[] order;
+		private final long hash;
+
+		private Key(byte[] state, int[] order, long hash) {
+			this.state = state;
+			this.order = order;
+			this.hash = hash;
+		}
+
+		/**
+		 * A chave da mesa, ou null se as garrafas não tiverem todas a mesma
+		 * capacidade ou tiverem mais de 255 posições.
+		 */
+		static Key of(Table table) {
+			int bottles = table.getNumberBottles();
+			int capacity = table.getSizeBottles();
+			if (capacity > 0xFF) {
+				return null;
+			}
+			int row = capacity + 1;
+			byte[] rows = new byte[bottles * row];
+			for (int b = 0; b < bottles; b++) {
+				if (table.capacity(b) != capacity) {
+					return null;
+				}
+				rows[b * row] = (byte) table.size(b);
+				for (int level = 0; level < table.size(b); level++) {
+					rows[b * row + 1 + level] = (byte) table.codeAt(b, level);
+				}
+			}
+			Integer[] sorted = new Integer[bottles];
+			for (int b = 0; b < bottles; b++) {
+				sorted[b] = b;
+			}
+			Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(rows, a * row, a * row + row, rows, b * row,
+					b * row + row));
+			byte[] state = new byte[8 + rows.length];
+			ByteBuffer.wrap(state).putInt(table.getPalette().size()).putInt(capacity);
+			int[] order = new int[bottles];
+			for (int k = 0; k < bottles; k++) {
+				order[k] = sorted[k];
+				System.arraycopy(rows, order[k] * row, state, 8 + k * row, row);
+			}
+			long h = 0xCBF29CE484222325L;
+			for (byte x : state) {
+				h = (h ^ (x & 0xFF)) * 0x100000001B3L;
+			}
+			h ^= h >>> 31;
+			return new Key(state, order, h == 0 ? 1 : h);
+		}
+	}
+
+	/**
+	 * O corpo do registo da chave, posicionado no número de jogadas, ou null.
+	 */
+	private ByteBuffer find(Key key) throws IOException {
+		int mask = slots - 1;
+		for (int s = (int) key.hash & mask;; s = s + 1 & mask) {
+			long k = index.getLong(INDEX_HEADER + s * SLOT);
+			if (k == 0) {
+				return null;
+			}
+			if (k == key.hash) {
+				long offset = index.getLong(INDEX_HEADER + s * SLOT + 8) - 1;
+				ByteBuffer body = read(offset);
+				body.getLong();
+				byte[] state = new byte[body.getInt()];
+				body.get(state);
+				if (Arrays.equals(state, key.state)) {
+					return body;
+				}
+			}
+		}
+	}
+
+	private void insert(long hash, long offset) throws IOException {
+		int mask = slots - 1;
+		int s = (int) hash & mask;
+		while (true) {
+			long k = index.getLong(INDEX_HEADER + s * SLOT);
+			if (k == 0) {
+				used++;
+				break;
+			}
+			if (k == hash && sameState(index.getLong(INDEX_HEADER + s * SLOT + 8) - 1, offset)) {
+				break;
+			}
+			s = s + 1 & mask;
+		}
+		index.putLong(INDEX_HEADER + s * SLOT, hash);
+		index.putLong(INDEX_HEADER + s * SLOT + 8, offset + 1);
+		if (2 * used > slots) {
+			growIndex();
+		}
+	}
+
+	private boolean sameState(long a, long b) throws IOException {
+		ByteBuffer x = read(a);
+		ByteBuffer y = read(b);
+		x.getLong();
+		y.getLong();
+		int length = x.getInt();
+		return length == y.getInt() && x.slice(x.position(), length).equals(y.slice(y.position(), length));
+	}
+
+	private ByteBuffer read(long offset) throws IOException {
+		ByteBuffer body = ByteBuffer.allocate(recordLength(offset) - RECORD_HEADER);
+		readFully(log, body, offset + RECORD_HEADER);
+		return body.flip();
+	}
+
+	private int recordLength(long offset) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(4);
+		readFully(log, header, offset);
+		return RECORD_HEADER + header.getInt(0);
+	}
+
+	private long append(byte[] body) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + body.length);
+		record.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+		long offset = end;
+		writeFully(log, record, offset);
+		end += record.capacity();
+		return offset;
+	}
+
+	private void openLog() throws IOException {
+		Path file = dir.resolve(LOG);
+		log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+		if (log.size() < LOG_HEADER || log.read(header, 0) < LOG_HEADER || header.getInt(0) != LOG_MAGIC
+				|| header.getInt(4) != VERSION) {
+			if (log.size() > 0) {
+				throw new IOException(file + " não é um registo de soluções");
+			}
+			header = logHeader(System.nanoTime());
+			writeFully(log, header.duplicate(), 0);
+			log.force(true);
+		}
+		generation = header.getLong(8);
+		end = log.size();
+	}
+
+	private static ByteBuffer logHeader(long generation) {
+		return ByteBuffer.allocate(LOG_HEADER).putInt(LOG_MAGIC).putInt(VERSION).putLong(generation).flip();
+	}
+
+	/**
+	 * Abre o índice, ou reconstrói-o se não for deste registo, e indexa os
+	 * registos que foram escritos depois da última atualização. O cabeçalho é
+	 * lido antes de mapear o ficheiro.
+	 */
+	private void openIndex() throws IOException {
+		Path file = dir.resolve(INDEX);
+		indexChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long indexed = -1;
+		if (indexChannel.size() >= INDEX_HEADER) {
+			ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER);
+			readFully(indexChannel, header, 0);
+			int n = header.getInt(24);
+			if (header.getInt(0) == INDEX_MAGIC && header.getInt(4) == VERSION && header.getLong(8) == generation
+					&& header.getLong(16) >= LOG_HEADER && header.getLong(16) <= end && n >= MIN_SLOTS
+					&& Integer.bitCount(n) == 1 && indexChannel.size() >= INDEX_HEADER + (long) n * SLOT) {
+				indexed = header.getLong(16);
+				slots = n;
+				index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) n * SLOT);
+				used = 0;
+				for (int s = 0; s < slots; s++) {
+					used += index.getLong(INDEX_HEADER + s * SLOT) != 0 ? 1 : 0;
+				}
+			}
+		}
+		if (indexed < 0) {
+			rebuildIndex(MIN_SLOTS);
+		}
+		else {
+			scan(indexed);
+		}
+	}
+
+	/**
+	 * Esvazia o índice, com slots posições, e indexa todo o registo.
+	 */
+	private void rebuildIndex(int slots) throws IOException {
+		clearIndex(slots);
+		scan(LOG_HEADER);
+	}
+
+	/**
+	 * Põe o índice com slots posições vazias, no mesmo ficheiro. O ficheiro nunca
+	 * é substituído nem encolhido, porque no Windows um ficheiro com uma vista
+	 * mapeada não o pode ser; se já for maior do que o preciso, o resto fica sem
+	 * uso. O cabeçalho só fica válido depois de as posições estarem limpas.
+	 */
+	private void clearIndex(int slots) throws IOException {
+		long size = INDEX_HEADER + (long) slots * SLOT;
+		if (index == null || index.capacity() < size) {
+			index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, indexChannel.size()));
+		}
+		index.putInt(0, 0);
+		for (int position = INDEX_HEADER; position < size; position += 8) {
+			index.putLong(position, 0);
+		}
+		index.putInt(4, VERSION).putLong(8, generation).putLong(16, LOG_HEADER).putInt(24, slots);
+		index.putInt(0, INDEX_MAGIC);
+		this.slots = slots;
+		used = 0;
+	}
+
+	/**
+	 * Indexa os registos a partir de from e corta o registo no primeiro que
+	 * estiver incompleto ou não passar no CRC32.
+	 */
+	private void scan(long from) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+		long offset = from;
+		long size = log.size();
+		while (offset + RECORD_HEADER <= size) {
+			readFully(log, header.clear(), offset);
+			int length = header.getInt(0);
+			if (length < 12 || offset + RECORD_HEADER + length > size) {
+				break;
+			}
+			ByteBuffer body = ByteBuffer.allocate(length);
+			readFully(log, body, offset + RECORD_HEADER);
+			CRC32 crc = new CRC32();
+			crc.update(body.array());
+			if ((int) crc.getValue() != header.getInt(4)) {
+				break;
+			}
+			insert(body.getLong(0), offset);
+			offset += RECORD_HEADER + length;
+		}
+		if (offset < size) {
+			log.truncate(offset);
+		}
+		end = offset;
+		index.putLong(16, end);
+	}
+
+	private void growIndex() throws IOException {
+		long[] entries = new long[2 * used];
+		int n = 0;
+		for (int s = 0; s < slots; s++) {
+			long k = index.getLong(INDEX_HEADER + s * SLOT);
+			if (k != 0) {
+				entries[n++] = k;
+				entries[n++] = index.getLong(INDEX_HEADER + s * SLOT + 8);
+			}
+		}
+		clearIndex(slots * 2);
+		int mask = slots - 1;
+		for (int e = 0; e < n; e += 2) {
+			int s = (int) entries[e] & mask;
+			while (index.getLong(INDEX_HEADER + s * SLOT) != 0) {
+				s = s + 1 & mask;
+			}
+			index.putLong(INDEX_HEADER + s * SLOT, entries[e]);
+			index.putLong(INDEX_HEADER + s * SLOT + 8, entries[e + 1]);
+		}
+		used = n / 2;
+		index.putLong(16, end);
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Fim inesperado do registo de soluções");
+			}
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+}
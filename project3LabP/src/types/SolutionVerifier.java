@@ -0,0 +1,195 @@
+package types;
+
+import java.util.stream.IntStream;
+
+/**
+ * Confirma rondas submetidas pelos jogadores: gera a mesa da semente, repete as
+ * jogadas com as regras de {@link Game#isValid(int, int)},
+ * {@link Game#play(int, int)} e {@link Game#updateScore()} e compara a
+ * pontuação e o número de jogadas com os que foram declarados.
+ *
+ * A mesa é copiada para arrays de primitivos reutilizados por cada thread, e
+ * cada jogada é repetida sobre eles sem criar objetos. Um lote de submissões é
+ * dividido por todos os processadores.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class SolutionVerifier {
+
+	/**
+	 * O resultado da verificação de uma submissão.
+	 */
+	public enum Verdict {
+		/** A ronda termina e a pontuação e as jogadas são as declaradas */
+		ACCEPTED,
+		/** A ronda termina mas a pontuação declarada está errada */
+		WRONG_SCORE,
+		/** A ronda termina mas o número de jogadas declarado está errado */
+		WRONG_MOVES,
+		/** Depois de todas as jogadas a ronda não está terminada */
+		NOT_FINISHED,
+		/** Uma jogada entre duas garrafas vazias, que faria o jogo falhar */
+		BAD_MOVE
+	}
+
+	/**
+	 * Uma ronda submetida: a configuração, as jogadas e o que o jogador declarou.
+	 */
+	public static final class Submission {
+		private final int seed;
+		private final int symbols;
+		private final int capacity;
+		private final int[] moves;
+		private final int score;
+		private final int jogadas;
+
+		/**
+		 * Constrói uma submissão.
+		 *
+		 * @param seed     a semente da mesa
+		 * @param symbols  o número de símbolos usados
+		 * @param capacity a capacidade das garrafas
+		 * @param moves    os índices das jogadas, aos pares: i0, j0, i1, j1, ...
+		 * @param score    a pontuação declarada, a partir de 0
+		 * @param jogadas  o número de jogadas válidas declarado
+		 */
+		public Submission(int seed, int symbols, int capacity, int[] moves, int score, int jogadas) {
+			this.seed = seed;
+			this.symbols = symbols;
+			this.capacity = capacity;
+			this.moves = moves;
+			this.score = score;
+			this.jogadas = jogadas;
+		}
+	}
+
+	private static final Palette PALETTE = Palette.emoji(Palette.MAX_SYMBOLS);
+
+	private final ThreadLocal<Replay> replays = ThreadLocal.withInitial(Replay::new);
+
+	/**
+	 * Verifica uma submissão.
+	 *
+	 * @param submission a submissão
+	 * @return o resultado
+	 */
+	public Verdict verify(Submission submission) {
+		return replays.get().verify(submission);
+	}
+
+	/**
+	 * Verifica um lote de submissões usando todos os processadores.
+	 *
+	 * @param batch as submissões
+	 * @return o resultado de cada submissão, pela mesma ordem
+	 */
+	public Verdict[] verifyAll(Submission[] batch) {
+		Verdict[] verdicts = new Verdict[batch.length];
+		IntStream.range(0, batch.length).parallel().forEach(k -> verdicts[k] = verify(batch[k]));
+		return verdicts;
+	}
+
+	/**
+	 * O estado de uma thread: a mesa da submissão em curso.
+	 */
+	private static final class Replay {
+		private byte[] cells = new byte[0];
+		private int[] sizes = new int[0];
+		private int bottles;
+		private int capacity;
+		private int unsolved;
+
+		Verdict verify(Submission s) {
+			load(s);
+			int score = 0;
+			int jogadas = 0;
+			int[] moves = s.moves;
+			for (int m = 0; m + 1 < moves.length; m += 2) {
+				int i = moves[m];
+				int j = moves[m + 1];
+				if (i < 0 || i >= bottles || j < 0 || j >= bottles || i == j) {
+					continue;
+				}
+				int sizeFrom = sizes[i];
+				int sizeTo = sizes[j];
+				if (sizeTo > 0 && (sizeFrom == 0 || top(i) != top(j))) {
+					continue;
+				}
+				if (sizeFrom == 0) {
+					return Verdict.BAD_MOVE;
+				}
+				pour(i, j, Math.min(run(i), capacity - sizeTo));
+				jogadas++;
+				if (unsolved == 0) {
+					score += Game.bonus(jogadas);
+				}
+			}
+			if (unsolved != 0) {
+				return Verdict.NOT_FINISHED;
+			}
+			if (jogadas != s.jogadas) {
+				return Verdict.WRONG_MOVES;
+			}
+			return score == s.score ? Verdict.ACCEPTED : Verdict.WRONG_SCORE;
+		}
+
+		/**
+		 * Copia a mesa inicial do jogo da submissão, gerada como no construtor de
+		 * {@link Game}.
+		 */
+		private void load(Submission s) {
+			Table table = new Table(PALETTE, s.symbols, s.seed, s.capacity);
+			while (table.areAllFilled()) {
+				table.regenerateTable();
+			}
+			bottles = table.getNumberBottles();
+			capacity = s.capacity;
+			if (cells.length < bottles * capacity) {
+				cells = new byte[bottles * capacity];
+			}
+			if (sizes.length < bottles) {
+				sizes = new int[bottles];
+			}
+			unsolved = 0;
+			for (int b = 0; b < bottles; b++) {
+				sizes[b] = table.size(b);
+				for (int level = 0; level < sizes[b]; level++) {
+					cells[b * capacity + level] = (byte) table.codeAt(b, level);
+				}
+				if (!solved(b)) {
+					unsolved++;
+				}
+			}
+		}
+
+		private void pour(int from, int to, int k) {
+			boolean wasFrom = solved(from);
+			boolean wasTo = solved(to);
+			byte code = cells[from * capacity + sizes[from] - 1];
+			for (int n = 0; n < k; n++) {
+				cells[to * capacity + sizes[to]++] = code;
+			}
+			sizes[from] -= k;
+			unsolved += (wasFrom ? 1 : 0) - (solved(from) ? 1 : 0) + (wasTo ? 1 : 0) - (solved(to) ? 1 : 0);
+		}
+
+		private int top(int b) {
+			return cells[b * capacity + sizes[b] - 1];
+		}
+
+		private int run(int b) {
+			int start = b * capacity;
+			int top = sizes[b] - 1;
+			int level = top - 1;
+			while (level >= 0 && cells[start + level] == cells[start + top]) {
+				level--;
+			}
+			return top - level;
+		}
+
+		private boolean solved(int b) {
+			return sizes[b] == 0 || sizes[b] == capacity && run(b) == capacity;
+		}
+	}
+
+}
@@ -0,0 +1,250 @@
+package types;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Procura a solução com menos jogadas de uma mesa, por aprofundamento iterativo
+ * A* (IDA*) guiado por uma {@link Heuristic}. A mesa é copiada para arrays de
+ * primitivos e as jogadas são feitas e desfeitas no lugar, com o caminho desde a
+ * mesa inicial numa {@link FixedIntStack}, por isso a pesquisa não cria objetos
+ * por nó. Uma tabela de transposições, indexada por um hash de
+ * Zobrist da posição, evita voltar a expandir posições já vistas com o mesmo
+ * ou menor número de jogadas na mesma iteração.
+ *
+ * As jogadas são as de {@link Game#play(int, int)}. Um solver não pode ser
+ * usado por várias threads ao mesmo tempo.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class Solver {
+
+	/**
+	 * Número de nós expandidos a partir do qual a pesquisa desiste, por omissão.
+	 */
+	public static final long DEFAULT_NODE_LIMIT = 50_000_000L;
+
+	private static final int FOUND = -1;
+	private static final int TT_BITS = 20;
+	private static final int TT_MASK = (1 << TT_BITS) - 1;
+
+	private final Heuristic heuristic;
+	private final long nodeLimit;
+
+	private final long[] ttKeys = new long[1 << TT_BITS];
+	private final int[] ttValues = new int[1 << TT_BITS]; // iteração << 8 | jogadas
+
+	private byte[] cells;
+	private int[] sizes;
+	private int capacity;
+	private int bottles;
+	private long[] zobrist;
+	private long hash;
+	private FixedIntStack path; // i, j de cada jogada
+	private int iteration;
+	private long expanded;
+
+	/**
+	 * Constrói um solver que usa a heurística dada e desiste depois de
+	 * {@link #DEFAULT_NODE_LIMIT} nós.
+	 *
+	 * @param heuristic a estimativa das jogadas que faltam
+	 */
+	public Solver(Heuristic heuristic) {
+		this(heuristic, DEFAULT_NODE_LIMIT);
+	}
+
+	/**
+	 * Constrói um solver que usa a heurística dada e desiste depois de nodeLimit
+	 * nós.
+	 *
+	 * @param heuristic a estimativa das jogadas que faltam
+	 * @param nodeLimit o número máximo de nós expandidos por pesquisa
+	 */
+	public Solver(Heuristic heuristic, long nodeLimit) {
+		this.heuristic = heuristic;
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Procura uma solução mínima para a mesa, sem a alterar.
+	 *
+	 * @param table a mesa
+	 * @return as jogadas {i, j} por ordem, vazio se a mesa já está resolvida, ou
+	 *         null se não há solução ou o limite de nós foi atingido
+	 */
+	public int[][] solve(Table table) {
+		load(table);
+		expanded = 0;
+		int bound = heuristic.estimate(cells, sizes, capacity);
+		path = new FixedIntStack(2 * (bottles * capacity + 1));
+		while (true) {
+			iteration++;
+			int t = search(0, bound);
+			if (t == FOUND) {
+				return moves();
+			}
+			if (t == Integer.MAX_VALUE || expanded >= nodeLimit || bound >= path.capacity() / 2) {
+				return null;
+			}
+			bound = t;
+		}
+	}
+
+	/**
+	 * Estima, com a heurística deste solver, quantas jogadas faltam para resolver
+	 * a mesa.
+	 *
+	 * @param table a mesa
+	 * @return a estimativa
+	 */
+	public int estimate(Table table) {
+		load(table);
+		return heuristic.estimate(cells, sizes, capacity);
+	}
+
+	/**
+	 * Quantos nós foram expandidos na última pesquisa.
+	 *
+	 * @return o número de nós expandidos
+	 */
+	public long expanded() {
+		return expanded;
+	}
+
+	private int[][] moves() {
+		int[][] moves = new int[path.size() / 2][];
+		for (int m = 0; m < moves.length; m++) {
+			moves[m] = new int[] { path.get(2 * m), path.get(2 * m + 1) };
+		}
+		return moves;
+	}
+
+	/**
+	 * Pesquisa em profundidade a partir da posição atual, a g jogadas do início.
+	 *
+	 * @return {@link #FOUND}, ou o menor custo estimado acima de bound
+	 */
+	private int search(int g, int bound) {
+		int f = g + heuristic.estimate(cells, sizes, capacity);
+		if (f > bound) {
+			return f;
+		}
+		if (solved()) {
+			return FOUND;
+		}
+		if (!remember(g) || expanded >= nodeLimit) {
+			return Integer.MAX_VALUE;
+		}
+		expanded++;
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < bottles; i++) {
+			int sizeFrom = sizes[i];
+			if (sizeFrom == 0) {
+				continue;
+			}
+			int code = cells[i * capacity + sizeFrom - 1];
+			int run = run(i);
+			boolean emptyTried = false;
+			for (int j = 0; j < bottles; j++) {
+				int sizeTo = sizes[j];
+				if (i == j || sizeTo == capacity || sizeTo > 0 && cells[j * capacity + sizeTo - 1] != code) {
+					continue;
+				}
+				if (sizeTo == 0) {
+					// verter toda a garrafa para uma vazia não muda nada, e as vazias são iguais
+					if (run == sizeFrom || emptyTried) {
+						continue;
+					}
+					emptyTried = true;
+				}
+				int k = Math.min(run, capacity - sizeTo);
+				pour(i, j, k);
+				path.push(i);
+				path.push(j);
+				int t = search(g + 1, bound);
+				pour(j, i, k);
+				if (t == FOUND) {
+					return FOUND;
+				}
+				path.popN(2);
+				min = Math.min(min, t);
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Regista a posição atual na tabela de transposições.
+	 *
+	 * @return false se a posição já foi expandida nesta iteração com g ou menos
+	 *         jogadas
+	 */
+	private boolean remember(int g) {
+		int slot = (int) (hash ^ hash >>> 32) & TT_MASK;
+		int value = ttValues[slot];
+		if (ttKeys[slot] == hash && value >>> 8 == iteration && (value & 0xFF) <= g) {
+			return false;
+		}
+		ttKeys[slot] = hash;
+		ttValues[slot] = iteration << 8 | Math.min(g, 0xFF);
+		return true;
+	}
+
+	private void pour(int from, int to, int k) {
+		int code = cells[from * capacity + sizes[from] - 1] & 0xFF;
+		for (int n = 0; n < k; n++) {
+			int source = from * capacity + --sizes[from];
+			int target = to * capacity + sizes[to]++;
+			hash ^= zobrist[source * 256 + code] ^ zobrist[target * 256 + code];
+			cells[target] = (byte) code;
+		}
+	}
+
+	private int run(int b) {
+		int start = b * capacity;
+		int top = sizes[b] - 1;
+		int level = top - 1;
+		while (level >= 0 && cells[start + level] == cells[start + top]) {
+			level--;
+		}
+		return top - level;
+	}
+
+	private boolean solved() {
+		for (int b = 0; b < bottles; b++) {
+			if (sizes[b] != 0 && (sizes[b] != capacity || run(b) != capacity)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void load(Table table) {
+		bottles = table.getNumberBottles();
+		capacity = table.getSizeBottles();
+		if (cells == null || sizes.length != bottles || cells.length != bottles * capacity) {
+			cells = new byte[bottles * capacity];
+			sizes = new int[bottles];
+			zobrist = new long[bottles * capacity * 256];
+			SplittableRandom rd = new SplittableRandom(bottles * 31L + capacity);
+			for (int k = 0; k < zobrist.length; k++) {
+				zobrist[k] = rd.nextLong();
+			}
+		}
+		hash = 0;
+		for (int b = 0; b < bottles; b++) {
+			sizes[b] = table.size(b);
+			for (int level = 0; level < sizes[b]; level++) {
+				int code = table.codeAt(b, level);
+				cells[b * capacity + level] = (byte) code;
+				hash ^= zobrist[(b * capacity + level) * 256 + code];
+			}
+		}
+		if (iteration > (Integer.MAX_VALUE >>> 8) - 1000) {
+			iteration = 0;
+			Arrays.fill(ttKeys, 0);
+			Arrays.fill(ttValues, 0);
+		}
+	}
+}
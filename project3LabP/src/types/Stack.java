@@ -34,6 +34,22 @@ public interface Stack<E> extends Iterable<E> {
      */
     void pop();
 
+    /**
+     * Número de elementos na pilha
+     * 
+     * @return O número de elementos na pilha
+     */
+    int size();
+
+    /**
+     * O elemento na posição i, a contar da base da pilha
+     * 
+     * @param i A posição do elemento, sendo 0 a base e size() - 1 o topo
+     * @return O elemento na posição i
+     * @requires 0 <= i < size()
+     */
+    E get(int i);
+
     /**
      * Esta pilha está vazia?
      * 
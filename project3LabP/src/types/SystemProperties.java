@@ -0,0 +1,37 @@
+package types;
+
+/**
+ * Lê as propriedades de sistema que escolhem as estratégias usadas por omissão.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+final class SystemProperties {
+
+	private SystemProperties() {
+	}
+
+	/**
+	 * Obtém a constante cujo nome é o valor da propriedade, sem distinguir
+	 * maiúsculas de minúsculas. Um valor desconhecido é ignorado com um aviso,
+	 * para que uma propriedade mal escrita não impeça o jogo de começar.
+	 *
+	 * @param property  o nome da propriedade de sistema
+	 * @param constants as constantes possíveis
+	 * @param fallback  a constante usada se a propriedade não estiver definida ou
+	 *                  não for válida
+	 * @return a constante escolhida
+	 */
+	static <E extends Enum<E>> E enumValue(String property, E[] constants, E fallback) {
+		String value = System.getProperty(property);
+		if (value == null) {
+			return fallback;
+		}
+		for (E constant : constants) {
+			if (constant.name().equalsIgnoreCase(value.trim())) {
+				return constant;
+			}
+		}
+		System.err.println("Valor desconhecido para " + property + ": " + value + "; a usar " + fallback);
+		return fallback;
+	}
+}
@@ -1,10 +1,37 @@
 package types;
 
 import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 
 /**
- * Esta classe representa uma mesa de garrafas.
+ * Esta classe representa uma mesa de garrafas. Os símbolos das garrafas vêm de
+ * uma {@link Palette}, que pode ser construída a partir de {@link Filling}s ou
+ * ter até {@value Palette#MAX_SYMBOLS} símbolos.
+ * 
+ * Para mesas com centenas de garrafas, o tamanho, o topo e a capacidade de cada
+ * garrafa são guardados em arrays paralelos, atualizados sempre que a mesa
+ * altera uma garrafa. Assim as consultas não percorrem as garrafas, o fim da
+ * ronda é um contador de garrafas por resolver e os destinos possíveis de uma
+ * jogada estão em conjuntos de bits por código do topo. A mesa passa a ser dona
+ * das garrafas que recebe: alterá-las por fora deixa estes dados incoerentes.
+ * 
+ * Os goles são guardados da forma escolhida pelo {@link Layout}. Com o
+ * {@link Layout#BUFFER} não há objetos {@link Bottle}: os goles de todas as
+ * garrafas estão num só {@code byte[]}, com capacity posições por garrafa, e o
+ * número de goles de cada uma num {@code byte[]} paralelo. Percorrer as
+ * garrafas lê memória contígua e copiar a mesa com {@link #copy()} é uma cópia
+ * de arrays. As garrafas acrescentadas com {@link #addBottle(Bottle)} são
+ * copiadas para o buffer.
+ * 
+ * Uma mesa pode ser guardada num {@link Snapshot} e reposta mais tarde com
+ * {@link #restore(Snapshot)}, por exemplo para experimentar jogadas e voltar
+ * atrás. O estado do gerador de aleatórios é guardado como o tipo, a semente e
+ * o número de mesas já geradas, porque os geradores não deixam ler o seu
+ * estado.
  * 
  * @author Rodrigo Frutuoso 61865
  */
@@ -14,10 +41,133 @@ public class Table {
 	public static final int DIFFICULTY = 3; // grau de dificuldade
 	public static final int DEFAULT_BOTTLE_CAPACITY = 5; // tamanho por defeito das garrafas
 
-	private Bottle[] table;
-	private final Filling[] symbols;
-	private final int capacity;
-	private final Random rd;
+	/**
+	 * Nome da propriedade de sistema com o {@link Generator} usado por omissão.
+	 */
+	public static final String PROPERTY = "types.table.generator";
+
+	/**
+	 * Nome da propriedade de sistema com o {@link Layout} usado por omissão.
+	 */
+	public static final String LAYOUT_PROPERTY = "types.table.layout";
+
+	/**
+	 * Os geradores de aleatórios com que as garrafas podem ser preenchidas. Todos
+	 * são reproduzíveis a partir da semente e cada mesa tem o seu, por isso
+	 * várias threads podem gerar mesas ao mesmo tempo sem partilhar estado.
+	 */
+	public enum Generator {
+		/**
+		 * {@link Random}, sorteando cada gole e repetindo quando o símbolo já foi
+		 * usado capacity vezes: as mesas de sempre
+		 */
+		LEGACY,
+		/** {@link SplittableRandom}, baralhando os goles uma só vez */
+		SPLITTABLE,
+		/** O algoritmo L64X128MixRandom, baralhando os goles uma só vez */
+		L64X128;
+
+		/**
+		 * O gerador escolhido pela propriedade {@value Table#PROPERTY}, sem
+		 * distinguir maiúsculas de minúsculas, ou {@link #LEGACY} se não estiver
+		 * definida ou não for válida.
+		 */
+		public static final Generator DEFAULT = SystemProperties.enumValue(PROPERTY, values(), LEGACY);
+
+		/**
+		 * Cria um gerador de aleatórios deste tipo
+		 * 
+		 * @param seed a semente
+		 * @return o gerador criado
+		 */
+		public RandomGenerator create(long seed) {
+			switch (this) {
+			case SPLITTABLE:
+				return new SplittableRandom(seed);
+			case L64X128:
+				return RandomGeneratorFactory.of("L64X128MixRandom").create(seed);
+			default:
+				return new Random(seed);
+			}
+		}
+	}
+
+	/**
+	 * As formas de guardar as garrafas da mesa.
+	 */
+	public enum Layout {
+		/** Um objeto {@link Bottle} por garrafa, o comportamento original */
+		BOTTLES,
+		/** Os goles de todas as garrafas num só array de bytes */
+		BUFFER;
+
+		/**
+		 * A forma escolhida pela propriedade {@value Table#LAYOUT_PROPERTY}, sem
+		 * distinguir maiúsculas de minúsculas, ou {@link #BOTTLES} se não estiver
+		 * definida ou não for válida.
+		 */
+		public static final Layout DEFAULT = SystemProperties.enumValue(LAYOUT_PROPERTY, values(), BOTTLES);
+
+		/**
+		 * Cria um armazenamento sem garrafas desta forma
+		 * 
+		 * @param palette  a paleta dos símbolos das garrafas
+		 * @param capacity a capacidade das garrafas
+		 * @return o armazenamento criado
+		 * @throws IllegalArgumentException se a capacidade não couber nesta forma
+		 */
+		TableStorage create(Palette palette, int capacity) {
+			return this == BUFFER ? new BufferStorage(capacity) : new BottlesStorage(palette);
+		}
+	}
+
+	/**
+	 * O estado de uma mesa, guardado por {@link Table#snapshot(Snapshot)}. Os
+	 * arrays são reutilizados de uma mesa para a seguinte e só crescem, por isso
+	 * guardar a mesma mesa várias vezes no mesmo snapshot não cria objetos.
+	 */
+	public static final class Snapshot {
+		private Palette palette;
+		private Generator generator;
+		private int seed;
+		private long generations;
+		private int usedSymbols;
+		private int capacity;
+		private int count;
+		private int[] capacities = new int[0];
+		private int[] sizes = new int[0];
+		private byte[] codes = new byte[0]; // os goles de todas as garrafas, seguidos
+
+		/**
+		 * Quantas garrafas tinha a mesa guardada.
+		 * 
+		 * @return o número de garrafas
+		 */
+		public int bottles() {
+			return count;
+		}
+	}
+
+	private final TableStorage storage;
+	private int count;
+	private final Palette palette;
+	private int usedSymbols;
+	private int capacity;
+	private Generator generator;
+	private int seed;
+	private RandomGenerator rd;
+	private long generations; // mesas geradas com rd
+
+	// dados de cada garrafa, lidos do armazenamento sempre que ela muda
+	private int[] sizes;
+	private int[] tops; // -1 se a garrafa estiver vazia
+	private int[] capacities;
+	private boolean[] solved; // vazia ou cheia com um só tipo
+	private int unsolved;
+
+	// conjuntos de bits: garrafas vazias e, por código do topo, garrafas não cheias
+	private long[] empties;
+	private final long[][] open;
 
 	/**
 	 * Constrói uma mesa cujas garrafas estão preenchidas com elementos de symbols,
@@ -30,33 +180,331 @@ public class Table {
 	 * @param capacity            capacidade máxima das garrafas
 	 */
 	public Table(Filling[] symbols, int numberOfUsedSymbols, int seed, int capacity) {
-		int minimo = Math.min(numberOfUsedSymbols, symbols.length);
-		this.table = new Bottle[minimo + DIFFICULTY];
-		this.symbols = Arrays.copyOf(symbols, minimo);
-		rd = new Random(seed);
+		this(Palette.of(symbols), numberOfUsedSymbols, seed, capacity);
+	}
+
+	/**
+	 * Constrói uma mesa cujas garrafas estão preenchidas com os primeiros
+	 * numberOfUsedSymbols símbolos da paleta.
+	 * 
+	 * @param palette             todos os símbolos possíveis de usar no jogo
+	 * @param numberOfUsedSymbols número de símbolos a ser usados
+	 * @param seed                para gerar o conteúdo das garrafas de forma
+	 *                            aleatória, escolhendo entre os símbolos possíveis
+	 * @param capacity            capacidade máxima das garrafas
+	 */
+	public Table(Palette palette, int numberOfUsedSymbols, int seed, int capacity) {
+		this(palette, numberOfUsedSymbols, seed, capacity, Generator.DEFAULT);
+	}
+
+	/**
+	 * Constrói uma mesa cujas garrafas estão preenchidas com os primeiros
+	 * numberOfUsedSymbols símbolos da paleta, sorteados com o gerador dado.
+	 * 
+	 * @param palette             todos os símbolos possíveis de usar no jogo
+	 * @param numberOfUsedSymbols número de símbolos a ser usados
+	 * @param seed                para gerar o conteúdo das garrafas de forma
+	 *                            aleatória, escolhendo entre os símbolos possíveis
+	 * @param capacity            capacidade máxima das garrafas
+	 * @param generator           o tipo de gerador de aleatórios
+	 */
+	public Table(Palette palette, int numberOfUsedSymbols, int seed, int capacity, Generator generator) {
+		this(palette, numberOfUsedSymbols, seed, capacity, generator, Layout.DEFAULT);
+	}
+
+	/**
+	 * Constrói uma mesa cujas garrafas estão preenchidas com os primeiros
+	 * numberOfUsedSymbols símbolos da paleta, sorteados com o gerador dado e
+	 * guardadas da forma dada.
+	 * 
+	 * @param palette             todos os símbolos possíveis de usar no jogo
+	 * @param numberOfUsedSymbols número de símbolos a ser usados
+	 * @param seed                para gerar o conteúdo das garrafas de forma
+	 *                            aleatória, escolhendo entre os símbolos possíveis
+	 * @param capacity            capacidade máxima das garrafas
+	 * @param generator           o tipo de gerador de aleatórios
+	 * @param layout              a forma de guardar as garrafas
+	 * @throws IllegalArgumentException se a capacidade não couber no
+	 *                                  {@link Layout#BUFFER}
+	 */
+	public Table(Palette palette, int numberOfUsedSymbols, int seed, int capacity, Generator generator,
+			Layout layout) {
+		int minimo = Math.min(numberOfUsedSymbols, palette.size());
+		this.count = minimo + DIFFICULTY;
+		this.palette = palette;
+		this.open = new long[palette.size()][];
 		this.capacity = capacity;
+		this.storage = layout.create(palette, capacity);
+		allocate(count);
+		this.usedSymbols = minimo;
+		this.generator = generator;
+		this.seed = seed;
+		rd = generator.create(seed);
 		regenerateTable();
 	}
 
+	/**
+	 * Constrói uma cópia independente de other, com a mesma forma de guardar as
+	 * garrafas. A cópia tem um gerador novo com a mesma semente, por isso
+	 * regenerá-la repete as mesas desde o início.
+	 */
+	private Table(Table other) {
+		this.count = other.count;
+		this.palette = other.palette;
+		this.usedSymbols = other.usedSymbols;
+		this.capacity = other.capacity;
+		this.generator = other.generator;
+		this.seed = other.seed;
+		this.rd = generator.create(seed);
+		this.storage = other.storage.copy(count);
+		this.sizes = other.sizes.clone();
+		this.tops = other.tops.clone();
+		this.capacities = other.capacities.clone();
+		this.solved = other.solved.clone();
+		this.unsolved = other.unsolved;
+		this.empties = other.empties.clone();
+		this.open = new long[other.open.length][];
+		for (int code = 0; code < open.length; code++) {
+			if (other.open[code] != null) {
+				open[code] = other.open[code].clone();
+			}
+		}
+	}
+
+	/**
+	 * Cria uma cópia desta mesa que pode ser alterada sem alterar esta, por
+	 * exemplo numa pesquisa. Com o {@link Layout#BUFFER} os goles são copiados de
+	 * uma só vez.
+	 * 
+	 * @return a cópia
+	 */
+	public Table copy() {
+		return new Table(this);
+	}
+
 	/**
 	 * Constroí uma nova mesa de garrafas com o mesmo esquema do construtor
 	 */
 	public void regenerateTable() {
-		int[] counter = new int[symbols.length];
-		for (int i = 0; i < table.length; i++) {
-			Filling[] simbolos = new Filling[capacity];
-			if (i < table.length - DIFFICULTY) {
-				for (int j = capacity - 1; j >= 0; j--) {
-					int indice;
-					do {
-						indice = rd.nextInt(symbols.length);
-					} while (counter[indice] == capacity);
-					simbolos[j] = symbols[indice];
-					counter[indice]++;
+		GameEvents.TableGeneration event = GameEvents.active() ? new GameEvents.TableGeneration() : null;
+		if (event != null) {
+			event.begin();
+		}
+		int retries = generate();
+		for (int i = usedSymbols; i < count; i++) {
+			storage.fill(i, new int[0], capacity);
+		}
+		reindex();
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.bottles = count;
+				event.capacity = capacity;
+				event.retries = retries;
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Enche as primeiras usedSymbols garrafas com o gerador da mesa
+	 * 
+	 * @return quantos sorteios foram repetidos
+	 */
+	private int generate() {
+		if (rd == null) {
+			// depois de adopt o gerador ficou para trás
+			long target = generations;
+			rd = generator.create(seed);
+			generations = 0;
+			while (generations < target) {
+				generate();
+			}
+		}
+		generations++;
+		return generator == Generator.LEGACY ? fillLegacy() : fillShuffled();
+	}
+
+	/**
+	 * Guarda o estado desta mesa num snapshot novo.
+	 * 
+	 * @return o snapshot
+	 */
+	public Snapshot snapshot() {
+		return snapshot(new Snapshot());
+	}
+
+	/**
+	 * Guarda o estado desta mesa, substituindo o que o snapshot tinha: o conteúdo
+	 * e a capacidade de cada garrafa e o estado do gerador de aleatórios.
+	 * 
+	 * @param into o snapshot a reutilizar
+	 * @return into
+	 */
+	public Snapshot snapshot(Snapshot into) {
+		into.palette = palette;
+		into.generator = generator;
+		into.seed = seed;
+		into.generations = generations;
+		into.usedSymbols = usedSymbols;
+		into.capacity = capacity;
+		into.count = count;
+		if (into.sizes.length < count) {
+			into.sizes = new int[sizes.length];
+			into.capacities = new int[sizes.length];
+		}
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += sizes[i];
+		}
+		if (into.codes.length < total) {
+			into.codes = new byte[Math.max(total, count * capacity)];
+		}
+		int k = 0;
+		for (int i = 0; i < count; i++) {
+			into.sizes[i] = sizes[i];
+			into.capacities[i] = capacities[i];
+			storage.copyCodes(i, into.codes, k);
+			k += sizes[i];
+		}
+		return into;
+	}
+
+	/**
+	 * Repõe esta mesa no estado guardado em snapshot, no lugar. Se a mesa tiver
+	 * o mesmo gerador no mesmo estado do snapshot, e garrafas suficientes com as
+	 * mesmas capacidades, não cria objetos; senão o gerador é recriado a partir da
+	 * semente e avançado até ao mesmo número de mesas geradas.
+	 * 
+	 * @param snapshot o estado a repor
+	 * @throws IllegalArgumentException se o snapshot for de uma mesa com outra
+	 *                                  paleta
+	 */
+	public void restore(Snapshot snapshot) {
+		if (!snapshot.palette.equals(palette)) {
+			throw new IllegalArgumentException("O snapshot é de uma mesa com outra paleta");
+		}
+		if (snapshot.count > sizes.length || snapshot.usedSymbols > sizes.length) {
+			allocate(Math.max(snapshot.count, snapshot.usedSymbols));
+		}
+		if (!sameRounds(snapshot)) {
+			rewind(snapshot);
+		}
+		count = snapshot.count;
+		int k = 0;
+		for (int i = 0; i < count; i++) {
+			int size = snapshot.sizes[i];
+			storage.fit(snapshot.capacities[i]);
+			storage.restore(i, snapshot.codes, k, size, snapshot.capacities[i]);
+			k += size;
+		}
+		reindex();
+	}
+
+	/**
+	 * Diz se as próximas mesas geradas por esta mesa e pela do snapshot são as
+	 * mesmas
+	 */
+	boolean sameRounds(Snapshot snapshot) {
+		return snapshot.generator == generator && snapshot.seed == seed && snapshot.generations == generations
+				&& snapshot.usedSymbols == usedSymbols && snapshot.capacity == capacity;
+	}
+
+	/**
+	 * Passa a ter as garrafas de round, guardado depois de
+	 * {@link #regenerateTable()} numa cópia desta mesa, como se fosse esta a
+	 * gerá-las: as primeiras garrafas ficam com os goles de round e as restantes
+	 * vazias. O gerador só é posto em dia quando esta mesa voltar a gerar.
+	 * 
+	 * @param round a mesa gerada
+	 * @throws IllegalArgumentException se round for de outra configuração
+	 */
+	void adopt(Snapshot round) {
+		if (!round.palette.equals(palette) || round.generator != generator || round.seed != seed
+				|| round.usedSymbols != usedSymbols || round.capacity != capacity) {
+			throw new IllegalArgumentException("A mesa gerada é de outra configuração");
+		}
+		int k = 0;
+		for (int i = 0; i < usedSymbols; i++) {
+			int[] codes = new int[round.sizes[i]];
+			for (int level = 0; level < codes.length; level++) {
+				codes[level] = round.codes[k + level] & 0xFF;
+			}
+			storage.fill(i, codes, capacity);
+			k += codes.length;
+		}
+		for (int i = usedSymbols; i < count; i++) {
+			storage.fill(i, new int[0], capacity);
+		}
+		generations = round.generations;
+		rd = null;
+		reindex();
+	}
+
+	/**
+	 * Recria o gerador do snapshot e gera tantas mesas quantas ele já tinha
+	 * gerado, para que as próximas sejam as mesmas
+	 */
+	private void rewind(Snapshot snapshot) {
+		generator = snapshot.generator;
+		seed = snapshot.seed;
+		usedSymbols = snapshot.usedSymbols;
+		capacity = snapshot.capacity;
+		storage.fit(capacity);
+		rd = generator.create(seed);
+		generations = 0;
+		while (generations < snapshot.generations) {
+			generate();
+		}
+	}
+
+	/**
+	 * Enche as primeiras usedSymbols garrafas sorteando cada gole e voltando a
+	 * sortear os símbolos já esgotados, como sempre foi feito
+	 * 
+	 * @return quantos sorteios foram repetidos
+	 */
+	private int fillLegacy() {
+		int retries = 0;
+		int[] counter = new int[usedSymbols];
+		for (int i = 0; i < usedSymbols; i++) {
+			int[] simbolos = new int[capacity];
+			for (int j = 0; j < simbolos.length; j++) {
+				int indice = rd.nextInt(usedSymbols);
+				while (counter[indice] == capacity) {
+					retries++;
+					indice = rd.nextInt(usedSymbols);
 				}
+				simbolos[j] = indice;
+				counter[indice]++;
 			}
-			table[i] = new Bottle(simbolos);
+			storage.fill(i, simbolos, capacity);
+		}
+		return retries;
+	}
+
+	/**
+	 * Enche as primeiras usedSymbols garrafas com uma permutação aleatória
+	 * (Fisher-Yates) de capacity goles de cada símbolo, com exatamente um sorteio
+	 * por gole
+	 * 
+	 * @return 0, porque nenhum sorteio é repetido
+	 */
+	private int fillShuffled() {
+		int[] goles = new int[usedSymbols * capacity];
+		for (int k = 0; k < goles.length; k++) {
+			goles[k] = k / capacity;
 		}
+		for (int k = goles.length - 1; k > 0; k--) {
+			int j = rd.nextInt(k + 1);
+			int gole = goles[k];
+			goles[k] = goles[j];
+			goles[j] = gole;
+		}
+		for (int i = 0; i < usedSymbols; i++) {
+			storage.fill(i, Arrays.copyOfRange(goles, i * capacity, (i + 1) * capacity), capacity);
+		}
+		return 0;
 	}
 
 	/**
@@ -67,7 +515,7 @@ public class Table {
      * @return true se essa garrafa é composta por um só tipo, se não false
 	 */
 	public boolean singleFilling(int i) {
-		return table[i].isSingleFilling();
+		return sizes[i] == 0 || storage.topRun(i) == sizes[i];
 	}
 
 	/**
@@ -77,7 +525,7 @@ public class Table {
 	 * @return true se essa garrafa está vazia, se não false
 	 */
 	public boolean isEmpty(int i) {
-		return table[i].isEmpty();
+		return sizes[i] == 0;
 	}
 
 	/**
@@ -87,7 +535,42 @@ public class Table {
 	 * @return true se essa garrafa está cheia, se não false
 	 */
 	public boolean isFull(int i) {
-		return table[i].isFull();
+		return sizes[i] == capacities[i];
+	}
+
+	/**
+	 * Diz quantos goles iguais ao do topo estão seguidos no topo da garrafa i, ou
+	 * seja, quantos goles uma jogada pode verter de i de uma vez
+	 * 
+	 * @param i o índice da garrafa
+	 * @return o comprimento da sequência do topo, 0 se estiver vazia
+	 */
+	public int topRun(int i) {
+		if (sizes[i] == 0) {
+			return 0;
+		}
+		return storage.topRun(i);
+	}
+
+	/**
+	 * Diz se a garrafa com índice i está vazia ou cheia com um só tipo de
+	 * conteúdo
+	 * 
+	 * @param i o índice da garrafa
+	 * @return true se essa garrafa está resolvida, se não false
+	 */
+	public boolean isSolved(int i) {
+		return solved[i];
+	}
+
+	/**
+	 * Diz quantas garrafas ainda não estão vazias nem cheias com um só tipo de
+	 * conteúdo
+	 * 
+	 * @return o número de garrafas por resolver
+	 */
+	public int unsolvedBottles() {
+		return unsolved;
 	}
 
 	/**
@@ -98,12 +581,7 @@ public class Table {
 	 *         false
 	 */
 	public boolean areAllFilled() {
-		for (Bottle bottle : table) {
-			if (!bottle.isEmpty() && (!bottle.isFull() || !bottle.isSingleFilling())) {
-				return false;
-			}
-		}
-		return true;
+		return unsolved == 0;
 	}
 
 	/**
@@ -114,11 +592,33 @@ public class Table {
 	 * @param j novo local desse gole i
 	 */
 	public void pourFromTo(int i, int j) {
-		if (table[j].receive(table[i].top())) {
-			table[i].pourOut();
+		int code = topCode(i);
+		if (sizes[j] < capacities[j] && (sizes[j] == 0 || tops[j] == code)) {
+			storage.pour(i, j);
+			refresh(i);
+			refresh(j);
 		}
 	}
 
+	/**
+	 * Procura uma garrafa para onde se pode verter o topo da garrafa i: de
+	 * preferência uma garrafa não cheia com o mesmo topo, senão uma garrafa
+	 * vazia. Percorre os conjuntos de bits 64 garrafas de cada vez.
+	 * 
+	 * @param i o índice da garrafa de onde verter
+	 * @return o índice de uma garrafa de destino, ou -1 se não houver nenhuma
+	 */
+	public int findTarget(int i) {
+		if (sizes[i] == 0) {
+			return -1;
+		}
+		int j = nextSetBit(open[tops[i]], 0);
+		if (j == i) {
+			j = nextSetBit(open[tops[i]], i + 1);
+		}
+		return j >= 0 ? j : nextSetBit(empties, 0);
+	}
+
 	/**
 	 * Adiciona uma nova garrafa ao conjunto de garrafas da mesa
 	 * 
@@ -126,8 +626,31 @@ public class Table {
 	 */
 
 	public void addBottle(Bottle bottle) {
-		table = Arrays.copyOf(table, table.length + 1);
-		table[table.length - 1] = bottle;
+		if (count == sizes.length) {
+			allocate(Math.max(count + 1, count + (count >> 1)));
+		}
+		Bottle own = bottle.palette().equals(palette) ? bottle : recode(bottle);
+		storage.fit(own.capacity());
+		storage.add(count, own);
+		sizes[count] = 0;
+		solved[count] = true;
+		refresh(count++);
+	}
+
+	/**
+	 * Cria uma cópia da garrafa com os códigos desta mesa, para garrafas
+	 * construídas com outra paleta
+	 * 
+	 * @param bottle a garrafa a copiar
+	 * @return a garrafa com os mesmos símbolos nesta paleta
+	 * @throws IllegalArgumentException se algum símbolo não pertence à paleta
+	 */
+	private Bottle recode(Bottle bottle) {
+		int[] codes = new int[bottle.size()];
+		for (int k = 0; k < codes.length; k++) {
+			codes[k] = palette.code(bottle.palette().symbol(bottle.codeAt(k)));
+		}
+		return new Bottle(codes, bottle.capacity(), palette);
 	}
 
 	/**
@@ -145,7 +668,7 @@ public class Table {
 	 * @return quantidade de garrafas
 	 */
 	public int getNumberBottles() {
-		return table.length;
+		return count;
 	}
 
 	/**
@@ -154,9 +677,173 @@ public class Table {
 	 * 
      * @param i o índice da garrafa
 	 * @return o gole que está no topo dessa garrafa i
+	 * @throws IllegalStateException se o gole não é um {@link Filling}, numa
+	 *                               paleta maior; nesse caso usar
+	 *                               {@link #topCode(int)}
 	 */
 	public Filling top(int i) {
-		return table[i].top();
+		return palette.filling(topCode(i));
+	}
+
+	/**
+	 * Quando a garrafa não está vazia, diz qual o código do gole que se encontra
+	 * no topo da garrafa no índice i
+	 * 
+	 * @param i o índice da garrafa
+	 * @return o código do gole que está no topo dessa garrafa i
+	 */
+	public int topCode(int i) {
+		if (sizes[i] == 0) {
+			throw new EmptyStackException();
+		}
+		return tops[i];
+	}
+
+	/**
+	 * Diz quantos goles tem a garrafa com índice i
+	 * 
+	 * @param i o índice da garrafa
+	 * @return o número de goles dessa garrafa
+	 */
+	public int size(int i) {
+		return sizes[i];
+	}
+
+	/**
+	 * Diz quantos goles cabem na garrafa com índice i
+	 * 
+	 * @param i o índice da garrafa
+	 * @return a capacidade dessa garrafa
+	 */
+	public int capacity(int i) {
+		return capacities[i];
+	}
+
+	/**
+	 * Obtém o código do gole da garrafa i na posição level, a contar da base
+	 * 
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return o código do gole nessa posição
+	 * @requires {@code 0 <= level < size(i)}
+	 */
+	public int codeAt(int i, int level) {
+		return storage.codeAt(i, level);
+	}
+
+	/**
+	 * Obtém a paleta dos símbolos da mesa
+	 * 
+	 * @return a paleta da mesa
+	 */
+	public Palette getPalette() {
+		return palette;
+	}
+
+	/**
+	 * Obtém a representação do gole da garrafa i na posição level, a contar da
+	 * base, ou {@link #EMPTY} se essa posição estiver vazia
+	 * 
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return a representação do gole nessa posição
+	 */
+	public String cell(int i, int level) {
+		return level < sizes[i] ? palette.symbol(codeAt(i, level)) : EMPTY;
+	}
+
+	/**
+	 * Aumenta os arrays da mesa para n garrafas
+	 */
+	private void allocate(int n) {
+		storage.allocate(n);
+		sizes = sizes == null ? new int[n] : Arrays.copyOf(sizes, n);
+		tops = tops == null ? new int[n] : Arrays.copyOf(tops, n);
+		capacities = capacities == null ? new int[n] : Arrays.copyOf(capacities, n);
+		solved = solved == null ? new boolean[n] : Arrays.copyOf(solved, n);
+		int words = (n + 63) >>> 6;
+		empties = empties == null ? new long[words] : Arrays.copyOf(empties, words);
+		for (int code = 0; code < open.length; code++) {
+			if (open[code] != null) {
+				open[code] = Arrays.copyOf(open[code], words);
+			}
+		}
+	}
+
+	/**
+	 * Recalcula os dados de todas as garrafas
+	 */
+	private void reindex() {
+		Arrays.fill(empties, 0);
+		for (long[] bits : open) {
+			if (bits != null) {
+				Arrays.fill(bits, 0);
+			}
+		}
+		unsolved = 0;
+		for (int i = 0; i < count; i++) {
+			solved[i] = true;
+			sizes[i] = 0;
+			tops[i] = -1;
+			refresh(i);
+		}
+	}
+
+	/**
+	 * Atualiza os dados da garrafa i depois de ela ter sido alterada
+	 */
+	private void refresh(int i) {
+		if (sizes[i] == 0) {
+			clearBit(empties, i);
+		}
+		else if (sizes[i] < capacities[i]) {
+			clearBit(open[tops[i]], i);
+		}
+		if (!solved[i]) {
+			unsolved--;
+		}
+		sizes[i] = storage.size(i);
+		capacities[i] = storage.capacity(i);
+		tops[i] = sizes[i] == 0 ? -1 : storage.codeAt(i, sizes[i] - 1);
+		solved[i] = sizes[i] == 0 || sizes[i] == capacities[i] && storage.topRun(i) == sizes[i];
+		if (sizes[i] == 0) {
+			setBit(empties, i);
+		}
+		else if (sizes[i] < capacities[i]) {
+			if (open[tops[i]] == null) {
+				open[tops[i]] = new long[empties.length];
+			}
+			setBit(open[tops[i]], i);
+		}
+		if (!solved[i]) {
+			unsolved++;
+		}
+	}
+
+	private static void setBit(long[] bits, int i) {
+		bits[i >>> 6] |= 1L << i;
+	}
+
+	private static void clearBit(long[] bits, int i) {
+		bits[i >>> 6] &= ~(1L << i);
+	}
+
+	private static int nextSetBit(long[] bits, int from) {
+		if (bits == null) {
+			return -1;
+		}
+		int w = from >>> 6;
+		if (w >= bits.length) {
+			return -1;
+		}
+		long word = bits[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == bits.length) {
+				return -1;
+			}
+			word = bits[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
 	}
 
 	/**
@@ -165,13 +852,8 @@ public class Table {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		for (int i = capacity - 1; i >= 0; i--) {
-			for (Bottle bottle : table) {
-				if (i < bottle.getContent().length) {
-					sb.append(bottle.getContent()[i] + "    ");
-				} 
-				else {
-					sb.append(EMPTY + "    ");
-				}
+			for (int k = 0; k < count; k++) {
+				sb.append(cell(k, i)).append("    ");
 			}
 			sb.append(EOL);
 		}
@@ -0,0 +1,121 @@
+package types;
+
+/**
+ * Armazenamento das garrafas de uma {@link Table}, escolhido pelo
+ * {@link Table.Layout}. Os goles são guardados pelo seu código na paleta da
+ * mesa, da base (posição 0) para o topo. A mesa guarda à parte o tamanho, o
+ * topo e a capacidade de cada garrafa, por isso só os consulta aqui quando uma
+ * garrafa muda.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+interface TableStorage {
+
+	/**
+	 * Cria uma cópia independente das primeiras count garrafas
+	 *
+	 * @param count o número de garrafas a copiar
+	 * @return a cópia
+	 */
+	TableStorage copy(int count);
+
+	/**
+	 * Aumenta o armazenamento para n garrafas, mantendo as que já tem
+	 *
+	 * @param n o número de garrafas
+	 */
+	void allocate(int n);
+
+	/**
+	 * Garante que cabem garrafas de capacidade capacity
+	 *
+	 * @param capacity a capacidade
+	 * @throws IllegalArgumentException se a capacidade não couber neste
+	 *                                  armazenamento
+	 */
+	void fit(int capacity);
+
+	/**
+	 * Põe na garrafa i os goles com os códigos dados, da base para o topo
+	 *
+	 * @param i        o índice da garrafa
+	 * @param codes    os códigos dos goles
+	 * @param capacity a capacidade da garrafa
+	 * @requires {@code fit(capacity)} já foi chamado
+	 */
+	void fill(int i, int[] codes, int capacity);
+
+	/**
+	 * Põe a garrafa dada, com os códigos da paleta da mesa, na posição i
+	 *
+	 * @param i      o índice da garrafa
+	 * @param bottle a garrafa
+	 * @requires {@code fit(bottle.capacity())} já foi chamado
+	 */
+	void add(int i, Bottle bottle);
+
+	/**
+	 * Repõe na garrafa i size goles guardados em codes a partir de from
+	 *
+	 * @param i        o índice da garrafa
+	 * @param codes    os códigos dos goles, um por byte
+	 * @param from     a posição do primeiro gole em codes
+	 * @param size     o número de goles
+	 * @param capacity a capacidade da garrafa
+	 * @requires {@code fit(capacity)} já foi chamado
+	 */
+	void restore(int i, byte[] codes, int from, int size, int capacity);
+
+	/**
+	 * Copia os goles da garrafa i para into, a partir de at
+	 *
+	 * @param i    o índice da garrafa
+	 * @param into onde copiar os códigos, um por byte
+	 * @param at   a posição do primeiro gole em into
+	 */
+	void copyCodes(int i, byte[] into, int at);
+
+	/**
+	 * Verte o gole do topo da garrafa i para a garrafa j
+	 *
+	 * @param i o índice da garrafa de onde verter
+	 * @param j o índice da garrafa para onde verter
+	 * @requires a garrafa i não está vazia e a garrafa j pode receber o gole
+	 */
+	void pour(int i, int j);
+
+	/**
+	 * Diz quantos goles tem a garrafa i
+	 *
+	 * @param i o índice da garrafa
+	 * @return o número de goles
+	 */
+	int size(int i);
+
+	/**
+	 * Diz quantos goles cabem na garrafa i
+	 *
+	 * @param i o índice da garrafa
+	 * @return a capacidade da garrafa
+	 */
+	int capacity(int i);
+
+	/**
+	 * Obtém o código do gole da garrafa i na posição level
+	 *
+	 * @param i     o índice da garrafa
+	 * @param level a posição na garrafa, sendo 0 a base
+	 * @return o código do gole
+	 * @requires {@code 0 <= level < size(i)}
+	 */
+	int codeAt(int i, int level);
+
+	/**
+	 * Diz quantos goles iguais ao do topo estão seguidos no topo da garrafa i
+	 *
+	 * @param i o índice da garrafa
+	 * @return o comprimento da sequência do topo
+	 * @requires {@code size(i) > 0}
+	 */
+	int topRun(int i);
+}
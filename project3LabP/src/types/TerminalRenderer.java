@@ -0,0 +1,255 @@
+package types;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Desenha o jogo no terminal. Cada ecrã é composto num único StringBuilder e
+ * escrito de uma só vez. Em terminais ANSI, depois de uma jogada só são
+ * redesenhadas as duas garrafas envolvidas, a pontuação e o estado, usando
+ * posicionamento do cursor; nos restantes terminais o ecrã é sempre desenhado
+ * por inteiro, exatamente como antes.
+ *
+ * Quando as garrafas não cabem na largura do terminal só é desenhada uma janela
+ * de garrafas consecutivas, que acompanha as jogadas; o custo de cada ecrã
+ * depende do tamanho da janela e não do número de garrafas da mesa.
+ *
+ * @author Rodrigo Frutuoso 61865
+ */
+public class TerminalRenderer {
+	public static final String EOL = System.lineSeparator();
+
+	/**
+	 * Nome da propriedade de sistema que força ({@code true}) ou desliga
+	 * ({@code false}) o uso de sequências ANSI.
+	 */
+	public static final String PROPERTY = "types.ansi";
+
+	/**
+	 * Nome da propriedade de sistema com a largura do terminal em colunas, usada
+	 * antes da variável de ambiente COLUMNS.
+	 */
+	public static final String COLUMNS_PROPERTY = "types.columns";
+
+	private static final int DEFAULT_COLUMNS = 80;
+
+	private static final String CSI = "\u001b[";
+	private static final int CELL_WIDTH = 6; // emoji com 2 colunas e 4 espaços
+	private static final int FIRST_ROW = 7; // linha da garrafa mais alta no ecrã
+
+	private final PrintStream out;
+	private final boolean ansi;
+	private final int width; // número máximo de garrafas desenhadas
+	private final StringBuilder sb = new StringBuilder(1024);
+
+	private Game game;
+	private int bottles;
+	private int first; // primeira garrafa da janela
+	private int shown; // quantas garrafas tem a janela
+	private int promptRow;
+	private int lastFrameBytes;
+
+	/**
+	 * Constrói um renderer que escreve em out, usando ANSI se o terminal o
+	 * suportar.
+	 *
+	 * @param out onde escrever
+	 */
+	public TerminalRenderer(PrintStream out) {
+		this(out, detectAnsi(), detectColumns());
+	}
+
+	/**
+	 * Constrói um renderer que escreve em out e desenha sempre todas as
+	 * garrafas.
+	 *
+	 * @param out  onde escrever
+	 * @param ansi se podem ser usadas sequências ANSI
+	 */
+	public TerminalRenderer(PrintStream out, boolean ansi) {
+		this(out, ansi, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Constrói um renderer que escreve em out e desenha só as garrafas que cabem
+	 * em columns colunas (pelo menos uma).
+	 *
+	 * @param out     onde escrever
+	 * @param ansi    se podem ser usadas sequências ANSI
+	 * @param columns a largura do terminal em colunas
+	 */
+	public TerminalRenderer(PrintStream out, boolean ansi, int columns) {
+		this.out = out;
+		this.ansi = ansi;
+		this.width = Math.max(1, columns / CELL_WIDTH);
+	}
+
+	/**
+	 * Diz se o terminal atual aceita sequências ANSI: é interativo e TERM não é
+	 * "dumb", a menos que a propriedade {@value #PROPERTY} diga o contrário.
+	 *
+	 * @return true se podem ser usadas sequências ANSI
+	 */
+	public static boolean detectAnsi() {
+		String forced = System.getProperty(PROPERTY);
+		if (forced != null) {
+			return Boolean.parseBoolean(forced);
+		}
+		String term = System.getenv("TERM");
+		return System.console() != null && term != null && !term.equals("dumb");
+	}
+
+	/**
+	 * Diz a largura do terminal: a propriedade {@value #COLUMNS_PROPERTY}, a
+	 * variável de ambiente COLUMNS ou, sem nenhuma delas, 80.
+	 *
+	 * @return o número de colunas do terminal
+	 */
+	public static int detectColumns() {
+		String columns = System.getProperty(COLUMNS_PROPERTY, System.getenv("COLUMNS"));
+		try {
+			return columns == null ? DEFAULT_COLUMNS : Integer.parseInt(columns.trim());
+		}
+		catch (NumberFormatException e) {
+			return DEFAULT_COLUMNS;
+		}
+	}
+
+	/**
+	 * Desenha o ecrã completo: cabeçalho da ronda, índices, jogo e pedido de
+	 * jogada.
+	 *
+	 * @param game  o jogo a desenhar
+	 * @param round o número da ronda
+	 */
+	public void frame(Game game, int round) {
+		this.game = game;
+		this.bottles = game.getNumberBottles();
+		this.shown = Math.min(bottles, width);
+		this.first = Math.max(0, Math.min(first, bottles - shown));
+		sb.setLength(0);
+		if (ansi) {
+			sb.append(CSI).append('H').append(CSI).append("2J");
+		}
+		sb.append(EOL);
+		dashes();
+		for (int i = 0; i < shown * 5 / 2 - 2; i++) {
+			sb.append(' ');
+		}
+		sb.append(" Ronda ").append(round).append(' ');
+		if (shown < bottles) {
+			sb.append("(garrafas ").append(first).append('-').append(first + shown - 1).append(" de ").append(bottles)
+					.append(") ");
+		}
+		sb.append(EOL);
+		dashes();
+		for (int i = first; i < first + shown; i++) {
+			int start = sb.length();
+			sb.append(i).append(' ');
+			while (sb.length() - start < CELL_WIDTH) {
+				sb.append(' ');
+			}
+		}
+		sb.append(EOL);
+		sb.append(score()).append(EOL);
+		for (int level = game.getSizeBottles() - 1; level >= 0; level--) {
+			for (int i = first; i < first + shown; i++) {
+				sb.append(game.cell(i, level)).append("    ");
+			}
+			sb.append(EOL);
+		}
+		sb.append(status()).append(EOL).append(moves()).append(EOL).append(EOL);
+		promptRow = FIRST_ROW + game.getSizeBottles() + 3;
+		if (game.score() >= 100) {
+			sb.append("Se precisar de mais de uma garrafa escreva 'ajuda'").append(EOL);
+			promptRow++;
+		}
+		sb.append("Escolha sua jogada (no formato 'i j', onde i e j são os índices das garrafas):").append(EOL);
+		flush();
+	}
+
+	/**
+	 * Atualiza o ecrã depois da jogada de i para j. Sem ANSI, ou se o jogo ou o
+	 * número de garrafas mudou desde o último ecrã, desenha o ecrã completo. Se
+	 * alguma das garrafas está fora da janela, a janela passa a mostrar j e, se
+	 * couber, também i.
+	 *
+	 * @param game  o jogo a desenhar
+	 * @param round o número da ronda
+	 * @param i     a garrafa de onde se verteu
+	 * @param j     a garrafa para onde se verteu
+	 */
+	public void move(Game game, int round, int i, int j) {
+		if (!visible(i) || !visible(j)) {
+			first = Math.abs(i - j) < shown ? Math.min(i, j) : j - shown / 2;
+			frame(game, round);
+			return;
+		}
+		if (!ansi || game != this.game || game.getNumberBottles() != bottles) {
+			frame(game, round);
+			return;
+		}
+		int capacity = game.getSizeBottles();
+		sb.setLength(0);
+		line(FIRST_ROW - 1, score());
+		column(i, capacity);
+		column(j, capacity);
+		line(FIRST_ROW + capacity, status());
+		line(FIRST_ROW + capacity + 1, moves());
+		// apaga a jogada escrita e as mensagens de erro anteriores
+		sb.append(CSI).append(promptRow + 1).append(";1H").append(CSI).append('J');
+		flush();
+	}
+
+	/**
+	 * Quantos bytes ocupou o último ecrã escrito, codificado em UTF-8.
+	 *
+	 * @return o tamanho em bytes do último ecrã
+	 */
+	public int lastFrameBytes() {
+		return lastFrameBytes;
+	}
+
+	private boolean visible(int bottle) {
+		return bottle >= first && bottle < first + shown;
+	}
+
+	// as linhas de Game.toString, sem percorrer as garrafas
+	private String score() {
+		return "Score: " + game.score();
+	}
+
+	private String status() {
+		return game.isRoundFinished() ? "Status: This round is finished." : "Status: The round is not finished.";
+	}
+
+	private String moves() {
+		return game.jogadas() + (game.isRoundFinished() ? " moves were used." : " moves have been used until now.");
+	}
+
+	private void dashes() {
+		for (int i = 0; i < shown * 5 + 4; i++) {
+			sb.append('-');
+		}
+		sb.append(EOL);
+	}
+
+	private void line(int row, String text) {
+		sb.append(CSI).append(row).append(";1H").append(text).append(CSI).append('K');
+	}
+
+	private void column(int bottle, int capacity) {
+		int col = (bottle - first) * CELL_WIDTH + 1;
+		for (int level = capacity - 1; level >= 0; level--) {
+			int row = FIRST_ROW + capacity - 1 - level;
+			sb.append(CSI).append(row).append(';').append(col).append('H').append(game.cell(bottle, level));
+		}
+	}
+
+	private void flush() {
+		String frame = sb.toString();
+		lastFrameBytes = frame.getBytes(StandardCharsets.UTF_8).length;
+		out.print(frame);
+		out.flush();
+	}
+}